@@ -657,6 +657,28 @@ public class SessionParameterMap extends LinkedHashMap<String, String> {
         put(SessionParameter.COMPRESSION, compression);
     }
 
+    /**
+     * Sets the content codings the client accepts if compression is on.
+     * 
+     * @param encodings
+     *            the content codings, the most preferred first, for example
+     *            {@code "zstd", "gzip"}
+     */
+    public void setCompressionEncodings(String... encodings) {
+        if (encodings != null && encodings.length > 0) {
+            StringBuilder sb = new StringBuilder();
+            for (String encoding : encodings) {
+                if (sb.length() > 0) {
+                    sb.append(',');
+                }
+                sb.append(encoding);
+            }
+            put(SessionParameter.COMPRESSION_ENCODINGS, sb.toString());
+        } else {
+            remove(SessionParameter.COMPRESSION_ENCODINGS);
+        }
+    }
+
     /**
      * Sets the user agent string.
      * 
@@ -682,6 +704,20 @@ public class SessionParameterMap extends LinkedHashMap<String, String> {
         put(SessionParameter.CLIENT_COMPRESSION, compression);
     }
 
+    /**
+     * Sets the content coding of compressed requests.
+     * 
+     * @param encoding
+     *            the content coding, for example {@code "gzip"}
+     */
+    public void setClientCompressionEncoding(String encoding) {
+        if (encoding != null) {
+            put(SessionParameter.CLIENT_COMPRESSION_ENCODING, encoding);
+        } else {
+            remove(SessionParameter.CLIENT_COMPRESSION_ENCODING);
+        }
+    }
+
     /**
      * Sets the CSRF HTTP header
      * 
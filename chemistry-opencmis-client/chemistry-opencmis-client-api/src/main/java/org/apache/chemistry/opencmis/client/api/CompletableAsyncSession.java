@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.api;
+
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+import org.apache.chemistry.opencmis.commons.data.Ace;
+import org.apache.chemistry.opencmis.commons.data.Acl;
+import org.apache.chemistry.opencmis.commons.data.ContentStream;
+import org.apache.chemistry.opencmis.commons.definitions.TypeDefinition;
+import org.apache.chemistry.opencmis.commons.enums.AclPropagation;
+import org.apache.chemistry.opencmis.commons.enums.UnfileObject;
+import org.apache.chemistry.opencmis.commons.enums.VersioningState;
+
+/**
+ * An {@link AsyncSession} that returns {@link CompletableFuture} objects.
+ * <p>
+ * The operations can be composed with the {@link CompletionStage} methods
+ * without blocking a thread, for example:
+ *
+ * <pre>
+ * asyncSession.getObjectByPath("/reports").thenCompose(folder -&gt; asyncSession.createDocument(props, folder,
+ *         content, null)).thenCompose(docId -&gt; asyncSession.setAcl(docId, aces));
+ * </pre>
+ *
+ * Cancelling a returned future with {@code cancel(true)} completes the future
+ * and interrupts the thread that runs the operation. Whether an HTTP request
+ * that is in progress is aborted depends on the HTTP invoker. The default
+ * invoker, the Apache HttpClient invokers, the OkHttp invoker and the JDK
+ * HttpClient invoker abort it. With other invokers, the request continues until the server has
+ * responded or the read timeout has expired, and its result is discarded.
+ * Cancelling a dependent stage doesn't cancel the operation it depends on.
+ * <p>
+ * The executor has a limited number of threads unless the caller provides
+ * one. Code that runs on the executor, for example in a
+ * {@code thenApplyAsync()} stage, must not wait for another operation with
+ * {@code join()} or {@code get()}. Compose the stages instead or provide an
+ * executor that can grow.
+ * <p>
+ * See {@link AsyncSession} for the description of the operations.
+ */
+public interface CompletableAsyncSession extends AsyncSession {
+
+    /**
+     * Returns the executor that runs the operations.
+     *
+     * @return the executor, not {@code null}
+     */
+    Executor getExecutor();
+
+    // --- types ---
+
+    @Override
+    CompletableFuture<ObjectType> getTypeDefinition(String typeId);
+
+    @Override
+    CompletableFuture<ObjectType> createType(TypeDefinition type);
+
+    @Override
+    CompletableFuture<ObjectType> updateType(TypeDefinition type);
+
+    @Override
+    CompletableFuture<?> deleteType(String typeId);
+
+    // --- objects ---
+
+    @Override
+    CompletableFuture<CmisObject> getObject(ObjectId objectId);
+
+    @Override
+    CompletableFuture<CmisObject> getObject(ObjectId objectId, OperationContext context);
+
+    @Override
+    CompletableFuture<CmisObject> getObject(String objectId);
+
+    @Override
+    CompletableFuture<CmisObject> getObject(String objectId, OperationContext context);
+
+    @Override
+    CompletableFuture<CmisObject> getObjectByPath(String path);
+
+    @Override
+    CompletableFuture<CmisObject> getObjectByPath(String path, OperationContext context);
+
+    @Override
+    CompletableFuture<CmisObject> getObjectByPath(String parentPath, String name);
+
+    @Override
+    CompletableFuture<CmisObject> getObjectByPath(String parentPath, String name, OperationContext context);
+
+    @Override
+    CompletableFuture<Document> getLatestDocumentVersion(ObjectId objectId);
+
+    @Override
+    CompletableFuture<Document> getLatestDocumentVersion(ObjectId objectId, OperationContext context);
+
+    @Override
+    CompletableFuture<Document> getLatestDocumentVersion(ObjectId objectId, boolean major, OperationContext context);
+
+    @Override
+    CompletableFuture<Document> getLatestDocumentVersion(String objectId);
+
+    @Override
+    CompletableFuture<Document> getLatestDocumentVersion(String objectId, OperationContext context);
+
+    @Override
+    CompletableFuture<Document> getLatestDocumentVersion(String objectId, boolean major, OperationContext context);
+
+    // --- create ---
+
+    @Override
+    CompletableFuture<ObjectId> createDocument(Map<String, ?> properties, ObjectId folderId,
+            ContentStream contentStream, VersioningState versioningState, List<Policy> policies, List<Ace> addAces,
+            List<Ace> removeAces);
+
+    @Override
+    CompletableFuture<ObjectId> createDocument(Map<String, ?> properties, ObjectId folderId,
+            ContentStream contentStream, VersioningState versioningState);
+
+    @Override
+    CompletableFuture<ObjectId> createDocumentFromSource(ObjectId source, Map<String, ?> properties, ObjectId folderId,
+            VersioningState versioningState, List<Policy> policies, List<Ace> addAces, List<Ace> removeAces);
+
+    @Override
+    CompletableFuture<ObjectId> createDocumentFromSource(ObjectId source, Map<String, ?> properties, ObjectId folderId,
+            VersioningState versioningState);
+
+    @Override
+    CompletableFuture<ObjectId> createFolder(Map<String, ?> properties, ObjectId folderId, List<Policy> policies,
+            List<Ace> addAces, List<Ace> removeAces);
+
+    @Override
+    CompletableFuture<ObjectId> createFolder(Map<String, ?> properties, ObjectId folderId);
+
+    @Override
+    CompletableFuture<ObjectId> createPolicy(Map<String, ?> properties, ObjectId folderId, List<Policy> policies,
+            List<Ace> addAces, List<Ace> removeAces);
+
+    @Override
+    CompletableFuture<ObjectId> createPolicy(Map<String, ?> properties, ObjectId folderId);
+
+    @Override
+    CompletableFuture<ObjectId> createItem(Map<String, ?> properties, ObjectId folderId, List<Policy> policies,
+            List<Ace> addAces, List<Ace> removeAces);
+
+    @Override
+    CompletableFuture<ObjectId> createItem(Map<String, ?> properties, ObjectId folderId);
+
+    @Override
+    CompletableFuture<ObjectId> createRelationship(Map<String, ?> properties, List<Policy> policies, List<Ace> addAces,
+            List<Ace> removeAces);
+
+    @Override
+    CompletableFuture<ObjectId> createRelationship(Map<String, ?> properties);
+
+    // --- content ---
+
+    @Override
+    CompletableFuture<ContentStream> getContentStream(ObjectId docId, String streamId, BigInteger offset,
+            BigInteger length);
+
+    @Override
+    CompletableFuture<ContentStream> getContentStream(ObjectId docId);
+
+    @Override
+    CompletableFuture<ContentStream> storeContentStream(ObjectId docId, String streamId, BigInteger offset,
+            BigInteger length, OutputStream target);
+
+    @Override
+    CompletableFuture<ContentStream> storeContentStream(ObjectId docId, OutputStream target);
+
+    // --- delete ---
+
+    @Override
+    CompletableFuture<?> delete(ObjectId objectId, boolean allVersions);
+
+    @Override
+    CompletableFuture<?> delete(ObjectId objectId);
+
+    @Override
+    CompletableFuture<List<String>> deleteTree(ObjectId folderId, boolean allVersions, UnfileObject unfile,
+            boolean continueOnFailure);
+
+    @Override
+    CompletableFuture<Acl> applyAcl(ObjectId objectId, List<Ace> addAces, List<Ace> removeAces,
+            AclPropagation aclPropagation);
+
+    @Override
+    CompletableFuture<Acl> setAcl(ObjectId objectId, List<Ace> aces);
+
+    // --- policy ---
+
+    @Override
+    CompletableFuture<?> applyPolicy(ObjectId objectId, ObjectId... policyIds);
+
+    @Override
+    CompletableFuture<?> removePolicy(ObjectId objectId, ObjectId... policyIds);
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.api;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Factory for {@link CompletableAsyncSession} objects.
+ * <p>
+ * This is a separate interface so that existing implementations of
+ * {@link AsyncSessionFactory} are not affected.
+ */
+public interface CompletableAsyncSessionFactory {
+
+    /**
+     * Creates a {@link CompletableAsyncSession} session object.
+     *
+     * @param session
+     *            the session, not {@code null}
+     * @param executor
+     *            the executor that runs the operations, or {@code null} to use
+     *            a pool of daemon threads that is shared by all completable
+     *            async sessions
+     *
+     * @return a new {@link CompletableAsyncSession} session object
+     *
+     * @see Session
+     */
+    CompletableAsyncSession createCompletableAsyncSession(Session session, Executor executor);
+}
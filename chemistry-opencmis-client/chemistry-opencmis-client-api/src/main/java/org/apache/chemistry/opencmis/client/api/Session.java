@@ -21,10 +21,16 @@ package org.apache.chemistry.opencmis.client.api;
 import java.io.Serializable;
 import java.math.BigInteger;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.chemistry.opencmis.commons.data.Ace;
 import org.apache.chemistry.opencmis.commons.data.Acl;
@@ -39,6 +45,7 @@ import org.apache.chemistry.opencmis.commons.enums.UnfileObject;
 import org.apache.chemistry.opencmis.commons.enums.VersioningState;
 import org.apache.chemistry.opencmis.commons.exceptions.CmisBaseException;
 import org.apache.chemistry.opencmis.commons.exceptions.CmisObjectNotFoundException;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
 import org.apache.chemistry.opencmis.commons.spi.CmisBinding;
 
 /**
@@ -75,6 +82,18 @@ public interface Session extends Serializable {
      */
     void clear();
 
+    /**
+     * Returns the statistics of all caches of this session, including the
+     * caches of the binding layer.
+     * <p>
+     * The default implementation returns an empty list.
+     * 
+     * @return a snapshot of the cache statistics
+     */
+    default List<CacheStatistics> getCacheStatistics() {
+        return Collections.emptyList();
+    }
+
     // session context
 
     /**
@@ -445,6 +464,82 @@ public interface Session extends Serializable {
      */
     CmisObject getObject(String objectId, OperationContext context);
 
+    /**
+     * Returns several CMIS objects at once, using the default
+     * {@link OperationContext}.
+     *
+     * @param objectIds
+     *            the object IDs
+     *
+     * @return the objects that exist, keyed by object ID
+     *
+     * @see #getObjects(Collection, OperationContext)
+     *
+     * @cmis 1.0
+     */
+    default Map<String, CmisObject> getObjects(Collection<? extends ObjectId> objectIds) {
+        return getObjects(objectIds, getDefaultContext());
+    }
+
+    /**
+     * Returns several CMIS objects at once.
+     * <p>
+     * Objects are taken from the session cache if possible. The other objects
+     * are loaded from the repository with as few calls as possible. If the
+     * repository supports metadata queries, the {@link OperationContext}
+     * doesn't request ACLs, policies or secondary type properties, and every
+     * property of the filter is queryable, the objects are loaded in batches
+     * with {@code cmis:objectId IN (...)} queries. For the filter {@code *},
+     * all properties of the object type must be queryable. Objects that
+     * cannot be found this way are loaded concurrently, one call per object.
+     * <p>
+     * The default implementation calls
+     * {@link #getObject(ObjectId, OperationContext)} for each ID.
+     * <p>
+     * Objects that are loaded by query differ from objects that are loaded by
+     * {@link #getObject(String, OperationContext)}:
+     * <ul>
+     * <li>They are not put into the session cache. Only objects that are
+     * loaded by single calls are cached.</li>
+     * <li>They don't contain the properties of secondary types.</li>
+     * <li>Depending on the repository, they may lack other data that query
+     * results don't provide, for example path segments, allowable actions or
+     * renditions.</li>
+     * </ul>
+     *
+     * @param objectIds
+     *            the object IDs
+     * @param context
+     *            the {@link OperationContext} to use
+     *
+     * @return the objects that exist, keyed by object ID, in the order of the
+     *         given IDs
+     *
+     * @see #getObject(String, OperationContext)
+     *
+     * @cmis 1.0
+     */
+    default Map<String, CmisObject> getObjects(Collection<? extends ObjectId> objectIds, OperationContext context) {
+        if (objectIds == null) {
+            throw new IllegalArgumentException("Object IDs must be set!");
+        }
+
+        Map<String, CmisObject> result = new LinkedHashMap<String, CmisObject>();
+        for (ObjectId objectId : objectIds) {
+            if (objectId == null || result.containsKey(objectId.getId())) {
+                continue;
+            }
+
+            try {
+                result.put(objectId.getId(), getObject(objectId, context));
+            } catch (CmisObjectNotFoundException e) {
+                // doesn't exist
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Returns a CMIS object from the session cache. If the object is not in the
      * cache or the cache is turned off per default {@link OperationContext}, it
@@ -802,6 +897,95 @@ public interface Session extends Serializable {
     ItemIterable<CmisObject> queryObjects(String typeId, String where, boolean searchAllVersions,
             OperationContext context);
 
+    /**
+     * Sends a query to the repository and fetches the result pages
+     * concurrently.
+     * <p>
+     * The result is split into page-sized {@code skipCount} partitions. Up to
+     * {@code concurrency} partitions are fetched at the same time and at most
+     * {@code concurrency} pages are held in memory. The stream returns the
+     * results in the order of the skip counts. The statement should have a
+     * stable order (for example, {@code ORDER BY cmis:objectId}), otherwise
+     * the repository may return a result twice or skip a result.
+     * <p>
+     * If the repository doesn't return the total number of results, the pages
+     * are fetched one after the other. Close the stream if it isn't consumed
+     * completely.
+     * <p>
+     * The default implementation fetches the pages one after the other with
+     * {@link #query(String, boolean, OperationContext)}.
+     *
+     * @param statement
+     *            the query statement (CMIS query language)
+     * @param searchAllVersions
+     *            specifies whether non-latest document versions should be
+     *            included or not, {@code true} searches all document versions,
+     *            {@code false} only searches latest document versions
+     * @param context
+     *            the operation context to use, the page size is taken from
+     *            {@link OperationContext#getMaxItemsPerPage()}
+     * @param concurrency
+     *            the maximum number of concurrent queries
+     * @param executor
+     *            the executor that runs the queries, or {@code null} to use a
+     *            shared pool of daemon threads
+     *
+     * @return a stream of the query results
+     *
+     * @cmis 1.0
+     */
+    default Stream<QueryResult> queryPartitioned(String statement, boolean searchAllVersions,
+            OperationContext context, int concurrency, Executor executor) {
+        return StreamSupport.stream(query(statement, searchAllVersions, context).spliterator(), false);
+    }
+
+    /**
+     * Sends several queries to the repository and returns the concatenated
+     * results. The pages of the results are fetched concurrently.
+     * <p>
+     * This is intended for result sets that are partitioned by predicates, for
+     * example, one statement per date range or per folder. The stream returns
+     * the results of the first statement, then the results of the second
+     * statement, and so on. See
+     * {@link #queryPartitioned(String, boolean, OperationContext, int, Executor)}
+     * for details.
+     * <p>
+     * The default implementation calls
+     * {@link #queryPartitioned(String, boolean, OperationContext, int, Executor)}
+     * for one statement after the other.
+     *
+     * @param statements
+     *            the query statements (CMIS query language)
+     * @param searchAllVersions
+     *            specifies whether non-latest document versions should be
+     *            included or not, {@code true} searches all document versions,
+     *            {@code false} only searches latest document versions
+     * @param context
+     *            the operation context to use
+     * @param concurrency
+     *            the maximum number of concurrent queries
+     * @param executor
+     *            the executor that runs the queries, or {@code null} to use a
+     *            shared pool of daemon threads
+     *
+     * @return a stream of the query results
+     *
+     * @cmis 1.0
+     */
+    default Stream<QueryResult> queryPartitioned(List<String> statements, final boolean searchAllVersions,
+            final OperationContext context, final int concurrency, final Executor executor) {
+        if (statements == null) {
+            throw new IllegalArgumentException("Statements must be set!");
+        }
+
+        return statements.stream().flatMap(new Function<String, Stream<QueryResult>>() {
+            @Override
+            public Stream<QueryResult> apply(String statement) {
+                return queryPartitioned(statement, searchAllVersions, context, concurrency, executor);
+            }
+        });
+    }
+
     /**
      * Creates a query statement.
      * <p>
@@ -0,0 +1,675 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi.http;
+
+import static org.apache.chemistry.opencmis.commons.impl.CollectionsHelper.isNotEmpty;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+import org.apache.chemistry.opencmis.client.bindings.impl.ClientVersion;
+import org.apache.chemistry.opencmis.client.bindings.impl.CmisBindingsHelper;
+import org.apache.chemistry.opencmis.client.bindings.spi.AbstractAuthenticationProvider;
+import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisBaseException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisConnectionException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
+import org.apache.chemistry.opencmis.commons.impl.UrlBuilder;
+import org.apache.chemistry.opencmis.commons.spi.AuthenticationProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * HTTP Invoker based on the {@code java.net.http} client (Java 11 or later).
+ * <p>
+ * The client negotiates HTTP/2 and falls back to HTTP/1.1 if the server
+ * doesn't support it. With HTTP/2, all concurrent requests to the same server
+ * are multiplexed over one connection. Sessions without their own SSL
+ * configuration share one client and thereby its connections. With HTTP/1.1
+ * servers, this invoker is not faster than the {@link DefaultHttpInvoker}.
+ * <p>
+ * Request bodies are streamed. The {@link Output} writes on the calling
+ * thread while the client sends the data. Asynchronous requests don't block
+ * the calling thread. Their bodies are written by a shared pool of at most
+ * {@link #MAX_WRITER_THREADS} writer threads because {@link Output} is a
+ * blocking API. Further bodies wait in a queue. Response bodies up to 64 KB
+ * and the first 128 KB of error pages are received completely before the
+ * response is returned, so that reading them doesn't block. Redirects are not
+ * followed because a streamed body cannot be sent a second time.
+ * <p>
+ * The session parameter {@link SessionParameter#READ_TIMEOUT} limits the time
+ * until the response headers have been received. The client uses the system
+ * proxies. Proxy authentication ({@link SessionParameter#PROXY_USER}) and
+ * custom {@link javax.net.ssl.SSLSocketFactory SSLSocketFactories} and
+ * {@link javax.net.ssl.HostnameVerifier HostnameVerifiers} provided by the
+ * authentication provider are not supported. Requests of sessions that use
+ * them fail with a {@link CmisRuntimeException}. Subclasses can override
+ * {@link #createSSLContext(BindingSession)} and
+ * {@link #createClientBuilder(BindingSession, SSLContext)} instead.
+ */
+public class JdkHttpClientHttpInvoker implements HttpInvoker, AsyncHttpInvoker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JdkHttpClientHttpInvoker.class);
+
+    /**
+     * Session parameter: HTTP version, either "2" or "1.1". (Optional. Default
+     * is "2".)
+     */
+    public static final String HTTP_VERSION = "org.apache.chemistry.opencmis.binding.httpinvoker.jdk.version";
+
+    protected static final String HTTP_CLIENT = "org.apache.chemistry.opencmis.client.bindings.spi.http.JdkHttpClientHttpInvoker.httpClient";
+
+    private static final ConcurrentMap<String, HttpClient> SHARED_CLIENTS = new ConcurrentHashMap<String, HttpClient>();
+
+    /** Maximum number of threads that write the bodies of asynchronous requests. */
+    public static final int MAX_WRITER_THREADS = 16;
+
+    /** Response bodies up to this size are received before the response is returned. */
+    private static final long MAX_BUFFERED_LENGTH = 64 * 1024;
+
+    /** Error pages are truncated after this size, like in {@link Response}. */
+    private static final int MAX_ERROR_LENGTH = 128 * 1024;
+
+    private static final ResponseBodyHandler RESPONSE_BODY_HANDLER = new ResponseBodyHandler();
+
+    private static final ThreadPoolExecutor BODY_WRITER;
+
+    static {
+        final AtomicInteger counter = new AtomicInteger();
+        BODY_WRITER = new ThreadPoolExecutor(MAX_WRITER_THREADS, MAX_WRITER_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "OpenCMIS JDK HTTP Body Writer " + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        BODY_WRITER.allowCoreThreadTimeOut(true);
+    }
+
+    public JdkHttpClientHttpInvoker() {
+    }
+
+    @Override
+    public Response invokeGET(UrlBuilder url, BindingSession session) {
+        return invoke(url, "GET", null, null, null, session, null, null);
+    }
+
+    @Override
+    public Response invokeGET(UrlBuilder url, BindingSession session, BigInteger offset, BigInteger length) {
+        return invoke(url, "GET", null, null, null, session, offset, length);
+    }
+
+    @Override
+    public Response invokePOST(UrlBuilder url, String contentType, Output writer, BindingSession session) {
+        return invoke(url, "POST", contentType, null, writer, session, null, null);
+    }
+
+    @Override
+    public Response invokePUT(UrlBuilder url, String contentType, Map<String, String> headers, Output writer,
+            BindingSession session) {
+        return invoke(url, "PUT", contentType, headers, writer, session, null, null);
+    }
+
+    @Override
+    public Response invokeDELETE(UrlBuilder url, BindingSession session) {
+        return invoke(url, "DELETE", null, null, null, session, null, null);
+    }
+
+    @Override
+    public CompletableFuture<Response> invokeGETAsync(UrlBuilder url, BindingSession session) {
+        return invokeAsync(url, "GET", null, null, null, session, null, null);
+    }
+
+    @Override
+    public CompletableFuture<Response> invokeGETAsync(UrlBuilder url, BindingSession session, BigInteger offset,
+            BigInteger length) {
+        return invokeAsync(url, "GET", null, null, null, session, offset, length);
+    }
+
+    @Override
+    public CompletableFuture<Response> invokePOSTAsync(UrlBuilder url, String contentType, Output writer,
+            BindingSession session) {
+        return invokeAsync(url, "POST", contentType, null, writer, session, null, null);
+    }
+
+    @Override
+    public CompletableFuture<Response> invokePUTAsync(UrlBuilder url, String contentType,
+            Map<String, String> headers, Output writer, BindingSession session) {
+        return invokeAsync(url, "PUT", contentType, headers, writer, session, null, null);
+    }
+
+    @Override
+    public CompletableFuture<Response> invokeDELETEAsync(UrlBuilder url, BindingSession session) {
+        return invokeAsync(url, "DELETE", null, null, null, session, null, null);
+    }
+
+    private Response invoke(UrlBuilder url, String method, String contentType, Map<String, String> headers,
+            Output writer, BindingSession session, BigInteger offset, BigInteger length) {
+        try {
+            // log before connect
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Session {}: {} {}", session.getSessionId(), method, url);
+            }
+
+            HttpClient httpclient = getHttpClient(session);
+            OutputBodyPublisher publisher = (writer == null ? null : new OutputBodyPublisher(
+                    writer instanceof FixedLengthOutput ? ((FixedLengthOutput) writer).getLength() : -1));
+            HttpRequest request = createRequest(url, method, contentType, headers, publisher, session, offset,
+                    length);
+
+            // send the request and stream the body on this thread, if present
+            CompletableFuture<HttpResponse<InputStream>> future = httpclient.sendAsync(request,
+                    RESPONSE_BODY_HANDLER);
+
+            if (publisher != null) {
+                try {
+                    publisher.write(writer, future);
+                } catch (Exception e) {
+                    future.cancel(true);
+                    throw new CmisConnectionException("Could not send stream to server: " + e.toString(), e);
+                }
+            }
+
+            HttpResponse<InputStream> httpResponse;
+            try {
+                httpResponse = future.get();
+            } catch (InterruptedException ie) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new CmisConnectionException("Interrupted while waiting for the response!", ie);
+            } catch (ExecutionException ee) {
+                throw toConnectionException(url, ee.getCause());
+            }
+
+            return createResponse(url, method, session, httpResponse);
+        } catch (CmisBaseException ce) {
+            throw ce;
+        } catch (Exception e) {
+            throw new CmisConnectionException(url.toString(), -1, e);
+        }
+    }
+
+    private CompletableFuture<Response> invokeAsync(final UrlBuilder url, final String method, String contentType,
+            Map<String, String> headers, final Output writer, final BindingSession session, BigInteger offset,
+            BigInteger length) {
+        try {
+            // log before connect
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Session {}: {} {} (async)", session.getSessionId(), method, url);
+            }
+
+            HttpClient httpclient = getHttpClient(session);
+            final OutputBodyPublisher publisher = (writer == null ? null : new OutputBodyPublisher(
+                    writer instanceof FixedLengthOutput ? ((FixedLengthOutput) writer).getLength() : -1));
+            HttpRequest request = createRequest(url, method, contentType, headers, publisher, session, offset,
+                    length);
+
+            final CompletableFuture<HttpResponse<InputStream>> future = httpclient.sendAsync(request,
+                    RESPONSE_BODY_HANDLER);
+
+            if (publisher != null) {
+                // Output is a blocking API -> write the body on another thread
+                BODY_WRITER.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            publisher.write(writer, future);
+                        } catch (Exception e) {
+                            future.completeExceptionally(new CmisConnectionException(
+                                    "Could not send stream to server: " + e.toString(), e));
+                        }
+                    }
+                });
+            }
+
+            return future.handle(new BiFunction<HttpResponse<InputStream>, Throwable, Response>() {
+                @Override
+                public Response apply(HttpResponse<InputStream> httpResponse, Throwable t) {
+                    if (t != null) {
+                        throw new CompletionException(toConnectionException(url, t));
+                    }
+
+                    return createResponse(url, method, session, httpResponse);
+                }
+            });
+        } catch (Exception e) {
+            CompletableFuture<Response> result = new CompletableFuture<Response>();
+            result.completeExceptionally(e instanceof CmisBaseException ? e : new CmisConnectionException(
+                    url.toString(), -1, e));
+            return result;
+        }
+    }
+
+    private HttpRequest createRequest(UrlBuilder url, String method, String contentType,
+            Map<String, String> headers, OutputBodyPublisher publisher, BindingSession session, BigInteger offset,
+            BigInteger length) {
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(URI.create(url.toString()));
+
+        int readTimeout = session.get(SessionParameter.READ_TIMEOUT, -1);
+        if (readTimeout > 0) {
+            requestBuilder.timeout(Duration.ofMillis(readTimeout));
+        }
+
+        if ("GET".equals(method)) {
+            requestBuilder.GET();
+        } else if ("POST".equals(method) || "PUT".equals(method)) {
+            requestBuilder.method(method,
+                    publisher != null ? publisher : HttpRequest.BodyPublishers.noBody());
+        } else if ("DELETE".equals(method)) {
+            requestBuilder.DELETE();
+        } else {
+            throw new CmisRuntimeException("Invalid HTTP method!");
+        }
+
+        // set content type
+        if (contentType != null) {
+            setHeader(requestBuilder, "Content-Type", contentType, true);
+        }
+        // set other headers
+        if (headers != null) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                setHeader(requestBuilder, header.getKey(), header.getValue(), false);
+            }
+        }
+
+        String userAgent = (String) session.get(SessionParameter.USER_AGENT, ClientVersion.OPENCMIS_USER_AGENT);
+
+        // authenticate
+        AuthenticationProvider authProvider = CmisBindingsHelper.getAuthenticationProvider(session);
+        if (authProvider != null) {
+            Map<String, List<String>> httpHeaders = authProvider.getHTTPHeaders(url.toString());
+            if (httpHeaders != null) {
+                for (Map.Entry<String, List<String>> header : httpHeaders.entrySet()) {
+                    if (header.getKey() != null && isNotEmpty(header.getValue())) {
+                        String key = header.getKey();
+                        if (key.equalsIgnoreCase("user-agent")) {
+                            userAgent = header.getValue().get(0);
+                        } else {
+                            for (String value : header.getValue()) {
+                                if (value != null) {
+                                    setHeader(requestBuilder, key, value, false);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        setHeader(requestBuilder, "User-Agent", userAgent, true);
+
+        // range
+        if (offset != null || length != null) {
+            StringBuilder sb = new StringBuilder("bytes=");
+
+            if ((offset == null) || (offset.signum() == -1)) {
+                offset = BigInteger.ZERO;
+            }
+
+            sb.append(offset.toString());
+            sb.append('-');
+
+            if (length != null && length.signum() == 1) {
+                sb.append(offset.add(length.subtract(BigInteger.ONE)).toString());
+            }
+
+            setHeader(requestBuilder, "Range", sb.toString(), true);
+        }
+
+        // compression
+        String acceptEncoding = CmisBindingsHelper.getAcceptEncoding(session);
+        if (acceptEncoding != null) {
+            setHeader(requestBuilder, "Accept-Encoding", acceptEncoding, true);
+        }
+
+        // locale
+        if (session.get(CmisBindingsHelper.ACCEPT_LANGUAGE) instanceof String) {
+            setHeader(requestBuilder, "Accept-Language", session.get(CmisBindingsHelper.ACCEPT_LANGUAGE)
+                    .toString(), true);
+        }
+
+        return requestBuilder.build();
+    }
+
+    private Response createResponse(UrlBuilder url, String method, BindingSession session,
+            HttpResponse<InputStream> httpResponse) {
+        // get stream, if present
+        int respCode = httpResponse.statusCode();
+        InputStream inputStream = null;
+        InputStream errorStream = null;
+
+        if (respCode == 200 || respCode == 201 || respCode == 203 || respCode == 206) {
+            inputStream = httpResponse.body();
+        } else {
+            errorStream = httpResponse.body();
+        }
+
+        Map<String, List<String>> responseHeaders = httpResponse.headers().map();
+
+        // log after connect
+        if (LOG.isTraceEnabled()) {
+            LOG.trace("Session {}: {} {} > Version: {}, Headers: {}", session.getSessionId(), method, url,
+                    httpResponse.version(), responseHeaders.toString());
+        }
+
+        // forward response HTTP headers
+        AuthenticationProvider authProvider = CmisBindingsHelper.getAuthenticationProvider(session);
+        if (authProvider != null) {
+            authProvider.putResponseHeaders(url.toString(), respCode, responseHeaders);
+        }
+
+        // get the response (HTTP/2 has no reason phrase)
+        return new Response(respCode, "", responseHeaders, inputStream, errorStream);
+    }
+
+    private static CmisConnectionException toConnectionException(UrlBuilder url, Throwable t) {
+        Throwable cause = t;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+
+        if (cause instanceof CmisConnectionException) {
+            return (CmisConnectionException) cause;
+        }
+
+        return new CmisConnectionException(url.toString(), -1, cause instanceof Exception ? (Exception) cause
+                : new Exception(cause));
+    }
+
+    private static void setHeader(HttpRequest.Builder requestBuilder, String name, String value, boolean replace) {
+        try {
+            if (replace) {
+                requestBuilder.setHeader(name, value);
+            } else {
+                requestBuilder.header(name, value);
+            }
+        } catch (IllegalArgumentException iae) {
+            // the client manages some headers itself, for example
+            // "Connection" and "Content-Length"
+            LOG.debug("Header '{}' has not been set: {}", name, iae.getMessage());
+        }
+    }
+
+    /**
+     * Returns the HTTP client of this session.
+     */
+    protected HttpClient getHttpClient(BindingSession session) throws GeneralSecurityException {
+        HttpClient httpclient = (HttpClient) session.get(HTTP_CLIENT);
+        if (httpclient == null) {
+            session.writeLock();
+            try {
+                httpclient = (HttpClient) session.get(HTTP_CLIENT);
+                if (httpclient == null) {
+                    checkSettings(session);
+
+                    SSLContext sslContext = createSSLContext(session);
+                    if (sslContext == null) {
+                        // share the client and its connections with all
+                        // sessions that have the same settings
+                        String key = getClass().getName() + '|' + session.get(HTTP_VERSION) + '|'
+                                + session.get(SessionParameter.CONNECT_TIMEOUT);
+                        httpclient = SHARED_CLIENTS.get(key);
+                        if (httpclient == null) {
+                            HttpClient newClient = createClientBuilder(session, null).build();
+                            httpclient = SHARED_CLIENTS.putIfAbsent(key, newClient);
+                            if (httpclient == null) {
+                                httpclient = newClient;
+                            }
+                        }
+                    } else {
+                        httpclient = createClientBuilder(session, sslContext).build();
+                    }
+                    session.put(HTTP_CLIENT, httpclient, true);
+                }
+            } finally {
+                session.writeUnlock();
+            }
+        }
+
+        return httpclient;
+    }
+
+    /**
+     * Rejects settings of the session that this client cannot apply, instead
+     * of sending requests without them.
+     */
+    private static void checkSettings(BindingSession session) {
+        if (session.get(SessionParameter.PROXY_USER) != null) {
+            throw new CmisRuntimeException("The JDK HTTP client doesn't support proxy authentication!");
+        }
+
+        AuthenticationProvider authProvider = CmisBindingsHelper.getAuthenticationProvider(session);
+        if (authProvider == null) {
+            return;
+        }
+
+        X509TrustManager tm = null;
+        if (authProvider instanceof AbstractAuthenticationProvider) {
+            tm = ((AbstractAuthenticationProvider) authProvider).getTrustManager();
+        }
+
+        if (tm == null && authProvider.getSSLSocketFactory() != null) {
+            throw new CmisRuntimeException(
+                    "The JDK HTTP client cannot use the SSLSocketFactory of the authentication provider!");
+        }
+
+        if (authProvider.getHostnameVerifier() != null) {
+            throw new CmisRuntimeException(
+                    "The JDK HTTP client cannot use the HostnameVerifier of the authentication provider!");
+        }
+    }
+
+    /**
+     * Creates the SSL context for this session.
+     *
+     * The default implementation uses the trust manager of the authentication
+     * provider, if present.
+     *
+     * @param session
+     *            the binding session
+     *
+     * @return the SSL context or {@code null} if the default SSL context
+     *         should be used
+     */
+    protected SSLContext createSSLContext(BindingSession session) throws GeneralSecurityException {
+        AuthenticationProvider authProvider = CmisBindingsHelper.getAuthenticationProvider(session);
+        if (authProvider == null) {
+            return null;
+        }
+
+        X509TrustManager tm = null;
+        if (authProvider instanceof AbstractAuthenticationProvider) {
+            tm = ((AbstractAuthenticationProvider) authProvider).getTrustManager();
+        }
+
+        if (tm == null) {
+            return null;
+        }
+
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, new TrustManager[] { tm }, null);
+
+        return sslContext;
+    }
+
+    /**
+     * Creates a HttpClient.Builder and configures it.
+     *
+     * Subclasses can override this method to make use of HttpClient specific
+     * features. Clients without SSL context are shared by all sessions with
+     * the same HTTP version and connect timeout.
+     *
+     * @param session
+     *            the binding session
+     * @param sslContext
+     *            the SSL context or {@code null} to use the default SSL
+     *            context
+     *
+     * @return the builder
+     */
+    protected HttpClient.Builder createClientBuilder(BindingSession session, SSLContext sslContext) {
+        HttpClient.Builder clientBuilder = HttpClient.newBuilder();
+
+        // HTTP version
+        if ("1.1".equals(session.get(HTTP_VERSION))) {
+            clientBuilder.version(HttpClient.Version.HTTP_1_1);
+        } else {
+            clientBuilder.version(HttpClient.Version.HTTP_2);
+        }
+
+        // don't follow redirects: the request body can only be sent once
+        clientBuilder.followRedirects(HttpClient.Redirect.NEVER);
+
+        // use the system proxies
+        ProxySelector proxySelector = ProxySelector.getDefault();
+        if (proxySelector != null) {
+            clientBuilder.proxy(proxySelector);
+        }
+
+        // timeouts
+        int connectTimeout = session.get(SessionParameter.CONNECT_TIMEOUT, -1);
+        if (connectTimeout > 0) {
+            clientBuilder.connectTimeout(Duration.ofMillis(connectTimeout));
+        }
+
+        if (sslContext != null) {
+            clientBuilder.sslContext(sslContext);
+        }
+
+        return clientBuilder;
+    }
+
+    /**
+     * Receives small response bodies and error pages completely and streams
+     * all other response bodies.
+     */
+    private static class ResponseBodyHandler implements HttpResponse.BodyHandler<InputStream> {
+        @Override
+        public HttpResponse.BodySubscriber<InputStream> apply(HttpResponse.ResponseInfo responseInfo) {
+            int code = responseInfo.statusCode();
+            boolean success = code == 200 || code == 201 || code == 203 || code == 206;
+            long length = responseInfo.headers().firstValueAsLong("Content-Length").orElse(-1);
+
+            // small bodies and error pages don't block the reading thread
+            if (!success) {
+                return new ErrorBodySubscriber();
+            }
+
+            if (length >= 0 && length <= MAX_BUFFERED_LENGTH) {
+                return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(),
+                        new Function<byte[], InputStream>() {
+                            @Override
+                            public InputStream apply(byte[] body) {
+                                return new ByteArrayInputStream(body);
+                            }
+                        });
+            }
+
+            return HttpResponse.BodySubscribers.ofInputStream();
+        }
+    }
+
+    /**
+     * Receives the first {@link #MAX_ERROR_LENGTH} bytes of an error page and
+     * cancels the rest.
+     */
+    private static class ErrorBodySubscriber implements HttpResponse.BodySubscriber<InputStream> {
+        private final CompletableFuture<InputStream> body = new CompletableFuture<InputStream>();
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+        private Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            if (body.isDone()) {
+                return;
+            }
+
+            for (ByteBuffer item : items) {
+                int len = Math.min(item.remaining(), MAX_ERROR_LENGTH - buffer.size());
+                if (item.hasArray()) {
+                    buffer.write(item.array(), item.arrayOffset() + item.position(), len);
+                } else {
+                    byte[] bytes = new byte[len];
+                    item.get(bytes);
+                    buffer.write(bytes, 0, len);
+                }
+
+                if (buffer.size() >= MAX_ERROR_LENGTH) {
+                    subscription.cancel();
+                    onComplete();
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            body.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            body.complete(new ByteArrayInputStream(buffer.toByteArray()));
+        }
+
+        @Override
+        public CompletableFuture<InputStream> getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.BiConsumer;
+
+/**
+ * Request body publisher that streams the data of an {@link Output}.
+ * <p>
+ * The {@link Output} writes on the calling thread, which would otherwise wait
+ * for the response. Data is handed over in chunks whenever the HTTP client
+ * requests more data. The body can only be sent once. If the length of the
+ * body is known, the {@link Output} must write exactly that many bytes.
+ */
+class OutputBodyPublisher implements HttpRequest.BodyPublisher {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final long contentLength;
+    private final Object lock = new Object();
+    private Flow.Subscriber<? super ByteBuffer> subscriber;
+    private long demand;
+    private boolean cancelled;
+    private boolean responseDone;
+    private boolean stopped;
+    private Exception failure;
+
+    /**
+     * Creates a publisher for a body with the given length, or -1 if the
+     * length is unknown.
+     */
+    OutputBodyPublisher(long contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    @Override
+    public long contentLength() {
+        // unknown -> chunked (HTTP/1.1) or a stream of DATA frames (HTTP/2)
+        return contentLength;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> newSubscriber) {
+        boolean rejected;
+        Exception error;
+        synchronized (lock) {
+            error = failure;
+            rejected = subscriber != null || error != null;
+            if (!rejected) {
+                subscriber = newSubscriber;
+                lock.notifyAll();
+            }
+        }
+
+        if (rejected) {
+            newSubscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            newSubscriber.onError(error != null ? error : new IOException("The request body cannot be sent twice!"));
+            return;
+        }
+
+        newSubscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                synchronized (lock) {
+                    demand = (Long.MAX_VALUE - demand < n ? Long.MAX_VALUE : demand + n);
+                    lock.notifyAll();
+                }
+            }
+
+            @Override
+            public void cancel() {
+                synchronized (lock) {
+                    cancelled = true;
+                    lock.notifyAll();
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes the body.
+     * <p>
+     * Returns early if the HTTP client doesn't want more data, for example,
+     * because the server has already responded.
+     *
+     * @param writer
+     *            the output that provides the body
+     * @param response
+     *            the pending response
+     */
+    void write(Output writer, CompletableFuture<?> response) throws Exception {
+        // wake up the writer when the response arrives early
+        response.whenComplete(new BiConsumer<Object, Throwable>() {
+            @Override
+            public void accept(Object result, Throwable t) {
+                synchronized (lock) {
+                    responseDone = true;
+                    lock.notifyAll();
+                }
+            }
+        });
+
+        ChunkOutputStream out = new ChunkOutputStream();
+        try {
+            writer.write(out);
+            out.finish();
+        } catch (Exception e) {
+            synchronized (lock) {
+                if (stopped) {
+                    // the client or the server has ended the request
+                    // (the output might have wrapped our exception)
+                    return;
+                }
+            }
+            fail(e, response);
+            throw e;
+        }
+    }
+
+    private void fail(Exception e, CompletableFuture<?> response) {
+        Exception error = (e instanceof IOException ? e : new IOException("Could not send stream to server: "
+                + e.toString(), e));
+
+        Flow.Subscriber<? super ByteBuffer> s;
+        synchronized (lock) {
+            s = (cancelled || response.isDone() ? null : subscriber);
+            cancelled = true;
+            // a late subscriber gets the error, too
+            failure = error;
+        }
+
+        if (s != null) {
+            s.onError(error);
+        }
+    }
+
+    /**
+     * Waits until the subscriber accepts the next chunk. Returns the
+     * subscriber.
+     */
+    private Flow.Subscriber<? super ByteBuffer> awaitDemand(boolean chunk) throws IOException {
+        synchronized (lock) {
+            while (!cancelled && (subscriber == null || (chunk && demand == 0))) {
+                if (responseDone) {
+                    stopped = true;
+                    throw new StopWritingException();
+                }
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while sending the request body!", e);
+                }
+            }
+
+            if (cancelled) {
+                stopped = true;
+                throw new StopWritingException();
+            }
+
+            if (chunk) {
+                demand--;
+            }
+
+            return subscriber;
+        }
+    }
+
+    /**
+     * Collects the written bytes into chunks.
+     */
+    private class ChunkOutputStream extends OutputStream {
+
+        private byte[] buffer = new byte[CHUNK_SIZE];
+        private int pos;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (pos == buffer.length) {
+                sendChunk();
+            }
+            buffer[pos++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (pos == buffer.length) {
+                    sendChunk();
+                }
+                int n = Math.min(len, buffer.length - pos);
+                System.arraycopy(b, off, buffer, pos, n);
+                pos += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        void finish() throws IOException {
+            if (pos > 0) {
+                sendChunk();
+            }
+            awaitDemand(false).onComplete();
+        }
+
+        private void sendChunk() throws IOException {
+            Flow.Subscriber<? super ByteBuffer> s = awaitDemand(true);
+            ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, pos);
+            // the client owns the chunk now
+            buffer = new byte[CHUNK_SIZE];
+            pos = 0;
+            s.onNext(chunk);
+        }
+    }
+
+    /**
+     * Signals that the body is not needed anymore.
+     */
+    private static class StopWritingException extends IOException {
+        private static final long serialVersionUID = 1L;
+    }
+}
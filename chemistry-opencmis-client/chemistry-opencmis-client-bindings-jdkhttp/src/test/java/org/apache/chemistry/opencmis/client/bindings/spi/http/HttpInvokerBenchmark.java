@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.chemistry.opencmis.client.bindings.impl.SessionImpl;
+import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
+import org.apache.chemistry.opencmis.commons.impl.IOUtils;
+import org.apache.chemistry.opencmis.commons.impl.UrlBuilder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Measures the request latency of HTTP invokers with many concurrent sessions
+ * against a local server.
+ * <p>
+ * Every session runs on its own thread and sends its requests one after the
+ * other, like an application thread would do. The JDK invoker is measured
+ * with HTTP/1.1 and with HTTP/2.
+ * <p>
+ * The local server only speaks HTTP/1.1. There, all sessions of the JDK
+ * invoker share one client whose I/O runs on a single selector thread, so it
+ * is expected to be slower than the {@link DefaultHttpInvoker}, which blocks
+ * one thread per connection. HTTP/2 multiplexing can only be measured against
+ * a server that supports HTTP/2, for example a HTTPS server or a proxy in
+ * front of a repository. Pass its URL as the fourth argument. The protocol
+ * that the server negotiates is printed.
+ * <p>
+ * Usage: {@code HttpInvokerBenchmark [sessions] [requests per session]
+ * [server delay in ms] [URL]}
+ */
+public class HttpInvokerBenchmark {
+
+    private static final byte[] RESPONSE = new byte[4 * 1024];
+
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 128;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        final int delay = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+
+        if (args.length > 3) {
+            System.out.println("Sessions: " + sessions + ", requests per session: " + requests + ", URL: "
+                    + args[3]);
+            benchmark(args[3], sessions, requests);
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(sessions * 2);
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), sessions * 2);
+        server.setExecutor(executor);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    exchange.getRequestBody().readAllBytes();
+                    if (delay > 0) {
+                        Thread.sleep(delay);
+                    }
+                    exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+                    exchange.sendResponseHeaders(200, RESPONSE.length);
+                    OutputStream out = exchange.getResponseBody();
+                    out.write(RESPONSE);
+                    out.close();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.start();
+
+        String url = "http://localhost:" + server.getAddress().getPort() + "/object";
+
+        try {
+            System.out.println("Sessions: " + sessions + ", requests per session: " + requests
+                    + ", server delay: " + delay + " ms");
+            benchmark(url, sessions, requests);
+        } finally {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private static void benchmark(String url, int sessions, int requests) throws Exception {
+        HttpResponse<Void> probe = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build()
+                .send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.discarding());
+        System.out.println("Server protocol: " + probe.version());
+
+        HttpInvoker[] invokers = { new DefaultHttpInvoker(), new JdkHttpClientHttpInvoker(),
+                new JdkHttpClientHttpInvoker() };
+        String[] versions = { null, "1.1", "2" };
+        for (int i = 0; i < invokers.length; i++) {
+            // warm up
+            run(invokers[i], versions[i], url, sessions, Math.max(1, requests / 10));
+            long[] latencies = run(invokers[i], versions[i], url, sessions, requests);
+            report(invokers[i].getClass().getSimpleName() + (versions[i] == null ? "" : " " + versions[i]),
+                    latencies);
+        }
+    }
+
+    private static long[] run(final HttpInvoker invoker, final String version, final String url, int sessions,
+            final int requests) throws InterruptedException {
+        final long[] latencies = new long[sessions * requests];
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(sessions);
+
+        for (int s = 0; s < sessions; s++) {
+            final int offset = s * requests;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    BindingSession session = new SessionImpl();
+                    if (version != null) {
+                        session.put(JdkHttpClientHttpInvoker.HTTP_VERSION, version);
+                    }
+                    try {
+                        start.await();
+                        for (int r = 0; r < requests; r++) {
+                            long begin = System.nanoTime();
+                            Response resp = invoker.invokeGET(new UrlBuilder(url), session);
+                            InputStream stream = resp.getStream();
+                            IOUtils.consumeAndClose(stream);
+                            latencies[offset + r] = System.nanoTime() - begin;
+                        }
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+            thread.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long total = System.nanoTime() - begin;
+
+        System.out.println(String.format("  %d requests in %d ms", latencies.length, total / 1000000));
+
+        return latencies;
+    }
+
+    private static void report(String name, long[] latencies) {
+        Arrays.sort(latencies);
+        System.out.println(String.format("%-28s p50: %7.2f ms  p90: %7.2f ms  p99: %7.2f ms  max: %7.2f ms", name,
+                percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                latencies[latencies.length - 1] / 1000000.0));
+    }
+
+    private static double percentile(long[] sorted, int p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1000000.0;
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.apache.chemistry.opencmis.client.bindings.impl.CmisBindingsHelper;
+import org.apache.chemistry.opencmis.client.bindings.impl.SessionImpl;
+import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisConnectionException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
+import org.apache.chemistry.opencmis.commons.impl.IOUtils;
+import org.apache.chemistry.opencmis.commons.impl.UrlBuilder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the java.net.http based HTTP invoker against a local server.
+ */
+public class JdkHttpClientHttpInvokerTest extends TestCase {
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private String baseUrl;
+
+    @Override
+    protected void setUp() throws Exception {
+        executor = Executors.newFixedThreadPool(16);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    String path = exchange.getRequestURI().getPath();
+                    byte[] body;
+                    int status = 200;
+                    if (path.equals("/echo")) {
+                        body = exchange.getRequestBody().readAllBytes();
+                    } else if (path.equals("/redirect")) {
+                        exchange.getRequestBody().readAllBytes();
+                        exchange.getResponseHeaders().set("Location", "/echo");
+                        status = 307;
+                        body = "moved".getBytes(IOUtils.UTF8);
+                    } else if (path.equals("/missing")) {
+                        status = 404;
+                        body = "not found".getBytes(IOUtils.UTF8);
+                    } else if (path.equals("/large-error")) {
+                        status = 500;
+                        body = new byte[1024 * 1024];
+                        Arrays.fill(body, (byte) 'x');
+                    } else {
+                        String range = exchange.getRequestHeaders().getFirst("Range");
+                        body = (exchange.getRequestMethod() + " " + range).getBytes(IOUtils.UTF8);
+                    }
+
+                    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+                    exchange.sendResponseHeaders(status, body.length);
+                    OutputStream out = exchange.getResponseBody();
+                    out.write(body);
+                    out.close();
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @Override
+    protected void tearDown() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public void testGet() throws Exception {
+        JdkHttpClientHttpInvoker invoker = new JdkHttpClientHttpInvoker();
+        BindingSession session = new SessionImpl();
+
+        Response resp = invoker.invokeGET(new UrlBuilder(baseUrl + "/get"), session);
+        assertEquals(200, resp.getResponseCode());
+        assertEquals("GET null", readBody(resp));
+
+        resp = invoker.invokeGET(new UrlBuilder(baseUrl + "/get"), session, BigInteger.TEN, BigInteger.TEN);
+        assertEquals("GET bytes=10-19", readBody(resp));
+
+        resp = invoker.invokeDELETE(new UrlBuilder(baseUrl + "/delete"), session);
+        assertEquals("DELETE null", readBody(resp));
+    }
+
+    public void testStreamedBody() throws Exception {
+        JdkHttpClientHttpInvoker invoker = new JdkHttpClientHttpInvoker();
+        BindingSession session = new SessionImpl();
+
+        // several chunks with an odd size
+        final byte[] data = new byte[300 * 1024 + 17];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+
+        Response resp = invoker.invokePOST(new UrlBuilder(baseUrl + "/echo"), "application/octet-stream",
+                new Output() {
+                    @Override
+                    public void write(OutputStream out) throws IOException {
+                        for (int i = 0; i < data.length; i += 1000) {
+                            out.write(data, i, Math.min(1000, data.length - i));
+                        }
+                    }
+                }, session);
+
+        assertEquals(200, resp.getResponseCode());
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        IOUtils.copy(resp.getStream(), received);
+        assertTrue(Arrays.equals(data, received.toByteArray()));
+
+        // empty body
+        resp = invoker.invokePUT(new UrlBuilder(baseUrl + "/echo"), "text/plain", null, new Output() {
+            @Override
+            public void write(OutputStream out) {
+            }
+        }, session);
+        assertEquals(200, resp.getResponseCode());
+        assertFalse(resp.hasResponseStream());
+    }
+
+    public void testOutputFailure() throws Exception {
+        JdkHttpClientHttpInvoker invoker = new JdkHttpClientHttpInvoker();
+        BindingSession session = new SessionImpl();
+
+        try {
+            invoker.invokePOST(new UrlBuilder(baseUrl + "/echo"), "text/plain", new Output() {
+                @Override
+                public void write(OutputStream out) throws IOException {
+                    out.write(new byte[100 * 1024]);
+                    throw new IOException("broken");
+                }
+            }, session);
+            fail("CmisConnectionException expected!");
+        } catch (CmisConnectionException e) {
+            assertTrue(e.getMessage().contains("broken"));
+        }
+    }
+
+    public void testRedirectNotFollowed() throws Exception {
+        JdkHttpClientHttpInvoker invoker = new JdkHttpClientHttpInvoker();
+        BindingSession session = new SessionImpl();
+
+        // the body has been sent, so the redirect is returned to the caller
+        Response resp = invoker.invokePOST(new UrlBuilder(baseUrl + "/redirect"), "text/plain", new Output() {
+            @Override
+            public void write(OutputStream out) throws IOException {
+                out.write("hello".getBytes(IOUtils.UTF8));
+            }
+        }, session);
+        assertEquals(307, resp.getResponseCode());
+        assertEquals("/echo", resp.getHeader("Location"));
+    }
+
+    public void testError() throws Exception {
+        JdkHttpClientHttpInvoker invoker = new JdkHttpClientHttpInvoker();
+        BindingSession session = new SessionImpl();
+
+        Response resp = invoker.invokeGET(new UrlBuilder(baseUrl + "/missing"), session);
+        assertEquals(404, resp.getResponseCode());
+        assertEquals("not found", resp.getErrorContent());
+
+        // only the first 128 KB of an error page are received
+        resp = invoker.invokeGET(new UrlBuilder(baseUrl + "/large-error"), session);
+        assertEquals(500, resp.getResponseCode());
+        assertEquals(128 * 1024, resp.getErrorContent().length());
+    }
+
+    public void testUnsupportedSettings() {
+        JdkHttpClientHttpInvoker invoker = new JdkHttpClientHttpInvoker();
+        BindingSession session = new SessionImpl();
+        session.put(SessionParameter.PROXY_USER, "user");
+
+        try {
+            invoker.invokeGET(new UrlBuilder(baseUrl + "/get"), session);
+            fail("CmisRuntimeException expected!");
+        } catch (CmisRuntimeException e) {
+            assertNull(session.get(JdkHttpClientHttpInvoker.HTTP_CLIENT));
+        }
+    }
+
+    public void testSharedClient() {
+        JdkHttpClientHttpInvoker invoker = new JdkHttpClientHttpInvoker();
+        BindingSession session1 = new SessionImpl();
+        BindingSession session2 = new SessionImpl();
+        BindingSession session3 = new SessionImpl();
+        session3.put(JdkHttpClientHttpInvoker.HTTP_VERSION, "1.1");
+
+        invoker.invokeGET(new UrlBuilder(baseUrl + "/get"), session1);
+        invoker.invokeGET(new UrlBuilder(baseUrl + "/get"), session2);
+        invoker.invokeGET(new UrlBuilder(baseUrl + "/get"), session3);
+
+        Object client = session1.get(JdkHttpClientHttpInvoker.HTTP_CLIENT);
+        assertNotNull(client);
+        assertSame(client, session2.get(JdkHttpClientHttpInvoker.HTTP_CLIENT));
+        assertNotSame(client, session3.get(JdkHttpClientHttpInvoker.HTTP_CLIENT));
+    }
+
+    public void testAsync() throws Exception {
+        JdkHttpClientHttpInvoker invoker = new JdkHttpClientHttpInvoker();
+        BindingSession session = new SessionImpl();
+        session.put(CmisBindingsHelper.HTTP_INVOKER_OBJECT, invoker, true);
+        assertSame(invoker, CmisBindingsHelper.getAsyncHttpInvoker(session));
+
+        checkAsync(invoker, session);
+    }
+
+    public void testBlockingAsync() throws Exception {
+        BindingSession session = new SessionImpl();
+        session.put(CmisBindingsHelper.HTTP_INVOKER_OBJECT, new DefaultHttpInvoker(), true);
+        AsyncHttpInvoker invoker = CmisBindingsHelper.getAsyncHttpInvoker(session);
+        assertTrue(invoker instanceof BlockingAsyncHttpInvoker);
+        assertSame(invoker, CmisBindingsHelper.getAsyncHttpInvoker(session));
+
+        checkAsync(invoker, session);
+    }
+
+    private void checkAsync(AsyncHttpInvoker invoker, BindingSession session) throws Exception {
+        List<CompletableFuture<Response>> futures = new ArrayList<CompletableFuture<Response>>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(invoker.invokeGETAsync(new UrlBuilder(baseUrl + "/get"), session));
+        }
+        for (CompletableFuture<Response> future : futures) {
+            assertEquals("GET null", readBody(future.get(10, TimeUnit.SECONDS)));
+        }
+
+        final byte[] data = "hello".getBytes(IOUtils.UTF8);
+        Response resp = invoker.invokePOSTAsync(new UrlBuilder(baseUrl + "/echo"), "text/plain", new Output() {
+            @Override
+            public void write(OutputStream out) throws IOException {
+                out.write(data);
+            }
+        }, session).get(10, TimeUnit.SECONDS);
+        assertEquals("hello", readBody(resp));
+
+        resp = invoker.invokeDELETEAsync(new UrlBuilder(baseUrl + "/missing"), session).get(10, TimeUnit.SECONDS);
+        assertEquals(404, resp.getResponseCode());
+        assertEquals("not found", resp.getErrorContent());
+
+        // connection errors complete the future exceptionally
+        server.stop(0);
+        try {
+            invoker.invokeGETAsync(new UrlBuilder(baseUrl + "/get"), session).get(10, TimeUnit.SECONDS);
+            fail("ExecutionException expected!");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CmisConnectionException);
+        }
+    }
+
+    private static String readBody(Response resp) throws IOException {
+        InputStream stream = resp.getStream();
+        try {
+            return new String(stream.readAllBytes(), resp.getCharset());
+        } finally {
+            IOUtils.closeQuietly(stream);
+        }
+    }
+}
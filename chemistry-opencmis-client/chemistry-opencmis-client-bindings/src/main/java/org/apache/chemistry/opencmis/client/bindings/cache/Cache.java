@@ -20,6 +20,8 @@ package org.apache.chemistry.opencmis.client.bindings.cache;
 
 import java.io.Serializable;
 
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
+
 /**
  * An interface for an hierarchical cache.
  * 
@@ -90,6 +92,18 @@ public interface Cache extends Serializable {
      */
     int check(String... keys);
 
+    /**
+     * Returns a snapshot of the statistics of this cache.
+     * <p>
+     * The default implementation returns {@code null}.
+     * 
+     * @return the statistics or {@code null} if this cache doesn't collect
+     *         statistics
+     */
+    default CacheStatistics getStatistics() {
+        return null;
+    }
+
     /**
      * Applies a write lock.
      */
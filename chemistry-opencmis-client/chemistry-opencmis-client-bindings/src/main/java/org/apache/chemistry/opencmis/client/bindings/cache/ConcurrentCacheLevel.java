@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.cache;
+
+/**
+ * A cache level that can be accessed by multiple threads without external
+ * locking.
+ * 
+ * @see org.apache.chemistry.opencmis.client.bindings.cache.impl.ConcurrentCacheImpl
+ */
+public interface ConcurrentCacheLevel extends CacheLevel {
+
+    /**
+     * Adds an object to the cache level if there is no object for the given
+     * key.
+     * 
+     * @param value
+     *            the object
+     * @param key
+     *            the key at this level
+     * @return the existing object or <code>null</code> if the object has been
+     *         added
+     */
+    Object putIfAbsent(Object value, String key);
+}
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.cache.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.chemistry.opencmis.client.bindings.cache.Cache;
+import org.apache.chemistry.opencmis.client.bindings.cache.CacheLevel;
+import org.apache.chemistry.opencmis.commons.impl.ClassLoaderUtil;
+
+/**
+ * Base class for hierarchical caches. It handles the level configuration and
+ * the statistics.
+ */
+public abstract class AbstractCacheImpl implements Cache {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<Class<?>> levels;
+    private List<Map<String, String>> levelParameters;
+
+    private final String name;
+    private final CacheStatisticsCollector statistics;
+
+    /**
+     * Constructor.
+     */
+    protected AbstractCacheImpl(String name) {
+        this.name = name;
+        this.statistics = new CacheStatisticsCollector(name);
+    }
+
+    /**
+     * Returns the name of this cache.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Parses the level configuration.
+     */
+    protected void initializeLevels(String[] cacheLevelConfig) {
+        if (levels != null) {
+            throw new IllegalStateException("Cache already initialize!");
+        }
+
+        if (cacheLevelConfig == null || cacheLevelConfig.length == 0) {
+            throw new IllegalArgumentException("Cache config must not be empty!");
+        }
+
+        levels = new ArrayList<Class<?>>(cacheLevelConfig.length);
+        levelParameters = new ArrayList<Map<String, String>>();
+
+        // build level lists
+        for (String config : cacheLevelConfig) {
+            int x = config.indexOf(' ');
+            if (x == -1) {
+                addLevel(config, null);
+            } else {
+                addLevel(config.substring(0, x), config.substring(x + 1));
+            }
+        }
+    }
+
+    private void addLevel(String className, String parameters) {
+        // get the class
+        Class<?> clazz;
+        try {
+            clazz = ClassLoaderUtil.loadClass(className, this.getClass().getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Class '" + className + "' not found!", e);
+        }
+
+        // check the class
+        if (!CacheLevel.class.isAssignableFrom(clazz)) {
+            throw new IllegalArgumentException("Class '" + className + "' does not implement the CacheLevel interface!");
+        }
+
+        checkLevelClass(clazz);
+
+        levels.add(clazz);
+
+        // process parameters
+        if (parameters == null) {
+            levelParameters.add(null);
+        } else {
+            Map<String, String> parameterMap = new HashMap<String, String>();
+            levelParameters.add(parameterMap);
+
+            for (String pair : parameters.split(",")) {
+                String[] keyValue = pair.split("=");
+                if (keyValue.length == 1) {
+                    parameterMap.put(keyValue[0], "");
+                } else {
+                    parameterMap.put(keyValue[0], keyValue[1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if a cache level class can be used with this cache. The default
+     * implementation accepts all classes.
+     * 
+     * @throws IllegalArgumentException
+     *             if the class cannot be used
+     */
+    protected void checkLevelClass(Class<?> clazz) {
+    }
+
+    /**
+     * Returns the number of levels.
+     */
+    protected int getLevelCount() {
+        return levels.size();
+    }
+
+    /**
+     * Returns the statistics collector of this cache.
+     */
+    protected CacheStatisticsCollector getStatisticsCollector() {
+        return statistics;
+    }
+
+    /**
+     * Creates a cache level object.
+     */
+    protected CacheLevel createCacheLevel(int level) {
+        if (level < 0 || level >= levels.size()) {
+            throw new IllegalArgumentException("Cache level doesn't fit the configuration!");
+        }
+
+        // get the class and create an instance
+        Class<?> clazz = levels.get(level);
+        CacheLevel cacheLevel = null;
+        try {
+            cacheLevel = (CacheLevel) clazz.getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Cache level problem?!", e);
+        }
+
+        // initialize it
+        cacheLevel.initialize(levelParameters.get(level));
+
+        if (cacheLevel instanceof AbstractMapCacheLevel) {
+            ((AbstractMapCacheLevel) cacheLevel).setStatistics(statistics);
+        }
+
+        return cacheLevel;
+    }
+
+    /**
+     * Counts the leaf entries below a cache level.
+     * 
+     * @return the number of entries or -1 if a level doesn't support counting
+     */
+    protected long countEntries(CacheLevel cacheLevel, int level) {
+        if (!(cacheLevel instanceof AbstractMapCacheLevel)) {
+            return -1;
+        }
+
+        Collection<Object> values = ((AbstractMapCacheLevel) cacheLevel).getValues();
+        if (level == levels.size() - 1) {
+            return values.size();
+        }
+
+        long result = 0;
+        for (Object child : values) {
+            long count = countEntries((CacheLevel) child, level + 1);
+            if (count < 0) {
+                return -1;
+            }
+            result += count;
+        }
+
+        return result;
+    }
+
+    protected static String getFormattedKeys(String[] keys) {
+        assert keys != null;
+
+        StringBuilder sb = new StringBuilder(32);
+        for (String k : keys) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(k);
+        }
+
+        return sb.toString();
+    }
+}
@@ -18,6 +18,8 @@
  */
 package org.apache.chemistry.opencmis.client.bindings.cache.impl;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 
 import org.apache.chemistry.opencmis.client.bindings.cache.CacheLevel;
@@ -33,6 +35,7 @@ public abstract class AbstractMapCacheLevel implements CacheLevel {
     private boolean fFallbackEnabled = false;
     private String fFallbackKey;
     private boolean fSingleValueEnabled = false;
+    private CacheStatisticsCollector fStatistics;
 
     @Override
     public abstract void initialize(Map<String, String> parameters);
@@ -47,7 +50,11 @@ public abstract class AbstractMapCacheLevel implements CacheLevel {
 
         if (value == null && fSingleValueEnabled) {
             if (fMap.size() == 1) {
-                value = fMap.values().iterator().next();
+                // the map might have changed in the meantime
+                Iterator<Object> iterator = fMap.values().iterator();
+                if (iterator.hasNext()) {
+                    value = iterator.next();
+                }
             }
         }
 
@@ -71,6 +78,13 @@ public abstract class AbstractMapCacheLevel implements CacheLevel {
         return fMap;
     }
 
+    /**
+     * Returns the values of this level.
+     */
+    protected Collection<Object> getValues() {
+        return fMap.values();
+    }
+
     /**
      * Sets the internal map.
      */
@@ -78,6 +92,22 @@ public abstract class AbstractMapCacheLevel implements CacheLevel {
         fMap = map;
     }
 
+    /**
+     * Sets the statistics collector of the cache this level belongs to.
+     */
+    void setStatistics(CacheStatisticsCollector statistics) {
+        fStatistics = statistics;
+    }
+
+    /**
+     * Records that an entry of this level has been evicted.
+     */
+    protected void recordEviction() {
+        if (fStatistics != null) {
+            fStatistics.recordEviction();
+        }
+    }
+
     /**
      * Enables a fallback key if no value was found for a requested key.
      */
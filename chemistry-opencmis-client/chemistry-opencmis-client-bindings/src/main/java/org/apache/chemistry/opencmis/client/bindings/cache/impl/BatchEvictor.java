@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.cache.impl;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Evicts the least recently used entries of a concurrent map in a batch.
+ * <p>
+ * If the map exceeds its limit, expired entries are removed first. If the
+ * limit is still exceeded, the least recently used entries are removed until
+ * the map is one batch below the limit, so that not every put triggers an
+ * eviction run. A batch is a sixteenth of the limit, but at least one entry.
+ * <p>
+ * Only one thread evicts at a time. Threads that exceed the limit while
+ * another thread evicts wait for it, so that the map cannot grow beyond the
+ * limit when entries are added faster than one thread can evict them. Reads
+ * never wait. The access times are read once per run because they can change
+ * while the least recently used entries are selected.
+ *
+ * @param <V>
+ *            the type of the map values
+ */
+public abstract class BatchEvictor<V> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Fraction of the limit that is evicted in one batch. */
+    public static final int BATCH_DIVISOR = 16;
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    /**
+     * Returns the limit minus one batch.
+     */
+    public static int belowBatch(int limit) {
+        return limit - Math.max(1, limit / BATCH_DIVISOR);
+    }
+
+    /**
+     * Returns the limit minus one batch.
+     */
+    public static long belowBatch(long limit) {
+        return limit - Math.max(1, limit / BATCH_DIVISOR);
+    }
+
+    /**
+     * Evicts entries if the map exceeds its limit.
+     *
+     * @param map
+     *            the map
+     */
+    public void evictIfNecessary(ConcurrentMap<String, V> map) {
+        if (!isOverLimit(map, false)) {
+            return;
+        }
+
+        evictionLock.lock();
+        try {
+            if (!isOverLimit(map, false)) {
+                // another thread has evicted in the meantime
+                return;
+            }
+
+            List<Candidate<V>> candidates = new ArrayList<Candidate<V>>(map.size() + 16);
+            for (Map.Entry<String, V> entry : map.entrySet()) {
+                V value = entry.getValue();
+                if (isExpired(value)) {
+                    if (map.remove(entry.getKey(), value)) {
+                        expired(entry.getKey(), value);
+                    }
+                } else {
+                    candidates.add(new Candidate<V>(entry.getKey(), value, getLastAccess(value)));
+                }
+            }
+
+            if (!isOverLimit(map, false)) {
+                return;
+            }
+
+            // a batch is much smaller than the map -> don't sort all entries
+            PriorityQueue<Candidate<V>> oldest = new PriorityQueue<Candidate<V>>(candidates);
+
+            Candidate<V> candidate;
+            while (isOverLimit(map, true) && (candidate = oldest.poll()) != null) {
+                evict(map, candidate.key, candidate.value);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether the map exceeds its limit.
+     *
+     * @param map
+     *            the map
+     * @param makeRoom
+     *            {@code true} if the map should be checked against the limit
+     *            minus one batch (see {@link #belowBatch(int)})
+     */
+    protected abstract boolean isOverLimit(Map<String, V> map, boolean makeRoom);
+
+    /**
+     * Returns the last access time of a value. Only the order matters.
+     */
+    protected abstract long getLastAccess(V value);
+
+    /**
+     * Returns whether a value has expired. Values don't expire by default.
+     */
+    protected boolean isExpired(V value) {
+        return false;
+    }
+
+    /**
+     * Removes a least recently used entry, if it is still mapped to the given
+     * value, and calls {@link #evicted(String, Object)}. Subclasses can
+     * override this method to run both steps under a lock.
+     *
+     * @return {@code true} if the entry has been removed
+     */
+    protected boolean evict(ConcurrentMap<String, V> map, String key, V value) {
+        if (map.remove(key, value)) {
+            evicted(key, value);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Called after an expired entry has been removed.
+     */
+    protected void expired(String key, V value) {
+    }
+
+    /**
+     * Called after a least recently used entry has been removed.
+     */
+    protected void evicted(String key, V value) {
+    }
+
+    private static class Candidate<V> implements Comparable<Candidate<V>> {
+        final String key;
+        final V value;
+        final long lastAccess;
+
+        Candidate(String key, V value, long lastAccess) {
+            this.key = key;
+            this.value = value;
+            this.lastAccess = lastAccess;
+        }
+
+        @Override
+        public int compareTo(Candidate<V> other) {
+            return lastAccess < other.lastAccess ? -1 : (lastAccess == other.lastAccess ? 0 : 1);
+        }
+    }
+}
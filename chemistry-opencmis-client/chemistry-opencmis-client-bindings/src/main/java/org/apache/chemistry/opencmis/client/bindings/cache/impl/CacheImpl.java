@@ -18,32 +18,23 @@
  */
 package org.apache.chemistry.opencmis.client.bindings.cache.impl;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-import org.apache.chemistry.opencmis.client.bindings.cache.Cache;
 import org.apache.chemistry.opencmis.client.bindings.cache.CacheLevel;
-import org.apache.chemistry.opencmis.commons.impl.ClassLoaderUtil;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Default cache implementation.
+ * Default cache implementation. All operations are protected by one read-write
+ * lock.
  */
-public class CacheImpl implements Cache {
+public class CacheImpl extends AbstractCacheImpl {
 
     private static final Logger LOG = LoggerFactory.getLogger(CacheImpl.class);
 
     private static final long serialVersionUID = 1L;
 
-    private List<Class<?>> levels;
-    private List<Map<String, String>> levelParameters;
-
-    private final String name;
-
     private CacheLevel root;
 
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
@@ -52,40 +43,21 @@ public class CacheImpl implements Cache {
      * Constructor.
      */
     public CacheImpl() {
-        this.name = "Cache";
+        super("Cache");
     }
 
     /**
      * Constructor.
      */
     public CacheImpl(String name) {
-        this.name = name;
+        super(name);
     }
 
     @Override
     public void initialize(String[] cacheLevelConfig) {
-        if (levels != null) {
-            throw new IllegalStateException("Cache already initialize!");
-        }
-
-        if (cacheLevelConfig == null || cacheLevelConfig.length == 0) {
-            throw new IllegalArgumentException("Cache config must not be empty!");
-        }
-
         lock.writeLock().lock();
         try {
-            levels = new ArrayList<Class<?>>(cacheLevelConfig.length);
-            levelParameters = new ArrayList<Map<String, String>>();
-
-            // build level lists
-            for (String config : cacheLevelConfig) {
-                int x = config.indexOf(' ');
-                if (x == -1) {
-                    addLevel(config, null);
-                } else {
-                    addLevel(config.substring(0, x), config.substring(x + 1));
-                }
-            }
+            initializeLevels(cacheLevelConfig);
 
             // create root
             root = createCacheLevel(0);
@@ -94,40 +66,6 @@ public class CacheImpl implements Cache {
         }
     }
 
-    private void addLevel(String className, String parameters) {
-        // get the class
-        Class<?> clazz;
-        try {
-            clazz = ClassLoaderUtil.loadClass(className, this.getClass().getClassLoader());
-        } catch (ClassNotFoundException e) {
-            throw new IllegalArgumentException("Class '" + className + "' not found!", e);
-        }
-
-        // check the class
-        if (!CacheLevel.class.isAssignableFrom(clazz)) {
-            throw new IllegalArgumentException("Class '" + className + "' does not implement the CacheLevel interface!");
-        }
-
-        levels.add(clazz);
-
-        // process parameters
-        if (parameters == null) {
-            levelParameters.add(null);
-        } else {
-            Map<String, String> parameterMap = new HashMap<String, String>();
-            levelParameters.add(parameterMap);
-
-            for (String pair : parameters.split(",")) {
-                String[] keyValue = pair.split("=");
-                if (keyValue.length == 1) {
-                    parameterMap.put(keyValue[0], "");
-                } else {
-                    parameterMap.put(keyValue[0], keyValue[1]);
-                }
-            }
-        }
-    }
-
     @Override
     public Object get(String... keys) {
         // check keys
@@ -136,7 +74,7 @@ public class CacheImpl implements Cache {
         }
 
         // check level depth
-        if (levels.size() != keys.length) {
+        if (getLevelCount() != keys.length) {
             throw new IllegalArgumentException("Wrong number of keys!");
         }
 
@@ -152,6 +90,7 @@ public class CacheImpl implements Cache {
 
                 // does the branch exist?
                 if (level == null) {
+                    getStatisticsCollector().recordMiss();
                     return null;
                 }
 
@@ -161,6 +100,7 @@ public class CacheImpl implements Cache {
 
             // get the value
             result = cacheLevel.get(keys[keys.length - 1]);
+            getStatisticsCollector().recordLookup(result);
         } finally {
             lock.readLock().unlock();
         }
@@ -176,7 +116,7 @@ public class CacheImpl implements Cache {
         }
 
         // check level depth
-        if (levels.size() != keys.length) {
+        if (getLevelCount() != keys.length) {
             throw new IllegalArgumentException("Wrong number of keys!");
         }
 
@@ -199,9 +139,10 @@ public class CacheImpl implements Cache {
             }
 
             cacheLevel.put(value, keys[keys.length - 1]);
+            getStatisticsCollector().recordPut();
 
             if (LOG.isTraceEnabled()) {
-                LOG.trace("{}: put [{}] = {}", name, getFormattedKeys(keys), value);
+                LOG.trace("{}: put [{}] = {}", getName(), getFormattedKeys(keys), value);
             }
         } finally {
             lock.writeLock().unlock();
@@ -234,7 +175,7 @@ public class CacheImpl implements Cache {
             cacheLevel.remove(keys[keys.length - 1]);
 
             if (LOG.isTraceEnabled()) {
-                LOG.trace("{}: removed [{}]", name, getFormattedKeys(keys));
+                LOG.trace("{}: removed [{}]", getName(), getFormattedKeys(keys));
             }
         } finally {
             lock.writeLock().unlock();
@@ -248,7 +189,7 @@ public class CacheImpl implements Cache {
             root = createCacheLevel(0);
 
             if (LOG.isTraceEnabled()) {
-                LOG.trace("{}: removed all", name);
+                LOG.trace("{}: removed all", getName());
             }
         } finally {
             lock.writeLock().unlock();
@@ -284,6 +225,20 @@ public class CacheImpl implements Cache {
         return keys.length;
     }
 
+    @Override
+    public CacheStatistics getStatistics() {
+        long entryCount;
+
+        lock.readLock().lock();
+        try {
+            entryCount = root == null ? 0 : countEntries(root, 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return getStatisticsCollector().getStatistics(entryCount);
+    }
+
     @Override
     public void writeLock() {
         lock.writeLock().lock();
@@ -294,49 +249,8 @@ public class CacheImpl implements Cache {
         lock.writeLock().unlock();
     }
 
-    // ---- internal ----
-
-    /**
-     * Creates a cache level object.
-     */
-    private CacheLevel createCacheLevel(int level) {
-        if (level < 0 || level >= levels.size()) {
-            throw new IllegalArgumentException("Cache level doesn't fit the configuration!");
-        }
-
-        // get the class and create an instance
-        Class<?> clazz = levels.get(level);
-        CacheLevel cacheLevel = null;
-        try {
-            cacheLevel = (CacheLevel) clazz.getDeclaredConstructor().newInstance();
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Cache level problem?!", e);
-        }
-
-        // initialize it
-        cacheLevel.initialize(levelParameters.get(level));
-
-        return cacheLevel;
-    }
-
     @Override
     public String toString() {
         return root == null ? "(no cache root)" : root.toString();
     }
-
-    // ---- internal ----
-
-    private static String getFormattedKeys(String[] keys) {
-        assert keys != null;
-
-        StringBuilder sb = new StringBuilder(32);
-        for (String k : keys) {
-            if (sb.length() > 0) {
-                sb.append(", ");
-            }
-            sb.append(k);
-        }
-
-        return sb.toString();
-    }
 }
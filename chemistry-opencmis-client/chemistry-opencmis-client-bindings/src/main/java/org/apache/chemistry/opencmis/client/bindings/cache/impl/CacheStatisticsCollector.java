@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.cache.impl;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
+
+/**
+ * Collects the statistics of a cache.
+ * <p>
+ * This class is thread-safe and doesn't block. Recording an event is cheap
+ * enough to be done on every cache access.
+ */
+public class CacheStatisticsCollector implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * Constructor.
+     * 
+     * @param name
+     *            the name of the cache
+     */
+    public CacheStatisticsCollector(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    /**
+     * Records a hit if the value is not {@code null}, and a miss otherwise.
+     */
+    public void recordLookup(Object value) {
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+    }
+
+    public void recordPut() {
+        puts.increment();
+    }
+
+    public void recordEviction() {
+        evictions.increment();
+    }
+
+    public void recordEvictions(int count) {
+        evictions.add(count);
+    }
+
+    public void recordExpiration() {
+        expirations.increment();
+    }
+
+    /**
+     * Returns a snapshot of the current counters.
+     * 
+     * @param entryCount
+     *            the current number of entries or -1 if unknown
+     */
+    public CacheStatistics getStatistics(long entryCount) {
+        return new CacheStatisticsImpl(name, hits.sum(), misses.sum(), puts.sum(), evictions.sum(),
+                expirations.sum(), entryCount);
+    }
+}
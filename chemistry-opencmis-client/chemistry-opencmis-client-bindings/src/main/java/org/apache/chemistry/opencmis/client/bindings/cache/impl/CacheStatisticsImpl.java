@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.cache.impl;
+
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
+
+/**
+ * Immutable snapshot of cache statistics.
+ */
+public class CacheStatisticsImpl implements CacheStatistics {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final long hitCount;
+    private final long missCount;
+    private final long putCount;
+    private final long evictionCount;
+    private final long expirationCount;
+    private final long entryCount;
+
+    /**
+     * Constructor.
+     */
+    public CacheStatisticsImpl(String name, long hitCount, long missCount, long putCount, long evictionCount,
+            long expirationCount, long entryCount) {
+        this.name = name;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.evictionCount = evictionCount;
+        this.expirationCount = expirationCount;
+        this.entryCount = entryCount;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount;
+    }
+
+    @Override
+    public double getHitRatio() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+    }
+
+    @Override
+    public long getPutCount() {
+        return putCount;
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public long getExpirationCount() {
+        return expirationCount;
+    }
+
+    @Override
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    @Override
+    public String toString() {
+        return name + " [hits=" + hitCount + ", misses=" + missCount + ", puts=" + putCount + ", evictions="
+                + evictionCount + ", expirations=" + expirationCount + ", entries=" + entryCount + "]";
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.cache.impl;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.chemistry.opencmis.client.bindings.cache.CacheLevel;
+import org.apache.chemistry.opencmis.client.bindings.cache.ConcurrentCacheLevel;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache implementation without a global lock.
+ * <p>
+ * All levels must implement {@link ConcurrentCacheLevel}. Lookups, puts and
+ * removals only rely on the thread-safety of the levels and never block each
+ * other. The lock provided by {@link #writeLock()} only serializes writers
+ * that need several operations to be applied together. Readers don't wait for
+ * this lock and may see the intermediate state.
+ */
+public class ConcurrentCacheImpl extends AbstractCacheImpl {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConcurrentCacheImpl.class);
+
+    private static final long serialVersionUID = 1L;
+
+    private volatile CacheLevel root;
+
+    private final ReentrantLock writerLock = new ReentrantLock();
+
+    /**
+     * Constructor.
+     */
+    public ConcurrentCacheImpl() {
+        super("Cache");
+    }
+
+    /**
+     * Constructor.
+     */
+    public ConcurrentCacheImpl(String name) {
+        super(name);
+    }
+
+    @Override
+    public synchronized void initialize(String[] cacheLevelConfig) {
+        initializeLevels(cacheLevelConfig);
+
+        // create root
+        root = createCacheLevel(0);
+    }
+
+    @Override
+    protected void checkLevelClass(Class<?> clazz) {
+        if (!ConcurrentCacheLevel.class.isAssignableFrom(clazz)) {
+            throw new IllegalArgumentException("Class '" + clazz.getName()
+                    + "' does not implement the ConcurrentCacheLevel interface!");
+        }
+    }
+
+    @Override
+    public Object get(String... keys) {
+        // check keys
+        if (keys == null) {
+            return null;
+        }
+
+        // check level depth
+        if (getLevelCount() != keys.length) {
+            throw new IllegalArgumentException("Wrong number of keys!");
+        }
+
+        CacheLevel cacheLevel = root;
+
+        // follow the branch
+        for (int i = 0; i < keys.length - 1; i++) {
+            Object level = cacheLevel.get(keys[i]);
+
+            // does the branch exist?
+            if (level == null) {
+                getStatisticsCollector().recordMiss();
+                return null;
+            }
+
+            // next level
+            cacheLevel = (CacheLevel) level;
+        }
+
+        // get the value
+        Object result = cacheLevel.get(keys[keys.length - 1]);
+        getStatisticsCollector().recordLookup(result);
+
+        return result;
+    }
+
+    @Override
+    public void put(Object value, String... keys) {
+        // check keys
+        if (keys == null) {
+            return;
+        }
+
+        // check level depth
+        if (getLevelCount() != keys.length) {
+            throw new IllegalArgumentException("Wrong number of keys!");
+        }
+
+        CacheLevel cacheLevel = root;
+
+        // follow the branch
+        for (int i = 0; i < keys.length - 1; i++) {
+            Object level = cacheLevel.get(keys[i]);
+
+            // does the branch exist?
+            if (level == null) {
+                CacheLevel newLevel = createCacheLevel(i + 1);
+                level = ((ConcurrentCacheLevel) cacheLevel).putIfAbsent(newLevel, keys[i]);
+                if (level == null) {
+                    level = newLevel;
+                }
+            }
+
+            // next level
+            cacheLevel = (CacheLevel) level;
+        }
+
+        cacheLevel.put(value, keys[keys.length - 1]);
+        getStatisticsCollector().recordPut();
+
+        if (LOG.isTraceEnabled()) {
+            LOG.trace("{}: put [{}] = {}", getName(), getFormattedKeys(keys), value);
+        }
+    }
+
+    @Override
+    public void remove(String... keys) {
+        if (keys == null) {
+            return;
+        }
+
+        CacheLevel cacheLevel = root;
+
+        // follow the branch
+        for (int i = 0; i < keys.length - 1; i++) {
+            Object level = cacheLevel.get(keys[i]);
+
+            // does the branch exist?
+            if (level == null) {
+                return;
+            }
+
+            // next level
+            cacheLevel = (CacheLevel) level;
+        }
+
+        cacheLevel.remove(keys[keys.length - 1]);
+
+        if (LOG.isTraceEnabled()) {
+            LOG.trace("{}: removed [{}]", getName(), getFormattedKeys(keys));
+        }
+    }
+
+    @Override
+    public void removeAll() {
+        root = createCacheLevel(0);
+
+        if (LOG.isTraceEnabled()) {
+            LOG.trace("{}: removed all", getName());
+        }
+    }
+
+    @Override
+    public int check(String... keys) {
+        if (keys == null) {
+            return -1;
+        }
+
+        CacheLevel cacheLevel = root;
+
+        // follow the branch
+        for (int i = 0; i < keys.length - 1; i++) {
+            Object level = cacheLevel.get(keys[i]);
+
+            // does the branch exist?
+            if (level == null) {
+                return i;
+            }
+
+            // next level
+            cacheLevel = (CacheLevel) level;
+        }
+
+        return keys.length;
+    }
+
+    @Override
+    public CacheStatistics getStatistics() {
+        CacheLevel r = root;
+        return getStatisticsCollector().getStatistics(r == null ? 0 : countEntries(r, 0));
+    }
+
+    @Override
+    public void writeLock() {
+        writerLock.lock();
+    }
+
+    @Override
+    public void writeUnlock() {
+        writerLock.unlock();
+    }
+
+    @Override
+    public String toString() {
+        CacheLevel r = root;
+        return r == null ? "(no cache root)" : r.toString();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.cache.impl;
+
+/**
+ * Concurrent content type cache.
+ * 
+ * @see ContentTypeCacheLevelImpl
+ */
+public class ConcurrentContentTypeCacheLevelImpl extends ConcurrentMapCacheLevelImpl {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor.
+     */
+    public ConcurrentContentTypeCacheLevelImpl() {
+        super();
+        enableKeyFallback(null);
+    }
+
+    @Override
+    public Object get(String key) {
+        return super.get(ContentTypeCacheLevelImpl.normalize(key));
+    }
+
+    @Override
+    public void put(Object value, String key) {
+        super.put(value, ContentTypeCacheLevelImpl.normalize(key));
+    }
+
+    @Override
+    public Object putIfAbsent(Object value, String key) {
+        return super.putIfAbsent(value, ContentTypeCacheLevelImpl.normalize(key));
+    }
+
+    @Override
+    public void remove(String key) {
+        super.remove(ContentTypeCacheLevelImpl.normalize(key));
+    }
+}
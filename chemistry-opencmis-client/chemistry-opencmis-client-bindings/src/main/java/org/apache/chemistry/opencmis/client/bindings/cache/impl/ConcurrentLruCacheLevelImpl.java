@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.cache.impl;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.chemistry.opencmis.client.bindings.cache.ConcurrentCacheLevel;
+
+/**
+ * Concurrent LRU cache.
+ * <p>
+ * Lookups don't block. Each entry records when it has been used last. If the
+ * number of entries exceeds the limit, the thread that added the entry evicts
+ * the least recently used entries in a batch.
+ * <p>
+ * Takes the same parameters as {@link LruCacheLevelImpl}.
+ */
+public class ConcurrentLruCacheLevelImpl extends AbstractMapCacheLevel implements ConcurrentCacheLevel {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Replaces the {@code null} key, which a concurrent map doesn't accept. */
+    private static final String NULL_KEY = "\u0000";
+
+    private int maxEntries;
+    private ConcurrentMap<String, Object> map;
+    private final AtomicLong clock = new AtomicLong();
+    private final Evictor evictor = new Evictor();
+
+    /**
+     * Constructor.
+     */
+    public ConcurrentLruCacheLevelImpl() {
+    }
+
+    @Override
+    public void initialize(Map<String, String> parameters) {
+        maxEntries = getIntParameter(parameters, LruCacheLevelImpl.MAX_ENTRIES, 100);
+
+        map = new ConcurrentHashMap<String, Object>(maxEntries + 1, 0.70f);
+        setMap(map);
+    }
+
+    @Override
+    public Object get(String key) {
+        // the map holds entries, the fallbacks of the superclass return them
+        Entry entry = (Entry) super.get(toMapKey(key));
+        if (entry == null) {
+            return null;
+        }
+
+        entry.lastAccess = clock.incrementAndGet();
+
+        return entry.value;
+    }
+
+    @Override
+    public void put(Object value, String key) {
+        if (value == null) {
+            map.remove(toMapKey(key));
+            return;
+        }
+
+        map.put(toMapKey(key), new Entry(value, clock.incrementAndGet()));
+        evictIfNecessary();
+    }
+
+    @Override
+    public Object putIfAbsent(Object value, String key) {
+        Entry entry = new Entry(value, clock.incrementAndGet());
+
+        Entry existing = (Entry) map.putIfAbsent(toMapKey(key), entry);
+        if (existing != null) {
+            existing.lastAccess = entry.lastAccess;
+            return existing.value;
+        }
+
+        evictIfNecessary();
+
+        return null;
+    }
+
+    @Override
+    public void remove(String key) {
+        map.remove(toMapKey(key));
+    }
+
+    @Override
+    protected Collection<Object> getValues() {
+        List<Object> result = new ArrayList<Object>(map.size());
+        for (Object entry : map.values()) {
+            result.add(((Entry) entry).value);
+        }
+
+        return result;
+    }
+
+    @Override
+    protected void enableKeyFallback(String key) {
+        super.enableKeyFallback(toMapKey(key));
+    }
+
+    /**
+     * Removes the least recently used entries if there are too many entries.
+     */
+    private void evictIfNecessary() {
+        evictor.evictIfNecessary(map);
+    }
+
+    private static String toMapKey(String key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    private static class Entry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        final Object value;
+        volatile long lastAccess;
+
+        Entry(Object value, long lastAccess) {
+            this.value = value;
+            this.lastAccess = lastAccess;
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(value);
+        }
+    }
+
+    private class Evictor extends BatchEvictor<Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean isOverLimit(Map<String, Object> entries, boolean makeRoom) {
+            return entries.size() > (makeRoom ? belowBatch(maxEntries) : maxEntries);
+        }
+
+        @Override
+        protected long getLastAccess(Object value) {
+            return ((Entry) value).lastAccess;
+        }
+
+        @Override
+        protected void evicted(String key, Object value) {
+            recordEviction();
+        }
+    }
+}
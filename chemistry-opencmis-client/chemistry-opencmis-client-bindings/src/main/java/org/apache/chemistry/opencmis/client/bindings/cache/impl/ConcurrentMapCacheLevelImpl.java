@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.cache.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.chemistry.opencmis.client.bindings.cache.ConcurrentCacheLevel;
+
+/**
+ * Concurrent map cache.
+ * <p>
+ * Takes the same parameters as {@link MapCacheLevelImpl}.
+ */
+public class ConcurrentMapCacheLevelImpl extends AbstractMapCacheLevel implements ConcurrentCacheLevel {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Replaces the {@code null} key, which a concurrent map doesn't accept. */
+    private static final String NULL_KEY = "\u0000";
+
+    private ConcurrentMap<String, Object> map;
+
+    /**
+     * Constructor.
+     */
+    public ConcurrentMapCacheLevelImpl() {
+    }
+
+    @Override
+    public void initialize(Map<String, String> parameters) {
+        int initialCapacity = getIntParameter(parameters, MapCacheLevelImpl.CAPACITY, 32);
+        float loadFactor = getFloatParameter(parameters, MapCacheLevelImpl.LOAD_FACTOR, 0.75f);
+        boolean singleValue = getBooleanParameter(parameters, MapCacheLevelImpl.SINGLE_VALUE, false);
+
+        map = new ConcurrentHashMap<String, Object>(initialCapacity, loadFactor);
+        setMap(map);
+        disableKeyFallback();
+        if (singleValue) {
+            enableSingeValueFallback();
+        }
+    }
+
+    @Override
+    public Object get(String key) {
+        return super.get(toMapKey(key));
+    }
+
+    @Override
+    public void put(Object value, String key) {
+        if (value == null) {
+            map.remove(toMapKey(key));
+        } else {
+            map.put(toMapKey(key), value);
+        }
+    }
+
+    @Override
+    public Object putIfAbsent(Object value, String key) {
+        return map.putIfAbsent(toMapKey(key), value);
+    }
+
+    @Override
+    public void remove(String key) {
+        map.remove(toMapKey(key));
+    }
+
+    @Override
+    protected void enableKeyFallback(String key) {
+        super.enableKeyFallback(toMapKey(key));
+    }
+
+    private static String toMapKey(String key) {
+        return key == null ? NULL_KEY : key;
+    }
+}
@@ -56,7 +56,7 @@ public class ContentTypeCacheLevelImpl extends MapCacheLevelImpl {
      * Normalizes the key which should be a content type. It's quite simple at
      * the moment but should cover most cases.
      */
-    private static String normalize(String key) {
+    static String normalize(String key) {
         if (key == null) {
             return null;
         }
@@ -18,6 +18,8 @@
  */
 package org.apache.chemistry.opencmis.client.bindings.cache.impl;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -39,7 +41,12 @@ public class LruCacheLevelImpl extends AbstractMapCacheLevel {
 
             @Override
             public boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
-                return size() > maxEntries;
+                if (size() > maxEntries) {
+                    recordEviction();
+                    return true;
+                }
+
+                return false;
             }
         });
     }
@@ -48,4 +55,10 @@ public class LruCacheLevelImpl extends AbstractMapCacheLevel {
     public synchronized Object get(String key) {
         return super.get(key);
     }
+
+    @Override
+    protected synchronized Collection<Object> getValues() {
+        // get() reorders the entries while the cache is read-locked
+        return new ArrayList<Object>(super.getValues());
+    }
 }
@@ -19,12 +19,20 @@
 package org.apache.chemistry.opencmis.client.bindings.impl;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
+import org.apache.chemistry.opencmis.client.bindings.cache.CacheStatisticsProvider;
 import org.apache.chemistry.opencmis.client.bindings.cache.TypeDefinitionCache;
+import org.apache.chemistry.opencmis.client.bindings.spi.AsyncObjectService;
 import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
 import org.apache.chemistry.opencmis.client.bindings.spi.CmisSpi;
 import org.apache.chemistry.opencmis.client.bindings.spi.SessionAwareAuthenticationProvider;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.ConnectionPoolStatistics;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.ConnectionPoolStatisticsProvider;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.HttpCache;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.HttpMetrics;
 import org.apache.chemistry.opencmis.commons.SessionParameter;
 import org.apache.chemistry.opencmis.commons.enums.BindingType;
 import org.apache.chemistry.opencmis.commons.enums.CmisVersion;
@@ -33,6 +41,7 @@ import org.apache.chemistry.opencmis.commons.impl.dataobjects.BindingsObjectFact
 import org.apache.chemistry.opencmis.commons.spi.AclService;
 import org.apache.chemistry.opencmis.commons.spi.AuthenticationProvider;
 import org.apache.chemistry.opencmis.commons.spi.BindingsObjectFactory;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
 import org.apache.chemistry.opencmis.commons.spi.CmisBinding;
 import org.apache.chemistry.opencmis.commons.spi.DiscoveryService;
 import org.apache.chemistry.opencmis.commons.spi.MultiFilingService;
@@ -53,6 +62,7 @@ public final class CmisBindingImpl implements CmisBinding, Serializable {
     private BindingSession session;
     private final BindingsObjectFactory objectFactory;
     private final RepositoryService repositoryServiceWrapper;
+    private final ObjectServiceImpl objectServiceWrapper;
 
     /**
      * Constructor.
@@ -153,12 +163,18 @@ public final class CmisBindingImpl implements CmisBinding, Serializable {
         // initialize the SPI
         CmisBindingsHelper.getSPI(session);
 
+        // restore the metadata caches from a previous session
+        MetadataCacheStore.load(session, typeDefCache == null);
+
         // set up object factory
         objectFactory = new BindingsObjectFactoryImpl();
 
         // set up repository service
         repositoryServiceWrapper = new RepositoryServiceImpl(session);
 
+        // set up object service
+        objectServiceWrapper = new ObjectServiceImpl(session);
+
         // add authentication provider to session
         if (authenticationProvider != null) {
             session.put(CmisBindingsHelper.AUTHENTICATION_PROVIDER_OBJECT, authenticationProvider);
@@ -203,8 +219,18 @@ public final class CmisBindingImpl implements CmisBinding, Serializable {
     @Override
     public ObjectService getObjectService() {
         checkSession();
-        CmisSpi spi = CmisBindingsHelper.getSPI(session);
-        return spi.getObjectService();
+        return objectServiceWrapper;
+    }
+
+    /**
+     * Returns the object service operations that don't block the calling
+     * thread.
+     *
+     * @see AsyncObjectService
+     */
+    public AsyncObjectService getAsyncObjectService() {
+        checkSession();
+        return objectServiceWrapper;
     }
 
     @Override
@@ -300,14 +326,107 @@ public final class CmisBindingImpl implements CmisBinding, Serializable {
         }
     }
 
+    @Override
+    public List<CacheStatistics> getCacheStatistics() {
+        checkSession();
+
+        List<CacheStatistics> result = new ArrayList<CacheStatistics>();
+
+        session.readLock();
+        try {
+            for (String key : session.getKeys()) {
+                Object value = session.get(key);
+                if (value instanceof CacheStatisticsProvider) {
+                    result.addAll(((CacheStatisticsProvider) value).getCacheStatistics());
+                }
+            }
+        } finally {
+            session.readUnlock();
+        }
+
+        result.add(objectServiceWrapper.getCoalescingStatistics());
+
+        return result;
+    }
+
+    /**
+     * Returns the current state of the HTTP connection pool.
+     *
+     * @return the statistics or {@code null} if this binding doesn't use
+     *         HTTP, if the HTTP Invoker doesn't report statistics or if no
+     *         request has been sent yet
+     */
+    public ConnectionPoolStatistics getConnectionPoolStatistics() {
+        checkSession();
+
+        Object invoker = session.get(CmisBindingsHelper.HTTP_INVOKER_OBJECT);
+        if (invoker instanceof ConnectionPoolStatisticsProvider) {
+            return ((ConnectionPoolStatisticsProvider) invoker).getConnectionPoolStatistics(session);
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the HTTP request metrics of this binding.
+     *
+     * @return the metrics or {@code null} if the metrics are turned off
+     *
+     * @see SessionParameter#HTTP_METRICS
+     */
+    public HttpMetrics getHttpMetrics() {
+        checkSession();
+
+        return CmisBindingsHelper.getHttpMetrics(session);
+    }
+
+    /**
+     * Writes the first metadata cache snapshot for this endpoint and user, if
+     * {@link SessionParameter#CACHE_METADATA_FILE} is set and no snapshot has
+     * been restored or written by this binding yet.
+     */
+    public void saveMetadataCache() {
+        checkSession();
+
+        MetadataCacheStore.saveIfMissing(session);
+    }
+
+    /**
+     * Sets the listener that is notified when metadata restored from the
+     * metadata cache file turns out to be outdated.
+     *
+     * @param listener
+     *            the listener or {@code null} to remove the listener
+     *
+     * @see SessionParameter#CACHE_METADATA_FILE
+     */
+    public void setMetadataCacheListener(MetadataCacheStore.Listener listener) {
+        checkSession();
+
+        MetadataCacheStore.setListener(session, listener);
+    }
+
     @Override
     public void close() {
         checkSession();
 
+        // keep the metadata caches for the next session
+        MetadataCacheStore.save(session);
+
         session.writeLock();
         try {
             CmisSpi spi = CmisBindingsHelper.getSPI(session);
             spi.close();
+
+            // the HTTP cache files are not reused
+            HttpCache httpCache = (HttpCache) session.get(CmisBindingsHelper.HTTP_CACHE_OBJECT);
+            if (httpCache != null) {
+                httpCache.clear();
+            }
+
+            if (session.get(CmisBindingsHelper.HTTP_METRICS_OBJECT) != null) {
+                HttpMetrics.unregisterMBean(session.getSessionId());
+            }
         } finally {
             session.writeUnlock();
             session = null;
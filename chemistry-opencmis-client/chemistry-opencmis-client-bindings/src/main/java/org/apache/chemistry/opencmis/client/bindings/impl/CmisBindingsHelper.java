@@ -18,18 +18,29 @@
  */
 package org.apache.chemistry.opencmis.client.bindings.impl;
 
+import java.io.File;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.chemistry.opencmis.client.bindings.cache.TypeDefinitionCache;
 import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
 import org.apache.chemistry.opencmis.client.bindings.spi.CmisSpi;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.AsyncHttpInvoker;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.BlockingAsyncHttpInvoker;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.HttpCache;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.HttpInvocationListener;
 import org.apache.chemistry.opencmis.client.bindings.spi.http.HttpInvoker;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.HttpMetrics;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.MonitoringHttpInvoker;
 import org.apache.chemistry.opencmis.commons.SessionParameter;
 import org.apache.chemistry.opencmis.commons.enums.CmisVersion;
 import org.apache.chemistry.opencmis.commons.exceptions.CmisBaseException;
 import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
 import org.apache.chemistry.opencmis.commons.impl.ClassLoaderUtil;
+import org.apache.chemistry.opencmis.commons.impl.ContentCodec;
+import org.apache.chemistry.opencmis.commons.impl.ContentCodecs;
 import org.apache.chemistry.opencmis.commons.spi.AuthenticationProvider;
 
 /**
@@ -42,10 +53,15 @@ public final class CmisBindingsHelper {
     public static final String TYPE_DEFINTION_CACHE = "org.apache.chemistry.opencmis.binding.typeDefintionCache";
     public static final String SPI_OBJECT = "org.apache.chemistry.opencmis.binding.spi.object";
     public static final String HTTP_INVOKER_OBJECT = "org.apache.chemistry.opencmis.binding.httpinvoker.object";
+    public static final String ASYNC_HTTP_INVOKER_OBJECT = "org.apache.chemistry.opencmis.binding.asynchttpinvoker.object";
+    public static final String HTTP_CACHE_OBJECT = "org.apache.chemistry.opencmis.binding.httpcache.object";
+    public static final String HTTP_METRICS_OBJECT = "org.apache.chemistry.opencmis.binding.httpmetrics.object";
     public static final String AUTHENTICATION_PROVIDER_OBJECT = "org.apache.chemistry.opencmis.binding.auth.object";
     public static final String ACCEPT_LANGUAGE = "org.apache.chemistry.opencmis.binding.acceptLanguage";
     public static final String FORCE_CMIS_VERSION = "org.apache.chemistry.opencmis.cmisversion";
 
+    private static final String DEFAULT_COMPRESSION_ENCODINGS = ContentCodecs.GZIP + "," + ContentCodecs.DEFLATE;
+
     /**
      * Private constructor.
      */
@@ -133,6 +149,12 @@ public final class CmisBindingsHelper {
                 throw new CmisRuntimeException("HTTP invoker cannot be initialized: " + e.getMessage(), e);
             }
 
+            // wrap it if requests should be monitored
+            List<HttpInvocationListener> listeners = createHttpInvocationListeners(session);
+            if (!listeners.isEmpty()) {
+                invoker = new MonitoringHttpInvoker(invoker, listeners);
+            }
+
             // we have an Invoker object -> put it into the session
             session.put(HTTP_INVOKER_OBJECT, invoker, true);
         } finally {
@@ -144,6 +166,182 @@ public final class CmisBindingsHelper {
         return invoker;
     }
 
+    /**
+     * Creates the HTTP invocation listeners that are configured for the
+     * session, including the HTTP metrics if they are turned on.
+     */
+    private static List<HttpInvocationListener> createHttpInvocationListeners(BindingSession session) {
+        List<HttpInvocationListener> listeners = new ArrayList<HttpInvocationListener>();
+
+        Object listenerNames = session.get(SessionParameter.HTTP_INVOKER_LISTENER_CLASS);
+        if (listenerNames != null) {
+            for (String listenerName : listenerNames.toString().split(",")) {
+                listenerName = listenerName.trim();
+                if (listenerName.length() == 0) {
+                    continue;
+                }
+
+                try {
+                    listeners.add((HttpInvocationListener) ClassLoaderUtil.loadClass(listenerName)
+                            .getDeclaredConstructor().newInstance());
+                } catch (CmisBaseException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CmisRuntimeException("HTTP invocation listener cannot be initialized: "
+                            + e.getMessage(), e);
+                }
+            }
+        }
+
+        HttpMetrics metrics = getHttpMetrics(session);
+        if (metrics != null) {
+            listeners.add(metrics);
+        }
+
+        return listeners;
+    }
+
+    /**
+     * Gets the HTTP metrics from the session. If the session parameter
+     * {@link SessionParameter#HTTP_METRICS} is not set to "true", the metrics
+     * are disabled and <code>null</code> is returned.
+     */
+    public static HttpMetrics getHttpMetrics(BindingSession session) {
+        HttpMetrics metrics = (HttpMetrics) session.get(HTTP_METRICS_OBJECT);
+        if (metrics != null) {
+            return metrics;
+        }
+
+        Object enabled = session.get(SessionParameter.HTTP_METRICS);
+        if (enabled == null || !Boolean.parseBoolean(enabled.toString())) {
+            return null;
+        }
+
+        session.writeLock();
+        try {
+            metrics = (HttpMetrics) session.get(HTTP_METRICS_OBJECT);
+            if (metrics == null) {
+                metrics = new HttpMetrics();
+                session.put(HTTP_METRICS_OBJECT, metrics, true);
+
+                Object jmx = session.get(SessionParameter.HTTP_METRICS_JMX);
+                if (jmx != null && Boolean.parseBoolean(jmx.toString())) {
+                    metrics.registerMBean(session.getSessionId());
+                }
+            }
+        } finally {
+            session.writeUnlock();
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Gets the asynchronous HTTP Invoker object from the session. If the HTTP
+     * Invoker doesn't support asynchronous calls, it is wrapped by a
+     * {@link BlockingAsyncHttpInvoker}.
+     */
+    public static AsyncHttpInvoker getAsyncHttpInvoker(BindingSession session) {
+        HttpInvoker invoker = getHttpInvoker(session);
+        if (invoker instanceof AsyncHttpInvoker) {
+            return (AsyncHttpInvoker) invoker;
+        }
+
+        AsyncHttpInvoker asyncInvoker = (AsyncHttpInvoker) session.get(ASYNC_HTTP_INVOKER_OBJECT);
+        if (asyncInvoker != null) {
+            return asyncInvoker;
+        }
+
+        session.writeLock();
+        try {
+            asyncInvoker = (AsyncHttpInvoker) session.get(ASYNC_HTTP_INVOKER_OBJECT);
+            if (asyncInvoker == null) {
+                asyncInvoker = new BlockingAsyncHttpInvoker(invoker);
+                session.put(ASYNC_HTTP_INVOKER_OBJECT, asyncInvoker, true);
+            }
+        } finally {
+            session.writeUnlock();
+        }
+
+        return asyncInvoker;
+    }
+
+    /**
+     * Gets the HTTP cache from the session. If the session parameter
+     * {@link SessionParameter#HTTP_CACHE_SIZE} is not set, the cache is
+     * disabled and <code>null</code> is returned.
+     */
+    public static HttpCache getHttpCache(BindingSession session) {
+        HttpCache cache = (HttpCache) session.get(HTTP_CACHE_OBJECT);
+        if (cache != null) {
+            return cache;
+        }
+
+        Object sizeStr = session.get(SessionParameter.HTTP_CACHE_SIZE);
+        if (sizeStr == null) {
+            return null;
+        }
+
+        long size;
+        try {
+            size = Long.parseLong(sizeStr.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new CmisRuntimeException("Invalid HTTP cache size: " + sizeStr, e);
+        }
+
+        if (size <= 0) {
+            return null;
+        }
+
+        session.writeLock();
+        try {
+            cache = (HttpCache) session.get(HTTP_CACHE_OBJECT);
+            if (cache == null) {
+                Object dir = session.get(SessionParameter.HTTP_CACHE_DIRECTORY);
+                cache = new HttpCache(size, dir == null ? null : new File(dir.toString()));
+                session.put(HTTP_CACHE_OBJECT, cache, true);
+            }
+        } finally {
+            session.writeUnlock();
+        }
+
+        return cache;
+    }
+
+    /**
+     * Returns the value of the <code>Accept-Encoding</code> header or
+     * <code>null</code> if response compression is turned off.
+     */
+    public static String getAcceptEncoding(BindingSession session) {
+        Object compression = session.get(SessionParameter.COMPRESSION);
+        if (compression == null || !Boolean.parseBoolean(compression.toString())) {
+            return null;
+        }
+
+        Object encodings = session.get(SessionParameter.COMPRESSION_ENCODINGS);
+        return ContentCodecs.getAcceptEncoding(encodings == null ? DEFAULT_COMPRESSION_ENCODINGS : encodings
+                .toString());
+    }
+
+    /**
+     * Returns the codec for request bodies or <code>null</code> if request
+     * compression is turned off.
+     */
+    public static ContentCodec getClientCompressionCodec(BindingSession session) {
+        Object clientCompression = session.get(SessionParameter.CLIENT_COMPRESSION);
+        if (clientCompression == null || !Boolean.parseBoolean(clientCompression.toString())) {
+            return null;
+        }
+
+        Object encoding = session.get(SessionParameter.CLIENT_COMPRESSION_ENCODING);
+        ContentCodec codec = ContentCodecs.getCodec(encoding == null ? ContentCodecs.GZIP : encoding.toString());
+        if (codec == null) {
+            throw new CmisRuntimeException("Unsupported request compression: " + encoding);
+        }
+
+        return codec;
+    }
+
     /**
      * Returns a CMIS version if the user set one, <code>null</code> otherwise.
      */
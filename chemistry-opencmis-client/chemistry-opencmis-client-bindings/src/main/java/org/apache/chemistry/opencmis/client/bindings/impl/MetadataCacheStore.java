@@ -0,0 +1,507 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.chemistry.opencmis.client.bindings.cache.TypeDefinitionCache;
+import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
+import org.apache.chemistry.opencmis.client.bindings.spi.CmisSpi;
+import org.apache.chemistry.opencmis.client.bindings.spi.atompub.SpiSessionParameter;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.apache.chemistry.opencmis.commons.data.RepositoryInfo;
+import org.apache.chemistry.opencmis.commons.impl.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the repository info cache, the type definition cache and the AtomPub
+ * link cache of a binding session to a local file and restores them when the
+ * next binding session is created.
+ * <p>
+ * A snapshot is only restored if it has been written for the same endpoint
+ * and user. Restored repository infos are served immediately. The first time a
+ * restored repository info is used, it is validated in the background: if the
+ * latest change log token of the repository has changed (or the repository
+ * doesn't provide one), all cached metadata of this repository is dropped and
+ * the registered {@link Listener} is notified. The snapshot is written again
+ * after each validation.
+ * <p>
+ * The snapshot file is read with Java serialization. Only OpenCMIS and JDK
+ * collection and value classes are accepted when it is read. The file should
+ * nevertheless not be writable by others.
+ *
+ * @see SessionParameter#CACHE_METADATA_FILE
+ */
+public final class MetadataCacheStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetadataCacheStore.class);
+
+    /** Session key of the validator of a restored snapshot. */
+    static final String VALIDATOR = "org.apache.chemistry.opencmis.binding.metadataCache.validator";
+
+    /** Session key of the invalidation listener. */
+    static final String LISTENER = "org.apache.chemistry.opencmis.binding.metadataCache.listener";
+
+    /** Session key of the flag that is set when a snapshot has been written. */
+    static final String SAVED = "org.apache.chemistry.opencmis.binding.metadataCache.saved";
+
+    /** Packages of the classes that may occur in a snapshot file. */
+    private static final String[] ALLOWED_PACKAGES = { "org.apache.chemistry.opencmis.", "java.lang.",
+            "java.util.", "java.math.", "sun.util.calendar." };
+
+    /** Validates restored snapshots of all sessions. */
+    private static final ExecutorService EXECUTOR;
+    static {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger counter = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "OpenCMIS Metadata Cache Validator " + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        EXECUTOR = executor;
+    }
+
+    private static final String[] IDENTITY_PARAMETERS = { SessionParameter.BINDING_TYPE,
+            SessionParameter.ATOMPUB_URL, SessionParameter.BROWSER_URL,
+            SessionParameter.WEBSERVICES_REPOSITORY_SERVICE, SessionParameter.LOCAL_FACTORY, SessionParameter.USER };
+
+    private MetadataCacheStore() {
+    }
+
+    /**
+     * Restores the caches from the snapshot file if the file exists and
+     * belongs to this endpoint and user.
+     *
+     * @param session
+     *            the binding session
+     * @param restoreTypes
+     *            {@code true} if the type definition cache should be restored,
+     *            {@code false} if the application provided its own cache
+     *
+     * @return {@code true} if a snapshot has been restored
+     */
+    public static boolean load(BindingSession session, boolean restoreTypes) {
+        File file = getFile(session);
+        if (file == null || !file.isFile()) {
+            return false;
+        }
+
+        Snapshot snapshot;
+        ObjectInputStream in = null;
+        try {
+            in = new SnapshotInputStream(new BufferedInputStream(new FileInputStream(file)));
+            snapshot = (Snapshot) in.readObject();
+        } catch (Exception e) {
+            LOG.warn("Could not read metadata cache file '{}': {}", file, e.toString(), e);
+            return false;
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+
+        if (!createIdentity(session).equals(snapshot.identity)) {
+            LOG.debug("Metadata cache file '{}' belongs to a different endpoint or user.", file);
+            return false;
+        }
+
+        session.writeLock();
+        try {
+            if (snapshot.repositoryInfoCache != null) {
+                session.put(CmisBindingsHelper.REPOSITORY_INFO_CACHE, snapshot.repositoryInfoCache);
+            }
+            if (restoreTypes && snapshot.typeDefinitionCache != null) {
+                session.put(CmisBindingsHelper.TYPE_DEFINTION_CACHE, snapshot.typeDefinitionCache);
+            }
+            if (snapshot.linkCache != null) {
+                session.put(SpiSessionParameter.LINK_CACHE, snapshot.linkCache);
+            }
+            session.put(VALIDATOR, new Validator(), true);
+        } finally {
+            session.writeUnlock();
+        }
+
+        LOG.debug("Restored metadata cache from '{}'.", file);
+
+        return true;
+    }
+
+    /**
+     * Writes the caches to the snapshot file.
+     *
+     * @param session
+     *            the binding session
+     */
+    public static void save(BindingSession session) {
+        File file = getFile(session);
+        if (file == null) {
+            return;
+        }
+
+        Snapshot snapshot = new Snapshot();
+        snapshot.identity = createIdentity(session);
+        boolean saved = false;
+
+        session.readLock();
+        try {
+            snapshot.repositoryInfoCache = (RepositoryInfoCache) session.get(CmisBindingsHelper.REPOSITORY_INFO_CACHE);
+            Object typeDefCache = session.get(CmisBindingsHelper.TYPE_DEFINTION_CACHE);
+            if (typeDefCache instanceof TypeDefinitionCacheImpl) {
+                snapshot.typeDefinitionCache = (TypeDefinitionCache) typeDefCache;
+            }
+            Object linkCache = session.get(SpiSessionParameter.LINK_CACHE);
+            if (linkCache instanceof Serializable) {
+                snapshot.linkCache = (Serializable) linkCache;
+            }
+
+            File tempFile = new File(file.getPath() + ".tmp");
+            ObjectOutputStream out = null;
+            try {
+                out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+                out.writeObject(snapshot);
+                out.close();
+                out = null;
+
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                saved = true;
+            } finally {
+                IOUtils.closeQuietly(out);
+                if (tempFile.exists() && !tempFile.delete()) {
+                    LOG.debug("Could not delete temporary file '{}'.", tempFile);
+                }
+            }
+        } catch (Exception e) {
+            LOG.warn("Could not write metadata cache file '{}': {}", file, e.toString(), e);
+        } finally {
+            session.readUnlock();
+        }
+
+        if (saved) {
+            session.put(SAVED, Boolean.TRUE, true);
+        }
+    }
+
+    /**
+     * Writes the caches to the snapshot file if no snapshot has been restored
+     * or written for this session yet. This creates the first snapshot for an
+     * endpoint and user without waiting for the session to be closed.
+     *
+     * @param session
+     *            the binding session
+     */
+    public static void saveIfMissing(final BindingSession session) {
+        if (getFile(session) == null || session.get(VALIDATOR) != null || session.get(SAVED) != null) {
+            return;
+        }
+
+        save(session);
+    }
+
+    /**
+     * Sets the listener that is notified when restored metadata turns out to
+     * be outdated.
+     *
+     * @param session
+     *            the binding session
+     * @param listener
+     *            the listener or {@code null} to remove the listener
+     */
+    public static void setListener(BindingSession session, Listener listener) {
+        if (listener == null) {
+            session.remove(LISTENER);
+        } else {
+            session.put(LISTENER, listener, true);
+        }
+    }
+
+    /**
+     * Validates the restored metadata of a repository in the background, if
+     * the metadata has been restored from a snapshot and has not been
+     * validated yet.
+     *
+     * @param session
+     *            the binding session
+     * @param cachedInfo
+     *            the restored repository info
+     */
+    public static void validateLazily(final BindingSession session, final RepositoryInfo cachedInfo) {
+        if (cachedInfo == null || !startValidation(session, cachedInfo.getId())) {
+            return;
+        }
+
+        EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                validate(session, cachedInfo);
+                save(session);
+            }
+        });
+    }
+
+    /**
+     * Validates the restored metadata of a repository against a repository
+     * info that has just been fetched from the repository. The fetched
+     * repository info replaces the restored one in the cache.
+     *
+     * @param session
+     *            the binding session
+     * @param currentInfo
+     *            the repository info that has just been fetched
+     */
+    public static void validateFetched(final BindingSession session, RepositoryInfo currentInfo) {
+        if (currentInfo == null || !startValidation(session, currentInfo.getId())) {
+            return;
+        }
+
+        RepositoryInfoCache repInfoCache = CmisBindingsHelper.getRepositoryInfoCache(session);
+        if (repInfoCache != null) {
+            RepositoryInfo cachedInfo = repInfoCache.get(currentInfo.getId());
+            if (cachedInfo != null) {
+                checkToken(session, cachedInfo, currentInfo);
+            }
+            repInfoCache.put(currentInfo);
+        }
+
+        EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                save(session);
+            }
+        });
+    }
+
+    /**
+     * Marks the metadata of a repository as validated because it has just been
+     * fetched from the repository.
+     *
+     * @param session
+     *            the binding session
+     * @param repositoryId
+     *            the repository ID
+     */
+    public static void markValidated(BindingSession session, String repositoryId) {
+        Object validator = session.get(VALIDATOR);
+        if ((validator instanceof Validator) && (repositoryId != null)) {
+            ((Validator) validator).validated.put(repositoryId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Compares the latest change log token of the restored repository info
+     * with the current one and drops the cached metadata of the repository if
+     * they differ.
+     */
+    static boolean validate(BindingSession session, RepositoryInfo cachedInfo) {
+        String repositoryId = cachedInfo.getId();
+
+        try {
+            CmisSpi spi = CmisBindingsHelper.getSPI(session);
+            RepositoryInfo currentInfo = spi.getRepositoryService().getRepositoryInfo(repositoryId, null);
+
+            boolean valid = checkToken(session, cachedInfo, currentInfo);
+
+            RepositoryInfoCache repInfoCache = CmisBindingsHelper.getRepositoryInfoCache(session);
+            if (repInfoCache != null) {
+                repInfoCache.put(currentInfo);
+            }
+
+            return valid;
+        } catch (Exception e) {
+            LOG.warn("Could not validate restored metadata of repository '{}': {}", repositoryId, e.toString(), e);
+
+            // don't trust what we can't validate
+            CmisBindingsHelper.getTypeDefinitionCache(session).remove(repositoryId);
+            RepositoryInfoCache repInfoCache = CmisBindingsHelper.getRepositoryInfoCache(session);
+            if (repInfoCache != null) {
+                repInfoCache.remove(repositoryId);
+            }
+            fireInvalidated(session, repositoryId);
+
+            return false;
+        }
+    }
+
+    private static boolean startValidation(BindingSession session, String repositoryId) {
+        Object validator = session.get(VALIDATOR);
+        if (!(validator instanceof Validator) || repositoryId == null) {
+            return false;
+        }
+
+        return ((Validator) validator).validated.putIfAbsent(repositoryId, Boolean.TRUE) == null;
+    }
+
+    private static boolean checkToken(BindingSession session, RepositoryInfo cachedInfo, RepositoryInfo currentInfo) {
+        String repositoryId = cachedInfo.getId();
+        String cachedToken = cachedInfo.getLatestChangeLogToken();
+
+        if (cachedToken != null && cachedToken.equals(currentInfo.getLatestChangeLogToken())) {
+            return true;
+        }
+
+        LOG.debug("Restored metadata of repository '{}' is outdated.", repositoryId);
+
+        CmisBindingsHelper.getTypeDefinitionCache(session).remove(repositoryId);
+        CmisBindingsHelper.getSPI(session).clearRepositoryCache(repositoryId);
+        fireInvalidated(session, repositoryId);
+
+        return false;
+    }
+
+    private static void fireInvalidated(BindingSession session, String repositoryId) {
+        Object listener = session.get(LISTENER);
+        if (listener instanceof Listener) {
+            try {
+                ((Listener) listener).metadataInvalidated(repositoryId);
+            } catch (RuntimeException e) {
+                LOG.warn("Metadata cache listener failed: {}", e.toString(), e);
+            }
+        }
+    }
+
+    private static File getFile(BindingSession session) {
+        Object fileName = session.get(SessionParameter.CACHE_METADATA_FILE);
+        if (!(fileName instanceof String) || ((String) fileName).trim().length() == 0) {
+            return null;
+        }
+
+        return new File(((String) fileName).trim());
+    }
+
+    private static String createIdentity(BindingSession session) {
+        StringBuilder sb = new StringBuilder(256);
+        for (String param : IDENTITY_PARAMETERS) {
+            sb.append(param).append('=').append(session.get(param)).append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Is notified when restored metadata of a repository has been dropped,
+     * so that caches built on top of the binding can drop it as well.
+     */
+    public interface Listener {
+
+        /**
+         * Called when the restored metadata of a repository has been dropped.
+         *
+         * @param repositoryId
+         *            the repository ID
+         */
+        void metadataInvalidated(String repositoryId);
+    }
+
+    /**
+     * Only resolves classes that may occur in a snapshot file.
+     */
+    private static class SnapshotInputStream extends ObjectInputStream {
+
+        SnapshotInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (!isAllowed(desc.getName())) {
+                throw new InvalidClassException(desc.getName(), "Class is not allowed in a metadata cache file!");
+            }
+
+            return super.resolveClass(desc);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+            throw new InvalidClassException("Proxy classes are not allowed in a metadata cache file!");
+        }
+
+        private static boolean isAllowed(String className) {
+            String name = className;
+
+            // arrays
+            int dims = 0;
+            while (dims < name.length() && name.charAt(dims) == '[') {
+                dims++;
+            }
+            if (dims > 0) {
+                if (name.length() == dims + 1) {
+                    // array of primitives
+                    return true;
+                }
+                if (name.charAt(dims) != 'L' || !name.endsWith(";")) {
+                    return false;
+                }
+                name = name.substring(dims + 1, name.length() - 1);
+            }
+
+            for (String prefix : ALLOWED_PACKAGES) {
+                if (name.startsWith(prefix)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Content of the snapshot file.
+     */
+    private static class Snapshot implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        String identity;
+        RepositoryInfoCache repositoryInfoCache;
+        TypeDefinitionCache typeDefinitionCache;
+        Serializable linkCache;
+    }
+
+    /**
+     * Remembers which restored repository infos have been validated.
+     */
+    private static class Validator {
+        final ConcurrentMap<String, Boolean> validated = new ConcurrentHashMap<String, Boolean>();
+    }
+}
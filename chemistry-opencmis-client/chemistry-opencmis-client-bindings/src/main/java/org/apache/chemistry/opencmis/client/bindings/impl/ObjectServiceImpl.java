@@ -0,0 +1,309 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.impl;
+
+import static org.apache.chemistry.opencmis.commons.impl.CollectionsHelper.isNotEmpty;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import org.apache.chemistry.opencmis.client.bindings.spi.AsyncObjectService;
+import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
+import org.apache.chemistry.opencmis.client.bindings.spi.CmisSpi;
+import org.apache.chemistry.opencmis.commons.data.Acl;
+import org.apache.chemistry.opencmis.commons.data.AllowableActions;
+import org.apache.chemistry.opencmis.commons.data.BulkUpdateObjectIdAndChangeToken;
+import org.apache.chemistry.opencmis.commons.data.ContentStream;
+import org.apache.chemistry.opencmis.commons.data.ExtensionsData;
+import org.apache.chemistry.opencmis.commons.data.FailedToDeleteData;
+import org.apache.chemistry.opencmis.commons.data.ObjectData;
+import org.apache.chemistry.opencmis.commons.data.Properties;
+import org.apache.chemistry.opencmis.commons.data.RenditionData;
+import org.apache.chemistry.opencmis.commons.enums.IncludeRelationships;
+import org.apache.chemistry.opencmis.commons.enums.UnfileObject;
+import org.apache.chemistry.opencmis.commons.enums.VersioningState;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
+import org.apache.chemistry.opencmis.commons.spi.Holder;
+import org.apache.chemistry.opencmis.commons.spi.ObjectService;
+
+/**
+ * Object Service implementation.
+ * 
+ * Passes requests to the SPI and coalesces identical concurrent
+ * {@code getObject} and {@code getObjectByPath} calls into one SPI call.
+ * Asynchronous calls are passed to the SPI if it implements
+ * {@link AsyncObjectService}. Otherwise, the blocking calls run on the given
+ * executor.
+ */
+public class ObjectServiceImpl implements ObjectService, AsyncObjectService, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final BindingSession session;
+    private final RequestCoalescer<ObjectData> coalescer = new RequestCoalescer<ObjectData>(
+            "Object Request Coalescing (Binding)");
+
+    /**
+     * Constructor.
+     */
+    public ObjectServiceImpl(BindingSession session) {
+        assert session != null;
+
+        this.session = session;
+    }
+
+    /**
+     * Returns the statistics of the coalesced requests.
+     */
+    public CacheStatistics getCoalescingStatistics() {
+        return coalescer.getStatistics();
+    }
+
+    @Override
+    public String createDocument(String repositoryId, Properties properties, String folderId,
+            ContentStream contentStream, VersioningState versioningState, List<String> policies, Acl addAces,
+            Acl removeAces, ExtensionsData extension) {
+        return getSpiObjectService().createDocument(repositoryId, properties, folderId, contentStream,
+                versioningState, policies, addAces, removeAces, extension);
+    }
+
+    @Override
+    public String createDocumentFromSource(String repositoryId, String sourceId, Properties properties,
+            String folderId, VersioningState versioningState, List<String> policies, Acl addAces, Acl removeAces,
+            ExtensionsData extension) {
+        return getSpiObjectService().createDocumentFromSource(repositoryId, sourceId, properties, folderId,
+                versioningState, policies, addAces, removeAces, extension);
+    }
+
+    @Override
+    public String createFolder(String repositoryId, Properties properties, String folderId, List<String> policies,
+            Acl addAces, Acl removeAces, ExtensionsData extension) {
+        return getSpiObjectService().createFolder(repositoryId, properties, folderId, policies, addAces, removeAces,
+                extension);
+    }
+
+    @Override
+    public String createRelationship(String repositoryId, Properties properties, List<String> policies,
+            Acl addAces, Acl removeAces, ExtensionsData extension) {
+        return getSpiObjectService().createRelationship(repositoryId, properties, policies, addAces, removeAces,
+                extension);
+    }
+
+    @Override
+    public String createPolicy(String repositoryId, Properties properties, String folderId, List<String> policies,
+            Acl addAces, Acl removeAces, ExtensionsData extension) {
+        return getSpiObjectService().createPolicy(repositoryId, properties, folderId, policies, addAces, removeAces,
+                extension);
+    }
+
+    @Override
+    public String createItem(String repositoryId, Properties properties, String folderId, List<String> policies,
+            Acl addAces, Acl removeAces, ExtensionsData extension) {
+        return getSpiObjectService().createItem(repositoryId, properties, folderId, policies, addAces, removeAces,
+                extension);
+    }
+
+    @Override
+    public AllowableActions getAllowableActions(String repositoryId, String objectId, ExtensionsData extension) {
+        return getSpiObjectService().getAllowableActions(repositoryId, objectId, extension);
+    }
+
+    @Override
+    public ObjectData getObject(final String repositoryId, final String objectId, final String filter,
+            final Boolean includeAllowableActions, final IncludeRelationships includeRelationships,
+            final String renditionFilter, final Boolean includePolicyIds, final Boolean includeAcl,
+            final ExtensionsData extension) {
+        if (hasExtension(extension)) {
+            return getSpiObjectService().getObject(repositoryId, objectId, filter, includeAllowableActions,
+                    includeRelationships, renditionFilter, includePolicyIds, includeAcl, extension);
+        }
+
+        String key = createKey("id", repositoryId, objectId, filter, includeAllowableActions, includeRelationships,
+                renditionFilter, includePolicyIds, includeAcl);
+
+        return coalescer.execute(key, new RequestCoalescer.Request<ObjectData>() {
+            @Override
+            public ObjectData execute() {
+                return getSpiObjectService().getObject(repositoryId, objectId, filter, includeAllowableActions,
+                        includeRelationships, renditionFilter, includePolicyIds, includeAcl, extension);
+            }
+        });
+    }
+
+    @Override
+    public Properties getProperties(String repositoryId, String objectId, String filter, ExtensionsData extension) {
+        return getSpiObjectService().getProperties(repositoryId, objectId, filter, extension);
+    }
+
+    @Override
+    public List<RenditionData> getRenditions(String repositoryId, String objectId, String renditionFilter,
+            BigInteger maxItems, BigInteger skipCount, ExtensionsData extension) {
+        return getSpiObjectService().getRenditions(repositoryId, objectId, renditionFilter, maxItems, skipCount,
+                extension);
+    }
+
+    @Override
+    public ObjectData getObjectByPath(final String repositoryId, final String path, final String filter,
+            final Boolean includeAllowableActions, final IncludeRelationships includeRelationships,
+            final String renditionFilter, final Boolean includePolicyIds, final Boolean includeAcl,
+            final ExtensionsData extension) {
+        if (hasExtension(extension)) {
+            return getSpiObjectService().getObjectByPath(repositoryId, path, filter, includeAllowableActions,
+                    includeRelationships, renditionFilter, includePolicyIds, includeAcl, extension);
+        }
+
+        String key = createKey("path", repositoryId, path, filter, includeAllowableActions, includeRelationships,
+                renditionFilter, includePolicyIds, includeAcl);
+
+        return coalescer.execute(key, new RequestCoalescer.Request<ObjectData>() {
+            @Override
+            public ObjectData execute() {
+                return getSpiObjectService().getObjectByPath(repositoryId, path, filter, includeAllowableActions,
+                        includeRelationships, renditionFilter, includePolicyIds, includeAcl, extension);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<ObjectData> getObjectAsync(final String repositoryId, final String objectId,
+            final String filter, final Boolean includeAllowableActions, final IncludeRelationships includeRelationships,
+            final String renditionFilter, final Boolean includePolicyIds, final Boolean includeAcl,
+            final ExtensionsData extension, Executor executor) {
+        ObjectService spiObjectService = getSpiObjectService();
+        if (spiObjectService instanceof AsyncObjectService) {
+            return ((AsyncObjectService) spiObjectService).getObjectAsync(repositoryId, objectId, filter,
+                    includeAllowableActions, includeRelationships, renditionFilter, includePolicyIds, includeAcl,
+                    extension, executor);
+        }
+
+        // the SPI blocks -> run it on the executor
+        return CompletableFuture.supplyAsync(new Supplier<ObjectData>() {
+            @Override
+            public ObjectData get() {
+                return getObject(repositoryId, objectId, filter, includeAllowableActions, includeRelationships,
+                        renditionFilter, includePolicyIds, includeAcl, extension);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<ObjectData> getObjectByPathAsync(final String repositoryId, final String path,
+            final String filter, final Boolean includeAllowableActions, final IncludeRelationships includeRelationships,
+            final String renditionFilter, final Boolean includePolicyIds, final Boolean includeAcl,
+            final ExtensionsData extension, Executor executor) {
+        ObjectService spiObjectService = getSpiObjectService();
+        if (spiObjectService instanceof AsyncObjectService) {
+            return ((AsyncObjectService) spiObjectService).getObjectByPathAsync(repositoryId, path, filter,
+                    includeAllowableActions, includeRelationships, renditionFilter, includePolicyIds, includeAcl,
+                    extension, executor);
+        }
+
+        // the SPI blocks -> run it on the executor
+        return CompletableFuture.supplyAsync(new Supplier<ObjectData>() {
+            @Override
+            public ObjectData get() {
+                return getObjectByPath(repositoryId, path, filter, includeAllowableActions, includeRelationships,
+                        renditionFilter, includePolicyIds, includeAcl, extension);
+            }
+        }, executor);
+    }
+
+    @Override
+    public ContentStream getContentStream(String repositoryId, String objectId, String streamId, BigInteger offset,
+            BigInteger length, ExtensionsData extension) {
+        return getSpiObjectService().getContentStream(repositoryId, objectId, streamId, offset, length, extension);
+    }
+
+    @Override
+    public void updateProperties(String repositoryId, Holder<String> objectId, Holder<String> changeToken,
+            Properties properties, ExtensionsData extension) {
+        getSpiObjectService().updateProperties(repositoryId, objectId, changeToken, properties, extension);
+    }
+
+    @Override
+    public List<BulkUpdateObjectIdAndChangeToken> bulkUpdateProperties(String repositoryId,
+            List<BulkUpdateObjectIdAndChangeToken> objectIdsAndChangeTokens, Properties properties,
+            List<String> addSecondaryTypeIds, List<String> removeSecondaryTypeIds, ExtensionsData extension) {
+        return getSpiObjectService().bulkUpdateProperties(repositoryId, objectIdsAndChangeTokens, properties,
+                addSecondaryTypeIds, removeSecondaryTypeIds, extension);
+    }
+
+    @Override
+    public void moveObject(String repositoryId, Holder<String> objectId, String targetFolderId,
+            String sourceFolderId, ExtensionsData extension) {
+        getSpiObjectService().moveObject(repositoryId, objectId, targetFolderId, sourceFolderId, extension);
+    }
+
+    @Override
+    public void deleteObject(String repositoryId, String objectId, Boolean allVersions, ExtensionsData extension) {
+        getSpiObjectService().deleteObject(repositoryId, objectId, allVersions, extension);
+    }
+
+    @Override
+    public FailedToDeleteData deleteTree(String repositoryId, String folderId, Boolean allVersions,
+            UnfileObject unfileObjects, Boolean continueOnFailure, ExtensionsData extension) {
+        return getSpiObjectService().deleteTree(repositoryId, folderId, allVersions, unfileObjects,
+                continueOnFailure, extension);
+    }
+
+    @Override
+    public void setContentStream(String repositoryId, Holder<String> objectId, Boolean overwriteFlag,
+            Holder<String> changeToken, ContentStream contentStream, ExtensionsData extension) {
+        getSpiObjectService().setContentStream(repositoryId, objectId, overwriteFlag, changeToken, contentStream,
+                extension);
+    }
+
+    @Override
+    public void deleteContentStream(String repositoryId, Holder<String> objectId, Holder<String> changeToken,
+            ExtensionsData extension) {
+        getSpiObjectService().deleteContentStream(repositoryId, objectId, changeToken, extension);
+    }
+
+    @Override
+    public void appendContentStream(String repositoryId, Holder<String> objectId, Holder<String> changeToken,
+            ContentStream contentStream, boolean isLastChunk, ExtensionsData extension) {
+        getSpiObjectService().appendContentStream(repositoryId, objectId, changeToken, contentStream, isLastChunk,
+                extension);
+    }
+
+    private ObjectService getSpiObjectService() {
+        CmisSpi spi = CmisBindingsHelper.getSPI(session);
+        return spi.getObjectService();
+    }
+
+    private static boolean hasExtension(ExtensionsData extension) {
+        return (extension != null) && isNotEmpty(extension.getExtensions());
+    }
+
+    private static String createKey(String kind, String repositoryId, String idOrPath, String filter,
+            Boolean includeAllowableActions, IncludeRelationships includeRelationships, String renditionFilter,
+            Boolean includePolicyIds, Boolean includeAcl) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append(kind).append('\0').append(repositoryId).append('\0').append(idOrPath).append('\0')
+                .append(filter).append('\0').append(includeAllowableActions).append('\0')
+                .append(includeRelationships).append('\0').append(renditionFilter).append('\0')
+                .append(includePolicyIds).append('\0').append(includeAcl);
+
+        return sb.toString();
+    }
+}
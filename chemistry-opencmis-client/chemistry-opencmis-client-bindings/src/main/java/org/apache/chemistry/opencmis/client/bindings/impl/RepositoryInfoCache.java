@@ -20,19 +20,23 @@
 package org.apache.chemistry.opencmis.client.bindings.impl;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.chemistry.opencmis.client.bindings.cache.Cache;
+import org.apache.chemistry.opencmis.client.bindings.cache.CacheStatisticsProvider;
 import org.apache.chemistry.opencmis.client.bindings.cache.impl.CacheImpl;
 import org.apache.chemistry.opencmis.client.bindings.cache.impl.MapCacheLevelImpl;
 import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
 import org.apache.chemistry.opencmis.commons.SessionParameter;
 import org.apache.chemistry.opencmis.commons.SessionParameterDefaults;
 import org.apache.chemistry.opencmis.commons.data.RepositoryInfo;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
 
 /**
  * A cache for repository info objects.
  */
-public class RepositoryInfoCache implements Serializable {
+public class RepositoryInfoCache implements CacheStatisticsProvider, Serializable {
 
     private static final long serialVersionUID = 1L;
 
@@ -94,6 +98,11 @@ public class RepositoryInfoCache implements Serializable {
         cache.remove(repositoryId);
     }
 
+    @Override
+    public List<CacheStatistics> getCacheStatistics() {
+        return Collections.singletonList(cache.getStatistics());
+    }
+
     @Override
     public String toString() {
         return cache.toString();
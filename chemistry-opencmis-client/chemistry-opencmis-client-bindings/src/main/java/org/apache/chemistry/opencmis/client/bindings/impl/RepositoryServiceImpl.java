@@ -66,6 +66,7 @@ public class RepositoryServiceImpl implements RepositoryService, ExtendedReposit
         if (!hasExtension) {
             result = cache.get(repositoryId);
             if (result != null) {
+                MetadataCacheStore.validateLazily(session, result);
                 return result;
             }
         }
@@ -77,6 +78,7 @@ public class RepositoryServiceImpl implements RepositoryService, ExtendedReposit
         // put it into the cache
         if (!hasExtension) {
             cache.put(result);
+            MetadataCacheStore.markValidated(session, repositoryId);
         }
 
         return result;
@@ -95,6 +97,7 @@ public class RepositoryServiceImpl implements RepositoryService, ExtendedReposit
         if (!hasExtension && (result != null)) {
             RepositoryInfoCache cache = CmisBindingsHelper.getRepositoryInfoCache(session);
             for (RepositoryInfo rid : result) {
+                MetadataCacheStore.validateFetched(session, rid);
                 cache.put(rid);
             }
         }
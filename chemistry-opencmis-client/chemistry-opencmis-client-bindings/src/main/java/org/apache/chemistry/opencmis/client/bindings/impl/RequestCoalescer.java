@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.impl;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.apache.chemistry.opencmis.client.bindings.cache.impl.CacheStatisticsCollector;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
+
+/**
+ * Coalesces identical concurrent requests.
+ * <p>
+ * If a request with the same key is already in flight, the calling thread
+ * waits for its result instead of executing the request again. Results are not
+ * kept after the request has finished.
+ * <p>
+ * The statistics count coalesced requests as hits and executed requests as
+ * misses. The entry count is the number of requests in flight.
+ */
+public class RequestCoalescer<V> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * A request that can be coalesced.
+     */
+    public interface Request<V> {
+        V execute();
+    }
+
+    private final CacheStatisticsCollector statistics;
+    private transient ConcurrentMap<String, FutureTask<V>> inFlight;
+
+    /**
+     * Constructor.
+     *
+     * @param name
+     *            the name used in the statistics
+     */
+    public RequestCoalescer(String name) {
+        statistics = new CacheStatisticsCollector(name);
+        inFlight = new ConcurrentHashMap<String, FutureTask<V>>();
+    }
+
+    /**
+     * Executes the request or waits for the identical request that is already
+     * in flight.
+     *
+     * @param key
+     *            the key that identifies identical requests
+     * @param request
+     *            the request
+     *
+     * @return the result of the request
+     */
+    public V execute(String key, final Request<V> request) {
+        FutureTask<V> task = new FutureTask<V>(new Callable<V>() {
+            @Override
+            public V call() {
+                return request.execute();
+            }
+        });
+
+        FutureTask<V> pending = inFlight.putIfAbsent(key, task);
+        if (pending == null) {
+            statistics.recordMiss();
+            pending = task;
+            try {
+                task.run();
+            } finally {
+                inFlight.remove(key, task);
+            }
+        } else {
+            statistics.recordHit();
+        }
+
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CmisRuntimeException("Interrupted while waiting for a concurrent request!", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CmisRuntimeException("Request failed: " + cause, cause);
+        }
+    }
+
+    /**
+     * Returns the number of requests that have been served by a concurrent
+     * identical request.
+     */
+    public long getCoalescedCount() {
+        return statistics.getStatistics(-1).getHitCount();
+    }
+
+    /**
+     * Returns the number of requests that have been executed.
+     */
+    public long getExecutedCount() {
+        return statistics.getStatistics(-1).getMissCount();
+    }
+
+    /**
+     * Returns the statistics of this coalescer.
+     */
+    public CacheStatistics getStatistics() {
+        return statistics.getStatistics(inFlight.size());
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        inFlight = new ConcurrentHashMap<String, FutureTask<V>>();
+    }
+}
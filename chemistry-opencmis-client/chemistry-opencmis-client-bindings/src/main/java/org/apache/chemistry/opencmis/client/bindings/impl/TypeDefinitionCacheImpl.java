@@ -18,20 +18,27 @@
  */
 package org.apache.chemistry.opencmis.client.bindings.impl;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.apache.chemistry.opencmis.client.bindings.cache.Cache;
+import org.apache.chemistry.opencmis.client.bindings.cache.CacheStatisticsProvider;
 import org.apache.chemistry.opencmis.client.bindings.cache.TypeDefinitionCache;
-import org.apache.chemistry.opencmis.client.bindings.cache.impl.CacheImpl;
+import org.apache.chemistry.opencmis.client.bindings.cache.impl.ConcurrentCacheImpl;
+import org.apache.chemistry.opencmis.client.bindings.cache.impl.ConcurrentLruCacheLevelImpl;
+import org.apache.chemistry.opencmis.client.bindings.cache.impl.ConcurrentMapCacheLevelImpl;
 import org.apache.chemistry.opencmis.client.bindings.cache.impl.LruCacheLevelImpl;
 import org.apache.chemistry.opencmis.client.bindings.cache.impl.MapCacheLevelImpl;
 import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
 import org.apache.chemistry.opencmis.commons.SessionParameter;
 import org.apache.chemistry.opencmis.commons.SessionParameterDefaults;
 import org.apache.chemistry.opencmis.commons.definitions.TypeDefinition;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
 
 /**
  * A cache for type definition objects.
  */
-public class TypeDefinitionCacheImpl implements TypeDefinitionCache {
+public class TypeDefinitionCacheImpl implements TypeDefinitionCache, CacheStatisticsProvider {
 
     private static final long serialVersionUID = 1L;
 
@@ -59,10 +66,12 @@ public class TypeDefinitionCacheImpl implements TypeDefinitionCache {
             typeCount = SessionParameterDefaults.CACHE_SIZE_TYPES;
         }
 
-        cache = new CacheImpl("Type Definition Cache");
+        cache = new ConcurrentCacheImpl("Type Definition Cache");
         cache.initialize(new String[] {
-                MapCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=" + repCount, // repository
-                LruCacheLevelImpl.class.getName() + " " + LruCacheLevelImpl.MAX_ENTRIES + "=" + typeCount // type
+                ConcurrentMapCacheLevelImpl.class.getName() + " "
+                        + MapCacheLevelImpl.CAPACITY + "=" + repCount, // repository
+                ConcurrentLruCacheLevelImpl.class.getName() + " "
+                        + LruCacheLevelImpl.MAX_ENTRIES + "=" + typeCount // type
         });
     }
 
@@ -99,6 +108,11 @@ public class TypeDefinitionCacheImpl implements TypeDefinitionCache {
         cache.removeAll();
     }
 
+    @Override
+    public List<CacheStatistics> getCacheStatistics() {
+        return Collections.singletonList(cache.getStatistics());
+    }
+
     @Override
     public String toString() {
         return cache.toString();
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.apache.chemistry.opencmis.commons.data.ExtensionsData;
+import org.apache.chemistry.opencmis.commons.data.ObjectData;
+import org.apache.chemistry.opencmis.commons.enums.IncludeRelationships;
+
+/**
+ * Object service operations that don't block the calling thread while the
+ * request is in flight.
+ * <p>
+ * The request is sent through the
+ * {@link org.apache.chemistry.opencmis.client.bindings.spi.http.AsyncHttpInvoker}
+ * of the session. The response is checked and parsed on the given executor,
+ * never on a thread of the HTTP client. With a non-blocking HTTP invoker, many
+ * requests can be in flight while only the executor threads parse responses.
+ * <p>
+ * The requests bypass the coalescing of identical {@code getObject} calls.
+ *
+ * @see org.apache.chemistry.opencmis.commons.spi.ObjectService
+ */
+public interface AsyncObjectService {
+
+    /**
+     * Gets the specified information for the object.
+     *
+     * @param executor
+     *            the executor that checks and parses the response
+     *
+     * @see org.apache.chemistry.opencmis.commons.spi.ObjectService#getObject(String,
+     *      String, String, Boolean, IncludeRelationships, String, Boolean,
+     *      Boolean, ExtensionsData)
+     */
+    CompletableFuture<ObjectData> getObjectAsync(String repositoryId, String objectId, String filter,
+            Boolean includeAllowableActions, IncludeRelationships includeRelationships, String renditionFilter,
+            Boolean includePolicyIds, Boolean includeAcl, ExtensionsData extension, Executor executor);
+
+    /**
+     * Gets the specified information for the object.
+     *
+     * @param executor
+     *            the executor that checks and parses the response
+     *
+     * @see org.apache.chemistry.opencmis.commons.spi.ObjectService#getObjectByPath(String,
+     *      String, String, Boolean, IncludeRelationships, String, Boolean,
+     *      Boolean, ExtensionsData)
+     */
+    CompletableFuture<ObjectData> getObjectByPathAsync(String repositoryId, String path, String filter,
+            Boolean includeAllowableActions, IncludeRelationships includeRelationships, String renditionFilter,
+            Boolean includePolicyIds, Boolean includeAcl, ExtensionsData extension, Executor executor);
+}
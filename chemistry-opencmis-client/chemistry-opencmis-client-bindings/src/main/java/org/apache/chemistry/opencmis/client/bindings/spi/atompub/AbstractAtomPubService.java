@@ -44,6 +44,7 @@ import org.apache.chemistry.opencmis.client.bindings.spi.atompub.objects.AtomLin
 import org.apache.chemistry.opencmis.client.bindings.spi.atompub.objects.RepositoryWorkspace;
 import org.apache.chemistry.opencmis.client.bindings.spi.atompub.objects.ServiceDoc;
 import org.apache.chemistry.opencmis.client.bindings.spi.http.HttpInvoker;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.MonitoringHttpInvoker;
 import org.apache.chemistry.opencmis.client.bindings.spi.http.Output;
 import org.apache.chemistry.opencmis.client.bindings.spi.http.Response;
 import org.apache.chemistry.opencmis.commons.PropertyIds;
@@ -116,6 +117,12 @@ public abstract class AbstractAtomPubService implements LinkAccess {
     private static final String EXCEPTION_VALUE_BEGIN = "<!--value-->";
     private static final String EXCEPTION_VALUE_END = "<!--/value-->";
 
+    /**
+     * Operation of the next request of the current thread. Only used if the
+     * requests are monitored.
+     */
+    private static final ThreadLocal<String> OPERATION = new ThreadLocal<String>();
+
     private BindingSession session;
 
     /**
@@ -223,7 +230,8 @@ public abstract class AbstractAtomPubService implements LinkAccess {
             link = getLink(repositoryId, id, rel, type);
         }
 
-        return link;
+        // the content link is not a real link relation
+        return withOperation(link, AtomPubParser.LINK_REL_CONTENT.equals(rel) ? Constants.SELECTOR_CONTENT : rel);
     }
 
     /**
@@ -334,7 +342,7 @@ public abstract class AbstractAtomPubService implements LinkAccess {
             link = getTypeLink(repositoryId, typeId, rel, type);
         }
 
-        return link;
+        return withOperation(link, rel);
     }
 
     /**
@@ -391,7 +399,7 @@ public abstract class AbstractAtomPubService implements LinkAccess {
             link = getCollection(repositoryId, collection);
         }
 
-        return link;
+        return withOperation(link, collection);
     }
 
     /**
@@ -420,7 +428,7 @@ public abstract class AbstractAtomPubService implements LinkAccess {
             link = getRepositoryLink(repositoryId, rel);
         }
 
-        return link;
+        return withOperation(link, rel);
     }
 
     /**
@@ -456,7 +464,7 @@ public abstract class AbstractAtomPubService implements LinkAccess {
             link = getTemplateLink(repositoryId, type, parameters);
         }
 
-        return link;
+        return withOperation(link, type);
     }
 
     /**
@@ -688,13 +696,75 @@ public abstract class AbstractAtomPubService implements LinkAccess {
         return (T) parseResult;
     }
 
+    /**
+     * Remembers the operation of the next request of the current thread if
+     * the requests are monitored.
+     * 
+     * @return the link
+     */
+    protected String withOperation(String link, String operation) {
+        if (link != null && getHttpInvoker() instanceof MonitoringHttpInvoker) {
+            OPERATION.set(operation);
+        }
+
+        return link;
+    }
+
+    /**
+     * Returns and forgets the operation of the current request.
+     */
+    private static String takeOperation() {
+        String operation = OPERATION.get();
+        if (operation != null) {
+            OPERATION.remove();
+        }
+
+        return operation;
+    }
+
+    /**
+     * Performs a GET on an URL and returns the response.
+     */
+    protected Response invokeGET(UrlBuilder url) {
+        HttpInvoker invoker = getHttpInvoker();
+        if (invoker instanceof MonitoringHttpInvoker) {
+            return ((MonitoringHttpInvoker) invoker).invokeGET(url, session, takeOperation());
+        }
+
+        return invoker.invokeGET(url, session);
+    }
+
+    /**
+     * Performs a GET on an URL with a range and returns the response.
+     */
+    protected Response invokeGET(UrlBuilder url, BigInteger offset, BigInteger length) {
+        HttpInvoker invoker = getHttpInvoker();
+        if (invoker instanceof MonitoringHttpInvoker) {
+            return ((MonitoringHttpInvoker) invoker).invokeGET(url, session, offset, length, takeOperation());
+        }
+
+        return invoker.invokeGET(url, session, offset, length);
+    }
+
+    /**
+     * Performs a DELETE on an URL and returns the response.
+     */
+    protected Response invokeDELETE(UrlBuilder url) {
+        HttpInvoker invoker = getHttpInvoker();
+        if (invoker instanceof MonitoringHttpInvoker) {
+            return ((MonitoringHttpInvoker) invoker).invokeDELETE(url, session, takeOperation());
+        }
+
+        return invoker.invokeDELETE(url, session);
+    }
+
     /**
      * Performs a GET on an URL, checks the response code and returns the
      * result.
      */
     protected Response read(UrlBuilder url) {
         // make the call
-        Response resp = getHttpInvoker().invokeGET(url, session);
+        Response resp = invokeGET(url);
 
         // check response code
         if (resp.getResponseCode() != 200) {
@@ -710,7 +780,13 @@ public abstract class AbstractAtomPubService implements LinkAccess {
      */
     protected Response post(UrlBuilder url, String contentType, Output writer) {
         // make the call
-        Response resp = getHttpInvoker().invokePOST(url, contentType, writer, session);
+        HttpInvoker invoker = getHttpInvoker();
+        Response resp;
+        if (invoker instanceof MonitoringHttpInvoker) {
+            resp = ((MonitoringHttpInvoker) invoker).invokePOST(url, contentType, writer, session, takeOperation());
+        } else {
+            resp = invoker.invokePOST(url, contentType, writer, session);
+        }
 
         // check response code
         if (resp.getResponseCode() != 201) {
@@ -743,7 +819,14 @@ public abstract class AbstractAtomPubService implements LinkAccess {
      */
     protected Response put(UrlBuilder url, String contentType, Map<String, String> headers, Output writer) {
         // make the call
-        Response resp = getHttpInvoker().invokePUT(url, contentType, headers, writer, session);
+        HttpInvoker invoker = getHttpInvoker();
+        Response resp;
+        if (invoker instanceof MonitoringHttpInvoker) {
+            resp = ((MonitoringHttpInvoker) invoker).invokePUT(url, contentType, headers, writer, session,
+                    takeOperation());
+        } else {
+            resp = invoker.invokePUT(url, contentType, headers, writer, session);
+        }
 
         // check response code
         if ((resp.getResponseCode() < 200) || (resp.getResponseCode() > 299)) {
@@ -759,7 +842,7 @@ public abstract class AbstractAtomPubService implements LinkAccess {
      */
     protected void delete(UrlBuilder url) {
         // make the call
-        Response resp = getHttpInvoker().invokeDELETE(url, session);
+        Response resp = invokeDELETE(url);
 
         // check response code
         if (resp.getResponseCode() != 204) {
@@ -29,7 +29,7 @@ import org.apache.chemistry.opencmis.client.bindings.spi.atompub.objects.AtomEle
 import org.apache.chemistry.opencmis.client.bindings.spi.atompub.objects.AtomEntry;
 import org.apache.chemistry.opencmis.client.bindings.spi.atompub.objects.AtomFeed;
 import org.apache.chemistry.opencmis.client.bindings.spi.atompub.objects.AtomLink;
-import org.apache.chemistry.opencmis.client.bindings.spi.http.Output;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.RepeatableOutput;
 import org.apache.chemistry.opencmis.client.bindings.spi.http.Response;
 import org.apache.chemistry.opencmis.commons.data.ExtensionsData;
 import org.apache.chemistry.opencmis.commons.data.ObjectData;
@@ -178,7 +178,7 @@ public class DiscoveryServiceImpl extends AbstractAtomPubService implements Disc
         final CmisVersion cmisVersion = getCmisVersion(repositoryId);
 
         // post the query and parse results
-        Response resp = post(url, Constants.MEDIATYPE_QUERY, new Output() {
+        Response resp = post(url, Constants.MEDIATYPE_QUERY, new RepeatableOutput() {
             @Override
             public void write(OutputStream out) throws Exception {
                 XMLStreamWriter writer = XMLUtils.createWriter(out);
@@ -19,13 +19,18 @@
 package org.apache.chemistry.opencmis.client.bindings.spi.atompub;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.apache.chemistry.opencmis.client.bindings.cache.Cache;
-import org.apache.chemistry.opencmis.client.bindings.cache.impl.CacheImpl;
-import org.apache.chemistry.opencmis.client.bindings.cache.impl.ContentTypeCacheLevelImpl;
+import org.apache.chemistry.opencmis.client.bindings.cache.CacheStatisticsProvider;
+import org.apache.chemistry.opencmis.client.bindings.cache.impl.ConcurrentCacheImpl;
+import org.apache.chemistry.opencmis.client.bindings.cache.impl.ConcurrentContentTypeCacheLevelImpl;
+import org.apache.chemistry.opencmis.client.bindings.cache.impl.ConcurrentLruCacheLevelImpl;
+import org.apache.chemistry.opencmis.client.bindings.cache.impl.ConcurrentMapCacheLevelImpl;
 import org.apache.chemistry.opencmis.client.bindings.cache.impl.LruCacheLevelImpl;
 import org.apache.chemistry.opencmis.client.bindings.cache.impl.MapCacheLevelImpl;
 import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
@@ -34,11 +39,12 @@ import org.apache.chemistry.opencmis.commons.SessionParameterDefaults;
 import org.apache.chemistry.opencmis.commons.impl.Constants;
 import org.apache.chemistry.opencmis.commons.impl.IOUtils;
 import org.apache.chemistry.opencmis.commons.impl.UrlBuilder;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
 
 /**
  * Link cache.
  */
-public class LinkCache implements Serializable {
+public class LinkCache implements CacheStatisticsProvider, Serializable {
 
     private static final long serialVersionUID = 1L;
 
@@ -85,40 +91,47 @@ public class LinkCache implements Serializable {
             objCount = SessionParameterDefaults.CACHE_SIZE_LINKS;
         }
 
-        linkCache = new CacheImpl("Link Cache");
+        linkCache = new ConcurrentCacheImpl("Link Cache");
         linkCache.initialize(new String[] {
-                MapCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=" + repCount, // repository
-                LruCacheLevelImpl.class.getName() + " " + LruCacheLevelImpl.MAX_ENTRIES + "=" + objCount, // id
-                MapCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=12", // rel
-                ContentTypeCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=3,"
+                ConcurrentMapCacheLevelImpl.class.getName() + " "
+                        + MapCacheLevelImpl.CAPACITY + "=" + repCount, // repository
+                ConcurrentLruCacheLevelImpl.class.getName() + " "
+                        + LruCacheLevelImpl.MAX_ENTRIES + "=" + objCount, // id
+                ConcurrentMapCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=12", // rel
+                ConcurrentContentTypeCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=3,"
                         + MapCacheLevelImpl.SINGLE_VALUE + "=true" // type
         });
 
-        typeLinkCache = new CacheImpl("Type Link Cache");
+        typeLinkCache = new ConcurrentCacheImpl("Type Link Cache");
         typeLinkCache.initialize(new String[] {
-                MapCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=" + repCount, // repository
-                LruCacheLevelImpl.class.getName() + " " + LruCacheLevelImpl.MAX_ENTRIES + "=" + typeCount, // id
-                MapCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=12", // rel
-                ContentTypeCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=3,"
+                ConcurrentMapCacheLevelImpl.class.getName() + " "
+                        + MapCacheLevelImpl.CAPACITY + "=" + repCount, // repository
+                ConcurrentLruCacheLevelImpl.class.getName() + " "
+                        + LruCacheLevelImpl.MAX_ENTRIES + "=" + typeCount, // id
+                ConcurrentMapCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=12", // rel
+                ConcurrentContentTypeCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=3,"
                         + MapCacheLevelImpl.SINGLE_VALUE + "=true"// type
         });
 
-        collectionLinkCache = new CacheImpl("Collection Link Cache");
+        collectionLinkCache = new ConcurrentCacheImpl("Collection Link Cache");
         collectionLinkCache.initialize(new String[] {
-                MapCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=" + repCount, // repository
-                MapCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=8" // collection
+                ConcurrentMapCacheLevelImpl.class.getName() + " "
+                        + MapCacheLevelImpl.CAPACITY + "=" + repCount, // repository
+                ConcurrentMapCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=8" // collection
         });
 
-        templateCache = new CacheImpl("URI Template Cache");
+        templateCache = new ConcurrentCacheImpl("URI Template Cache");
         templateCache.initialize(new String[] {
-                MapCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=" + repCount, // repository
-                MapCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=6" // type
+                ConcurrentMapCacheLevelImpl.class.getName() + " "
+                        + MapCacheLevelImpl.CAPACITY + "=" + repCount, // repository
+                ConcurrentMapCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=6" // type
         });
 
-        repositoryLinkCache = new CacheImpl("Repository Link Cache");
+        repositoryLinkCache = new ConcurrentCacheImpl("Repository Link Cache");
         repositoryLinkCache.initialize(new String[] {
-                MapCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=" + repCount, // repository
-                MapCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=6" // rel
+                ConcurrentMapCacheLevelImpl.class.getName() + " "
+                        + MapCacheLevelImpl.CAPACITY + "=" + repCount, // repository
+                ConcurrentMapCacheLevelImpl.class.getName() + " " + MapCacheLevelImpl.CAPACITY + "=6" // rel
         });
     }
 
@@ -322,6 +335,17 @@ public class LinkCache implements Serializable {
         repositoryLinkCache.remove(repositoryId);
     }
 
+    @Override
+    public List<CacheStatistics> getCacheStatistics() {
+        List<CacheStatistics> result = new ArrayList<CacheStatistics>(5);
+        result.add(linkCache.getStatistics());
+        result.add(typeLinkCache.getStatistics());
+        result.add(collectionLinkCache.getStatistics());
+        result.add(templateCache.getStatistics());
+        result.add(repositoryLinkCache.getStatistics());
+        return result;
+    }
+
     /*
      * (non-Javadoc)
      * 
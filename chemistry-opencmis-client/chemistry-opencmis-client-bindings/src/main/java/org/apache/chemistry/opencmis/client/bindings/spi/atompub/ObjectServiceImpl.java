@@ -18,6 +18,7 @@
  */
 package org.apache.chemistry.opencmis.client.bindings.spi.atompub;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -35,6 +36,7 @@ import org.apache.chemistry.opencmis.client.bindings.spi.atompub.objects.AtomEle
 import org.apache.chemistry.opencmis.client.bindings.spi.atompub.objects.AtomEntry;
 import org.apache.chemistry.opencmis.client.bindings.spi.atompub.objects.AtomFeed;
 import org.apache.chemistry.opencmis.client.bindings.spi.atompub.objects.AtomLink;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.FixedLengthOutput;
 import org.apache.chemistry.opencmis.client.bindings.spi.http.Output;
 import org.apache.chemistry.opencmis.client.bindings.spi.http.Response;
 import org.apache.chemistry.opencmis.commons.PropertyIds;
@@ -45,6 +47,7 @@ import org.apache.chemistry.opencmis.commons.data.BulkUpdateObjectIdAndChangeTok
 import org.apache.chemistry.opencmis.commons.data.ContentStream;
 import org.apache.chemistry.opencmis.commons.data.ExtensionsData;
 import org.apache.chemistry.opencmis.commons.data.FailedToDeleteData;
+import org.apache.chemistry.opencmis.commons.data.FileContentStream;
 import org.apache.chemistry.opencmis.commons.data.ObjectData;
 import org.apache.chemistry.opencmis.commons.data.Properties;
 import org.apache.chemistry.opencmis.commons.data.PropertyData;
@@ -518,13 +521,16 @@ public class ObjectServiceImpl extends AbstractAtomPubService implements ObjectS
         url.addParameter(Constants.PARAM_CONTINUE_ON_FAILURE, continueOnFailure);
 
         // make the call
-        Response resp = getHttpInvoker().invokeDELETE(url, getSession());
+        Response resp = invokeDELETE(url);
 
         // check response code
         if (resp.getResponseCode() == 200 || resp.getResponseCode() == 202 || resp.getResponseCode() == 204) {
             return new FailedToDeleteDataImpl();
         }
 
+        // read the error page now, this releases the connection
+        String errorContent = resp.getErrorContent();
+
         // If the server returned an internal server error, get the remaining
         // children of the folder. We only retrieve the first level, since
         // getDescendants() is not supported by all repositories.
@@ -561,7 +567,7 @@ public class ObjectServiceImpl extends AbstractAtomPubService implements ObjectS
             }
         }
 
-        throw convertStatusCode(resp.getResponseCode(), resp.getResponseMessage(), resp.getErrorContent(), null);
+        throw convertStatusCode(resp.getResponseCode(), resp.getResponseMessage(), errorContent, null);
     }
 
     @Override
@@ -610,7 +616,7 @@ public class ObjectServiceImpl extends AbstractAtomPubService implements ObjectS
         url.addParameter(Constants.PARAM_STREAM_ID, streamId);
 
         // get the content
-        Response resp = getHttpInvoker().invokeGET(url, getSession(), offset, length);
+        Response resp = invokeGET(url, offset, length);
 
         // check response code
         if ((resp.getResponseCode() != 200) && (resp.getResponseCode() != 206)) {
@@ -820,7 +826,10 @@ public class ObjectServiceImpl extends AbstractAtomPubService implements ObjectS
         }
 
         // we need content
-        if ((contentStream == null) || (contentStream.getStream() == null) || (contentStream.getMimeType() == null)) {
+        final File file = (contentStream instanceof FileContentStream ? ((FileContentStream) contentStream)
+                .getFile() : null);
+        if ((contentStream == null) || (file == null && contentStream.getStream() == null)
+                || (contentStream.getMimeType() == null)) {
             throw new CmisInvalidArgumentException("Content must be set!");
         }
 
@@ -843,8 +852,6 @@ public class ObjectServiceImpl extends AbstractAtomPubService implements ObjectS
             url.addParameter(Constants.PARAM_OVERWRITE_FLAG, overwriteFlag);
         }
 
-        final InputStream stream = contentStream.getStream();
-
         // Content-Disposition header for the filename
         Map<String, String> headers = null;
         if (contentStream.getFileName() != null) {
@@ -856,12 +863,32 @@ public class ObjectServiceImpl extends AbstractAtomPubService implements ObjectS
         }
 
         // send content
-        Response resp = put(url, contentStream.getMimeType(), headers, new Output() {
-            @Override
-            public void write(OutputStream out) throws IOException {
-                IOUtils.copy(stream, out);
-            }
-        });
+        Output output;
+        if (file != null) {
+            // send the file directly with its length
+            final long length = file.length();
+            output = new FixedLengthOutput() {
+                @Override
+                public long getLength() {
+                    return length;
+                }
+
+                @Override
+                public void write(OutputStream out) throws IOException {
+                    IOUtils.copyFile(file, length, out);
+                }
+            };
+        } else {
+            final InputStream stream = contentStream.getStream();
+            output = new Output() {
+                @Override
+                public void write(OutputStream out) throws IOException {
+                    IOUtils.copy(stream, out);
+                }
+            };
+        }
+
+        Response resp = put(url, contentStream.getMimeType(), headers, output);
 
         // check response code further
         if ((resp.getResponseCode() != 200) && (resp.getResponseCode() != 201) && (resp.getResponseCode() != 204)) {
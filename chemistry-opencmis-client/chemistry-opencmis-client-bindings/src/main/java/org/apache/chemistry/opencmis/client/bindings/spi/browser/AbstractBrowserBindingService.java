@@ -18,19 +18,28 @@
  */
 package org.apache.chemistry.opencmis.client.bindings.spi.browser;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 import org.apache.chemistry.opencmis.client.bindings.impl.CmisBindingsHelper;
 import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
 import org.apache.chemistry.opencmis.client.bindings.spi.LinkAccess;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.AsyncHttpInvoker;
 import org.apache.chemistry.opencmis.client.bindings.spi.http.HttpInvoker;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.MonitoringHttpInvoker;
 import org.apache.chemistry.opencmis.client.bindings.spi.http.Output;
 import org.apache.chemistry.opencmis.client.bindings.spi.http.Response;
 import org.apache.chemistry.opencmis.commons.PropertyIds;
@@ -77,6 +86,8 @@ import org.apache.chemistry.opencmis.commons.spi.Holder;
  */
 public abstract class AbstractBrowserBindingService implements LinkAccess {
 
+    private static final String JSON_MEDIATYPE = "application/json";
+
     protected static final ContainerFactory SIMPLE_CONTAINER_FACTORY = new ContainerFactory() {
         @Override
         public Map<String, Object> createObjectContainer() {
@@ -121,6 +132,13 @@ public abstract class AbstractBrowserBindingService implements LinkAccess {
         return CmisBindingsHelper.getHttpInvoker(session);
     }
 
+    /**
+     * Gets the asynchronous HTTP Invoker object.
+     */
+    protected AsyncHttpInvoker getAsyncHttpInvoker() {
+        return CmisBindingsHelper.getAsyncHttpInvoker(session);
+    }
+
     /**
      * Returns the service URL of this session.
      */
@@ -243,6 +261,111 @@ public abstract class AbstractBrowserBindingService implements LinkAccess {
 
     // ---- exceptions ----
 
+    /**
+     * Converts an error response into an Exception.
+     * <p>
+     * JSON error pages are parsed directly from the error stream, which ends
+     * after 128 KiB. The bytes are recorded while they are parsed, so that the
+     * exception keeps the raw text of the error page. If the error page is not
+     * valid JSON or has been truncated, only the raw text is kept. Other error
+     * pages are only read if they are text.
+     */
+    protected CmisBaseException convertStatusCode(Response resp) {
+        if (isJsonContentType(resp.getContentTypeHeader())) {
+            InputStream stream = resp.getErrorStream();
+            if (stream != null) {
+                RecordingInputStream recorder = new RecordingInputStream(stream);
+
+                Object obj = null;
+                try {
+                    JSONParser parser = new JSONParser();
+                    obj = parser.parse(new InputStreamReader(recorder, resp.getCharset()));
+                } catch (JSONParseException pe) {
+                    // error content is not valid JSON or has been truncated
+                    // -> ignore
+                } catch (IOException ioe) {
+                    // error content cannot be read completely -> use what we
+                    // have
+                }
+
+                String errorContent;
+                try {
+                    // record the rest of the error page
+                    byte[] buffer = new byte[4096];
+                    while (recorder.read(buffer) > -1) {
+                        // just record
+                    }
+                } catch (IOException ioe) {
+                    // use what we have
+                } finally {
+                    IOUtils.closeQuietly(stream);
+                }
+
+                try {
+                    errorContent = recorder.getRecording().toString(resp.getCharset());
+                } catch (UnsupportedEncodingException uee) {
+                    errorContent = null;
+                }
+
+                return convertStatusCode(resp.getResponseCode(), resp.getResponseMessage(), errorContent, obj, null);
+            }
+        }
+
+        return convertStatusCode(resp.getResponseCode(), resp.getResponseMessage(), resp.getErrorContent(), null);
+    }
+
+    /**
+     * Keeps a copy of all bytes that have been read.
+     */
+    private static class RecordingInputStream extends FilterInputStream {
+
+        private final ByteArrayOutputStream recording = new ByteArrayOutputStream(4096);
+
+        RecordingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b > -1) {
+                recording.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                recording.write(b, off, n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // skipped bytes have to be recorded, too
+            byte[] buffer = new byte[(int) Math.min(n, 4096)];
+            int r = read(buffer, 0, buffer.length);
+            return r < 0 ? 0 : r;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        ByteArrayOutputStream getRecording() {
+            return recording;
+        }
+    }
+
+    private static boolean isJsonContentType(String contentType) {
+        return contentType != null
+                && contentType.trim().toLowerCase(Locale.ENGLISH).startsWith(JSON_MEDIATYPE);
+    }
+
     /**
      * Converts an error message or a HTTP status code into an Exception.
      */
@@ -257,6 +380,11 @@ public abstract class AbstractBrowserBindingService implements LinkAccess {
             // error content is not valid JSON -> ignore
         }
 
+        return convertStatusCode(code, message, errorContent, obj, t);
+    }
+
+    private CmisBaseException convertStatusCode(int code, String message, String errorContent, Object obj,
+            Throwable t) {
         if (obj instanceof JSONObject) {
             JSONObject json = (JSONObject) obj;
             Object jsonError = json.get(JSONConstants.ERROR_EXCEPTION);
@@ -407,23 +535,56 @@ public abstract class AbstractBrowserBindingService implements LinkAccess {
 
         // check response code
         if (resp.getResponseCode() != 200) {
-            throw convertStatusCode(resp.getResponseCode(), resp.getResponseMessage(), resp.getErrorContent(), null);
+            throw convertStatusCode(resp);
         }
 
         return resp;
     }
 
+    /**
+     * Performs an asynchronous GET on an URL. The response code is checked on
+     * the given executor, so that neither the error page nor the response is
+     * read on a thread of the HTTP client.
+     */
+    protected CompletableFuture<Response> readAsync(UrlBuilder url, Executor executor) {
+        return getAsyncHttpInvoker().invokeGETAsync(url, session).thenApplyAsync(new Function<Response, Response>() {
+            @Override
+            public Response apply(Response resp) {
+                if (resp.getResponseCode() != 200) {
+                    throw convertStatusCode(resp);
+                }
+
+                return resp;
+            }
+        }, executor);
+    }
+
     /**
      * Performs a POST on an URL, checks the response code and returns the
      * result.
      */
     protected Response post(UrlBuilder url, String contentType, Output writer) {
+        return post(url, contentType, writer,
+                writer instanceof FormDataWriter ? ((FormDataWriter) writer).getAction() : null);
+    }
+
+    /**
+     * Performs a POST on an URL, checks the response code and returns the
+     * result. The operation is reported to the HTTP metrics.
+     */
+    protected Response post(UrlBuilder url, String contentType, Output writer, String operation) {
         // make the call
-        Response resp = getHttpInvoker().invokePOST(url, contentType, writer, session);
+        HttpInvoker invoker = getHttpInvoker();
+        Response resp;
+        if (invoker instanceof MonitoringHttpInvoker) {
+            resp = ((MonitoringHttpInvoker) invoker).invokePOST(url, contentType, writer, session, operation);
+        } else {
+            resp = invoker.invokePOST(url, contentType, writer, session);
+        }
 
         // check response code
         if (resp.getResponseCode() != 200 && resp.getResponseCode() != 201) {
-            throw convertStatusCode(resp.getResponseCode(), resp.getResponseMessage(), resp.getErrorContent(), null);
+            throw convertStatusCode(resp);
         }
 
         return resp;
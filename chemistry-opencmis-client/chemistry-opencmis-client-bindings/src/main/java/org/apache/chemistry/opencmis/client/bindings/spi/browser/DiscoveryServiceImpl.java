@@ -24,7 +24,7 @@ import java.math.BigInteger;
 import java.util.Map;
 
 import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
-import org.apache.chemistry.opencmis.client.bindings.spi.http.Output;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.RepeatableOutput;
 import org.apache.chemistry.opencmis.client.bindings.spi.http.Response;
 import org.apache.chemistry.opencmis.commons.data.ExtensionsData;
 import org.apache.chemistry.opencmis.commons.data.ObjectList;
@@ -69,12 +69,12 @@ public class DiscoveryServiceImpl extends AbstractBrowserBindingService implemen
         // Important: No succinct flag here!!!
 
         // send and parse
-        Response resp = post(url, formData.getContentType(), new Output() {
+        Response resp = post(url, formData.getContentType(), new RepeatableOutput() {
             @Override
             public void write(OutputStream out) throws IOException {
                 formData.write(out);
             }
-        });
+        }, Constants.CMISACTION_QUERY);
 
         TypeCache typeCache = new ClientTypeCacheImpl(repositoryId, this);
 
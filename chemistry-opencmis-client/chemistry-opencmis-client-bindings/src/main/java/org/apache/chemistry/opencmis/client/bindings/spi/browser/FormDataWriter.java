@@ -21,6 +21,8 @@ package org.apache.chemistry.opencmis.client.bindings.spi.browser;
 import static org.apache.chemistry.opencmis.commons.impl.CollectionsHelper.isNotEmpty;
 import static org.apache.chemistry.opencmis.commons.impl.CollectionsHelper.isNullOrEmpty;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -30,10 +32,12 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.chemistry.opencmis.client.bindings.spi.http.FixedLengthOutput;
 import org.apache.chemistry.opencmis.commons.data.Ace;
 import org.apache.chemistry.opencmis.commons.data.Acl;
 import org.apache.chemistry.opencmis.commons.data.BulkUpdateObjectIdAndChangeToken;
 import org.apache.chemistry.opencmis.commons.data.ContentStream;
+import org.apache.chemistry.opencmis.commons.data.FileContentStream;
 import org.apache.chemistry.opencmis.commons.data.Properties;
 import org.apache.chemistry.opencmis.commons.data.PropertyData;
 import org.apache.chemistry.opencmis.commons.enums.DateTimeFormat;
@@ -43,16 +47,18 @@ import org.apache.chemistry.opencmis.commons.impl.IOUtils;
 import org.apache.chemistry.opencmis.commons.impl.MimeHelper;
 import org.apache.chemistry.opencmis.commons.impl.UrlBuilder;
 
-public final class FormDataWriter {
+public final class FormDataWriter implements FixedLengthOutput {
 
     private static final String CONTENT_TYPE_URLENCODED = "application/x-www-form-urlencoded;charset=utf-8";
     private static final String CONTENT_TYPE_FORMDATA = "multipart/form-data; boundary=";
     private static final String CRLF = "\r\n";
     private static final int BUFFER_SIZE = 64 * 1024;
 
+    private final String action;
     private final String boundary;
     private final Map<String, String> parameters = new LinkedHashMap<String, String>();
     private ContentStream contentStream;
+    private long fileLength = -1;
 
     public FormDataWriter(String action) {
         this(action, null);
@@ -60,11 +66,19 @@ public final class FormDataWriter {
 
     public FormDataWriter(String action, ContentStream contentStream) {
         addParameter(Constants.CONTROL_CMISACTION, action);
+        this.action = action;
         this.contentStream = contentStream;
         boundary = "aPacHeCheMIStryoPEncmiS" + Long.toHexString(action.hashCode()) + action
                 + Long.toHexString(System.currentTimeMillis()) + Long.toHexString(this.hashCode());
     }
 
+    /**
+     * Returns the CMIS action.
+     */
+    public String getAction() {
+        return action;
+    }
+
     public void addParameter(String name, Object value) {
         if (name == null || value == null) {
             return;
@@ -233,7 +247,43 @@ public final class FormDataWriter {
         return contentStream == null ? CONTENT_TYPE_URLENCODED : CONTENT_TYPE_FORMDATA + boundary;
     }
 
+    /**
+     * Returns the size of the multipart body if the content stream is backed
+     * by a file, or -1 otherwise.
+     */
+    @Override
+    public long getLength() {
+        File file = getFile();
+        if (file == null) {
+            return -1;
+        }
+
+        if (fileLength < 0) {
+            // all writes must send the same number of bytes
+            fileLength = file.length();
+        }
+
+        try {
+            return getMultipartHeader().length + fileLength + getMultipartTrailer().length;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    @Override
     public void write(OutputStream out) throws IOException {
+        File file = getFile();
+        if (file != null) {
+            if (fileLength < 0) {
+                fileLength = file.length();
+            }
+
+            out.write(getMultipartHeader());
+            IOUtils.copyFile(file, fileLength, out);
+            out.write(getMultipartTrailer());
+            return;
+        }
+
         InputStream stream = contentStream == null ? null : contentStream.getStream();
 
         if (stream == null) {
@@ -250,43 +300,61 @@ public final class FormDataWriter {
                 out.write(IOUtils.toUTF8Bytes(param.getKey() + "=" + URLEncoder.encode(param.getValue(), IOUtils.UTF8)));
             }
         } else {
-            writeLine(out);
+            out.write(getMultipartHeader());
+            IOUtils.copy(stream, out, BUFFER_SIZE);
+            out.write(getMultipartTrailer());
+        }
+    }
 
-            // parameters
-            for (Map.Entry<String, String> param : parameters.entrySet()) {
-                writeLine(out, "--" + boundary);
-                writeLine(out, "Content-Disposition: form-data; name=\"" + param.getKey() + "\"");
-                writeLine(out, "Content-Type: text/plain; charset=utf-8");
-                writeLine(out);
-                writeLine(out, param.getValue());
-            }
+    private File getFile() {
+        return contentStream instanceof FileContentStream ? ((FileContentStream) contentStream).getFile() : null;
+    }
 
-            // content
-            String filename = contentStream.getFileName();
-            if (filename == null || filename.length() == 0) {
-                filename = "content";
-            }
+    private byte[] getMultipartHeader() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
 
-            String mediaType = contentStream.getMimeType();
-            if (mediaType == null || mediaType.indexOf('/') < 1 || mediaType.indexOf('\n') > -1
-                    || mediaType.indexOf('\r') > -1) {
-                mediaType = Constants.MEDIATYPE_OCTETSTREAM;
-            }
+        writeLine(out);
 
+        // parameters
+        for (Map.Entry<String, String> param : parameters.entrySet()) {
             writeLine(out, "--" + boundary);
-            writeLine(
-                    out,
-                    "Content-Disposition: "
-                            + MimeHelper.encodeContentDisposition(MimeHelper.DISPOSITION_FORM_DATA_CONTENT, filename));
-            writeLine(out, "Content-Type: " + mediaType);
-            writeLine(out, "Content-Transfer-Encoding: binary");
+            writeLine(out, "Content-Disposition: form-data; name=\"" + param.getKey() + "\"");
+            writeLine(out, "Content-Type: text/plain; charset=utf-8");
             writeLine(out);
+            writeLine(out, param.getValue());
+        }
 
-            IOUtils.copy(stream, out, BUFFER_SIZE);
+        // content
+        String filename = contentStream.getFileName();
+        if (filename == null || filename.length() == 0) {
+            filename = "content";
+        }
 
-            writeLine(out);
-            writeLine(out, "--" + boundary + "--");
+        String mediaType = contentStream.getMimeType();
+        if (mediaType == null || mediaType.indexOf('/') < 1 || mediaType.indexOf('\n') > -1
+                || mediaType.indexOf('\r') > -1) {
+            mediaType = Constants.MEDIATYPE_OCTETSTREAM;
         }
+
+        writeLine(out, "--" + boundary);
+        writeLine(
+                out,
+                "Content-Disposition: "
+                        + MimeHelper.encodeContentDisposition(MimeHelper.DISPOSITION_FORM_DATA_CONTENT, filename));
+        writeLine(out, "Content-Type: " + mediaType);
+        writeLine(out, "Content-Transfer-Encoding: binary");
+        writeLine(out);
+
+        return out.toByteArray();
+    }
+
+    private byte[] getMultipartTrailer() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        writeLine(out);
+        writeLine(out, "--" + boundary + "--");
+
+        return out.toByteArray();
     }
 
     private void writeLine(OutputStream out) throws IOException {
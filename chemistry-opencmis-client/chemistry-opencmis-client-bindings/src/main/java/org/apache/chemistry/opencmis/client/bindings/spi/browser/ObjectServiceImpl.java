@@ -22,13 +22,15 @@ import static org.apache.chemistry.opencmis.commons.impl.CollectionsHelper.isNul
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.math.BigInteger;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
+import org.apache.chemistry.opencmis.client.bindings.spi.AsyncObjectService;
 import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
-import org.apache.chemistry.opencmis.client.bindings.spi.http.Output;
 import org.apache.chemistry.opencmis.client.bindings.spi.http.Response;
 import org.apache.chemistry.opencmis.commons.SessionParameter;
 import org.apache.chemistry.opencmis.commons.data.Acl;
@@ -60,7 +62,7 @@ import org.apache.chemistry.opencmis.commons.spi.ObjectService;
 /**
  * Object Service Browser Binding client.
  */
-public class ObjectServiceImpl extends AbstractBrowserBindingService implements ObjectService {
+public class ObjectServiceImpl extends AbstractBrowserBindingService implements ObjectService, AsyncObjectService {
 
     /**
      * Constructor.
@@ -86,12 +88,7 @@ public class ObjectServiceImpl extends AbstractBrowserBindingService implements
         formData.addSuccinctFlag(getSuccinct());
 
         // send and parse
-        Response resp = post(url, formData.getContentType(), new Output() {
-            @Override
-            public void write(OutputStream out) throws IOException {
-                formData.write(out);
-            }
-        });
+        Response resp = post(url, formData.getContentType(), formData);
 
         Map<String, Object> json = parseObject(resp.getStream(), resp.getCharset());
 
@@ -120,12 +117,7 @@ public class ObjectServiceImpl extends AbstractBrowserBindingService implements
         formData.addSuccinctFlag(getSuccinct());
 
         // send and parse
-        Response resp = post(url, formData.getContentType(), new Output() {
-            @Override
-            public void write(OutputStream out) throws IOException {
-                formData.write(out);
-            }
-        });
+        Response resp = post(url, formData.getContentType(), formData);
 
         Map<String, Object> json = parseObject(resp.getStream(), resp.getCharset());
 
@@ -151,12 +143,7 @@ public class ObjectServiceImpl extends AbstractBrowserBindingService implements
         formData.addSuccinctFlag(getSuccinct());
 
         // send and parse
-        Response resp = post(url, formData.getContentType(), new Output() {
-            @Override
-            public void write(OutputStream out) throws IOException {
-                formData.write(out);
-            }
-        });
+        Response resp = post(url, formData.getContentType(), formData);
 
         Map<String, Object> json = parseObject(resp.getStream(), resp.getCharset());
 
@@ -182,12 +169,7 @@ public class ObjectServiceImpl extends AbstractBrowserBindingService implements
         formData.addSuccinctFlag(getSuccinct());
 
         // send and parse
-        Response resp = post(url, formData.getContentType(), new Output() {
-            @Override
-            public void write(OutputStream out) throws IOException {
-                formData.write(out);
-            }
-        });
+        Response resp = post(url, formData.getContentType(), formData);
 
         Map<String, Object> json = parseObject(resp.getStream(), resp.getCharset());
 
@@ -213,12 +195,7 @@ public class ObjectServiceImpl extends AbstractBrowserBindingService implements
         formData.addSuccinctFlag(getSuccinct());
 
         // send and parse
-        Response resp = post(url, formData.getContentType(), new Output() {
-            @Override
-            public void write(OutputStream out) throws IOException {
-                formData.write(out);
-            }
-        });
+        Response resp = post(url, formData.getContentType(), formData);
 
         Map<String, Object> json = parseObject(resp.getStream(), resp.getCharset());
 
@@ -244,12 +221,7 @@ public class ObjectServiceImpl extends AbstractBrowserBindingService implements
         formData.addSuccinctFlag(getSuccinct());
 
         // send and parse
-        Response resp = post(url, formData.getContentType(), new Output() {
-            @Override
-            public void write(OutputStream out) throws IOException {
-                formData.write(out);
-            }
-        });
+        Response resp = post(url, formData.getContentType(), formData);
 
         Map<String, Object> json = parseObject(resp.getStream(), resp.getCharset());
 
@@ -278,22 +250,31 @@ public class ObjectServiceImpl extends AbstractBrowserBindingService implements
             Boolean includeAcl, ExtensionsData extension) {
         // build URL
         UrlBuilder url = getObjectUrl(repositoryId, objectId, Constants.SELECTOR_OBJECT);
-        url.addParameter(Constants.PARAM_FILTER, filter);
-        url.addParameter(Constants.PARAM_ALLOWABLE_ACTIONS, includeAllowableActions);
-        url.addParameter(Constants.PARAM_RELATIONSHIPS, includeRelationships);
-        url.addParameter(Constants.PARAM_RENDITION_FILTER, renditionFilter);
-        url.addParameter(Constants.PARAM_POLICY_IDS, includePolicyIds);
-        url.addParameter(Constants.PARAM_ACL, includeAcl);
-        url.addParameter(Constants.PARAM_SUCCINCT, getSuccinctParameter());
-        url.addParameter(Constants.PARAM_DATETIME_FORMAT, getDateTimeFormatParameter());
+        addObjectParameters(url, filter, includeAllowableActions, includeRelationships, renditionFilter,
+                includePolicyIds, includeAcl);
 
         // read and parse
         Response resp = read(url);
-        Map<String, Object> json = parseObject(resp.getStream(), resp.getCharset());
 
-        TypeCache typeCache = new ClientTypeCacheImpl(repositoryId, this);
+        return parseObjectResponse(repositoryId, resp);
+    }
 
-        return JSONConverter.convertObject(json, typeCache);
+    @Override
+    public CompletableFuture<ObjectData> getObjectAsync(final String repositoryId, String objectId, String filter,
+            Boolean includeAllowableActions, IncludeRelationships includeRelationships, String renditionFilter,
+            Boolean includePolicyIds, Boolean includeAcl, ExtensionsData extension, Executor executor) {
+        // build URL
+        UrlBuilder url = getObjectUrl(repositoryId, objectId, Constants.SELECTOR_OBJECT);
+        addObjectParameters(url, filter, includeAllowableActions, includeRelationships, renditionFilter,
+                includePolicyIds, includeAcl);
+
+        // read and parse
+        return readAsync(url, executor).thenApply(new Function<Response, ObjectData>() {
+            @Override
+            public ObjectData apply(Response resp) {
+                return parseObjectResponse(repositoryId, resp);
+            }
+        });
     }
 
     @Override
@@ -302,6 +283,36 @@ public class ObjectServiceImpl extends AbstractBrowserBindingService implements
             Boolean includeAcl, ExtensionsData extension) {
         // build URL
         UrlBuilder url = getPathUrl(repositoryId, path, Constants.SELECTOR_OBJECT);
+        addObjectParameters(url, filter, includeAllowableActions, includeRelationships, renditionFilter,
+                includePolicyIds, includeAcl);
+
+        // read and parse
+        Response resp = read(url);
+
+        return parseObjectResponse(repositoryId, resp);
+    }
+
+    @Override
+    public CompletableFuture<ObjectData> getObjectByPathAsync(final String repositoryId, String path, String filter,
+            Boolean includeAllowableActions, IncludeRelationships includeRelationships, String renditionFilter,
+            Boolean includePolicyIds, Boolean includeAcl, ExtensionsData extension, Executor executor) {
+        // build URL
+        UrlBuilder url = getPathUrl(repositoryId, path, Constants.SELECTOR_OBJECT);
+        addObjectParameters(url, filter, includeAllowableActions, includeRelationships, renditionFilter,
+                includePolicyIds, includeAcl);
+
+        // read and parse
+        return readAsync(url, executor).thenApply(new Function<Response, ObjectData>() {
+            @Override
+            public ObjectData apply(Response resp) {
+                return parseObjectResponse(repositoryId, resp);
+            }
+        });
+    }
+
+    private void addObjectParameters(UrlBuilder url, String filter, Boolean includeAllowableActions,
+            IncludeRelationships includeRelationships, String renditionFilter, Boolean includePolicyIds,
+            Boolean includeAcl) {
         url.addParameter(Constants.PARAM_FILTER, filter);
         url.addParameter(Constants.PARAM_ALLOWABLE_ACTIONS, includeAllowableActions);
         url.addParameter(Constants.PARAM_RELATIONSHIPS, includeRelationships);
@@ -310,9 +321,9 @@ public class ObjectServiceImpl extends AbstractBrowserBindingService implements
         url.addParameter(Constants.PARAM_ACL, includeAcl);
         url.addParameter(Constants.PARAM_SUCCINCT, getSuccinctParameter());
         url.addParameter(Constants.PARAM_DATETIME_FORMAT, getDateTimeFormatParameter());
+    }
 
-        // read and parse
-        Response resp = read(url);
+    private ObjectData parseObjectResponse(String repositoryId, Response resp) {
         Map<String, Object> json = parseObject(resp.getStream(), resp.getCharset());
 
         TypeCache typeCache = new ClientTypeCacheImpl(repositoryId, this);
@@ -369,7 +380,7 @@ public class ObjectServiceImpl extends AbstractBrowserBindingService implements
 
         // check response code
         if ((resp.getResponseCode() != 200) && (resp.getResponseCode() != 206)) {
-            throw convertStatusCode(resp.getResponseCode(), resp.getResponseMessage(), resp.getErrorContent(), null);
+            throw convertStatusCode(resp);
         }
 
         // get filename from Content-Disposition header
@@ -415,12 +426,7 @@ public class ObjectServiceImpl extends AbstractBrowserBindingService implements
         formData.addSuccinctFlag(getSuccinct());
 
         // send and parse
-        Response resp = post(url, formData.getContentType(), new Output() {
-            @Override
-            public void write(OutputStream out) throws IOException {
-                formData.write(out);
-            }
-        });
+        Response resp = post(url, formData.getContentType(), formData);
 
         Map<String, Object> json = parseObject(resp.getStream(), resp.getCharset());
 
@@ -453,12 +459,7 @@ public class ObjectServiceImpl extends AbstractBrowserBindingService implements
         formData.removeSecondaryTypeIds(removeSecondaryTypeIds);
 
         // send and parse
-        Response resp = post(url, formData.getContentType(), new Output() {
-            @Override
-            public void write(OutputStream out) throws IOException {
-                formData.write(out);
-            }
-        });
+        Response resp = post(url, formData.getContentType(), formData);
 
         List<Object> json = parseArray(resp.getStream(), resp.getCharset());
 
@@ -483,12 +484,7 @@ public class ObjectServiceImpl extends AbstractBrowserBindingService implements
         formData.addSuccinctFlag(getSuccinct());
 
         // send and parse
-        Response resp = post(url, formData.getContentType(), new Output() {
-            @Override
-            public void write(OutputStream out) throws IOException {
-                formData.write(out);
-            }
-        });
+        Response resp = post(url, formData.getContentType(), formData);
 
         Map<String, Object> json = parseObject(resp.getStream(), resp.getCharset());
 
@@ -509,12 +505,7 @@ public class ObjectServiceImpl extends AbstractBrowserBindingService implements
         formData.addParameter(Constants.PARAM_ALL_VERSIONS, allVersions);
 
         // send
-        postAndConsume(url, formData.getContentType(), new Output() {
-            @Override
-            public void write(OutputStream out) throws IOException {
-                formData.write(out);
-            }
-        });
+        postAndConsume(url, formData.getContentType(), formData);
     }
 
     @Override
@@ -530,12 +521,7 @@ public class ObjectServiceImpl extends AbstractBrowserBindingService implements
         formData.addParameter(Constants.PARAM_CONTINUE_ON_FAILURE, continueOnFailure);
 
         // send
-        Response resp = post(url, formData.getContentType(), new Output() {
-            @Override
-            public void write(OutputStream out) throws IOException {
-                formData.write(out);
-            }
-        });
+        Response resp = post(url, formData.getContentType(), formData);
 
         if (resp.hasResponseStream()) {
             try {
@@ -572,12 +558,7 @@ public class ObjectServiceImpl extends AbstractBrowserBindingService implements
         formData.addSuccinctFlag(getSuccinct());
 
         // send and parse
-        Response resp = post(url, formData.getContentType(), new Output() {
-            @Override
-            public void write(OutputStream out) throws IOException {
-                formData.write(out);
-            }
-        });
+        Response resp = post(url, formData.getContentType(), formData);
 
         Map<String, Object> json = parseObject(resp.getStream(), resp.getCharset());
 
@@ -610,12 +591,7 @@ public class ObjectServiceImpl extends AbstractBrowserBindingService implements
         formData.addSuccinctFlag(getSuccinct());
 
         // send and parse
-        Response resp = post(url, formData.getContentType(), new Output() {
-            @Override
-            public void write(OutputStream out) throws IOException {
-                formData.write(out);
-            }
-        });
+        Response resp = post(url, formData.getContentType(), formData);
 
         Map<String, Object> json = parseObject(resp.getStream(), resp.getCharset());
 
@@ -647,12 +623,7 @@ public class ObjectServiceImpl extends AbstractBrowserBindingService implements
         formData.addSuccinctFlag(getSuccinct());
 
         // send and parse
-        Response resp = post(url, formData.getContentType(), new Output() {
-            @Override
-            public void write(OutputStream out) throws IOException {
-                formData.write(out);
-            }
-        });
+        Response resp = post(url, formData.getContentType(), formData);
 
         Map<String, Object> json = parseObject(resp.getStream(), resp.getCharset());
 
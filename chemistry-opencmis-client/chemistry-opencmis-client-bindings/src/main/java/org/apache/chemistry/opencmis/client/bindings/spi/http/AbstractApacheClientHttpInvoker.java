@@ -22,6 +22,7 @@ import static org.apache.chemistry.opencmis.commons.impl.CollectionsHelper.isNot
 
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -31,7 +32,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.zip.GZIPOutputStream;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLException;
@@ -43,6 +43,7 @@ import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
 import org.apache.chemistry.opencmis.commons.SessionParameter;
 import org.apache.chemistry.opencmis.commons.exceptions.CmisConnectionException;
 import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
+import org.apache.chemistry.opencmis.commons.impl.ContentCodec;
 import org.apache.chemistry.opencmis.commons.impl.IOUtils;
 import org.apache.chemistry.opencmis.commons.impl.UrlBuilder;
 import org.apache.chemistry.opencmis.commons.spi.AuthenticationProvider;
@@ -106,6 +107,7 @@ public abstract class AbstractApacheClientHttpInvoker implements HttpInvoker {
     protected Response invoke(UrlBuilder url, String method, String contentType, Map<String, String> headers,
             final Output writer, final BindingSession session, BigInteger offset, BigInteger length) {
         int respCode = -1;
+        HttpCache.CachedResponse cached = null;
 
         try {
             // log before connect
@@ -194,9 +196,9 @@ public abstract class AbstractApacheClientHttpInvoker implements HttpInvoker {
             }
 
             // compression
-            Object compression = session.get(SessionParameter.COMPRESSION);
-            if ((compression != null) && Boolean.parseBoolean(compression.toString())) {
-                request.setHeader("Accept-Encoding", "gzip,deflate");
+            String acceptEncoding = CmisBindingsHelper.getAcceptEncoding(session);
+            if (acceptEncoding != null) {
+                request.setHeader("Accept-Encoding", acceptEncoding);
             }
 
             // locale
@@ -204,19 +206,34 @@ public abstract class AbstractApacheClientHttpInvoker implements HttpInvoker {
                 request.setHeader("Accept-Language", session.get(CmisBindingsHelper.ACCEPT_LANGUAGE).toString());
             }
 
+            // conditional request
+            HttpCache httpCache = null;
+            if ("GET".equals(method) && offset == null && length == null) {
+                httpCache = CmisBindingsHelper.getHttpCache(session);
+                if (httpCache != null) {
+                    cached = httpCache.lookup(url.toString());
+                    if (cached != null) {
+                        for (Map.Entry<String, String> header : cached.getValidationHeaders().entrySet()) {
+                            request.setHeader(header.getKey(), header.getValue());
+                        }
+                    }
+                }
+            }
+
             // send data
             if (writer != null) {
-                Object clientCompression = session.get(SessionParameter.CLIENT_COMPRESSION);
-                final boolean clientCompressionFlag = (clientCompression != null)
-                        && Boolean.parseBoolean(clientCompression.toString());
-                if (clientCompressionFlag) {
-                    request.setHeader("Content-Encoding", "gzip");
+                final ContentCodec requestCodec = CmisBindingsHelper.getClientCompressionCodec(session);
+                if (requestCodec != null) {
+                    request.setHeader("Content-Encoding", requestCodec.getName());
                 }
 
+                final long contentLength = (requestCodec == null && writer instanceof FixedLengthOutput
+                        ? ((FixedLengthOutput) writer).getLength() : -1);
+
                 AbstractHttpEntity streamEntity = new AbstractHttpEntity() {
                     @Override
                     public boolean isChunked() {
-                        return true;
+                        return contentLength < 0;
                     }
 
                     @Override
@@ -226,7 +243,7 @@ public abstract class AbstractApacheClientHttpInvoker implements HttpInvoker {
 
                     @Override
                     public long getContentLength() {
-                        return -1;
+                        return contentLength;
                     }
 
                     @Override
@@ -243,8 +260,19 @@ public abstract class AbstractApacheClientHttpInvoker implements HttpInvoker {
                     public void writeTo(final OutputStream outstream) throws IOException {
                         OutputStream connOut = null;
 
-                        if (clientCompressionFlag) {
-                            connOut = new GZIPOutputStream(outstream, 4096);
+                        if (requestCodec != null) {
+                            // the HTTP client closes its stream itself
+                            connOut = requestCodec.encode(new FilterOutputStream(outstream) {
+                                @Override
+                                public void write(byte[] b, int off, int len) throws IOException {
+                                    out.write(b, off, len);
+                                }
+
+                                @Override
+                                public void close() throws IOException {
+                                    flush();
+                                }
+                            });
                         } else {
                             connOut = outstream;
                         }
@@ -257,10 +285,11 @@ public abstract class AbstractApacheClientHttpInvoker implements HttpInvoker {
                         } catch (Exception e) {
                             throw new IOException(e);
                         }
-                        out.flush();
-
-                        if (connOut instanceof GZIPOutputStream) {
-                            ((GZIPOutputStream) connOut).finish();
+                        if (requestCodec != null) {
+                            // finishes the encoding
+                            out.close();
+                        } else {
+                            out.flush();
                         }
                     }
                 };
@@ -268,6 +297,13 @@ public abstract class AbstractApacheClientHttpInvoker implements HttpInvoker {
             }
 
             // connect
+            final HttpRequestBase abortableRequest = request;
+            HttpAbortHandle.register(new HttpAbortHandle.Abortable() {
+                @Override
+                public void abort() {
+                    abortableRequest.abort();
+                }
+            });
             HttpResponse response = httpclient.execute(request);
             HttpEntity entity = response.getEntity();
 
@@ -312,10 +348,26 @@ public abstract class AbstractApacheClientHttpInvoker implements HttpInvoker {
                 authProvider.putResponseHeaders(url.toString(), respCode, responseHeaders);
             }
 
+            // use the cached response if it has not been modified
+            if (cached != null) {
+                if (respCode == 304) {
+                    IOUtils.closeQuietly(errorStream);
+                    return cached.toResponse();
+                }
+                cached.close();
+                cached = null;
+            }
+            if (httpCache != null && respCode == 200) {
+                inputStream = httpCache.put(url.toString(), responseHeaders, inputStream);
+            }
+
             // get the response
             return new Response(respCode, response.getStatusLine().getReasonPhrase(), responseHeaders, inputStream,
                     errorStream);
         } catch (Exception e) {
+            if (cached != null) {
+                cached.close();
+            }
             throw new CmisConnectionException(url.toString(), respCode, e);
         }
     }
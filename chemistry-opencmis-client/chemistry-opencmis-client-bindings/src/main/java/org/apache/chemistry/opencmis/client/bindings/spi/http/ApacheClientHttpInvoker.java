@@ -29,8 +29,10 @@ import javax.net.ssl.SSLSocketFactory;
 
 import org.apache.chemistry.opencmis.client.bindings.impl.CmisBindingsHelper;
 import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
 import org.apache.chemistry.opencmis.commons.impl.UrlBuilder;
 import org.apache.chemistry.opencmis.commons.spi.AuthenticationProvider;
+import org.apache.http.HttpResponse;
 import org.apache.http.client.params.ClientPNames;
 import org.apache.http.client.params.CookiePolicy;
 import org.apache.http.conn.ConnectTimeoutException;
@@ -41,16 +43,31 @@ import org.apache.http.conn.scheme.SchemeLayeredSocketFactory;
 import org.apache.http.conn.scheme.SchemeRegistry;
 import org.apache.http.conn.ssl.BrowserCompatHostnameVerifier;
 import org.apache.http.conn.ssl.X509HostnameVerifier;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.DefaultHttpClient;
-import org.apache.http.impl.conn.PoolingClientConnectionManager;
 import org.apache.http.impl.conn.ProxySelectorRoutePlanner;
 import org.apache.http.params.HttpConnectionParams;
 import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
 
 /**
  * A {@link HttpInvoker} that uses The Apache HTTP client.
  */
-public class ApacheClientHttpInvoker extends AbstractApacheClientHttpInvoker {
+public class ApacheClientHttpInvoker extends AbstractApacheClientHttpInvoker implements
+        ConnectionPoolStatisticsProvider {
+
+    @Override
+    public ConnectionPoolStatistics getConnectionPoolStatistics(BindingSession session) {
+        Object httpclient = session.get(HTTP_CLIENT);
+        if (httpclient instanceof DefaultHttpClient) {
+            Object connManager = ((DefaultHttpClient) httpclient).getConnectionManager();
+            if (connManager instanceof MonitoringConnectionManager) {
+                return ((MonitoringConnectionManager) connManager).getStatistics("Apache HTTP Client");
+            }
+        }
+
+        return null;
+    }
 
     @Override
     protected DefaultHttpClient createHttpClient(UrlBuilder url, BindingSession session) {
@@ -58,13 +75,20 @@ public class ApacheClientHttpInvoker extends AbstractApacheClientHttpInvoker {
         HttpParams params = createDefaultHttpParams(session);
         params.setParameter(ClientPNames.COOKIE_POLICY, CookiePolicy.IGNORE_COOKIES);
 
+        int validateAfterInactivity = session.get(SessionParameter.HTTP_POOL_VALIDATE_AFTER_INACTIVITY, -1);
+        if (validateAfterInactivity > 0) {
+            // connections idle for longer are closed periodically instead
+            HttpConnectionParams.setStaleCheckingEnabled(params, false);
+        }
+
         // set up scheme registry and connection manager
         SchemeRegistry registry = new SchemeRegistry();
         registry.register(new Scheme("http", 80, PlainSocketFactory.getSocketFactory()));
         registry.register(new Scheme("https", 443, getSSLSocketFactory(url, session)));
 
         // set up connection manager
-        PoolingClientConnectionManager connManager = new PoolingClientConnectionManager(registry);
+        MonitoringConnectionManager connManager = new MonitoringConnectionManager(registry,
+                session.get(SessionParameter.HTTP_POOL_IDLE_TIMEOUT, -1), validateAfterInactivity);
 
         // set max connection a
         String keepAliveStr = System.getProperty("http.keepAlive", "true");
@@ -80,6 +104,16 @@ public class ApacheClientHttpInvoker extends AbstractApacheClientHttpInvoker {
             connManager.setMaxTotal(4 * maxConn);
         }
 
+        // session limits override the JVM settings
+        int maxPerRoute = session.get(SessionParameter.HTTP_POOL_MAX_PER_ROUTE, -1);
+        if (maxPerRoute > 0) {
+            connManager.setDefaultMaxPerRoute(maxPerRoute);
+        }
+        int maxTotal = session.get(SessionParameter.HTTP_POOL_MAX_TOTAL, -1);
+        if (maxTotal > 0) {
+            connManager.setMaxTotal(maxTotal);
+        }
+
         // set up proxy
         ProxySelectorRoutePlanner routePlanner = new ProxySelectorRoutePlanner(registry, null);
 
@@ -87,6 +121,18 @@ public class ApacheClientHttpInvoker extends AbstractApacheClientHttpInvoker {
         DefaultHttpClient httpclient = new DefaultHttpClient(connManager, params);
         httpclient.setRoutePlanner(routePlanner);
 
+        // limit keep-alive
+        final long keepAlive = session.get(SessionParameter.HTTP_POOL_KEEP_ALIVE, -1);
+        if (keepAlive > 0) {
+            httpclient.setKeepAliveStrategy(new DefaultConnectionKeepAliveStrategy() {
+                @Override
+                public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                    long duration = super.getKeepAliveDuration(response, context);
+                    return (duration <= 0 || duration > keepAlive ? keepAlive : duration);
+                }
+            });
+        }
+
         return httpclient;
     }
 
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi.http;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
+import org.apache.chemistry.opencmis.commons.impl.UrlBuilder;
+
+/**
+ * Asynchronous HTTP Invoker Interface.
+ * <p>
+ * The methods return immediately. The returned future completes with the
+ * response when the response headers have been received or completes
+ * exceptionally with a
+ * {@link org.apache.chemistry.opencmis.commons.exceptions.CmisConnectionException}
+ * if the request failed.
+ * <p>
+ * A HTTP Invoker that implements this interface in addition to
+ * {@link HttpInvoker} is used for asynchronous calls without blocking a
+ * thread. All other HTTP Invokers are wrapped by {@link BlockingAsyncHttpInvoker}.
+ */
+public interface AsyncHttpInvoker {
+
+    /**
+     * Executes a HTTP GET request.
+     */
+    CompletableFuture<Response> invokeGETAsync(UrlBuilder url, BindingSession session);
+
+    /**
+     * Executes a HTTP GET request.
+     */
+    CompletableFuture<Response> invokeGETAsync(UrlBuilder url, BindingSession session, BigInteger offset,
+            BigInteger length);
+
+    /**
+     * Executes a HTTP POST request.
+     */
+    CompletableFuture<Response> invokePOSTAsync(UrlBuilder url, String contentType, Output writer,
+            BindingSession session);
+
+    /**
+     * Executes a HTTP PUT request.
+     */
+    CompletableFuture<Response> invokePUTAsync(UrlBuilder url, String contentType, Map<String, String> headers,
+            Output writer, BindingSession session);
+
+    /**
+     * Executes a HTTP DELETE request.
+     */
+    CompletableFuture<Response> invokeDELETEAsync(UrlBuilder url, BindingSession session);
+}
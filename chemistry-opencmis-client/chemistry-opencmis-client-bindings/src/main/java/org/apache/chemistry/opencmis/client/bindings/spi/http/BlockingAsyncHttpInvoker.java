@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi.http;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
+import org.apache.chemistry.opencmis.commons.impl.UrlBuilder;
+
+/**
+ * Runs a blocking {@link HttpInvoker} asynchronously.
+ * <p>
+ * Each request occupies a thread until the response headers have been
+ * received. Unless an executor is provided, the requests run on a pool of at
+ * most {@link #MAX_THREADS} daemon threads that is shared by all sessions.
+ * Further requests wait in a queue.
+ */
+public class BlockingAsyncHttpInvoker implements AsyncHttpInvoker {
+
+    /** Maximum number of threads of the shared default pool. */
+    public static final int MAX_THREADS = 16;
+
+    private static final ThreadPoolExecutor DEFAULT_EXECUTOR;
+
+    static {
+        final AtomicInteger counter = new AtomicInteger();
+        DEFAULT_EXECUTOR = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "OpenCMIS Async HTTP " + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        DEFAULT_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private final HttpInvoker invoker;
+    private final Executor executor;
+
+    /**
+     * Constructor.
+     *
+     * @param invoker
+     *            the blocking HTTP Invoker
+     */
+    public BlockingAsyncHttpInvoker(HttpInvoker invoker) {
+        this(invoker, DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param invoker
+     *            the blocking HTTP Invoker
+     * @param executor
+     *            the executor that runs the requests
+     */
+    public BlockingAsyncHttpInvoker(HttpInvoker invoker, Executor executor) {
+        if (invoker == null || executor == null) {
+            throw new IllegalArgumentException("Invoker and executor must be set!");
+        }
+
+        this.invoker = invoker;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the wrapped HTTP Invoker.
+     */
+    public HttpInvoker getHttpInvoker() {
+        return invoker;
+    }
+
+    @Override
+    public CompletableFuture<Response> invokeGETAsync(final UrlBuilder url, final BindingSession session) {
+        return CompletableFuture.supplyAsync(new Supplier<Response>() {
+            @Override
+            public Response get() {
+                return invoker.invokeGET(url, session);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Response> invokeGETAsync(final UrlBuilder url, final BindingSession session,
+            final BigInteger offset, final BigInteger length) {
+        return CompletableFuture.supplyAsync(new Supplier<Response>() {
+            @Override
+            public Response get() {
+                return invoker.invokeGET(url, session, offset, length);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Response> invokePOSTAsync(final UrlBuilder url, final String contentType,
+            final Output writer, final BindingSession session) {
+        return CompletableFuture.supplyAsync(new Supplier<Response>() {
+            @Override
+            public Response get() {
+                return invoker.invokePOST(url, contentType, writer, session);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Response> invokePUTAsync(final UrlBuilder url, final String contentType,
+            final Map<String, String> headers, final Output writer, final BindingSession session) {
+        return CompletableFuture.supplyAsync(new Supplier<Response>() {
+            @Override
+            public Response get() {
+                return invoker.invokePUT(url, contentType, headers, writer, session);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Response> invokeDELETEAsync(final UrlBuilder url, final BindingSession session) {
+        return CompletableFuture.supplyAsync(new Supplier<Response>() {
+            @Override
+            public Response get() {
+                return invoker.invokeDELETE(url, session);
+            }
+        }, executor);
+    }
+}
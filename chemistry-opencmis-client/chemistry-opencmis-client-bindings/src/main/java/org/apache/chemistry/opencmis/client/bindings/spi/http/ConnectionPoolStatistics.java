@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi.http;
+
+import java.io.Serializable;
+
+/**
+ * Snapshot of the connection pool of a HTTP Invoker.
+ * <p>
+ * Values that the underlying HTTP client doesn't provide are -1.
+ */
+public class ConnectionPoolStatistics implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final int maxTotal;
+    private final int maxPerRoute;
+    private final int leased;
+    private final int idle;
+    private final int pending;
+    private final long leaseCount;
+    private final long waitCount;
+    private final long idleEvictionCount;
+
+    public ConnectionPoolStatistics(String name, int maxTotal, int maxPerRoute, int leased, int idle, int pending,
+            long leaseCount, long waitCount, long idleEvictionCount) {
+        this.name = name;
+        this.maxTotal = maxTotal;
+        this.maxPerRoute = maxPerRoute;
+        this.leased = leased;
+        this.idle = idle;
+        this.pending = pending;
+        this.leaseCount = leaseCount;
+        this.waitCount = waitCount;
+        this.idleEvictionCount = idleEvictionCount;
+    }
+
+    /**
+     * Returns the name of the pool.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the maximum number of connections.
+     */
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * Returns the maximum number of connections per route (host).
+     */
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    /**
+     * Returns the number of connections that are currently in use.
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * Returns the number of idle connections in the pool.
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * Returns the number of requests that are currently waiting for a
+     * connection.
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * Returns the number of connections that have been handed out since the
+     * pool has been created.
+     */
+    public long getLeaseCount() {
+        return leaseCount;
+    }
+
+    /**
+     * Returns the number of connection requests that had to wait because the
+     * pool limit was reached.
+     */
+    public long getWaitCount() {
+        return waitCount;
+    }
+
+    /**
+     * Returns the number of idle or expired connections that have been closed
+     * by the pool.
+     */
+    public long getIdleEvictionCount() {
+        return idleEvictionCount;
+    }
+
+    @Override
+    public String toString() {
+        return name + " [max total=" + maxTotal + ", max per route=" + maxPerRoute + ", leased=" + leased
+                + ", idle=" + idle + ", pending=" + pending + ", leases=" + leaseCount + ", waits=" + waitCount
+                + ", idle evictions=" + idleEvictionCount + "]";
+    }
+}
@@ -28,7 +28,6 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.List;
 import java.util.Map;
-import java.util.zip.GZIPOutputStream;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
@@ -39,6 +38,8 @@ import org.apache.chemistry.opencmis.client.bindings.impl.CmisBindingsHelper;
 import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
 import org.apache.chemistry.opencmis.commons.SessionParameter;
 import org.apache.chemistry.opencmis.commons.exceptions.CmisConnectionException;
+import org.apache.chemistry.opencmis.commons.impl.ContentCodec;
+import org.apache.chemistry.opencmis.commons.impl.IOUtils;
 import org.apache.chemistry.opencmis.commons.impl.UrlBuilder;
 import org.apache.chemistry.opencmis.commons.spi.AuthenticationProvider;
 import org.slf4j.Logger;
@@ -82,6 +83,7 @@ public class DefaultHttpInvoker implements HttpInvoker {
     private Response invoke(UrlBuilder url, String method, String contentType, Map<String, String> headers,
             Output writer, BindingSession session, BigInteger offset, BigInteger length) {
         int respCode = -1;
+        HttpCache.CachedResponse cached = null;
 
         try {
             // log before connect
@@ -90,7 +92,14 @@ public class DefaultHttpInvoker implements HttpInvoker {
             }
 
             // connect
-            HttpURLConnection conn = (HttpURLConnection) (new URL(url.toString())).openConnection();
+            final HttpURLConnection conn = (HttpURLConnection) (new URL(url.toString())).openConnection();
+            HttpAbortHandle.register(new HttpAbortHandle.Abortable() {
+                @Override
+                public void abort() {
+                    // closes the socket, a blocked read or write fails
+                    conn.disconnect();
+                }
+            });
             conn.setRequestMethod(method);
             conn.setDoInput(true);
             conn.setDoOutput(writer != null);
@@ -175,9 +184,9 @@ public class DefaultHttpInvoker implements HttpInvoker {
             }
 
             // compression
-            Object compression = session.get(SessionParameter.COMPRESSION);
-            if (compression != null && Boolean.parseBoolean(compression.toString())) {
-                conn.setRequestProperty("Accept-Encoding", "gzip,deflate");
+            String acceptEncoding = CmisBindingsHelper.getAcceptEncoding(session);
+            if (acceptEncoding != null) {
+                conn.setRequestProperty("Accept-Encoding", acceptEncoding);
             }
 
             // locale
@@ -185,16 +194,37 @@ public class DefaultHttpInvoker implements HttpInvoker {
                 conn.setRequestProperty("Accept-Language", session.get(CmisBindingsHelper.ACCEPT_LANGUAGE).toString());
             }
 
+            // conditional request
+            HttpCache httpCache = null;
+            if ("GET".equals(method) && offset == null && length == null) {
+                httpCache = CmisBindingsHelper.getHttpCache(session);
+                if (httpCache != null) {
+                    cached = httpCache.lookup(url.toString());
+                    if (cached != null) {
+                        for (Map.Entry<String, String> header : cached.getValidationHeaders().entrySet()) {
+                            conn.setRequestProperty(header.getKey(), header.getValue());
+                        }
+                    }
+                }
+            }
+
             // send data
             if (writer != null) {
-                conn.setChunkedStreamingMode((64 * 1024) - 1);
+                ContentCodec requestCodec = CmisBindingsHelper.getClientCompressionCodec(session);
+                long contentLength = (writer instanceof FixedLengthOutput ? ((FixedLengthOutput) writer).getLength()
+                        : -1);
+
+                if (requestCodec == null && contentLength >= 0) {
+                    conn.setFixedLengthStreamingMode(contentLength);
+                } else {
+                    conn.setChunkedStreamingMode((64 * 1024) - 1);
+                }
 
                 OutputStream connOut = null;
 
-                Object clientCompression = session.get(SessionParameter.CLIENT_COMPRESSION);
-                if ((clientCompression != null) && Boolean.parseBoolean(clientCompression.toString())) {
-                    conn.setRequestProperty("Content-Encoding", "gzip");
-                    connOut = new GZIPOutputStream(conn.getOutputStream(), 4096);
+                if (requestCodec != null) {
+                    conn.setRequestProperty("Content-Encoding", requestCodec.getName());
+                    connOut = requestCodec.encode(conn.getOutputStream());
                 } else {
                     connOut = conn.getOutputStream();
                 }
@@ -225,10 +255,26 @@ public class DefaultHttpInvoker implements HttpInvoker {
                 authProvider.putResponseHeaders(url.toString(), respCode, conn.getHeaderFields());
             }
 
+            // use the cached response if it has not been modified
+            if (cached != null) {
+                if (respCode == 304) {
+                    IOUtils.closeQuietly(conn.getErrorStream());
+                    return cached.toResponse();
+                }
+                cached.close();
+                cached = null;
+            }
+            if (httpCache != null && respCode == 200) {
+                inputStream = httpCache.put(url.toString(), conn.getHeaderFields(), inputStream);
+            }
+
             // get the response
             return new Response(respCode, conn.getResponseMessage(), conn.getHeaderFields(), inputStream,
                     conn.getErrorStream());
         } catch (Exception e) {
+            if (cached != null) {
+                cached.close();
+            }
             throw new CmisConnectionException(url.toString(), respCode, e);
         }
     }
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi.http;
+
+/**
+ * An {@link Output} that knows the size of the request body before it is
+ * written.
+ * <p>
+ * HTTP Invokers send the length in the {@code Content-Length} header instead
+ * of using chunked transfer encoding, unless the request body is compressed.
+ * Implementations must write exactly {@link #getLength()} bytes.
+ */
+public interface FixedLengthOutput extends Output {
+
+    /**
+     * Returns the size of the request body.
+     * 
+     * @return the size in bytes or -1 if the size is unknown
+     */
+    long getLength();
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi.http;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Aborts the HTTP requests of a thread from another thread.
+ * <p>
+ * A task installs a handle with {@link #install()} before it calls the
+ * binding and removes it with {@link #uninstall()} when it has finished. While
+ * the handle is installed, the HTTP invokers register every request they send
+ * on this thread. {@link #abort()} aborts all registered requests and every
+ * request that is registered afterwards. A blocked read or write then fails
+ * with a {@code CmisConnectionException}.
+ * <p>
+ * The {@link DefaultHttpInvoker}, the {@link OkHttpHttpInvoker} and the
+ * invokers based on {@link AbstractApacheClientHttpInvoker} support this
+ * handle. Requests sent without an installed handle are not affected.
+ */
+public final class HttpAbortHandle {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HttpAbortHandle.class);
+
+    private static final ThreadLocal<HttpAbortHandle> CURRENT = new ThreadLocal<HttpAbortHandle>();
+
+    /**
+     * Aborts a single request.
+     */
+    public interface Abortable {
+        void abort();
+    }
+
+    private final List<Abortable> requests = new ArrayList<Abortable>();
+    private boolean aborted;
+    private boolean installed;
+
+    private HttpAbortHandle() {
+    }
+
+    /**
+     * Installs a new handle for the current thread.
+     *
+     * @return the handle, not {@code null}
+     */
+    public static HttpAbortHandle install() {
+        HttpAbortHandle handle = new HttpAbortHandle();
+        handle.installed = true;
+        CURRENT.set(handle);
+        return handle;
+    }
+
+    /**
+     * Removes this handle from the current thread. Requests registered later
+     * are not aborted anymore.
+     */
+    public void uninstall() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+        synchronized (this) {
+            installed = false;
+            requests.clear();
+        }
+    }
+
+    /**
+     * Registers a request of the current thread.
+     * <p>
+     * If the handle of the current thread has already been aborted, the
+     * request is aborted immediately.
+     */
+    public static void register(Abortable request) {
+        HttpAbortHandle handle = CURRENT.get();
+        if (handle == null) {
+            return;
+        }
+
+        synchronized (handle) {
+            if (!handle.installed) {
+                return;
+            }
+            if (!handle.aborted) {
+                handle.requests.add(request);
+                return;
+            }
+        }
+
+        abortQuietly(request);
+    }
+
+    /**
+     * Aborts all requests registered with this handle.
+     */
+    public void abort() {
+        List<Abortable> toAbort;
+        synchronized (this) {
+            if (aborted) {
+                return;
+            }
+            aborted = true;
+            toAbort = new ArrayList<Abortable>(requests);
+            requests.clear();
+        }
+
+        for (Abortable request : toAbort) {
+            abortQuietly(request);
+        }
+    }
+
+    /**
+     * Returns whether {@link #abort()} has been called.
+     */
+    public synchronized boolean isAborted() {
+        return aborted;
+    }
+
+    private static void abortQuietly(Abortable request) {
+        try {
+            request.abort();
+        } catch (Exception e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Aborting a request failed: {}", e.toString(), e);
+            }
+        }
+    }
+}
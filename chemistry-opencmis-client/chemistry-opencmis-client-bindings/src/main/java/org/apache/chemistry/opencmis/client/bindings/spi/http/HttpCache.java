@@ -0,0 +1,500 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.chemistry.opencmis.commons.impl.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Client side HTTP cache.
+ * <p>
+ * The cache keeps GET responses that carry an {@code ETag} or a
+ * {@code Last-Modified} header. When such a resource is requested again, the
+ * HTTP Invoker sends the validators in {@code If-None-Match} and
+ * {@code If-Modified-Since} headers. If the server answers with 304 (Not
+ * Modified), the cached body is returned and the body is not transferred
+ * again.
+ * <p>
+ * The bodies are kept in memory or, if a directory is provided, in files. A
+ * body is only added to the cache after the application has read it
+ * completely. The least recently used entries are removed if the cache
+ * exceeds its maximum size.
+ */
+public class HttpCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HttpCache.class);
+
+    private static final long MAX_MEMORY_ENTRY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final long maxSize;
+    private final File directory;
+    private final LinkedHashMap<String, Entry> entries;
+    private File cacheDirectory;
+    private long size;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Creates a cache.
+     * 
+     * @param maxSize
+     *            the maximum size of all cached bodies in bytes
+     * @param directory
+     *            the parent directory of the cache files or {@code null} to
+     *            keep the bodies in memory
+     */
+    public HttpCache(long maxSize, File directory) {
+        this.maxSize = maxSize;
+        this.directory = directory;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    }
+
+    /**
+     * Looks up a cached response.
+     * 
+     * @return the cached response or {@code null} if the URL is not cached.
+     *         The caller must either call
+     *         {@link CachedResponse#toResponse()} or
+     *         {@link CachedResponse#close()}.
+     */
+    public CachedResponse lookup(String url) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(url);
+        }
+
+        if (entry == null) {
+            return null;
+        }
+
+        // open the stream now, the entry might be evicted while the request
+        // is on its way
+        try {
+            return new CachedResponse(entry, entry.openStream());
+        } catch (IOException e) {
+            LOG.debug("Cached response of {} cannot be read: {}", url, e.toString(), e);
+            remove(url);
+            return null;
+        }
+    }
+
+    /**
+     * Wraps the stream of a 200 response. If the response can be cached, the
+     * body is added to the cache when it has been read to the end. Otherwise,
+     * the stream is returned as it is and an old cache entry is removed.
+     * 
+     * @return the stream that should be handed to the application
+     */
+    public InputStream put(String url, Map<String, List<String>> headers, InputStream stream) {
+        missCount.incrementAndGet();
+
+        String etag = getHeader(headers, "ETag");
+        String lastModified = getHeader(headers, "Last-Modified");
+        String cacheControl = getHeader(headers, "Cache-Control");
+        String contentLength = getHeader(headers, "Content-Length");
+
+        boolean cacheable = stream != null && !(stream instanceof GZIPInputStream)
+                && (etag != null || lastModified != null)
+                && (cacheControl == null || !cacheControl.toLowerCase(Locale.ENGLISH).contains("no-store"));
+
+        if (cacheable && contentLength != null) {
+            try {
+                cacheable = Long.parseLong(contentLength.trim()) <= maxSize;
+            } catch (NumberFormatException e) {
+                // ignore
+            }
+        }
+
+        if (!cacheable) {
+            remove(url);
+            return stream;
+        }
+
+        try {
+            return new CachingInputStream(url, copyHeaders(headers), etag, lastModified, stream);
+        } catch (IOException e) {
+            LOG.warn("Cannot create HTTP cache file: {}", e.toString(), e);
+            return stream;
+        }
+    }
+
+    /**
+     * Removes the cached response of an URL.
+     */
+    public void remove(String url) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.remove(url);
+            if (entry != null) {
+                size -= entry.length;
+            }
+        }
+
+        if (entry != null) {
+            entry.delete();
+        }
+    }
+
+    /**
+     * Removes all cached responses and deletes the cache files.
+     */
+    public void clear() {
+        List<Entry> removed;
+        File dir;
+        synchronized (this) {
+            removed = new ArrayList<Entry>(entries.values());
+            entries.clear();
+            size = 0;
+            dir = cacheDirectory;
+            cacheDirectory = null;
+        }
+
+        for (Entry entry : removed) {
+            entry.delete();
+        }
+
+        if (dir != null) {
+            File[] files = dir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    delete(file);
+                }
+            }
+            delete(dir);
+        }
+    }
+
+    /**
+     * Returns the number of requests that have been answered from the cache.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of responses that had to be transferred.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the number of cached responses.
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the size of all cached bodies in bytes.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    private void add(String url, Entry entry) {
+        List<Entry> removed = new ArrayList<Entry>();
+        synchronized (this) {
+            Entry old = entries.put(url, entry);
+            if (old != null) {
+                size -= old.length;
+                removed.add(old);
+            }
+            size += entry.length;
+
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (size > maxSize && iterator.hasNext()) {
+                Entry eldest = iterator.next();
+                iterator.remove();
+                size -= eldest.length;
+                removed.add(eldest);
+            }
+        }
+
+        for (Entry e : removed) {
+            e.delete();
+        }
+    }
+
+    private synchronized File createFile() throws IOException {
+        if (cacheDirectory == null) {
+            directory.mkdirs();
+            cacheDirectory = Files.createTempDirectory(directory.toPath(), "opencmis-http-").toFile();
+        }
+
+        return File.createTempFile("entry", ".tmp", cacheDirectory);
+    }
+
+    private static void delete(File file) {
+        if (!file.delete() && file.exists()) {
+            LOG.debug("Cannot delete HTTP cache file {}", file);
+            file.deleteOnExit();
+        }
+    }
+
+    private static String getHeader(Map<String, List<String>> headers, String name) {
+        if (headers == null) {
+            return null;
+        }
+
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey()) && header.getValue() != null && !header.getValue().isEmpty()) {
+                return header.getValue().get(0);
+            }
+        }
+
+        return null;
+    }
+
+    private static Map<String, List<String>> copyHeaders(Map<String, List<String>> headers) {
+        Map<String, List<String>> result = new HashMap<String, List<String>>();
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (header.getKey() != null && header.getValue() != null) {
+                result.put(header.getKey(), new ArrayList<String>(header.getValue()));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * A response in the cache.
+     */
+    private static class Entry {
+        final Map<String, List<String>> headers;
+        final String etag;
+        final String lastModified;
+        final byte[] data;
+        final File file;
+        final long length;
+
+        Entry(Map<String, List<String>> headers, String etag, String lastModified, byte[] data, File file,
+                long length) {
+            this.headers = headers;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.data = data;
+            this.file = file;
+            this.length = length;
+        }
+
+        InputStream openStream() throws IOException {
+            if (data != null) {
+                return new ByteArrayInputStream(data);
+            }
+
+            return new FileInputStream(file);
+        }
+
+        void delete() {
+            if (file != null) {
+                HttpCache.delete(file);
+            }
+        }
+    }
+
+    /**
+     * The result of a cache lookup.
+     */
+    public class CachedResponse {
+
+        private final Entry entry;
+        private final InputStream stream;
+
+        CachedResponse(Entry entry, InputStream stream) {
+            this.entry = entry;
+            this.stream = stream;
+        }
+
+        /**
+         * Returns the headers that make the request conditional.
+         */
+        public Map<String, String> getValidationHeaders() {
+            Map<String, String> result = new HashMap<String, String>();
+            if (entry.etag != null) {
+                result.put("If-None-Match", entry.etag);
+            }
+            if (entry.lastModified != null) {
+                result.put("If-Modified-Since", entry.lastModified);
+            }
+
+            return result;
+        }
+
+        /**
+         * Creates the response from the cached data. Should be called if the
+         * server responded with 304.
+         */
+        public Response toResponse() {
+            hitCount.incrementAndGet();
+            return new Response(200, "OK", entry.headers, stream, null);
+        }
+
+        /**
+         * Releases the cached response if it is not used.
+         */
+        public void close() {
+            IOUtils.closeQuietly(stream);
+        }
+    }
+
+    /**
+     * Copies the body into the cache while the application reads it.
+     */
+    private class CachingInputStream extends FilterInputStream {
+
+        private final String url;
+        private final Map<String, List<String>> headers;
+        private final String etag;
+        private final String lastModified;
+        private final File file;
+        private OutputStream sink;
+        private long length;
+
+        CachingInputStream(String url, Map<String, List<String>> headers, String etag, String lastModified,
+                InputStream stream) throws IOException {
+            super(stream);
+            this.url = url;
+            this.headers = headers;
+            this.etag = etag;
+            this.lastModified = lastModified;
+
+            if (directory == null) {
+                file = null;
+                sink = new ByteArrayOutputStream();
+            } else {
+                file = createFile();
+                sink = new FileOutputStream(file);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b == -1) {
+                commit();
+            } else if (sink != null) {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n == -1) {
+                commit();
+            } else if (n > 0 && sink != null) {
+                write(b, off, n);
+            }
+
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // the skipped bytes would be missing in the cache
+            abort();
+            return super.skip(n);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            abort();
+            super.close();
+        }
+
+        private void write(byte[] b, int off, int len) {
+            length += len;
+            if (length > maxSize || (file == null && length > MAX_MEMORY_ENTRY_SIZE)) {
+                abort();
+                return;
+            }
+
+            try {
+                sink.write(b, off, len);
+            } catch (IOException e) {
+                LOG.warn("Cannot write HTTP cache file: {}", e.toString(), e);
+                abort();
+            }
+        }
+
+        private void commit() {
+            if (sink == null) {
+                return;
+            }
+
+            OutputStream out = sink;
+            sink = null;
+
+            try {
+                out.close();
+            } catch (IOException e) {
+                LOG.warn("Cannot write HTTP cache file: {}", e.toString(), e);
+                if (file != null) {
+                    delete(file);
+                }
+                return;
+            }
+
+            byte[] data = (file == null ? ((ByteArrayOutputStream) out).toByteArray() : null);
+            add(url, new Entry(headers, etag, lastModified, data, file, length));
+        }
+
+        private void abort() {
+            if (sink == null) {
+                return;
+            }
+
+            IOUtils.closeQuietly(sink);
+            sink = null;
+
+            if (file != null) {
+                delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi.http;
+
+/**
+ * Wire level data of a completed HTTP request.
+ * 
+ * @see HttpInvocationListener
+ */
+public class HttpInvocation {
+
+    private final String method;
+    private final String url;
+    private final String operation;
+    private final int responseCode;
+    private final long uncompressedBytesSent;
+    private final long uncompressedBytesReceived;
+    private final long timeToFirstByte;
+    private final long totalTime;
+    private final Exception failure;
+
+    public HttpInvocation(String method, String url, String operation, int responseCode,
+            long uncompressedBytesSent, long uncompressedBytesReceived, long timeToFirstByte, long totalTime,
+            Exception failure) {
+        this.method = method;
+        this.url = url;
+        this.operation = operation;
+        this.responseCode = responseCode;
+        this.uncompressedBytesSent = uncompressedBytesSent;
+        this.uncompressedBytesReceived = uncompressedBytesReceived;
+        this.timeToFirstByte = timeToFirstByte;
+        this.totalTime = totalTime;
+        this.failure = failure;
+    }
+
+    /**
+     * Returns the HTTP method.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns the URL.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Returns the CMIS operation. That is the {@code cmisaction} or
+     * {@code cmisselector} for the Browser Binding and the link relation or
+     * collection type for the AtomPub Binding.
+     * 
+     * @return the operation or {@code null} if the operation is unknown
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * Returns the HTTP status code.
+     * 
+     * @return the status code or -1 if the request failed before a response
+     *         has been received
+     */
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    /**
+     * Returns the number of bytes the application has written to the request
+     * body. If the request is compressed, fewer bytes are sent over the wire.
+     */
+    public long getUncompressedBytesSent() {
+        return uncompressedBytesSent;
+    }
+
+    /**
+     * Returns the number of bytes the application has read from the response
+     * body. If the response is compressed, these are the bytes after
+     * decompression, not the bytes received over the wire.
+     */
+    public long getUncompressedBytesReceived() {
+        return uncompressedBytesReceived;
+    }
+
+    /**
+     * Returns the time in nanoseconds from the start of the request until the
+     * response headers have been received.
+     */
+    public long getTimeToFirstByte() {
+        return timeToFirstByte;
+    }
+
+    /**
+     * Returns the time in nanoseconds from the start of the request until the
+     * response body has been read or closed.
+     */
+    public long getTotalTime() {
+        return totalTime;
+    }
+
+    /**
+     * Returns the exception if the request failed with a connection error.
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    /**
+     * Returns whether the request failed with a connection error or an error
+     * status code.
+     */
+    public boolean isError() {
+        return failure != null || responseCode >= 400;
+    }
+
+    @Override
+    public String toString() {
+        return "HttpInvocation [method=" + method + ", operation=" + operation + ", status=" + responseCode
+                + ", sent=" + uncompressedBytesSent + ", received=" + uncompressedBytesReceived + ", ttfb="
+                + timeToFirstByte + " ns, total=" + totalTime + " ns, url=" + url + "]";
+    }
+}
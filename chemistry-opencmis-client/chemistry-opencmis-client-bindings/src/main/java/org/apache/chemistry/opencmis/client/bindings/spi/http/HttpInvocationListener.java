@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi.http;
+
+import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
+
+/**
+ * Receives the wire level data of each HTTP request of a session.
+ * <p>
+ * Listeners are configured with the session parameter
+ * {@link org.apache.chemistry.opencmis.commons.SessionParameter#HTTP_INVOKER_LISTENER_CLASS}
+ * and must have a public default constructor. They are called on the thread
+ * that completes the request, which is usually the thread that reads or
+ * closes the response stream, and must be thread safe and fast.
+ */
+public interface HttpInvocationListener {
+
+    /**
+     * Called when a request has been completed or has failed.
+     * 
+     * @param session
+     *            the binding session
+     * @param invocation
+     *            the request data
+     */
+    void invocationCompleted(BindingSession session, HttpInvocation invocation);
+}
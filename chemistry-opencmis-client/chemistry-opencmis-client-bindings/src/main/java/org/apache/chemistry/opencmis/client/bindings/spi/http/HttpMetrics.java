@@ -0,0 +1,380 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi.http;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects request counts, uncompressed body sizes and latency percentiles per
+ * HTTP method and CMIS operation.
+ * <p>
+ * Latencies are recorded in log-linear histograms with eight buckets per
+ * power of two, in microseconds. The reported percentiles are the upper
+ * bounds of the buckets and therefore at most 12.5% too high. Recording a
+ * request is lock free and doesn't allocate memory once the operation is
+ * known.
+ * <p>
+ * The metrics of a session are enabled with the session parameter
+ * {@link org.apache.chemistry.opencmis.commons.SessionParameter#HTTP_METRICS}.
+ * If {@link org.apache.chemistry.opencmis.commons.SessionParameter#HTTP_METRICS_JMX}
+ * is set, too, they are registered in the platform MBean server with the
+ * object name
+ * {@code org.apache.chemistry.opencmis:type=HttpMetrics,session=<session id>}.
+ * The MBean only holds a weak reference to the metrics. It is unregistered
+ * when the binding is closed or, if the session is never closed, after the
+ * session has been garbage collected.
+ */
+public class HttpMetrics implements HttpInvocationListener, HttpMetricsMXBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HttpMetrics.class);
+
+    public static final String DOMAIN = "org.apache.chemistry.opencmis";
+    public static final String TYPE = "HttpMetrics";
+
+    /** MBeans whose metrics have been garbage collected. */
+    private static final ReferenceQueue<HttpMetrics> COLLECTED = new ReferenceQueue<HttpMetrics>();
+
+    private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<String, OperationMetrics>();
+
+    public HttpMetrics() {
+    }
+
+    @Override
+    public void invocationCompleted(BindingSession session, HttpInvocation invocation) {
+        String operation = invocation.getOperation() == null ? "" : invocation.getOperation();
+        String key = invocation.getMethod() + " " + operation;
+
+        OperationMetrics metrics = operations.get(key);
+        if (metrics == null) {
+            metrics = new OperationMetrics(invocation.getMethod(), operation);
+            OperationMetrics existing = operations.putIfAbsent(key, metrics);
+            if (existing != null) {
+                metrics = existing;
+            }
+        }
+
+        metrics.record(invocation);
+    }
+
+    @Override
+    public long getRequestCount() {
+        long count = 0;
+        for (OperationMetrics metrics : operations.values()) {
+            count += metrics.requestCount.get();
+        }
+        return count;
+    }
+
+    @Override
+    public long getErrorCount() {
+        long count = 0;
+        for (OperationMetrics metrics : operations.values()) {
+            count += metrics.errorCount.get();
+        }
+        return count;
+    }
+
+    @Override
+    public List<HttpOperationStatistics> getOperationStatistics() {
+        List<HttpOperationStatistics> result = new ArrayList<HttpOperationStatistics>();
+        for (OperationMetrics metrics : operations.values()) {
+            result.add(metrics.getStatistics());
+        }
+
+        Collections.sort(result, new Comparator<HttpOperationStatistics>() {
+            @Override
+            public int compare(HttpOperationStatistics s1, HttpOperationStatistics s2) {
+                int c = s1.getOperation().compareTo(s2.getOperation());
+                return c != 0 ? c : s1.getMethod().compareTo(s2.getMethod());
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Returns the metrics of a HTTP method and CMIS operation.
+     * 
+     * @param method
+     *            the HTTP method
+     * @param operation
+     *            the operation, or {@code null} for requests without a known
+     *            operation
+     * 
+     * @return the metrics or {@code null} if there was no such request
+     */
+    public HttpOperationStatistics getOperationStatistics(String method, String operation) {
+        OperationMetrics metrics = operations.get(method + " " + (operation == null ? "" : operation));
+        return metrics == null ? null : metrics.getStatistics();
+    }
+
+    @Override
+    public void reset() {
+        operations.clear();
+    }
+
+    /**
+     * Registers the metrics in the platform MBean server.
+     */
+    public void registerMBean(String sessionId) {
+        unregisterCollectedMBeans();
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = createObjectName(sessionId);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new StandardMBean(new MetricsReference(this, name), HttpMetricsMXBean.class,
+                        true), name);
+            }
+        } catch (JMException e) {
+            LOG.warn("Cannot register HTTP metrics MBean: {}", e.toString(), e);
+        }
+    }
+
+    /**
+     * Unregisters the metrics of a session from the platform MBean server.
+     */
+    public static void unregisterMBean(String sessionId) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = createObjectName(sessionId);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            LOG.debug("Cannot unregister HTTP metrics MBean: {}", e.toString(), e);
+        }
+    }
+
+    /**
+     * Unregisters the MBeans whose metrics have been garbage collected.
+     */
+    static void unregisterCollectedMBeans() {
+        Reference<? extends HttpMetrics> ref;
+        while ((ref = COLLECTED.poll()) != null) {
+            ((MetricsReference) ref).unregister();
+        }
+    }
+
+    /**
+     * Creates the object name of the metrics MBean of a session.
+     */
+    public static ObjectName createObjectName(String sessionId) throws JMException {
+        Hashtable<String, String> properties = new Hashtable<String, String>();
+        properties.put("type", TYPE);
+        properties.put("session", ObjectName.quote(sessionId));
+
+        return new ObjectName(DOMAIN, properties);
+    }
+
+    /**
+     * The registered MBean. It doesn't keep the metrics, and with them the
+     * session, alive.
+     */
+    private static class MetricsReference extends WeakReference<HttpMetrics> implements HttpMetricsMXBean {
+
+        private final ObjectName name;
+
+        MetricsReference(HttpMetrics metrics, ObjectName name) {
+            super(metrics, COLLECTED);
+            this.name = name;
+        }
+
+        @Override
+        public long getRequestCount() {
+            HttpMetrics metrics = get();
+            return metrics == null ? 0 : metrics.getRequestCount();
+        }
+
+        @Override
+        public long getErrorCount() {
+            HttpMetrics metrics = get();
+            return metrics == null ? 0 : metrics.getErrorCount();
+        }
+
+        @Override
+        public List<HttpOperationStatistics> getOperationStatistics() {
+            HttpMetrics metrics = get();
+            return metrics == null ? Collections.<HttpOperationStatistics> emptyList() : metrics
+                    .getOperationStatistics();
+        }
+
+        @Override
+        public void reset() {
+            HttpMetrics metrics = get();
+            if (metrics != null) {
+                metrics.reset();
+            }
+        }
+
+        void unregister() {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (JMException e) {
+                LOG.debug("Cannot unregister HTTP metrics MBean: {}", e.toString(), e);
+            }
+        }
+    }
+
+    /**
+     * Metrics of one HTTP method and operation.
+     */
+    private static class OperationMetrics {
+
+        private final String method;
+        private final String operation;
+        private final AtomicLong requestCount = new AtomicLong();
+        private final AtomicLong errorCount = new AtomicLong();
+        private final AtomicLong uncompressedBytesSent = new AtomicLong();
+        private final AtomicLong uncompressedBytesReceived = new AtomicLong();
+        private final Histogram timeToFirstByte = new Histogram();
+        private final Histogram totalTime = new Histogram();
+
+        OperationMetrics(String method, String operation) {
+            this.method = method;
+            this.operation = operation;
+        }
+
+        void record(HttpInvocation invocation) {
+            requestCount.incrementAndGet();
+            if (invocation.isError()) {
+                errorCount.incrementAndGet();
+            }
+            uncompressedBytesSent.addAndGet(invocation.getUncompressedBytesSent());
+            uncompressedBytesReceived.addAndGet(invocation.getUncompressedBytesReceived());
+            timeToFirstByte.record(invocation.getTimeToFirstByte() / 1000);
+            totalTime.record(invocation.getTotalTime() / 1000);
+        }
+
+        HttpOperationStatistics getStatistics() {
+            return new HttpOperationStatistics(method, operation, requestCount.get(), errorCount.get(),
+                    uncompressedBytesSent.get(), uncompressedBytesReceived.get(), timeToFirstByte.getPercentile(0.5),
+                    timeToFirstByte.getPercentile(0.9), timeToFirstByte.getPercentile(0.99),
+                    totalTime.getPercentile(0.5), totalTime.getPercentile(0.9), totalTime.getPercentile(0.99),
+                    totalTime.getMax());
+        }
+    }
+
+    /**
+     * Log-linear histogram of microsecond values.
+     */
+    static class Histogram {
+
+        private static final int SUB_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+        private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long value) {
+            if (value < 0) {
+                value = 0;
+            }
+
+            counts.incrementAndGet(getIndex(value));
+
+            long current = max.get();
+            while (value > current && !max.compareAndSet(current, value)) {
+                current = max.get();
+            }
+        }
+
+        /**
+         * Returns the percentile in milliseconds.
+         */
+        double getPercentile(double p) {
+            long total = 0;
+            long[] snapshot = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = counts.get(i);
+                total += snapshot[i];
+            }
+
+            if (total == 0) {
+                return 0.0;
+            }
+
+            long rank = Math.max(1, (long) Math.ceil(p * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    return Math.min(getUpperBound(i), max.get()) / 1000.0;
+                }
+            }
+
+            return max.get() / 1000.0;
+        }
+
+        /**
+         * Returns the maximum in milliseconds.
+         */
+        double getMax() {
+            return max.get() / 1000.0;
+        }
+
+        static int getIndex(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+
+            // the last power of two shares the last bucket
+            return Math.min((exponent - SUB_BITS + 1) * SUB_BUCKETS + sub, BUCKETS - 1);
+        }
+
+        static long getUpperBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+
+            int shift = index / SUB_BUCKETS - 1;
+            int sub = index % SUB_BUCKETS;
+
+            return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi.http;
+
+import java.io.Serializable;
+
+/**
+ * Snapshot of the request metrics of one HTTP method and CMIS operation.
+ * Times are in milliseconds.
+ * 
+ * @see HttpMetrics
+ */
+public class HttpOperationStatistics implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String method;
+    private final String operation;
+    private final long requestCount;
+    private final long errorCount;
+    private final long uncompressedBytesSent;
+    private final long uncompressedBytesReceived;
+    private final double timeToFirstByteP50;
+    private final double timeToFirstByteP90;
+    private final double timeToFirstByteP99;
+    private final double totalTimeP50;
+    private final double totalTimeP90;
+    private final double totalTimeP99;
+    private final double totalTimeMax;
+
+    public HttpOperationStatistics(String method, String operation, long requestCount, long errorCount,
+            long uncompressedBytesSent, long uncompressedBytesReceived, double timeToFirstByteP50,
+            double timeToFirstByteP90, double timeToFirstByteP99, double totalTimeP50, double totalTimeP90,
+            double totalTimeP99, double totalTimeMax) {
+        this.method = method;
+        this.operation = operation;
+        this.requestCount = requestCount;
+        this.errorCount = errorCount;
+        this.uncompressedBytesSent = uncompressedBytesSent;
+        this.uncompressedBytesReceived = uncompressedBytesReceived;
+        this.timeToFirstByteP50 = timeToFirstByteP50;
+        this.timeToFirstByteP90 = timeToFirstByteP90;
+        this.timeToFirstByteP99 = timeToFirstByteP99;
+        this.totalTimeP50 = totalTimeP50;
+        this.totalTimeP90 = totalTimeP90;
+        this.totalTimeP99 = totalTimeP99;
+        this.totalTimeMax = totalTimeMax;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns the CMIS operation or an empty string if the operation is
+     * unknown.
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * Returns the number of connection errors and responses with a status
+     * code of 400 or higher.
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Returns the number of request body bytes before compression.
+     *
+     * @see HttpInvocation#getUncompressedBytesSent()
+     */
+    public long getUncompressedBytesSent() {
+        return uncompressedBytesSent;
+    }
+
+    /**
+     * Returns the number of response body bytes after decompression.
+     *
+     * @see HttpInvocation#getUncompressedBytesReceived()
+     */
+    public long getUncompressedBytesReceived() {
+        return uncompressedBytesReceived;
+    }
+
+    public double getTimeToFirstByteP50() {
+        return timeToFirstByteP50;
+    }
+
+    public double getTimeToFirstByteP90() {
+        return timeToFirstByteP90;
+    }
+
+    public double getTimeToFirstByteP99() {
+        return timeToFirstByteP99;
+    }
+
+    public double getTotalTimeP50() {
+        return totalTimeP50;
+    }
+
+    public double getTotalTimeP90() {
+        return totalTimeP90;
+    }
+
+    public double getTotalTimeP99() {
+        return totalTimeP99;
+    }
+
+    public double getTotalTimeMax() {
+        return totalTimeMax;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s: requests=%d, errors=%d, sent=%d, received=%d, "
+                + "ttfb p50/p90/p99=%.2f/%.2f/%.2f ms, total p50/p90/p99/max=%.2f/%.2f/%.2f/%.2f ms", method,
+                operation, requestCount, errorCount, uncompressedBytesSent, uncompressedBytesReceived,
+                timeToFirstByteP50, timeToFirstByteP90, timeToFirstByteP99, totalTimeP50, totalTimeP90, totalTimeP99,
+                totalTimeMax);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi.http;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+/**
+ * Pooling connection manager that counts leases, waits and evictions and
+ * closes idle connections.
+ * <p>
+ * The Apache HTTP Client 4.2 has no background thread that closes idle
+ * connections. The connection managers of all sessions share one daemon
+ * thread that closes idle connections periodically.
+ */
+class MonitoringConnectionManager extends PoolingClientConnectionManager {
+
+    private static final long MIN_CHECK_INTERVAL = 1000;
+
+    private static final ScheduledExecutorService REAPER = Executors
+            .newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "OpenCMIS HTTP Connection Reaper");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private final long maxIdleTime;
+    private final Reaper reaper;
+
+    private final AtomicLong leaseCount = new AtomicLong();
+    private final AtomicLong waitCount = new AtomicLong();
+    private final AtomicLong idleEvictionCount = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param registry
+     *            the scheme registry
+     * @param idleTimeout
+     *            time in milliseconds after which idle connections are
+     *            closed, or a value less than 1 to keep them
+     * @param validateAfterInactivity
+     *            time in milliseconds after which an idle connection is not
+     *            reused anymore, or a value less than 1 to reuse all idle
+     *            connections
+     */
+    MonitoringConnectionManager(SchemeRegistry registry, long idleTimeout, long validateAfterInactivity) {
+        super(registry);
+
+        if (idleTimeout > 0 && validateAfterInactivity > 0) {
+            maxIdleTime = Math.min(idleTimeout, validateAfterInactivity);
+        } else {
+            maxIdleTime = Math.max(idleTimeout, validateAfterInactivity);
+        }
+
+        if (maxIdleTime > 0) {
+            long interval = Math.max(MIN_CHECK_INTERVAL, maxIdleTime / 2);
+            reaper = new Reaper(this);
+            reaper.future = REAPER.scheduleWithFixedDelay(reaper, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            reaper = null;
+        }
+    }
+
+    @Override
+    public ClientConnectionRequest requestConnection(HttpRoute route, Object state) {
+        PoolStats routeStats = getStats(route);
+        if (routeStats.getAvailable() == 0) {
+            PoolStats totalStats = getTotalStats();
+            if (routeStats.getLeased() + routeStats.getPending() >= routeStats.getMax()
+                    || totalStats.getLeased() + totalStats.getPending() >= totalStats.getMax()) {
+                waitCount.incrementAndGet();
+            }
+        }
+
+        final ClientConnectionRequest request = super.requestConnection(route, state);
+
+        return new ClientConnectionRequest() {
+            @Override
+            public ManagedClientConnection getConnection(long timeout, TimeUnit tunit) throws InterruptedException,
+                    ConnectionPoolTimeoutException {
+                ManagedClientConnection conn = request.getConnection(timeout, tunit);
+                leaseCount.incrementAndGet();
+                return conn;
+            }
+
+            @Override
+            public void abortRequest() {
+                request.abortRequest();
+            }
+        };
+    }
+
+    @Override
+    public void shutdown() {
+        if (reaper != null) {
+            reaper.cancel();
+        }
+
+        super.shutdown();
+    }
+
+    /**
+     * Closes expired connections and connections that have been idle for too
+     * long.
+     */
+    void closeIdle() {
+        int before = getTotalStats().getAvailable();
+        closeExpiredConnections();
+        closeIdleConnections(maxIdleTime, TimeUnit.MILLISECONDS);
+        int after = getTotalStats().getAvailable();
+
+        if (before > after) {
+            idleEvictionCount.addAndGet(before - after);
+        }
+    }
+
+    /**
+     * Returns the current statistics.
+     */
+    ConnectionPoolStatistics getStatistics(String name) {
+        PoolStats stats = getTotalStats();
+        return new ConnectionPoolStatistics(name, stats.getMax(), getDefaultMaxPerRoute(), stats.getLeased(),
+                stats.getAvailable(), stats.getPending(), leaseCount.get(), waitCount.get(),
+                idleEvictionCount.get());
+    }
+
+    /**
+     * Closes idle connections of a connection manager until the connection
+     * manager is shut down or garbage collected.
+     */
+    private static class Reaper implements Runnable {
+
+        private final WeakReference<MonitoringConnectionManager> manager;
+        volatile ScheduledFuture<?> future;
+
+        Reaper(MonitoringConnectionManager manager) {
+            this.manager = new WeakReference<MonitoringConnectionManager>(manager);
+        }
+
+        @Override
+        public void run() {
+            MonitoringConnectionManager connManager = manager.get();
+            if (connManager == null) {
+                cancel();
+            } else {
+                connManager.closeIdle();
+            }
+        }
+
+        void cancel() {
+            ScheduledFuture<?> f = future;
+            if (f != null) {
+                f.cancel(false);
+            }
+        }
+    }
+}
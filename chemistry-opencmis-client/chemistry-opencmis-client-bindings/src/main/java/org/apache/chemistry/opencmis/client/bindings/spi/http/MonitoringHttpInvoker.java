@@ -0,0 +1,420 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi.http;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisConnectionException;
+import org.apache.chemistry.opencmis.commons.impl.Constants;
+import org.apache.chemistry.opencmis.commons.impl.UrlBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A HTTP Invoker that measures the requests of another HTTP Invoker and
+ * reports them to {@link HttpInvocationListener}s.
+ * 
+ * The bindings create this HTTP Invoker automatically if the session
+ * parameter
+ * {@link org.apache.chemistry.opencmis.commons.SessionParameter#HTTP_INVOKER_LISTENER_CLASS}
+ * or
+ * {@link org.apache.chemistry.opencmis.commons.SessionParameter#HTTP_METRICS}
+ * is set.
+ * 
+ * A request is complete when the response stream has been read to the end
+ * or has been closed. Requests without a response stream are complete when
+ * the response has been received. The byte counts are measured above the
+ * content codecs: the number of sent bytes is the number of bytes the
+ * application has written before request compression and the number of
+ * received bytes is the number of bytes the application has read from the
+ * decompressed response stream. The bytes on the wire are not visible to this
+ * invoker because the wrapped invokers compress and decompress the bodies
+ * themselves.
+ * 
+ * This HTTP Invoker does not support asynchronous calls. Asynchronous requests
+ * are executed by a {@link BlockingAsyncHttpInvoker} if the metrics are turned
+ * on.
+ */
+public class MonitoringHttpInvoker implements HttpInvoker, ConnectionPoolStatisticsProvider {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MonitoringHttpInvoker.class);
+
+    private static final String SELECTOR_PARAMETER = Constants.PARAM_SELECTOR + "=";
+
+    private final HttpInvoker delegate;
+    private final List<HttpInvocationListener> listeners;
+
+    public MonitoringHttpInvoker(HttpInvoker delegate, List<HttpInvocationListener> listeners) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate must be set!");
+        }
+
+        this.delegate = delegate;
+        this.listeners = Collections.unmodifiableList(new ArrayList<HttpInvocationListener>(listeners));
+    }
+
+    /**
+     * Returns the HTTP Invoker doing the real work.
+     */
+    public HttpInvoker getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Returns the listeners.
+     */
+    public List<HttpInvocationListener> getListeners() {
+        return listeners;
+    }
+
+    @Override
+    public Response invokeGET(UrlBuilder url, BindingSession session) {
+        return invokeGET(url, session, (String) null);
+    }
+
+    /**
+     * Executes a HTTP GET request and reports the given operation.
+     */
+    public Response invokeGET(final UrlBuilder url, final BindingSession session, String operation) {
+        return invoke("GET", url, session, operation, null, new Request() {
+            @Override
+            public Response invoke(Output writer) {
+                return delegate.invokeGET(url, session);
+            }
+        });
+    }
+
+    @Override
+    public Response invokeGET(UrlBuilder url, BindingSession session, BigInteger offset, BigInteger length) {
+        return invokeGET(url, session, offset, length, null);
+    }
+
+    /**
+     * Executes a HTTP GET request and reports the given operation.
+     */
+    public Response invokeGET(final UrlBuilder url, final BindingSession session, final BigInteger offset,
+            final BigInteger length, String operation) {
+        return invoke("GET", url, session, operation, null, new Request() {
+            @Override
+            public Response invoke(Output writer) {
+                return delegate.invokeGET(url, session, offset, length);
+            }
+        });
+    }
+
+    @Override
+    public Response invokePOST(UrlBuilder url, String contentType, Output writer, BindingSession session) {
+        return invokePOST(url, contentType, writer, session, null);
+    }
+
+    /**
+     * Executes a HTTP POST request and reports the given operation.
+     */
+    public Response invokePOST(final UrlBuilder url, final String contentType, Output writer,
+            final BindingSession session, String operation) {
+        return invoke("POST", url, session, operation, writer, new Request() {
+            @Override
+            public Response invoke(Output countingWriter) {
+                return delegate.invokePOST(url, contentType, countingWriter, session);
+            }
+        });
+    }
+
+    @Override
+    public Response invokePUT(UrlBuilder url, String contentType, Map<String, String> headers, Output writer,
+            BindingSession session) {
+        return invokePUT(url, contentType, headers, writer, session, null);
+    }
+
+    /**
+     * Executes a HTTP PUT request and reports the given operation.
+     */
+    public Response invokePUT(final UrlBuilder url, final String contentType, final Map<String, String> headers,
+            Output writer, final BindingSession session, String operation) {
+        return invoke("PUT", url, session, operation, writer, new Request() {
+            @Override
+            public Response invoke(Output countingWriter) {
+                return delegate.invokePUT(url, contentType, headers, countingWriter, session);
+            }
+        });
+    }
+
+    @Override
+    public Response invokeDELETE(UrlBuilder url, BindingSession session) {
+        return invokeDELETE(url, session, null);
+    }
+
+    /**
+     * Executes a HTTP DELETE request and reports the given operation.
+     */
+    public Response invokeDELETE(final UrlBuilder url, final BindingSession session, String operation) {
+        return invoke("DELETE", url, session, operation, null, new Request() {
+            @Override
+            public Response invoke(Output writer) {
+                return delegate.invokeDELETE(url, session);
+            }
+        });
+    }
+
+    @Override
+    public ConnectionPoolStatistics getConnectionPoolStatistics(BindingSession session) {
+        if (delegate instanceof ConnectionPoolStatisticsProvider) {
+            return ((ConnectionPoolStatisticsProvider) delegate).getConnectionPoolStatistics(session);
+        }
+
+        return null;
+    }
+
+    protected Response invoke(String method, UrlBuilder url, BindingSession session, String operation,
+            Output writer, Request request) {
+        String urlStr = url.toString();
+        if (operation == null) {
+            operation = getSelector(urlStr);
+        }
+
+        AtomicLong uncompressedBytesSent = new AtomicLong();
+        Output countingWriter = (writer == null ? null : wrapOutput(writer, uncompressedBytesSent));
+
+        long start = System.nanoTime();
+        Response resp;
+        try {
+            resp = request.invoke(countingWriter);
+        } catch (CmisConnectionException e) {
+            long time = System.nanoTime() - start;
+            fireInvocationCompleted(session, new HttpInvocation(method, urlStr, operation, -1,
+                    uncompressedBytesSent.get(), 0, time, time, e));
+            throw e;
+        }
+        long timeToFirstByte = System.nanoTime() - start;
+
+        Completion completion = new Completion(session, method, urlStr, operation, resp.getResponseCode(),
+                uncompressedBytesSent, start, timeToFirstByte);
+
+        InputStream stream = resp.getStream();
+        if (stream == null) {
+            BigInteger length = resp.getContentLengthHeader();
+            completion.complete(length == null ? 0 : length.longValue());
+        } else {
+            resp.setStream(new CountingInputStream(stream, completion));
+        }
+
+        return resp;
+    }
+
+    protected void fireInvocationCompleted(BindingSession session, HttpInvocation invocation) {
+        for (HttpInvocationListener listener : listeners) {
+            try {
+                listener.invocationCompleted(session, invocation);
+            } catch (RuntimeException e) {
+                LOG.warn("HTTP invocation listener {} failed: {}", listener.getClass().getName(), e.toString(), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the value of the {@code cmisselector} parameter of the given URL
+     * or {@code null} if the URL has no selector.
+     */
+    protected static String getSelector(String url) {
+        int query = url.indexOf('?');
+        if (query < 0) {
+            return null;
+        }
+
+        int start = query;
+        while (true) {
+            start = url.indexOf(SELECTOR_PARAMETER, start + 1);
+            if (start < 0) {
+                return null;
+            }
+
+            char c = url.charAt(start - 1);
+            if (c == '?' || c == '&') {
+                break;
+            }
+        }
+
+        start += SELECTOR_PARAMETER.length();
+        int end = url.indexOf('&', start);
+
+        return url.substring(start, end < 0 ? url.length() : end);
+    }
+
+    /**
+     * Wraps an output into an output that counts the written bytes.
+     */
+    private static Output wrapOutput(Output writer, AtomicLong counter) {
+        return new CountingOutput(writer, counter);
+    }
+
+    /**
+     * Executes the request with the delegate.
+     */
+    protected interface Request {
+        Response invoke(Output writer);
+    }
+
+    /**
+     * Reports a request once when it is complete.
+     */
+    private class Completion {
+
+        private final BindingSession session;
+        private final String method;
+        private final String url;
+        private final String operation;
+        private final int responseCode;
+        private final AtomicLong uncompressedBytesSent;
+        private final long start;
+        private final long timeToFirstByte;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        Completion(BindingSession session, String method, String url, String operation, int responseCode,
+                AtomicLong uncompressedBytesSent, long start, long timeToFirstByte) {
+            this.session = session;
+            this.method = method;
+            this.url = url;
+            this.operation = operation;
+            this.responseCode = responseCode;
+            this.uncompressedBytesSent = uncompressedBytesSent;
+            this.start = start;
+            this.timeToFirstByte = timeToFirstByte;
+        }
+
+        void complete(long uncompressedBytesReceived) {
+            if (completed.compareAndSet(false, true)) {
+                fireInvocationCompleted(session, new HttpInvocation(method, url, operation, responseCode,
+                        uncompressedBytesSent.get(), uncompressedBytesReceived, timeToFirstByte,
+                        System.nanoTime() - start, null));
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes read from a decompressed response stream and completes
+     * the request at the end of the stream or when the stream is closed.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private final Completion completion;
+        private long count;
+
+        CountingInputStream(InputStream in, Completion completion) {
+            super(in);
+            this.completion = completion;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) {
+                completion.complete(count);
+            } else {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n < 0) {
+                completion.complete(count);
+            } else {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                completion.complete(count);
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes written to a request body before it is compressed.
+     * Reports the length and the repeatability of the wrapped output.
+     */
+    private static class CountingOutput implements FixedLengthOutput, RepeatableOutput {
+
+        private final Output writer;
+        private final AtomicLong counter;
+
+        CountingOutput(Output writer, AtomicLong counter) {
+            this.writer = writer;
+            this.counter = counter;
+        }
+
+        @Override
+        public long getLength() {
+            return writer instanceof FixedLengthOutput ? ((FixedLengthOutput) writer).getLength() : -1;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return RepeatableOutput.isRepeatable(writer);
+        }
+
+        @Override
+        public void write(OutputStream out) throws Exception {
+            writer.write(new FilterOutputStream(out) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    counter.incrementAndGet();
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    counter.addAndGet(len);
+                }
+            });
+        }
+    }
+}
@@ -27,6 +27,7 @@ import java.math.BigInteger;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLSocketFactory;
@@ -44,17 +45,25 @@ import org.apache.chemistry.opencmis.commons.spi.AuthenticationProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.EventListener;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okio.BufferedSink;
 
-public class OkHttpHttpInvoker implements HttpInvoker {
+public class OkHttpHttpInvoker implements HttpInvoker, ConnectionPoolStatisticsProvider {
 
     private static final Logger LOG = LoggerFactory.getLogger(OkHttpHttpInvoker.class);
 
     protected static final String HTTP_CLIENT = "org.apache.chemistry.opencmis.client.bindings.spi.http.OkHttpHttpInvoker.httpClient";
+    protected static final String LEASE_COUNTER = "org.apache.chemistry.opencmis.client.bindings.spi.http.OkHttpHttpInvoker.leaseCounter";
+
+    private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+    private static final long DEFAULT_IDLE_TIMEOUT = 5 * 60 * 1000;
 
     public OkHttpHttpInvoker() {
     }
@@ -85,6 +94,25 @@ public class OkHttpHttpInvoker implements HttpInvoker {
         return invoke(url, "DELETE", null, null, null, session, null, null);
     }
 
+    @Override
+    public ConnectionPoolStatistics getConnectionPoolStatistics(BindingSession session) {
+        Object httpclient = session.get(HTTP_CLIENT);
+        if (!(httpclient instanceof OkHttpClient)) {
+            return null;
+        }
+
+        ConnectionPool pool = ((OkHttpClient) httpclient).connectionPool();
+        Object leaseCounter = session.get(LEASE_COUNTER);
+
+        int total = pool.connectionCount();
+        int idle = pool.idleConnectionCount();
+
+        // OkHttp doesn't limit the connections of synchronous calls and
+        // doesn't report pending requests, waits and evictions
+        return new ConnectionPoolStatistics("OkHttp", -1, -1, total - idle, idle, -1,
+                leaseCounter instanceof LeaseCounter ? ((LeaseCounter) leaseCounter).count.get() : -1, -1, -1);
+    }
+
     private Response invoke(UrlBuilder url, String method, final String contentType, Map<String, String> headers,
             final Output writer, BindingSession session, BigInteger offset, BigInteger length) {
         int respCode = -1;
@@ -131,6 +159,11 @@ public class OkHttpHttpInvoker implements HttpInvoker {
                         }
                     }
 
+                    @Override
+                    public long contentLength() {
+                        return writer instanceof FixedLengthOutput ? ((FixedLengthOutput) writer).getLength() : -1;
+                    }
+
                     @Override
                     public MediaType contentType() {
                         if (contentType != null) {
@@ -209,9 +242,9 @@ public class OkHttpHttpInvoker implements HttpInvoker {
             }
 
             // compression
-            Object compression = session.get(SessionParameter.COMPRESSION);
-            if (compression != null && Boolean.parseBoolean(compression.toString())) {
-                requestBuilder.header("Accept-Encoding", "gzip,deflate");
+            String acceptEncoding = CmisBindingsHelper.getAcceptEncoding(session);
+            if (acceptEncoding != null) {
+                requestBuilder.header("Accept-Encoding", acceptEncoding);
             }
 
             // locale
@@ -219,7 +252,14 @@ public class OkHttpHttpInvoker implements HttpInvoker {
                 requestBuilder.header("Accept-Language", session.get(CmisBindingsHelper.ACCEPT_LANGUAGE).toString());
             }
 
-            okhttp3.Response okResponse = httpclient.newCall(requestBuilder.build()).execute();
+            final okhttp3.Call call = httpclient.newCall(requestBuilder.build());
+            HttpAbortHandle.register(new HttpAbortHandle.Abortable() {
+                @Override
+                public void abort() {
+                    call.cancel();
+                }
+            });
+            okhttp3.Response okResponse = call.execute();
 
             // get stream, if present
             respCode = okResponse.code();
@@ -267,6 +307,21 @@ public class OkHttpHttpInvoker implements HttpInvoker {
     protected OkHttpClient.Builder createClientBuilder(BindingSession session) {
         OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder();
 
+        // connection pool
+        // (OkHttp cannot limit the number of connections used by synchronous
+        // calls, the pool limits of the session are therefore ignored)
+        long idleTimeout = session.get(SessionParameter.HTTP_POOL_IDLE_TIMEOUT, -1);
+        if (idleTimeout <= 0) {
+            idleTimeout = session.get(SessionParameter.HTTP_POOL_KEEP_ALIVE, -1);
+        }
+
+        clientBuilder.connectionPool(new ConnectionPool(DEFAULT_MAX_IDLE_CONNECTIONS,
+                idleTimeout > 0 ? idleTimeout : DEFAULT_IDLE_TIMEOUT, TimeUnit.MILLISECONDS));
+
+        LeaseCounter leaseCounter = new LeaseCounter();
+        session.put(LEASE_COUNTER, leaseCounter, true);
+        clientBuilder.eventListener(leaseCounter);
+
         // timeouts
         int connectTimeout = session.get(SessionParameter.CONNECT_TIMEOUT, -1);
         if (connectTimeout >= 0) {
@@ -303,4 +358,16 @@ public class OkHttpHttpInvoker implements HttpInvoker {
 
         return clientBuilder;
     }
+
+    /**
+     * Counts the connections handed out by the connection pool.
+     */
+    private static class LeaseCounter extends EventListener {
+        final AtomicLong count = new AtomicLong();
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            count.incrementAndGet();
+        }
+    }
 }
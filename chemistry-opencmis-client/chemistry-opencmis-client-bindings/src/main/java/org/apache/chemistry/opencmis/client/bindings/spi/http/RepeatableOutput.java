@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi.http;
+
+/**
+ * An {@link Output} that can write the same request body more than once.
+ * <p>
+ * HTTP Invokers that retry requests, for example the
+ * {@link RetryingHttpInvoker}, only send POST and PUT requests again if the
+ * body is a {@code RepeatableOutput}. Implementations must write identical
+ * data on every call and the request must be safe to repeat on the server
+ * side.
+ */
+public interface RepeatableOutput extends Output {
+
+    /**
+     * Returns whether this output can write its body more than once.
+     * Wrappers that implement this interface for every output they wrap
+     * return the answer of the wrapped output.
+     * 
+     * @return {@code true} by default
+     */
+    default boolean isRepeatable() {
+        return true;
+    }
+
+    /**
+     * Returns whether the given output can write its body more than once.
+     */
+    static boolean isRepeatable(Output output) {
+        return output instanceof RepeatableOutput && ((RepeatableOutput) output).isRepeatable();
+    }
+}
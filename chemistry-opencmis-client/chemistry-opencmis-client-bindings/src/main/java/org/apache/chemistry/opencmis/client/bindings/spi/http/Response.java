@@ -21,6 +21,7 @@ package org.apache.chemistry.opencmis.client.bindings.spi.http;
 import static org.apache.chemistry.opencmis.commons.impl.CollectionsHelper.isNullOrEmpty;
 
 import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -30,15 +31,25 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.Inflater;
-import java.util.zip.InflaterInputStream;
 
 import org.apache.chemistry.opencmis.commons.exceptions.CmisConnectionException;
 import org.apache.chemistry.opencmis.commons.impl.Base64;
+import org.apache.chemistry.opencmis.commons.impl.ContentCodec;
+import org.apache.chemistry.opencmis.commons.impl.ContentCodecs;
 import org.apache.chemistry.opencmis.commons.impl.IOUtils;
 
 /**
  * HTTP Response.
+ * <p>
+ * Error pages are read lazily. Until the error page has been read with
+ * {@link #getErrorContent()} or {@link #getErrorStream()}, or the response has
+ * been closed with {@link #close()}, the connection is not released.
+ * <p>
+ * Earlier versions read a text error page completely in the constructor.
+ * {@link HttpInvoker} implementations and callers that only check the
+ * response code of an error response must now read the error page or call
+ * {@link #close()}. Otherwise the connection stays allocated until the
+ * response is garbage collected or the server closes it.
  */
 public class Response {
     private static final int MAX_ERROR_LENGTH = 128 * 1024;
@@ -47,6 +58,8 @@ public class Response {
     private final String responseMessage;
     private final Map<String, List<String>> headers;
     private InputStream stream;
+    private InputStream errorStream;
+    private boolean isErrorGZIP;
     private String errorContent;
     private BigInteger length;
     private String charset;
@@ -82,43 +95,11 @@ public class Response {
             }
         }
 
-        // if there is an error page, get it
+        // if there is an error page, keep it until it is needed
         if (errorStream != null) {
-            if (contentType != null) {
-                String contentTypeLower = contentType.toLowerCase(Locale.ENGLISH).split(";")[0];
-                if (contentTypeLower.startsWith("text/") || contentTypeLower.endsWith("+xml")
-                        || contentTypeLower.startsWith("application/xml")
-                        || contentTypeLower.startsWith("application/json")) {
-                    errorStream = new BufferedInputStream(errorStream, 64 * 1024);
-                    StringBuilder sb = new StringBuilder(4096);
-
-                    try {
-                        String encoding = getContentEncoding();
-                        if (encoding != null) {
-                            String encLower = encoding.trim().toLowerCase(Locale.ENGLISH);
-                            if (encLower.equals("gzip") && !isGZIP) {
-                                errorStream = new GZIPInputStream(errorStream, 64 * 1024);
-                            } else if (encLower.equals("deflate")) {
-                                errorStream = new InflaterInputStream(errorStream, new Inflater(true), 64 * 1024);
-                            }
-                        }
-
-                        InputStreamReader reader = new InputStreamReader(errorStream, charset);
-                        char[] buffer = new char[4096];
-                        int b;
-                        while ((b = reader.read(buffer)) > -1) {
-                            sb.append(buffer, 0, b);
-                            if (sb.length() >= MAX_ERROR_LENGTH) {
-                                break;
-                            }
-                        }
-                        reader.close();
-
-                        errorContent = sb.toString();
-                    } catch (IOException e) {
-                        errorContent = "Unable to retrieve content: " + e.getMessage();
-                    }
-                }
+            if (isTextContentType(contentType)) {
+                this.errorStream = errorStream;
+                this.isErrorGZIP = isGZIP || errorStream instanceof GZIPInputStream;
             } else {
                 IOUtils.closeQuietly(errorStream);
             }
@@ -150,23 +131,16 @@ public class Response {
             }
 
             if (hasResponseStream) {
-                String encoding = getContentEncoding();
-                if (encoding != null) {
-                    String encLower = encoding.trim().toLowerCase(Locale.ENGLISH);
-                    if (encLower.equals("gzip") && !isGZIP) {
-                        // if the stream is gzip encoded, decode it
-                        length = null;
-                        try {
-                            stream = new GZIPInputStream(stream, 64 * 1024);
-                        } catch (IOException e) {
-                            errorContent = e.getMessage();
-                            stream = null;
-                            IOUtils.closeQuietly(responseStream);
-                        }
-                    } else if (encLower.equals("deflate")) {
-                        // if the stream is deflate encoded, decode it
-                        length = null;
-                        stream = new InflaterInputStream(stream, new Inflater(true), 64 * 1024);
+                ContentCodec codec = getContentCodec(isGZIP);
+                if (codec != null) {
+                    // if the stream is encoded (gzip, deflate, ...), decode it
+                    length = null;
+                    try {
+                        stream = codec.decode(stream);
+                    } catch (IOException e) {
+                        errorContent = e.getMessage();
+                        stream = null;
+                        IOUtils.closeQuietly(responseStream);
                     }
                 }
 
@@ -180,6 +154,38 @@ public class Response {
         }
     }
 
+    /**
+     * Returns whether the content type is a text format. Other error pages
+     * are not read.
+     */
+    private static boolean isTextContentType(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+
+        String contentTypeLower = contentType.toLowerCase(Locale.ENGLISH).split(";")[0].trim();
+        return contentTypeLower.startsWith("text/") || contentTypeLower.endsWith("+xml")
+                || contentTypeLower.startsWith("application/xml") || contentTypeLower.startsWith("application/json");
+    }
+
+    /**
+     * Returns the codec of the content encoding or {@code null} if the stream
+     * is not encoded or has already been decoded by the HTTP client.
+     */
+    private ContentCodec getContentCodec(boolean isGZIP) {
+        String encoding = getContentEncoding();
+        if (encoding == null) {
+            return null;
+        }
+
+        ContentCodec codec = ContentCodecs.getCodec(encoding);
+        if (codec != null && isGZIP && ContentCodecs.GZIP.equals(codec.getName())) {
+            return null;
+        }
+
+        return codec;
+    }
+
     public int getResponseCode() {
         return responseCode;
     }
@@ -254,7 +260,151 @@ public class Response {
         return stream;
     }
 
-    public String getErrorContent() {
+    /**
+     * Replaces the response stream. Used by HTTP invokers that wrap other HTTP
+     * invokers.
+     */
+    void setStream(InputStream stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * Returns the error page. The error page is read on the first call and
+     * truncated after 128K characters.
+     * 
+     * @return the error page or {@code null} if the response is not an error,
+     *         if the error page is not text or if the error page has been
+     *         read with {@link #getErrorStream()}
+     */
+    public synchronized String getErrorContent() {
+        if (errorStream != null) {
+            InputStream decodedStream = null;
+            try {
+                decodedStream = openErrorStream(Long.MAX_VALUE);
+
+                InputStreamReader reader = new InputStreamReader(decodedStream, charset);
+                StringBuilder sb = new StringBuilder(4096);
+                char[] buffer = new char[4096];
+                int b;
+                while ((b = reader.read(buffer)) > -1) {
+                    sb.append(buffer, 0, b);
+                    if (sb.length() >= MAX_ERROR_LENGTH) {
+                        break;
+                    }
+                }
+
+                errorContent = sb.toString();
+            } catch (IOException e) {
+                errorContent = "Unable to retrieve content: " + e.getMessage();
+            } finally {
+                IOUtils.closeQuietly(decodedStream != null ? decodedStream : errorStream);
+                errorStream = null;
+            }
+        }
+
         return errorContent;
     }
+
+    /**
+     * Returns the decoded error page as a stream, for callers that parse the
+     * error page instead of keeping it. The stream ends after 128 KiB. The
+     * caller must close the stream.
+     * 
+     * @return the error stream or {@code null} if the response is not an
+     *         error, if the error page is not text or if the error page has
+     *         already been read
+     */
+    public synchronized InputStream getErrorStream() {
+        if (errorStream == null) {
+            return null;
+        }
+
+        try {
+            return openErrorStream(MAX_ERROR_LENGTH);
+        } catch (IOException e) {
+            IOUtils.closeQuietly(errorStream);
+            errorContent = "Unable to retrieve content: " + e.getMessage();
+            return null;
+        } finally {
+            errorStream = null;
+        }
+    }
+
+    private InputStream openErrorStream(long maxLength) throws IOException {
+        InputStream decodedStream = new BufferedInputStream(errorStream, 8 * 1024);
+
+        ContentCodec codec = getContentCodec(isErrorGZIP);
+        if (codec != null) {
+            decodedStream = codec.decode(decodedStream);
+        }
+
+        return maxLength == Long.MAX_VALUE ? decodedStream : new LimitedInputStream(decodedStream, maxLength);
+    }
+
+    /**
+     * Closes the response stream and discards an unread error page. Callers
+     * that neither read the response stream nor the error content should
+     * call this method to release the connection.
+     */
+    public synchronized void close() {
+        IOUtils.closeQuietly(stream);
+        IOUtils.closeQuietly(errorStream);
+        errorStream = null;
+    }
+
+    /**
+     * Ends after a given number of bytes.
+     */
+    private static class LimitedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long maxLength) {
+            super(in);
+            remaining = maxLength;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+
+            int b = super.read();
+            if (b > -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi.http;
+
+import java.io.Serializable;
+
+/**
+ * Snapshot of the retry counters of a session.
+ */
+public class RetryStatistics implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long requestCount;
+    private final long retryCount;
+    private final long exhaustedCount;
+    private final long budgetRejectedCount;
+
+    public RetryStatistics(long requestCount, long retryCount, long exhaustedCount, long budgetRejectedCount) {
+        this.requestCount = requestCount;
+        this.retryCount = retryCount;
+        this.exhaustedCount = exhaustedCount;
+        this.budgetRejectedCount = budgetRejectedCount;
+    }
+
+    /**
+     * Returns the number of requests, not counting retries.
+     */
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * Returns the number of retries.
+     */
+    public long getRetryCount() {
+        return retryCount;
+    }
+
+    /**
+     * Returns the number of requests that failed after the maximum number of
+     * retries.
+     */
+    public long getExhaustedCount() {
+        return exhaustedCount;
+    }
+
+    /**
+     * Returns the number of retries that have not been made because the retry
+     * budget of the session was used up.
+     */
+    public long getBudgetRejectedCount() {
+        return budgetRejectedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "Retries [requests=" + requestCount + ", retries=" + retryCount + ", exhausted=" + exhaustedCount
+                + ", budget rejected=" + budgetRejectedCount + "]";
+    }
+}
@@ -0,0 +1,421 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.spi.http;
+
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisBaseException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisConnectionException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
+import org.apache.chemistry.opencmis.commons.impl.ClassLoaderUtil;
+import org.apache.chemistry.opencmis.commons.impl.DateTimeHelper;
+import org.apache.chemistry.opencmis.commons.impl.UrlBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A HTTP Invoker that retries requests that failed with a connection error or
+ * a transient server error (429, 502, 503, 504).
+ * 
+ * This HTTP Invoker is only a wrapper that delegates the work to another HTTP
+ * Invoker, which is defined with the session parameter
+ * {@link #DELEGATE_HTTP_INVOKER_CLASS}.
+ * 
+ * GET requests are always retried. POST and PUT requests are only retried if
+ * the body is a {@link RepeatableOutput}. Request bodies are never buffered;
+ * a {@link RepeatableOutput} writes the body again for every attempt. DELETE
+ * requests are not retried because a repeated DELETE of a deleted object
+ * fails.
+ * 
+ * The delay between two attempts grows exponentially and is randomized. If
+ * the server sends a {@code Retry-After} header, it takes precedence. Each
+ * session has a retry budget that limits the number of retries when the
+ * server is down.
+ */
+public class RetryingHttpInvoker implements HttpInvoker, ConnectionPoolStatisticsProvider {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RetryingHttpInvoker.class);
+
+    /**
+     * Session parameter: class name of the HTTP Invoker doing the the real
+     * work. (Optional. Default is the {@link DefaultHttpInvoker}.)
+     */
+    public static final String DELEGATE_HTTP_INVOKER_CLASS = "org.apache.chemistry.opencmis.binding.httpinvoker.retry.delegate.classname";
+    /**
+     * Session parameter: maximum number of retries per request. (Optional.
+     * Default is 3.)
+     */
+    public static final String MAX_RETRIES = "org.apache.chemistry.opencmis.binding.httpinvoker.retry.maxretries";
+    /**
+     * Session parameter: delay before the first retry in milliseconds.
+     * (Optional. Default is 200.)
+     */
+    public static final String INITIAL_DELAY = "org.apache.chemistry.opencmis.binding.httpinvoker.retry.initialdelay";
+    /**
+     * Session parameter: maximum delay between two attempts in milliseconds.
+     * Requests with a longer {@code Retry-After} time are not retried.
+     * (Optional. Default is 10000.)
+     */
+    public static final String MAX_DELAY = "org.apache.chemistry.opencmis.binding.httpinvoker.retry.maxdelay";
+    /**
+     * Session parameter: maximum number of retries the session can make in a
+     * row. (Optional. Default is 10.)
+     */
+    public static final String RETRY_BUDGET = "org.apache.chemistry.opencmis.binding.httpinvoker.retry.budget";
+    /**
+     * Session parameter: percentage of the requests that refills the retry
+     * budget. (Optional. Default is 10.)
+     */
+    public static final String RETRY_BUDGET_RATIO = "org.apache.chemistry.opencmis.binding.httpinvoker.retry.budget.ratio";
+
+    protected static final String DELEGATE_HTTP_INVOKER = "org.apache.chemistry.opencmis.client.bindings.spi.http.retry.httpInvoker";
+    protected static final String RETRY_STATE = "org.apache.chemistry.opencmis.client.bindings.spi.http.retry.state";
+
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    private static final int DEFAULT_INITIAL_DELAY = 200;
+    private static final int DEFAULT_MAX_DELAY = 10000;
+    private static final int DEFAULT_RETRY_BUDGET = 10;
+    private static final int DEFAULT_RETRY_BUDGET_RATIO = 10;
+
+    public RetryingHttpInvoker() {
+    }
+
+    @Override
+    public Response invokeGET(final UrlBuilder url, final BindingSession session) {
+        return invoke(session, true, new Attempt() {
+            @Override
+            public Response invoke(HttpInvoker invoker) {
+                return invoker.invokeGET(url, session);
+            }
+        });
+    }
+
+    @Override
+    public Response invokeGET(final UrlBuilder url, final BindingSession session, final BigInteger offset,
+            final BigInteger length) {
+        return invoke(session, true, new Attempt() {
+            @Override
+            public Response invoke(HttpInvoker invoker) {
+                return invoker.invokeGET(url, session, offset, length);
+            }
+        });
+    }
+
+    @Override
+    public Response invokePOST(final UrlBuilder url, final String contentType, final Output writer,
+            final BindingSession session) {
+        return invoke(session, RepeatableOutput.isRepeatable(writer), new Attempt() {
+            @Override
+            public Response invoke(HttpInvoker invoker) {
+                return invoker.invokePOST(url, contentType, writer, session);
+            }
+        });
+    }
+
+    @Override
+    public Response invokePUT(final UrlBuilder url, final String contentType, final Map<String, String> headers,
+            final Output writer, final BindingSession session) {
+        return invoke(session, RepeatableOutput.isRepeatable(writer), new Attempt() {
+            @Override
+            public Response invoke(HttpInvoker invoker) {
+                return invoker.invokePUT(url, contentType, headers, writer, session);
+            }
+        });
+    }
+
+    @Override
+    public Response invokeDELETE(final UrlBuilder url, final BindingSession session) {
+        return invoke(session, false, new Attempt() {
+            @Override
+            public Response invoke(HttpInvoker invoker) {
+                return invoker.invokeDELETE(url, session);
+            }
+        });
+    }
+
+    /**
+     * Returns the retry counters of the given session.
+     */
+    public RetryStatistics getRetryStatistics(BindingSession session) {
+        return getRetryState(session).getStatistics();
+    }
+
+    @Override
+    public ConnectionPoolStatistics getConnectionPoolStatistics(BindingSession session) {
+        HttpInvoker invoker = (HttpInvoker) session.get(DELEGATE_HTTP_INVOKER);
+        if (invoker instanceof ConnectionPoolStatisticsProvider) {
+            return ((ConnectionPoolStatisticsProvider) invoker).getConnectionPoolStatistics(session);
+        }
+
+        return null;
+    }
+
+    protected Response invoke(BindingSession session, boolean retryable, Attempt attempt) {
+        HttpInvoker invoker = getHttpInvoker(session);
+        RetryState state = getRetryState(session);
+        state.requestStarted(session.get(RETRY_BUDGET_RATIO, DEFAULT_RETRY_BUDGET_RATIO));
+
+        int maxRetries = session.get(MAX_RETRIES, DEFAULT_MAX_RETRIES);
+        int retry = 0;
+
+        while (true) {
+            Response resp = null;
+            CmisConnectionException failure = null;
+
+            try {
+                resp = attempt.invoke(invoker);
+                if (!retryable || !isTransientError(resp.getResponseCode())) {
+                    return resp;
+                }
+            } catch (CmisConnectionException e) {
+                if (!retryable) {
+                    throw e;
+                }
+                failure = e;
+            }
+
+            if (retry >= maxRetries) {
+                state.exhausted();
+                return giveUp(resp, failure);
+            }
+
+            long delay = getDelay(session, retry, resp);
+            if (delay < 0) {
+                return giveUp(resp, failure);
+            }
+
+            if (!state.acquireRetry(session.get(RETRY_BUDGET, DEFAULT_RETRY_BUDGET))) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Retry budget used up. Not retrying.");
+                }
+                return giveUp(resp, failure);
+            }
+
+            retry++;
+
+            // read the error page of the failed attempt to release the
+            // connection, but keep it in case this attempt is returned
+            if (resp != null) {
+                resp.getErrorContent();
+                resp.close();
+            }
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Retry {} of {} in {} ms: {}", retry, maxRetries, delay,
+                        (failure != null ? failure.getMessage() : resp.getResponseCode()));
+            }
+
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return giveUp(resp, failure);
+            }
+        }
+    }
+
+    private static Response giveUp(Response resp, CmisConnectionException failure) {
+        if (failure != null) {
+            throw failure;
+        }
+
+        return resp;
+    }
+
+    /**
+     * Returns whether the status code indicates a transient server error.
+     */
+    protected boolean isTransientError(int statusCode) {
+        return statusCode == 429 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    /**
+     * Returns the delay in milliseconds before the next attempt or -1 if the
+     * request should not be retried.
+     */
+    protected long getDelay(BindingSession session, int retry, Response resp) {
+        long maxDelay = session.get(MAX_DELAY, DEFAULT_MAX_DELAY);
+
+        long retryAfter = (resp == null ? -1 : getRetryAfter(resp.getHeader("Retry-After")));
+        if (retryAfter >= 0) {
+            return retryAfter <= maxDelay ? retryAfter : -1;
+        }
+
+        // exponential backoff with jitter: a random value between half and
+        // the full delay of this round
+        long initialDelay = session.get(INITIAL_DELAY, DEFAULT_INITIAL_DELAY);
+        long delay = Math.min(maxDelay, initialDelay << Math.min(retry, 30));
+        if (delay <= 1) {
+            return Math.max(0, delay);
+        }
+
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * Parses a {@code Retry-After} header value. Returns the time in
+     * milliseconds or -1 if the header is not set or invalid.
+     */
+    protected static long getRetryAfter(String value) {
+        if (value == null) {
+            return -1;
+        }
+
+        value = value.trim();
+        if (value.length() == 0) {
+            return -1;
+        }
+
+        if (Character.isDigit(value.charAt(0))) {
+            try {
+                return Math.min(Long.parseLong(value), Integer.MAX_VALUE) * 1000;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        Date date = DateTimeHelper.parseHttpDateTime(value);
+        if (date == null) {
+            return -1;
+        }
+
+        return Math.max(0, date.getTime() - System.currentTimeMillis());
+    }
+
+    protected RetryState getRetryState(BindingSession session) {
+        RetryState state = (RetryState) session.get(RETRY_STATE);
+
+        if (state != null) {
+            return state;
+        }
+
+        session.writeLock();
+        try {
+            state = (RetryState) session.get(RETRY_STATE);
+            if (state == null) {
+                state = new RetryState(session.get(RETRY_BUDGET, DEFAULT_RETRY_BUDGET));
+                session.put(RETRY_STATE, state, true);
+            }
+        } finally {
+            session.writeUnlock();
+        }
+
+        return state;
+    }
+
+    protected HttpInvoker getHttpInvoker(BindingSession session) {
+        HttpInvoker invoker = (HttpInvoker) session.get(DELEGATE_HTTP_INVOKER);
+
+        if (invoker != null) {
+            return invoker;
+        }
+
+        session.writeLock();
+        try {
+            // try again
+            invoker = (HttpInvoker) session.get(DELEGATE_HTTP_INVOKER);
+            if (invoker != null) {
+                return invoker;
+            }
+
+            // ok, we have to create it...
+            try {
+                String invokerName = (String) session.get(DELEGATE_HTTP_INVOKER_CLASS);
+                if (invokerName == null) {
+                    invoker = new DefaultHttpInvoker();
+                } else {
+                    invoker = (HttpInvoker) ClassLoaderUtil.loadClass(invokerName).getDeclaredConstructor()
+                            .newInstance();
+                }
+            } catch (CmisBaseException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CmisRuntimeException("Delegate HTTP invoker cannot be initialized: " + e.getMessage(), e);
+            }
+
+            // we have an Invoker object -> put it into the session
+            session.put(DELEGATE_HTTP_INVOKER, invoker, true);
+        } finally {
+            session.writeUnlock();
+        }
+
+        return invoker;
+    }
+
+    /**
+     * One attempt of a request.
+     */
+    protected interface Attempt {
+        Response invoke(HttpInvoker invoker);
+    }
+
+    /**
+     * Retry budget and counters of a session.
+     * <p>
+     * The budget is a token bucket. Every request adds a fraction of a token,
+     * every retry takes a full token.
+     */
+    protected static class RetryState {
+
+        private final AtomicLong requestCount = new AtomicLong();
+        private final AtomicLong retryCount = new AtomicLong();
+        private final AtomicLong exhaustedCount = new AtomicLong();
+        private final AtomicLong budgetRejectedCount = new AtomicLong();
+        private double tokens;
+
+        public RetryState(int budget) {
+            tokens = budget;
+        }
+
+        public void requestStarted(int ratio) {
+            requestCount.incrementAndGet();
+            synchronized (this) {
+                tokens += ratio / 100.0;
+            }
+        }
+
+        public boolean acquireRetry(int budget) {
+            synchronized (this) {
+                tokens = Math.min(tokens, budget);
+                if (tokens < 1) {
+                    budgetRejectedCount.incrementAndGet();
+                    return false;
+                }
+                tokens--;
+            }
+
+            retryCount.incrementAndGet();
+            return true;
+        }
+
+        public void exhausted() {
+            exhaustedCount.incrementAndGet();
+        }
+
+        public RetryStatistics getStatistics() {
+            return new RetryStatistics(requestCount.get(), retryCount.get(), exhaustedCount.get(),
+                    budgetRejectedCount.get());
+        }
+    }
+}
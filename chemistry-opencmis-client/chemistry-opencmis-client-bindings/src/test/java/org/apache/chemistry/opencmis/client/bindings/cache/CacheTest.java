@@ -18,12 +18,21 @@
  */
 package org.apache.chemistry.opencmis.client.bindings.cache;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import junit.framework.TestCase;
 
 import org.apache.chemistry.opencmis.client.bindings.cache.impl.CacheImpl;
+import org.apache.chemistry.opencmis.client.bindings.cache.impl.ConcurrentCacheImpl;
+import org.apache.chemistry.opencmis.client.bindings.cache.impl.ConcurrentContentTypeCacheLevelImpl;
+import org.apache.chemistry.opencmis.client.bindings.cache.impl.ConcurrentLruCacheLevelImpl;
 import org.apache.chemistry.opencmis.client.bindings.cache.impl.ContentTypeCacheLevelImpl;
 import org.apache.chemistry.opencmis.client.bindings.cache.impl.LruCacheLevelImpl;
 import org.apache.chemistry.opencmis.client.bindings.cache.impl.MapCacheLevelImpl;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
 
 /**
  * Tests the cache implementation.
@@ -32,6 +41,8 @@ public class CacheTest extends TestCase {
 
     public static final String MAP_CACHE_LEVEL = "org.apache.chemistry.opencmis.client.bindings.cache.impl.MapCacheLevelImpl";
     public static final String LRU_CACHE_LEVEL = "org.apache.chemistry.opencmis.client.bindings.cache.impl.LruCacheLevelImpl";
+    public static final String CONCURRENT_MAP_CACHE_LEVEL = "org.apache.chemistry.opencmis.client.bindings.cache.impl.ConcurrentMapCacheLevelImpl";
+    public static final String CONCURRENT_LRU_CACHE_LEVEL = "org.apache.chemistry.opencmis.client.bindings.cache.impl.ConcurrentLruCacheLevelImpl";
 
     public void testCache() {
         Cache cache;
@@ -172,6 +183,193 @@ public class CacheTest extends TestCase {
         }
     }
 
+    public void testStatistics() {
+        Cache cache;
+
+        cache = new CacheImpl("Test Cache");
+        cache.initialize(new String[] { MAP_CACHE_LEVEL,
+                LRU_CACHE_LEVEL + " " + LruCacheLevelImpl.MAX_ENTRIES + "=10" });
+
+        for (int i = 0; i < 20; i++) {
+            cache.put("value" + i, "repo", "key" + i);
+        }
+
+        for (int i = 0; i < 20; i++) {
+            cache.get("repo", "key" + i);
+        }
+        cache.get("otherRepo", "key1");
+
+        CacheStatistics stats = cache.getStatistics();
+        assertEquals("Test Cache", stats.getName());
+        assertEquals(20, stats.getPutCount());
+        assertEquals(10, stats.getHitCount());
+        assertEquals(11, stats.getMissCount());
+        assertEquals(10, stats.getEvictionCount());
+        assertEquals(0, stats.getExpirationCount());
+        assertEquals(10, stats.getEntryCount());
+        assertEquals(10.0 / 21.0, stats.getHitRatio(), 0.0001);
+    }
+
+    public void testConcurrentCache() {
+        Cache cache;
+
+        cache = new ConcurrentCacheImpl();
+        cache.initialize(new String[] { CONCURRENT_MAP_CACHE_LEVEL, CONCURRENT_LRU_CACHE_LEVEL,
+                CONCURRENT_MAP_CACHE_LEVEL, CONCURRENT_MAP_CACHE_LEVEL });
+
+        String value1 = "value1";
+        String value2 = "value2";
+        Object valueObj;
+
+        // put and get
+        cache.put(value1, "l1", "l2a", "l3", "l4");
+        cache.put(value2, "l1", "l2b", "l3", "l4");
+
+        assertSame(value1, cache.get("l1", "l2a", "l3", "l4"));
+        assertSame(value2, cache.get("l1", "l2b", "l3", "l4"));
+        assertEquals(4, cache.check("l1", "l2a", "l3", "l4"));
+        assertEquals(1, cache.check("l1", "l2x", "l3", "l4"));
+
+        // remove leaf
+        cache.remove("l1", "l2a", "l3", "l4");
+        valueObj = cache.get("l1", "l2a", "l3", "l4");
+        assertNull(valueObj);
+
+        // remove branch
+        cache.remove("l1", "l2b");
+        valueObj = cache.get("l1", "l2b", "l3", "l4");
+        assertNull(valueObj);
+
+        // remove all
+        cache.put(value1, "l1", "l2a", "l3", "l4");
+        cache.removeAll();
+        assertNull(cache.get("l1", "l2a", "l3", "l4"));
+    }
+
+    public void testConcurrentCacheConfig() {
+        Cache cache = new ConcurrentCacheImpl();
+
+        // levels must be concurrent
+        try {
+            cache.initialize(new String[] { CONCURRENT_MAP_CACHE_LEVEL, LRU_CACHE_LEVEL });
+            fail("Non-concurrent level accepted!");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    public void testConcurrentLruCache() {
+        Cache cache;
+
+        cache = new ConcurrentCacheImpl();
+        cache.initialize(new String[] { CONCURRENT_LRU_CACHE_LEVEL + " " + LruCacheLevelImpl.MAX_ENTRIES + "=10" });
+
+        for (int i = 0; i < 100; i++) {
+            cache.put("value" + i, "key" + i);
+
+            // keep key0 alive
+            assertEquals("value0", cache.get("key0"));
+        }
+
+        assertEquals("value0", cache.get("key0"));
+
+        for (int i = 1; i < 91; i++) {
+            assertNull(cache.get("key" + i));
+        }
+
+        for (int i = 91; i < 100; i++) {
+            assertEquals("value" + i, cache.get("key" + i));
+        }
+
+        assertEquals(10, cache.getStatistics().getEntryCount());
+        assertEquals(90, cache.getStatistics().getEvictionCount());
+    }
+
+    public void testConcurrentLruCacheFallback() {
+        ConcurrentLruCacheLevelImpl cl = new ConcurrentLruCacheLevelImpl() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void initialize(Map<String, String> parameters) {
+                super.initialize(parameters);
+                enableKeyFallback(null);
+            }
+        };
+        cl.initialize(null);
+
+        assertNull(cl.get("key1"));
+
+        cl.put("default", null);
+        cl.put("value1", "key1");
+
+        assertEquals("value1", cl.get("key1"));
+        assertEquals("default", cl.get("key2"));
+        assertEquals("default", cl.get(null));
+
+        ConcurrentLruCacheLevelImpl single = new ConcurrentLruCacheLevelImpl() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void initialize(Map<String, String> parameters) {
+                super.initialize(parameters);
+                enableSingeValueFallback();
+            }
+        };
+        single.initialize(null);
+
+        single.put("value1", "key1");
+        assertEquals("value1", single.get("key2"));
+
+        single.put("value2", "key2");
+        assertNull(single.get("key3"));
+    }
+
+    public void testConcurrentAccess() throws Exception {
+        final Cache cache = new ConcurrentCacheImpl();
+        cache.initialize(new String[] { CONCURRENT_MAP_CACHE_LEVEL,
+                CONCURRENT_LRU_CACHE_LEVEL + " " + LruCacheLevelImpl.MAX_ENTRIES + "=50", CONCURRENT_MAP_CACHE_LEVEL });
+
+        final AtomicInteger failures = new AtomicInteger();
+        List<Thread> threads = new ArrayList<Thread>();
+
+        for (int t = 0; t < 8; t++) {
+            final int threadNumber = t;
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < 2000; i++) {
+                            String id = "id" + ((i * 7 + threadNumber) % 200);
+                            String rel = "rel" + (i % 3);
+                            String value = id + "/" + rel;
+
+                            cache.put(value, "repo", id, rel);
+
+                            Object result = cache.get("repo", id, rel);
+                            if (result != null && !value.equals(result)) {
+                                failures.incrementAndGet();
+                            }
+
+                            if (i % 100 == 0) {
+                                cache.remove("repo", id);
+                            }
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, failures.get());
+        assertTrue(cache.getStatistics().getEntryCount() <= 50 * 3 + 8 * 3);
+    }
+
     public void XtestFallback() {
         Cache cache;
 
@@ -206,4 +404,24 @@ public class CacheTest extends TestCase {
         assertNull(cl.get("text/plain; param1=blah; charset=UTF-8"));
         assertNull(cl.get("text/plain; param1=test; charset=us-ascii"));
     }
+
+    public void testConcurrentContentTypeCache() {
+        ConcurrentContentTypeCacheLevelImpl cl = new ConcurrentContentTypeCacheLevelImpl();
+        cl.initialize(null);
+
+        String type1 = "type1";
+
+        cl.put(type1, "text/plain; param1=test; charset=UTF-8");
+
+        assertEquals(type1, cl.get("text/plain; param1=test; charset=UTF-8"));
+        assertEquals(type1, cl.get("text/plain; param1=test; charset=utf-8"));
+        assertEquals(type1, cl.get("text/plain; charset=utf-8; param1=test"));
+        assertEquals(type1, cl.get("text/plain; charset=utf-8; param1=test;"));
+        assertEquals(type1, cl.get("text/plain;charset=utf-8;param1=test"));
+        assertEquals(type1, cl.get("text/plain;\tcharset=utf-8;     param1=test"));
+        assertEquals(type1, cl.get("text/plain; charset=\"utf-8\"; param1=test;"));
+
+        assertNull(cl.get("text/plain; param1=blah; charset=UTF-8"));
+        assertNull(cl.get("text/plain; param1=test; charset=us-ascii"));
+    }
 }
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.misc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+
+import junit.framework.TestCase;
+
+import org.apache.chemistry.opencmis.client.bindings.impl.CmisBindingsHelper;
+import org.apache.chemistry.opencmis.client.bindings.impl.SessionImpl;
+import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
+import org.apache.chemistry.opencmis.client.bindings.spi.StandardAuthenticationProvider;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.ApacheClientHttpInvoker;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.ConnectionPoolStatistics;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.ConnectionPoolStatisticsProvider;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.HttpInvoker;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.OkHttpHttpInvoker;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.Response;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.apache.chemistry.opencmis.commons.impl.IOUtils;
+import org.apache.chemistry.opencmis.commons.impl.UrlBuilder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the connection pool settings and statistics of the HTTP Invokers.
+ */
+public class ConnectionPoolStatisticsTest extends TestCase {
+
+    private HttpServer server;
+    private String url;
+
+    @Override
+    protected void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                byte[] body = "ok".getBytes(IOUtils.UTF8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        });
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    @Override
+    protected void tearDown() {
+        server.stop(0);
+    }
+
+    public void testApacheClient() {
+        ApacheClientHttpInvoker invoker = new ApacheClientHttpInvoker();
+        BindingSession session = createSession();
+
+        assertNull(invoker.getConnectionPoolStatistics(session));
+
+        sendRequests(invoker, session, 5);
+
+        ConnectionPoolStatistics stats = invoker.getConnectionPoolStatistics(session);
+        assertNotNull(stats);
+        assertEquals(7, stats.getMaxTotal());
+        assertEquals(3, stats.getMaxPerRoute());
+        assertEquals(5, stats.getLeaseCount());
+        assertEquals(0, stats.getLeased());
+        assertEquals(1, stats.getIdle());
+        assertEquals(0, stats.getWaitCount());
+    }
+
+    public void testOkHttp() {
+        OkHttpHttpInvoker invoker = new OkHttpHttpInvoker();
+        BindingSession session = createSession();
+
+        assertNull(invoker.getConnectionPoolStatistics(session));
+
+        sendRequests(invoker, session, 5);
+
+        // OkHttp doesn't limit the connections of synchronous calls
+        ConnectionPoolStatistics stats = invoker.getConnectionPoolStatistics(session);
+        assertNotNull(stats);
+        assertEquals(-1, stats.getMaxTotal());
+        assertEquals(-1, stats.getMaxPerRoute());
+        assertEquals(5, stats.getLeaseCount());
+        assertEquals(0, stats.getLeased());
+    }
+
+    public void testApacheClientIdleConnectionReaper() throws Exception {
+        ApacheClientHttpInvoker invoker = new ApacheClientHttpInvoker();
+        BindingSession session = createSession();
+        session.put(SessionParameter.HTTP_POOL_IDLE_TIMEOUT, "100");
+
+        sendRequests(invoker, session, 1);
+        assertEquals(1, invoker.getConnectionPoolStatistics(session).getIdle());
+
+        // the idle connection is closed without further requests, the
+        // eviction is counted right after the connection has been closed
+        long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline) {
+            ConnectionPoolStatistics stats = invoker.getConnectionPoolStatistics(session);
+            if (stats.getIdle() == 0 && stats.getIdleEvictionCount() > 0) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+
+        ConnectionPoolStatistics stats = invoker.getConnectionPoolStatistics(session);
+        assertEquals(0, stats.getIdle());
+        assertEquals(1, stats.getIdleEvictionCount());
+    }
+
+    private BindingSession createSession() {
+        SessionImpl session = new SessionImpl();
+        session.put(SessionParameter.HTTP_POOL_MAX_TOTAL, "7");
+        session.put(SessionParameter.HTTP_POOL_MAX_PER_ROUTE, "3");
+        session.put(SessionParameter.HTTP_POOL_IDLE_TIMEOUT, "60000");
+        session.put(SessionParameter.HTTP_POOL_KEEP_ALIVE, "30000");
+        session.put(SessionParameter.HTTP_POOL_VALIDATE_AFTER_INACTIVITY, "10000");
+
+        StandardAuthenticationProvider authProvider = new StandardAuthenticationProvider();
+        authProvider.setSession(session);
+        session.put(CmisBindingsHelper.AUTHENTICATION_PROVIDER_OBJECT, authProvider, true);
+
+        return session;
+    }
+
+    private void sendRequests(ConnectionPoolStatisticsProvider provider, BindingSession session, int count) {
+        HttpInvoker invoker = (HttpInvoker) provider;
+        for (int i = 0; i < count; i++) {
+            Response resp = invoker.invokeGET(new UrlBuilder(url), session);
+            assertEquals(200, resp.getResponseCode());
+            IOUtils.consumeAndClose(resp.getStream());
+        }
+    }
+}
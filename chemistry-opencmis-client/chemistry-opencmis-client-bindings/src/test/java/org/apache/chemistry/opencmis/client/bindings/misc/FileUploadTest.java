@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.misc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.apache.chemistry.opencmis.client.bindings.impl.SessionImpl;
+import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
+import org.apache.chemistry.opencmis.client.bindings.spi.browser.FormDataWriter;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.DefaultHttpInvoker;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.Response;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.apache.chemistry.opencmis.commons.impl.Constants;
+import org.apache.chemistry.opencmis.commons.impl.IOUtils;
+import org.apache.chemistry.opencmis.commons.impl.UrlBuilder;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.ContentStreamImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.FileContentStreamImpl;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests uploads of file backed content streams.
+ */
+public class FileUploadTest extends TestCase {
+
+    private static final byte[] CONTENT = new byte[300 * 1024 + 17];
+
+    static {
+        for (int i = 0; i < CONTENT.length; i++) {
+            CONTENT[i] = (byte) (i * 31);
+        }
+    }
+
+    private HttpServer server;
+    private String baseUrl;
+    private File file;
+    private volatile String contentLength;
+    private volatile String transferEncoding;
+    private volatile byte[] body;
+
+    @Override
+    protected void setUp() throws Exception {
+        file = File.createTempFile("opencmis-upload", ".bin");
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(CONTENT);
+        } finally {
+            out.close();
+        }
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+                    transferEncoding = exchange.getRequestHeaders().getFirst("Transfer-Encoding");
+                    ByteArrayOutputStream received = new ByteArrayOutputStream();
+                    IOUtils.copy(exchange.getRequestBody(), received);
+                    body = received.toByteArray();
+
+                    exchange.sendResponseHeaders(204, -1);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @Override
+    protected void tearDown() {
+        server.stop(0);
+        assertTrue(file.delete());
+    }
+
+    public void testFormDataLength() throws Exception {
+        FormDataWriter fileForm = new FormDataWriter(Constants.CMISACTION_CREATE_DOCUMENT, new FileContentStreamImpl(
+                "test.bin", file, "application/octet-stream"));
+        fileForm.addParameter(Constants.PARAM_OBJECT_ID, "123");
+
+        ByteArrayOutputStream fileBody = new ByteArrayOutputStream();
+        fileForm.write(fileBody);
+        assertEquals(fileBody.size(), fileForm.getLength());
+
+        // same body without the file
+        FormDataWriter streamForm = new FormDataWriter(Constants.CMISACTION_CREATE_DOCUMENT, new ContentStreamImpl(
+                "test.bin", null, "application/octet-stream", new ByteArrayInputStream(CONTENT)));
+        streamForm.addParameter(Constants.PARAM_OBJECT_ID, "123");
+        assertEquals(-1, streamForm.getLength());
+
+        ByteArrayOutputStream streamBody = new ByteArrayOutputStream();
+        streamForm.write(streamBody);
+        String boundary = streamForm.getContentType().substring(streamForm.getContentType().indexOf('=') + 1);
+        String fileBoundary = fileForm.getContentType().substring(fileForm.getContentType().indexOf('=') + 1);
+        assertEquals(new String(streamBody.toByteArray(), "ISO-8859-1").replace(boundary, fileBoundary),
+                new String(fileBody.toByteArray(), "ISO-8859-1"));
+    }
+
+    public void testFixedLengthUpload() throws Exception {
+        BindingSession session = new SessionImpl();
+        FormDataWriter form = new FormDataWriter(Constants.CMISACTION_SET_CONTENT, new FileContentStreamImpl(
+                "test.bin", file, "application/octet-stream"));
+
+        Response resp = new DefaultHttpInvoker().invokePOST(new UrlBuilder(baseUrl + "/upload"),
+                form.getContentType(), form, session);
+        assertEquals(204, resp.getResponseCode());
+        assertEquals(String.valueOf(form.getLength()), contentLength);
+        assertNull(transferEncoding);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        form.write(expected);
+        assertTrue(Arrays.equals(expected.toByteArray(), body));
+    }
+
+    public void testCompressedUpload() throws Exception {
+        BindingSession session = new SessionImpl();
+        session.put(SessionParameter.CLIENT_COMPRESSION, "true");
+        FormDataWriter form = new FormDataWriter(Constants.CMISACTION_SET_CONTENT, new FileContentStreamImpl(
+                "test.bin", file, "application/octet-stream"));
+
+        // the compressed length is unknown
+        Response resp = new DefaultHttpInvoker().invokePOST(new UrlBuilder(baseUrl + "/upload"),
+                form.getContentType(), form, session);
+        assertEquals(204, resp.getResponseCode());
+        assertNull(contentLength);
+        assertEquals("chunked", transferEncoding);
+    }
+
+    public void testReplacedStream() throws Exception {
+        FileContentStreamImpl contentStream = new FileContentStreamImpl("test.bin", file, "application/octet-stream");
+        assertEquals(CONTENT.length, contentStream.getLength());
+        assertSame(file, contentStream.getFile());
+
+        contentStream.setStream(new ByteArrayInputStream(new byte[10]));
+        assertNull(contentStream.getFile());
+        assertEquals(-1, new FormDataWriter(Constants.CMISACTION_SET_CONTENT, contentStream).getLength());
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.misc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.apache.chemistry.opencmis.client.bindings.impl.CmisBindingsHelper;
+import org.apache.chemistry.opencmis.client.bindings.impl.SessionImpl;
+import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.DefaultHttpInvoker;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.HttpCache;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.HttpInvoker;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.Response;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.apache.chemistry.opencmis.commons.impl.IOUtils;
+import org.apache.chemistry.opencmis.commons.impl.UrlBuilder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the client HTTP cache with conditional GET requests.
+ */
+public class HttpCacheTest extends TestCase {
+
+    private static final byte[] CONTENT = new byte[10000];
+
+    static {
+        for (int i = 0; i < CONTENT.length; i++) {
+            CONTENT[i] = (byte) i;
+        }
+    }
+
+    private HttpServer server;
+    private String baseUrl;
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private volatile String etag = "\"v1\"";
+
+    @Override
+    protected void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    String path = exchange.getRequestURI().getPath();
+                    if (path.equals("/content")) {
+                        exchange.getResponseHeaders().set("ETag", etag);
+                    }
+                    exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+
+                    if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                        exchange.sendResponseHeaders(304, -1);
+                        return;
+                    }
+
+                    fullResponses.incrementAndGet();
+                    exchange.sendResponseHeaders(200, CONTENT.length);
+                    OutputStream out = exchange.getResponseBody();
+                    out.write(CONTENT);
+                    out.close();
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @Override
+    protected void tearDown() {
+        server.stop(0);
+    }
+
+    public void testDisabled() {
+        assertNull(CmisBindingsHelper.getHttpCache(new SessionImpl()));
+    }
+
+    public void testMemoryCache() throws Exception {
+        BindingSession session = new SessionImpl();
+        session.put(SessionParameter.HTTP_CACHE_SIZE, "100000");
+
+        checkCache(session);
+    }
+
+    public void testFileCache() throws Exception {
+        File dir = new File(System.getProperty("java.io.tmpdir"), "opencmis-http-cache-test");
+
+        BindingSession session = new SessionImpl();
+        session.put(SessionParameter.HTTP_CACHE_SIZE, "100000");
+        session.put(SessionParameter.HTTP_CACHE_DIRECTORY, dir.getAbsolutePath());
+
+        checkCache(session);
+
+        CmisBindingsHelper.getHttpCache(session).clear();
+        String[] files = dir.list();
+        assertNotNull(files);
+        assertEquals(0, files.length);
+        dir.delete();
+    }
+
+    public void testNotCached() throws Exception {
+        BindingSession session = new SessionImpl();
+        session.put(SessionParameter.HTTP_CACHE_SIZE, "5000");
+        HttpInvoker invoker = new DefaultHttpInvoker();
+
+        // too big
+        readBody(invoker.invokeGET(new UrlBuilder(baseUrl + "/content"), session));
+        readBody(invoker.invokeGET(new UrlBuilder(baseUrl + "/content"), session));
+        assertEquals(2, fullResponses.get());
+
+        // no validators
+        session.put(SessionParameter.HTTP_CACHE_SIZE, "100000");
+        session.remove(CmisBindingsHelper.HTTP_CACHE_OBJECT);
+        readBody(invoker.invokeGET(new UrlBuilder(baseUrl + "/other"), session));
+        readBody(invoker.invokeGET(new UrlBuilder(baseUrl + "/other"), session));
+        assertEquals(4, fullResponses.get());
+
+        // not read to the end
+        Response resp = invoker.invokeGET(new UrlBuilder(baseUrl + "/content"), session);
+        InputStream stream = resp.getStream();
+        assertTrue(stream.read() != -1);
+        stream.close();
+        assertEquals(0, CmisBindingsHelper.getHttpCache(session).getEntryCount());
+    }
+
+    private void checkCache(BindingSession session) throws Exception {
+        HttpInvoker invoker = new DefaultHttpInvoker();
+        UrlBuilder url = new UrlBuilder(baseUrl + "/content");
+
+        assertTrue(Arrays.equals(CONTENT, readBody(invoker.invokeGET(url, session))));
+        assertEquals(1, fullResponses.get());
+
+        // unchanged -> 304
+        Response resp = invoker.invokeGET(url, session);
+        assertEquals(200, resp.getResponseCode());
+        assertTrue(Arrays.equals(CONTENT, readBody(resp)));
+        assertEquals(1, fullResponses.get());
+
+        // changed -> full response
+        etag = "\"v2\"";
+        assertTrue(Arrays.equals(CONTENT, readBody(invoker.invokeGET(url, session))));
+        assertEquals(2, fullResponses.get());
+        assertTrue(Arrays.equals(CONTENT, readBody(invoker.invokeGET(url, session))));
+        assertEquals(2, fullResponses.get());
+
+        HttpCache cache = CmisBindingsHelper.getHttpCache(session);
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(CONTENT.length, cache.getSize());
+    }
+
+    private static byte[] readBody(Response resp) throws IOException {
+        InputStream stream = resp.getStream();
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            IOUtils.copy(stream, out);
+            return out.toByteArray();
+        } finally {
+            IOUtils.closeQuietly(stream);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.misc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import junit.framework.TestCase;
+
+import org.apache.chemistry.opencmis.client.bindings.impl.CmisBindingsHelper;
+import org.apache.chemistry.opencmis.client.bindings.impl.SessionImpl;
+import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.DefaultHttpInvoker;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.HttpInvocation;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.HttpInvocationListener;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.HttpInvoker;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.HttpMetrics;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.HttpOperationStatistics;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.MonitoringHttpInvoker;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.Output;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.Response;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisConnectionException;
+import org.apache.chemistry.opencmis.commons.impl.IOUtils;
+import org.apache.chemistry.opencmis.commons.impl.UrlBuilder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the HTTP invocation listeners and metrics.
+ */
+public class HttpMetricsTest extends TestCase {
+
+    private static final int BODY_SIZE = 1000;
+
+    private HttpServer server;
+    private String baseUrl;
+
+    @Override
+    protected void setUp() throws Exception {
+        RecordingListener.INVOCATIONS.clear();
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    IOUtils.consumeAndClose(exchange.getRequestBody());
+                    if (exchange.getRequestURI().getPath().equals("/missing")) {
+                        exchange.sendResponseHeaders(404, -1);
+                    } else if (exchange.getRequestMethod().equals("DELETE")) {
+                        exchange.sendResponseHeaders(204, -1);
+                    } else {
+                        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+                        exchange.sendResponseHeaders(200, BODY_SIZE);
+                        OutputStream out = exchange.getResponseBody();
+                        out.write(new byte[BODY_SIZE]);
+                        out.close();
+                    }
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @Override
+    protected void tearDown() {
+        server.stop(0);
+    }
+
+    public void testNoMonitoring() {
+        BindingSession session = createSession();
+        assertTrue(CmisBindingsHelper.getHttpInvoker(session) instanceof DefaultHttpInvoker);
+        assertNull(CmisBindingsHelper.getHttpMetrics(session));
+    }
+
+    public void testListener() throws Exception {
+        BindingSession session = createSession();
+        session.put(SessionParameter.HTTP_INVOKER_LISTENER_CLASS, RecordingListener.class.getName());
+
+        HttpInvoker invoker = CmisBindingsHelper.getHttpInvoker(session);
+        assertTrue(invoker instanceof MonitoringHttpInvoker);
+        assertTrue(((MonitoringHttpInvoker) invoker).getDelegate() instanceof DefaultHttpInvoker);
+
+        // the request is complete when the stream has been read
+        UrlBuilder url = new UrlBuilder(baseUrl + "/browser/repo/root");
+        url.addParameter("objectId", "123");
+        url.addParameter("cmisselector", "object");
+        Response resp = invoker.invokeGET(url, session);
+        assertEquals(0, RecordingListener.INVOCATIONS.size());
+        readBody(resp);
+        assertEquals(1, RecordingListener.INVOCATIONS.size());
+
+        HttpInvocation invocation = RecordingListener.INVOCATIONS.get(0);
+        assertEquals("GET", invocation.getMethod());
+        assertEquals("object", invocation.getOperation());
+        assertEquals(200, invocation.getResponseCode());
+        assertEquals(0, invocation.getUncompressedBytesSent());
+        assertEquals(BODY_SIZE, invocation.getUncompressedBytesReceived());
+        assertTrue(invocation.getTimeToFirstByte() > 0);
+        assertTrue(invocation.getTotalTime() >= invocation.getTimeToFirstByte());
+        assertFalse(invocation.isError());
+
+        // an explicit operation and a request body
+        resp = ((MonitoringHttpInvoker) invoker).invokePOST(new UrlBuilder(baseUrl + "/browser/repo"),
+                "application/octet-stream", new Output() {
+                    @Override
+                    public void write(OutputStream out) throws IOException {
+                        out.write(new byte[123]);
+                    }
+                }, session, "createDocument");
+        resp.getStream().close();
+        invocation = RecordingListener.INVOCATIONS.get(1);
+        assertEquals("POST", invocation.getMethod());
+        assertEquals("createDocument", invocation.getOperation());
+        assertEquals(123, invocation.getUncompressedBytesSent());
+
+        // no response body
+        invoker.invokeDELETE(new UrlBuilder(baseUrl + "/browser/repo"), session);
+        invocation = RecordingListener.INVOCATIONS.get(2);
+        assertEquals("DELETE", invocation.getMethod());
+        assertNull(invocation.getOperation());
+        assertEquals(204, invocation.getResponseCode());
+
+        // error status
+        invoker.invokeGET(new UrlBuilder(baseUrl + "/missing"), session);
+        invocation = RecordingListener.INVOCATIONS.get(3);
+        assertEquals(404, invocation.getResponseCode());
+        assertTrue(invocation.isError());
+
+        // connection error
+        server.stop(0);
+        try {
+            invoker.invokeGET(new UrlBuilder(baseUrl + "/get"), session);
+            fail("CmisConnectionException expected!");
+        } catch (CmisConnectionException e) {
+            // expected
+        }
+        invocation = RecordingListener.INVOCATIONS.get(4);
+        assertEquals(-1, invocation.getResponseCode());
+        assertTrue(invocation.getFailure() instanceof CmisConnectionException);
+        assertEquals(5, RecordingListener.INVOCATIONS.size());
+    }
+
+    public void testMetrics() throws Exception {
+        BindingSession session = createSession();
+        session.put(SessionParameter.HTTP_METRICS, "true");
+
+        HttpInvoker invoker = CmisBindingsHelper.getHttpInvoker(session);
+        HttpMetrics metrics = CmisBindingsHelper.getHttpMetrics(session);
+        assertNotNull(metrics);
+        assertTrue(((MonitoringHttpInvoker) invoker).getListeners().contains(metrics));
+
+        for (int i = 0; i < 20; i++) {
+            readBody(invoker.invokeGET(new UrlBuilder(baseUrl + "/repo?cmisselector=children&skipCount=" + i),
+                    session));
+        }
+        invoker.invokeGET(new UrlBuilder(baseUrl + "/missing?cmisselector=object"), session);
+
+        assertEquals(21, metrics.getRequestCount());
+        assertEquals(1, metrics.getErrorCount());
+        assertEquals(2, metrics.getOperationStatistics().size());
+
+        HttpOperationStatistics children = metrics.getOperationStatistics("GET", "children");
+        assertEquals(20, children.getRequestCount());
+        assertEquals(0, children.getErrorCount());
+        assertEquals(20 * BODY_SIZE, children.getUncompressedBytesReceived());
+        assertTrue(children.getTotalTimeP50() > 0);
+        assertTrue(children.getTotalTimeP50() <= children.getTotalTimeP90());
+        assertTrue(children.getTotalTimeP90() <= children.getTotalTimeP99());
+        assertTrue(children.getTotalTimeP99() <= children.getTotalTimeMax());
+        assertTrue(children.getTimeToFirstByteP50() <= children.getTotalTimeMax());
+
+        assertEquals(1, metrics.getOperationStatistics("GET", "object").getErrorCount());
+        assertNull(metrics.getOperationStatistics("POST", "object"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getRequestCount());
+    }
+
+    public void testJmx() throws Exception {
+        BindingSession session = createSession();
+        session.put(SessionParameter.HTTP_METRICS, "true");
+        session.put(SessionParameter.HTTP_METRICS_JMX, "true");
+
+        HttpInvoker invoker = CmisBindingsHelper.getHttpInvoker(session);
+        readBody(invoker.invokeGET(new UrlBuilder(baseUrl + "/repo?cmisselector=object"), session));
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = HttpMetrics.createObjectName(session.getSessionId());
+        try {
+            assertTrue(server.isRegistered(name));
+            assertEquals(1L, server.getAttribute(name, "RequestCount"));
+
+            CompositeData[] operations = (CompositeData[]) server.getAttribute(name, "OperationStatistics");
+            assertEquals(1, operations.length);
+            assertEquals("object", operations[0].get("operation"));
+            assertEquals((long) BODY_SIZE, operations[0].get("uncompressedBytesReceived"));
+        } finally {
+            HttpMetrics.unregisterMBean(session.getSessionId());
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    public void testJmxReleasesMetrics() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = HttpMetrics.createObjectName("collected");
+
+        HttpMetrics metrics = new HttpMetrics();
+        metrics.registerMBean("collected");
+        assertTrue(server.isRegistered(name));
+        metrics = null;
+
+        // the MBean doesn't keep the metrics alive
+        for (int i = 0; i < 50 && server.isRegistered(name); i++) {
+            System.gc();
+            Thread.sleep(20);
+
+            // registering other metrics removes the stale MBeans
+            HttpMetrics other = new HttpMetrics();
+            other.registerMBean("other");
+            HttpMetrics.unregisterMBean("other");
+        }
+
+        assertFalse(server.isRegistered(name));
+    }
+
+    public void testHistogram() {
+        HttpMetrics metrics = new HttpMetrics();
+        for (int i = 1; i <= 1000; i++) {
+            // 1 ms to 1000 ms
+            metrics.invocationCompleted(null, new HttpInvocation("GET", "http://localhost/", "query", 200, 0, 0,
+                    i * 1000000L, i * 1000000L, null));
+        }
+
+        HttpOperationStatistics stats = metrics.getOperationStatistics("GET", "query");
+        assertEquals(1000, stats.getRequestCount());
+        assertEquals(1000.0, stats.getTotalTimeMax(), 0.001);
+        checkPercentile(500.0, stats.getTotalTimeP50());
+        checkPercentile(900.0, stats.getTotalTimeP90());
+        checkPercentile(990.0, stats.getTotalTimeP99());
+        checkPercentile(500.0, stats.getTimeToFirstByteP50());
+    }
+
+    private static void checkPercentile(double expected, double actual) {
+        // the buckets are at most 12.5% wide
+        assertTrue("expected " + expected + " but was " + actual, actual >= expected
+                && actual <= expected * 1.125);
+    }
+
+    private static BindingSession createSession() {
+        SessionImpl session = new SessionImpl();
+        session.put(SessionParameter.HTTP_INVOKER_CLASS, DefaultHttpInvoker.class.getName());
+        return session;
+    }
+
+    private static void readBody(Response resp) throws IOException {
+        InputStream stream = resp.getStream();
+        byte[] buffer = new byte[256];
+        while (stream.read(buffer) > -1) {
+            // read to the end
+        }
+    }
+
+    /**
+     * Collects all invocations.
+     */
+    public static class RecordingListener implements HttpInvocationListener {
+
+        static final List<HttpInvocation> INVOCATIONS = new CopyOnWriteArrayList<HttpInvocation>();
+
+        @Override
+        public void invocationCompleted(BindingSession session, HttpInvocation invocation) {
+            INVOCATIONS.add(invocation);
+        }
+    }
+}
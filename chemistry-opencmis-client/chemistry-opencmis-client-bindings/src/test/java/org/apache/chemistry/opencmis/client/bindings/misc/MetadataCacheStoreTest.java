@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.misc;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.apache.chemistry.opencmis.client.bindings.cache.TypeDefinitionCache;
+import org.apache.chemistry.opencmis.client.bindings.impl.CmisBindingsHelper;
+import org.apache.chemistry.opencmis.client.bindings.impl.MetadataCacheStore;
+import org.apache.chemistry.opencmis.client.bindings.impl.RepositoryInfoCache;
+import org.apache.chemistry.opencmis.client.bindings.impl.RepositoryServiceImpl;
+import org.apache.chemistry.opencmis.client.bindings.impl.SessionImpl;
+import org.apache.chemistry.opencmis.client.bindings.impl.TypeDefinitionCacheImpl;
+import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
+import org.apache.chemistry.opencmis.client.bindings.spi.CmisSpi;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.apache.chemistry.opencmis.commons.data.RepositoryInfo;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.DocumentTypeDefinitionImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.RepositoryInfoImpl;
+import org.apache.chemistry.opencmis.commons.spi.RepositoryService;
+
+/**
+ * Tests the metadata cache snapshot.
+ */
+public class MetadataCacheStoreTest extends TestCase {
+
+    private static final String REPOSITORY_ID = "repo1";
+
+    private File file;
+
+    @Override
+    protected void setUp() throws Exception {
+        file = File.createTempFile("opencmis-metadata", ".cache");
+        assertTrue(file.delete());
+    }
+
+    @Override
+    protected void tearDown() {
+        if (file.exists()) {
+            assertTrue(file.delete());
+        }
+    }
+
+    public void testSaveAndLoad() {
+        BindingSession session1 = createSession("user1", "token1", new AtomicInteger());
+        RepositoryInfoCache repInfoCache = CmisBindingsHelper.getRepositoryInfoCache(session1);
+        repInfoCache.put(createRepositoryInfo("token1"));
+        DocumentTypeDefinitionImpl typeDef = new DocumentTypeDefinitionImpl();
+        typeDef.setId("doc");
+        CmisBindingsHelper.getTypeDefinitionCache(session1).put(REPOSITORY_ID, typeDef);
+
+        MetadataCacheStore.save(session1);
+        assertTrue(file.isFile());
+
+        // same endpoint and user
+        BindingSession session2 = createSession("user1", "token1", new AtomicInteger());
+        assertTrue(MetadataCacheStore.load(session2, true));
+        assertEquals("token1", CmisBindingsHelper.getRepositoryInfoCache(session2).get(REPOSITORY_ID)
+                .getLatestChangeLogToken());
+        assertEquals("doc", CmisBindingsHelper.getTypeDefinitionCache(session2).get(REPOSITORY_ID, "doc").getId());
+
+        // different user
+        BindingSession session3 = createSession("user2", "token1", new AtomicInteger());
+        assertFalse(MetadataCacheStore.load(session3, true));
+        assertNull(CmisBindingsHelper.getRepositoryInfoCache(session3).get(REPOSITORY_ID));
+    }
+
+    public void testValidation() throws Exception {
+        BindingSession session1 = createSession("user1", "token1", new AtomicInteger());
+        CmisBindingsHelper.getRepositoryInfoCache(session1).put(createRepositoryInfo("token1"));
+        DocumentTypeDefinitionImpl typeDef = new DocumentTypeDefinitionImpl();
+        typeDef.setId("doc");
+        CmisBindingsHelper.getTypeDefinitionCache(session1).put(REPOSITORY_ID, typeDef);
+        MetadataCacheStore.save(session1);
+
+        // unchanged repository: the restored metadata stays
+        AtomicInteger calls = new AtomicInteger();
+        BindingSession session2 = createSession("user1", "token1", calls);
+        assertTrue(MetadataCacheStore.load(session2, true));
+
+        RepositoryService repService = new RepositoryServiceImpl(session2);
+        assertEquals("token1", repService.getRepositoryInfo(REPOSITORY_ID, null).getLatestChangeLogToken());
+        waitForCalls(calls, 1);
+        TypeDefinitionCache typeDefCache = CmisBindingsHelper.getTypeDefinitionCache(session2);
+        assertNotNull(typeDefCache.get(REPOSITORY_ID, "doc"));
+
+        // validated only once
+        repService.getRepositoryInfo(REPOSITORY_ID, null);
+        Thread.sleep(100);
+        assertEquals(1, calls.get());
+
+        // changed repository: the restored metadata is dropped
+        calls = new AtomicInteger();
+        BindingSession session3 = createSession("user1", "token2", calls);
+        assertTrue(MetadataCacheStore.load(session3, true));
+
+        repService = new RepositoryServiceImpl(session3);
+        assertEquals("token1", repService.getRepositoryInfo(REPOSITORY_ID, null).getLatestChangeLogToken());
+        waitForCalls(calls, 1);
+        typeDefCache = CmisBindingsHelper.getTypeDefinitionCache(session3);
+        long deadline = System.currentTimeMillis() + 10000;
+        while (typeDefCache.get(REPOSITORY_ID, "doc") != null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNull(typeDefCache.get(REPOSITORY_ID, "doc"));
+        assertEquals("token2", repService.getRepositoryInfo(REPOSITORY_ID, null).getLatestChangeLogToken());
+    }
+
+    public void testRepositoryInfosValidation() throws Exception {
+        BindingSession session1 = createSession("user1", "token1", new AtomicInteger());
+        CmisBindingsHelper.getRepositoryInfoCache(session1).put(createRepositoryInfo("token1"));
+        DocumentTypeDefinitionImpl typeDef = new DocumentTypeDefinitionImpl();
+        typeDef.setId("doc");
+        CmisBindingsHelper.getTypeDefinitionCache(session1).put(REPOSITORY_ID, typeDef);
+        MetadataCacheStore.save(session1);
+
+        // changed repository: getRepositoryInfos() drops the restored metadata
+        BindingSession session2 = createSession("user1", "token2", new AtomicInteger());
+        assertTrue(MetadataCacheStore.load(session2, true));
+
+        final List<String> invalidated = new CopyOnWriteArrayList<String>();
+        MetadataCacheStore.setListener(session2, new MetadataCacheStore.Listener() {
+            @Override
+            public void metadataInvalidated(String repositoryId) {
+                invalidated.add(repositoryId);
+            }
+        });
+
+        RepositoryService repService = new RepositoryServiceImpl(session2);
+        assertEquals("token2", repService.getRepositoryInfos(null).get(0).getLatestChangeLogToken());
+        assertNull(CmisBindingsHelper.getTypeDefinitionCache(session2).get(REPOSITORY_ID, "doc"));
+        assertEquals(Collections.singletonList(REPOSITORY_ID), invalidated);
+        assertEquals("token2", CmisBindingsHelper.getRepositoryInfoCache(session2).get(REPOSITORY_ID)
+                .getLatestChangeLogToken());
+
+        // the snapshot is written again after the validation
+        long deadline = System.currentTimeMillis() + 10000;
+        BindingSession session3 = null;
+        while (System.currentTimeMillis() < deadline) {
+            session3 = createSession("user1", "token2", new AtomicInteger());
+            if (MetadataCacheStore.load(session3, true)
+                    && "token2".equals(CmisBindingsHelper.getRepositoryInfoCache(session3).get(REPOSITORY_ID)
+                            .getLatestChangeLogToken())) {
+                break;
+            }
+            Thread.sleep(10);
+        }
+        assertEquals("token2", CmisBindingsHelper.getRepositoryInfoCache(session3).get(REPOSITORY_ID)
+                .getLatestChangeLogToken());
+    }
+
+    public void testSaveIfMissing() {
+        BindingSession session1 = createSession("user1", "token1", new AtomicInteger());
+        CmisBindingsHelper.getRepositoryInfoCache(session1).put(createRepositoryInfo("token1"));
+
+        MetadataCacheStore.saveIfMissing(session1);
+        assertTrue(file.isFile());
+        assertTrue(file.delete());
+
+        // only once per session
+        MetadataCacheStore.saveIfMissing(session1);
+        assertFalse(file.exists());
+
+        // not if a snapshot has been restored
+        MetadataCacheStore.save(session1);
+        BindingSession session2 = createSession("user1", "token1", new AtomicInteger());
+        assertTrue(MetadataCacheStore.load(session2, true));
+        assertTrue(file.delete());
+        MetadataCacheStore.saveIfMissing(session2);
+        assertFalse(file.exists());
+    }
+
+    public void testForeignClassesAreRejected() throws Exception {
+        ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file));
+        try {
+            out.writeObject(new URI("http://localhost/"));
+        } finally {
+            out.close();
+        }
+
+        BindingSession session = createSession("user1", "token1", new AtomicInteger());
+        assertFalse(MetadataCacheStore.load(session, true));
+        assertNull(CmisBindingsHelper.getRepositoryInfoCache(session).get(REPOSITORY_ID));
+    }
+
+    private static void waitForCalls(AtomicInteger calls, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (calls.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, calls.get());
+    }
+
+    private BindingSession createSession(String user, final String currentToken, final AtomicInteger calls) {
+        SessionImpl session = new SessionImpl();
+        session.put(SessionParameter.BINDING_TYPE, "atompub");
+        session.put(SessionParameter.ATOMPUB_URL, "http://localhost/cmis/atom");
+        session.put(SessionParameter.USER, user);
+        session.put(SessionParameter.CACHE_METADATA_FILE, file.getAbsolutePath());
+        session.put(SessionParameter.TYPE_DEFINITION_CACHE_CLASS, TypeDefinitionCacheImpl.class.getName());
+        session.put(CmisBindingsHelper.REPOSITORY_INFO_CACHE, new RepositoryInfoCache(session));
+
+        final RepositoryService repService = (RepositoryService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { RepositoryService.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("getRepositoryInfo")) {
+                            calls.incrementAndGet();
+                            return createRepositoryInfo(currentToken);
+                        }
+                        if (method.getName().equals("getRepositoryInfos")) {
+                            return Collections.singletonList(createRepositoryInfo(currentToken));
+                        }
+                        return null;
+                    }
+                });
+
+        CmisSpi spi = (CmisSpi) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { CmisSpi.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("getRepositoryService")) {
+                            return repService;
+                        }
+                        return null;
+                    }
+                });
+        session.put(CmisBindingsHelper.SPI_OBJECT, spi, true);
+
+        return session;
+    }
+
+    private static RepositoryInfo createRepositoryInfo(String token) {
+        RepositoryInfoImpl info = new RepositoryInfoImpl();
+        info.setId(REPOSITORY_ID);
+        info.setLatestChangeLogToken(token);
+        return info;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.misc;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.apache.chemistry.opencmis.client.bindings.impl.RequestCoalescer;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisObjectNotFoundException;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
+
+/**
+ * Tests the request coalescer.
+ */
+public class RequestCoalescerTest extends TestCase {
+
+    public void testSequentialRequests() {
+        RequestCoalescer<String> coalescer = new RequestCoalescer<String>("test");
+        final AtomicInteger calls = new AtomicInteger();
+
+        RequestCoalescer.Request<String> request = new RequestCoalescer.Request<String>() {
+            @Override
+            public String execute() {
+                return "result" + calls.incrementAndGet();
+            }
+        };
+
+        // finished requests are not remembered
+        assertEquals("result1", coalescer.execute("key", request));
+        assertEquals("result2", coalescer.execute("key", request));
+        assertEquals(2, coalescer.getExecutedCount());
+        assertEquals(0, coalescer.getCoalescedCount());
+    }
+
+    public void testException() {
+        RequestCoalescer<String> coalescer = new RequestCoalescer<String>("test");
+
+        try {
+            coalescer.execute("key", new RequestCoalescer.Request<String>() {
+                @Override
+                public String execute() {
+                    throw new CmisObjectNotFoundException("not found");
+                }
+            });
+            fail("CmisObjectNotFoundException expected!");
+        } catch (CmisObjectNotFoundException e) {
+            assertEquals("not found", e.getMessage());
+        }
+    }
+
+    public void testConcurrentRequests() throws Exception {
+        final RequestCoalescer<Object> coalescer = new RequestCoalescer<Object>("test");
+        final CountDownLatch requestStarted = new CountDownLatch(1);
+        final CountDownLatch releaseRequest = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+
+        final RequestCoalescer.Request<Object> request = new RequestCoalescer.Request<Object>() {
+            @Override
+            public Object execute() {
+                calls.incrementAndGet();
+                requestStarted.countDown();
+                try {
+                    releaseRequest.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new Object();
+            }
+        };
+
+        // the first thread starts the request
+        final Object[] results = new Object[8];
+        Thread[] threads = new Thread[results.length];
+        threads[0] = createThread(coalescer, request, results, 0);
+        threads[0].start();
+        assertTrue(requestStarted.await(10, TimeUnit.SECONDS));
+
+        // all other threads join it
+        for (int i = 1; i < threads.length; i++) {
+            threads[i] = createThread(coalescer, request, results, i);
+            threads[i].start();
+        }
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (coalescer.getCoalescedCount() < threads.length - 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        CacheStatistics stats = coalescer.getStatistics();
+        assertEquals(1, stats.getEntryCount());
+
+        releaseRequest.countDown();
+        for (Thread thread : threads) {
+            thread.join(10000);
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals(1, coalescer.getExecutedCount());
+        assertEquals(threads.length - 1, coalescer.getCoalescedCount());
+        for (Object result : results) {
+            assertSame(results[0], result);
+        }
+    }
+
+    private static Thread createThread(final RequestCoalescer<Object> coalescer,
+            final RequestCoalescer.Request<Object> request, final Object[] results, final int index) {
+        return new Thread() {
+            @Override
+            public void run() {
+                results[index] = coalescer.execute("key", request);
+            }
+        };
+    }
+}
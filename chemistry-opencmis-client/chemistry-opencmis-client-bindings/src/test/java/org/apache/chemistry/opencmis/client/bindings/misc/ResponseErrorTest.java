@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.misc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import junit.framework.TestCase;
+
+import org.apache.chemistry.opencmis.client.bindings.spi.browser.AbstractBrowserBindingService;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.Response;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisBaseException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisObjectNotFoundException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisPermissionDeniedException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
+import org.apache.chemistry.opencmis.commons.impl.IOUtils;
+
+/**
+ * Tests the handling of error pages in {@link Response}.
+ */
+public class ResponseErrorTest extends TestCase {
+
+    public void testLazyErrorContent() throws Exception {
+        TrackingInputStream errorStream = new TrackingInputStream("not found".getBytes(IOUtils.UTF8));
+        Response resp = new Response(404, "Not Found", headers("text/plain; charset=UTF-8", null), null,
+                errorStream);
+
+        assertEquals(404, resp.getResponseCode());
+        assertEquals(0, errorStream.bytesRead);
+        assertFalse(errorStream.closed);
+
+        assertEquals("not found", resp.getErrorContent());
+        assertTrue(errorStream.closed);
+        assertEquals("not found", resp.getErrorContent());
+    }
+
+    public void testBinaryErrorPage() throws Exception {
+        TrackingInputStream errorStream = new TrackingInputStream(new byte[1000]);
+        Response resp = new Response(500, "Error", headers("application/octet-stream", null), null, errorStream);
+
+        assertTrue(errorStream.closed);
+        assertEquals(0, errorStream.bytesRead);
+        assertNull(resp.getErrorContent());
+        assertNull(resp.getErrorStream());
+    }
+
+    public void testTruncatedErrorContent() throws Exception {
+        byte[] page = new byte[1024 * 1024];
+        Arrays.fill(page, (byte) 'x');
+        TrackingInputStream errorStream = new TrackingInputStream(page);
+        Response resp = new Response(502, "Bad Gateway", headers("text/html", null), null, errorStream);
+
+        String errorContent = resp.getErrorContent();
+        assertEquals(128 * 1024, errorContent.length());
+        assertTrue(errorStream.bytesRead < page.length);
+        assertTrue(errorStream.closed);
+    }
+
+    public void testErrorStream() throws Exception {
+        byte[] page = new byte[1024 * 1024];
+        Arrays.fill(page, (byte) 'x');
+        Response resp = new Response(500, "Error", headers("application/json", null), null,
+                new ByteArrayInputStream(page));
+
+        InputStream stream = resp.getErrorStream();
+        assertNotNull(stream);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IOUtils.copy(stream, out);
+        stream.close();
+        assertEquals(128 * 1024, out.size());
+
+        // the error page can only be read once
+        assertNull(resp.getErrorStream());
+        assertNull(resp.getErrorContent());
+    }
+
+    public void testCompressedErrorContent() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+        gzip.write("compressed error".getBytes(IOUtils.UTF8));
+        gzip.close();
+
+        Response resp = new Response(500, "Error", headers("text/plain", "gzip"), null, new ByteArrayInputStream(
+                compressed.toByteArray()));
+        assertEquals("compressed error", resp.getErrorContent());
+    }
+
+    public void testClose() throws Exception {
+        TrackingInputStream errorStream = new TrackingInputStream("error".getBytes(IOUtils.UTF8));
+        Response resp = new Response(503, "Unavailable", headers("text/plain", null), null, errorStream);
+
+        resp.close();
+        assertTrue(errorStream.closed);
+        assertEquals(0, errorStream.bytesRead);
+        assertNull(resp.getErrorContent());
+    }
+
+    public void testBrowserBindingError() throws Exception {
+        TestBrowserService service = new TestBrowserService();
+
+        String json = "{\"exception\":\"objectNotFound\",\"message\":\"Object 123 not found\",\"stacktrace\":\"st\"}";
+        Response resp = new Response(404, "Not Found", headers("application/json;charset=UTF-8", null), null,
+                new ByteArrayInputStream(json.getBytes(IOUtils.UTF8)));
+        CmisBaseException ex = service.convert(resp);
+        assertTrue(ex instanceof CmisObjectNotFoundException);
+        assertEquals("Object 123 not found", ex.getMessage());
+        assertEquals("st", ex.getAdditionalData().get("stacktrace"));
+        // the raw error page is kept
+        assertEquals(json, ex.getErrorContent());
+
+        // invalid JSON falls back to the status code
+        resp = new Response(403, "Forbidden", headers("application/json", null), null, new ByteArrayInputStream(
+                "{\"exception\":".getBytes(IOUtils.UTF8)));
+        ex = service.convert(resp);
+        assertTrue(ex instanceof CmisPermissionDeniedException);
+        assertEquals("Forbidden", ex.getMessage());
+        assertEquals("{\"exception\":", ex.getErrorContent());
+
+        // HTML pages of proxies
+        resp = new Response(500, "Error", headers("text/html", null), null, new ByteArrayInputStream(
+                "<html>proxy error</html>".getBytes(IOUtils.UTF8)));
+        ex = service.convert(resp);
+        assertTrue(ex instanceof CmisRuntimeException);
+        assertEquals("<html>proxy error</html>", ex.getErrorContent());
+    }
+
+    private static Map<String, List<String>> headers(String contentType, String contentEncoding) {
+        Map<String, List<String>> headers = new HashMap<String, List<String>>();
+        headers.put("Content-Type", Collections.singletonList(contentType));
+        if (contentEncoding != null) {
+            headers.put("Content-Encoding", Collections.singletonList(contentEncoding));
+        }
+        return headers;
+    }
+
+    private static class TestBrowserService extends AbstractBrowserBindingService {
+        CmisBaseException convert(Response resp) {
+            return convertStatusCode(resp);
+        }
+    }
+
+    private static class TrackingInputStream extends ByteArrayInputStream {
+
+        int bytesRead;
+        boolean closed;
+
+        TrackingInputStream(byte[] buf) {
+            super(buf);
+        }
+
+        @Override
+        public synchronized int read() {
+            int b = super.read();
+            if (b > -1) {
+                bytesRead++;
+            }
+            return b;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                bytesRead += n;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.bindings.misc;
+
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.apache.chemistry.opencmis.client.bindings.impl.SessionImpl;
+import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.HttpInvoker;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.Output;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.RepeatableOutput;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.Response;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.RetryStatistics;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.RetryingHttpInvoker;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisConnectionException;
+import org.apache.chemistry.opencmis.commons.impl.UrlBuilder;
+
+/**
+ * Tests the retrying HTTP invoker.
+ */
+public class RetryingHttpInvokerTest extends TestCase {
+
+    private static final UrlBuilder URL = new UrlBuilder("http://localhost/cmis");
+
+    private BindingSession session;
+
+    @Override
+    protected void setUp() {
+        session = new SessionImpl();
+        session.put(RetryingHttpInvoker.INITIAL_DELAY, "1");
+        session.put(RetryingHttpInvoker.MAX_DELAY, "100");
+    }
+
+    public void testGetRetried() {
+        ScriptedHttpInvoker delegate = new ScriptedHttpInvoker(503, -1, 502, 200);
+        TestRetryingHttpInvoker invoker = new TestRetryingHttpInvoker(delegate);
+
+        Response resp = invoker.invokeGET(URL, session);
+        assertEquals(200, resp.getResponseCode());
+        assertEquals(4, delegate.calls);
+
+        RetryStatistics stats = invoker.getRetryStatistics(session);
+        assertEquals(1, stats.getRequestCount());
+        assertEquals(3, stats.getRetryCount());
+        assertEquals(0, stats.getExhaustedCount());
+    }
+
+    public void testMaxRetries() {
+        session.put(RetryingHttpInvoker.MAX_RETRIES, "2");
+        ScriptedHttpInvoker delegate = new ScriptedHttpInvoker(-1, -1, -1, 200);
+        TestRetryingHttpInvoker invoker = new TestRetryingHttpInvoker(delegate);
+
+        try {
+            invoker.invokeGET(URL, session, BigInteger.ZERO, BigInteger.TEN);
+            fail("CmisConnectionException expected!");
+        } catch (CmisConnectionException e) {
+            // expected
+        }
+
+        assertEquals(3, delegate.calls);
+        assertEquals(1, invoker.getRetryStatistics(session).getExhaustedCount());
+    }
+
+    public void testBodies() {
+        TestRetryingHttpInvoker invoker = new TestRetryingHttpInvoker(new ScriptedHttpInvoker(503, 503, 200));
+
+        // not repeatable -> not retried
+        Response resp = invoker.invokePOST(URL, "text/plain", new Output() {
+            @Override
+            public void write(OutputStream out) {
+            }
+        }, session);
+        assertEquals(503, resp.getResponseCode());
+
+        // repeatable -> retried
+        final List<String> writes = new ArrayList<String>();
+        resp = invoker.invokePUT(URL, "text/plain", null, new RepeatableOutput() {
+            @Override
+            public void write(OutputStream out) {
+                writes.add("write");
+            }
+        }, session);
+        assertEquals(200, resp.getResponseCode());
+        assertEquals(2, writes.size());
+
+        // DELETE is never retried
+        invoker = new TestRetryingHttpInvoker(new ScriptedHttpInvoker(-1, 200));
+        try {
+            invoker.invokeDELETE(URL, session);
+            fail("CmisConnectionException expected!");
+        } catch (CmisConnectionException e) {
+            // expected
+        }
+    }
+
+    public void testRetryAfter() {
+        ScriptedHttpInvoker delegate = new ScriptedHttpInvoker(503, 200);
+        delegate.retryAfter = "3600";
+        TestRetryingHttpInvoker invoker = new TestRetryingHttpInvoker(delegate);
+
+        // longer than the maximum delay -> give up
+        assertEquals(503, invoker.invokeGET(URL, session).getResponseCode());
+        assertEquals(1, delegate.calls);
+
+        delegate = new ScriptedHttpInvoker(429, 200);
+        delegate.retryAfter = "0";
+        invoker = new TestRetryingHttpInvoker(delegate);
+        assertEquals(200, invoker.invokeGET(URL, session).getResponseCode());
+        assertEquals(2, delegate.calls);
+    }
+
+    public void testBudget() {
+        session.put(RetryingHttpInvoker.RETRY_BUDGET, "2");
+        session.put(RetryingHttpInvoker.RETRY_BUDGET_RATIO, "0");
+        TestRetryingHttpInvoker invoker = new TestRetryingHttpInvoker(new ScriptedHttpInvoker(503, 503, 503, 503,
+                503, 503));
+
+        assertEquals(503, invoker.invokeGET(URL, session).getResponseCode());
+
+        RetryStatistics stats = invoker.getRetryStatistics(session);
+        assertEquals(2, stats.getRetryCount());
+        assertEquals(1, stats.getBudgetRejectedCount());
+    }
+
+    static class TestRetryingHttpInvoker extends RetryingHttpInvoker {
+        private final HttpInvoker delegate;
+
+        TestRetryingHttpInvoker(HttpInvoker delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        protected HttpInvoker getHttpInvoker(BindingSession session) {
+            return delegate;
+        }
+    }
+
+    /**
+     * Returns the given status codes in order. -1 is a connection error.
+     */
+    static class ScriptedHttpInvoker implements HttpInvoker {
+        private final LinkedList<Integer> codes = new LinkedList<Integer>();
+        String retryAfter;
+        int calls;
+
+        ScriptedHttpInvoker(Integer... codes) {
+            Collections.addAll(this.codes, codes);
+        }
+
+        private Response next() {
+            calls++;
+            int code = codes.removeFirst();
+            if (code < 0) {
+                throw new CmisConnectionException("Connection reset");
+            }
+
+            Map<String, List<String>> headers = new HashMap<String, List<String>>();
+            if (retryAfter != null) {
+                headers.put("Retry-After", Collections.singletonList(retryAfter));
+            }
+            return new Response(code, "", headers, null, null);
+        }
+
+        @Override
+        public Response invokeGET(UrlBuilder url, BindingSession session) {
+            return next();
+        }
+
+        @Override
+        public Response invokeGET(UrlBuilder url, BindingSession session, BigInteger offset, BigInteger length) {
+            return next();
+        }
+
+        @Override
+        public Response invokePOST(UrlBuilder url, String contentType, Output writer, BindingSession session) {
+            return next();
+        }
+
+        @Override
+        public Response invokePUT(UrlBuilder url, String contentType, Map<String, String> headers, Output writer,
+                BindingSession session) {
+            try {
+                writer.write(null);
+            } catch (Exception e) {
+                throw new CmisConnectionException(e.getMessage(), e);
+            }
+            return next();
+        }
+
+        @Override
+        public Response invokeDELETE(UrlBuilder url, BindingSession session) {
+            return next();
+        }
+    }
+}
@@ -35,6 +35,7 @@ import java.util.Set;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Folder;
 import org.apache.chemistry.opencmis.client.api.ObjectFactory;
 import org.apache.chemistry.opencmis.client.api.ObjectId;
 import org.apache.chemistry.opencmis.client.api.ObjectType;
@@ -399,6 +400,13 @@ public abstract class AbstractCmisObject implements CmisObject, Serializable {
                 updatebility.add(Updatability.WHENCHECKEDOUT);
             }
 
+            // renaming a folder changes the paths of its subtree
+            // (don't use Folder.getPath(), it might call the repository)
+            String oldPath = null;
+            if ((this instanceof Folder) && properties.containsKey(PropertyIds.NAME)) {
+                oldPath = getPropertyValue(PropertyIds.PATH);
+            }
+
             // it's time to update
             getBinding().getObjectService().updateProperties(getRepositoryId(), objectIdHolder, changeTokenHolder,
                     getObjectFactory().convertProperties(properties, this.objectType, this.secondaryTypes,
@@ -409,6 +417,7 @@ public abstract class AbstractCmisObject implements CmisObject, Serializable {
 
             // remove the object from the cache, it has been changed
             getSession().removeObjectFromCache(objectId);
+            getSession().removePathTreeFromCache(oldPath);
         } finally {
             readUnlock();
         }
@@ -156,11 +156,16 @@ public abstract class AbstractFilableCmisObject extends AbstractCmisObject imple
             throw new IllegalArgumentException("Target folder id must be set!");
         }
 
+        // the old path of a folder is needed to invalidate its subtree
+        // (don't use Folder.getPath(), it might call the repository)
+        String oldPath = (this instanceof Folder) ? (String) getPropertyValue(PropertyIds.PATH) : null;
+
         getBinding().getObjectService().moveObject(getRepositoryId(), objectIdHolder, targetFolderId.getId(),
                 sourceFolderId.getId(), null);
 
         // invalidate path cache
         getSession().removeObjectFromCache(objectId);
+        getSession().removePathTreeFromCache(oldPath);
 
         if (objectIdHolder.getValue() == null) {
             return null;
@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.ObjectId;
+import org.apache.chemistry.opencmis.client.api.OperationContext;
+import org.apache.chemistry.opencmis.client.api.Property;
+import org.apache.chemistry.opencmis.client.api.Relationship;
+import org.apache.chemistry.opencmis.client.api.Rendition;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.commons.data.Ace;
+import org.apache.chemistry.opencmis.commons.data.Acl;
+import org.apache.chemistry.opencmis.commons.data.AllowableActions;
+import org.apache.chemistry.opencmis.commons.data.ObjectData;
+import org.apache.chemistry.opencmis.commons.data.PropertyData;
+import org.apache.chemistry.opencmis.commons.data.RenditionData;
+import org.apache.chemistry.opencmis.commons.enums.Action;
+import org.apache.chemistry.opencmis.commons.enums.ExtensionLevel;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.AbstractPropertyData;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.AccessControlEntryImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.AccessControlListImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.AccessControlPrincipalDataImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.AllowableActionsImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.ObjectDataImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PolicyIdListImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertiesImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyBooleanImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyDateTimeImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyDecimalImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyHtmlImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyIdImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyIntegerImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyStringImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyUriImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.RenditionDataImpl;
+
+/**
+ * Serializable snapshot of a {@link CmisObject}.
+ * <p>
+ * The snapshot holds the low-level {@link ObjectData} of the object and the
+ * {@link OperationContext} that was used to create it, but no references to
+ * the session, object types or property definitions. It can be turned back
+ * into a {@link CmisObject} with {@link #restore(Session)}.
+ */
+public final class ObjectDataSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ObjectData objectData;
+    private final OperationContext context;
+
+    private ObjectDataSnapshot(ObjectData objectData, OperationContext context) {
+        this.objectData = objectData;
+        this.context = context;
+    }
+
+    /**
+     * Creates a snapshot of an object.
+     *
+     * @param object
+     *            the object
+     *
+     * @return the snapshot or {@code null} if the object was not created by
+     *         this client library
+     */
+    public static ObjectDataSnapshot create(CmisObject object) {
+        if (!(object instanceof AbstractCmisObject)) {
+            return null;
+        }
+
+        AbstractCmisObject aco = (AbstractCmisObject) object;
+        return new ObjectDataSnapshot(convertObject(aco), new OperationContextImpl(aco.getCreationContext()));
+    }
+
+    /**
+     * Returns the object data.
+     */
+    public ObjectData getObjectData() {
+        return objectData;
+    }
+
+    /**
+     * Returns the operation context that was used to create the object.
+     */
+    public OperationContext getOperationContext() {
+        return context;
+    }
+
+    /**
+     * Converts the snapshot back into a {@link CmisObject}.
+     *
+     * @param session
+     *            the session the object should belong to
+     *
+     * @return the object
+     */
+    public CmisObject restore(Session session) {
+        return session.getObjectFactory().convertObject(objectData, context);
+    }
+
+    private static ObjectData convertObject(CmisObject object) {
+        ObjectDataImpl result = new ObjectDataImpl();
+
+        // properties
+        PropertiesImpl properties = new PropertiesImpl();
+        if (object.getProperties() != null) {
+            for (Property<?> property : object.getProperties()) {
+                properties.addProperty(convertProperty(property));
+            }
+        }
+        properties.setExtensions(object.getExtensions(ExtensionLevel.PROPERTIES));
+        result.setProperties(properties);
+
+        // allowable actions
+        AllowableActions allowableActions = object.getAllowableActions();
+        if (allowableActions != null) {
+            AllowableActionsImpl aa = new AllowableActionsImpl();
+            if (allowableActions.getAllowableActions() != null) {
+                aa.setAllowableActions(allowableActions.getAllowableActions().isEmpty() ? EnumSet.noneOf(Action.class)
+                        : EnumSet.copyOf(allowableActions.getAllowableActions()));
+            }
+            aa.setExtensions(object.getExtensions(ExtensionLevel.ALLOWABLE_ACTIONS));
+            result.setAllowableActions(aa);
+        }
+
+        // renditions
+        if (object.getRenditions() != null) {
+            List<RenditionData> renditions = new ArrayList<RenditionData>();
+            for (Rendition rendition : object.getRenditions()) {
+                RenditionDataImpl rd = new RenditionDataImpl();
+                rd.setStreamId(rendition.getStreamId());
+                rd.setMimeType(rendition.getMimeType());
+                rd.setBigLength(rendition.getBigLength());
+                rd.setKind(rendition.getKind());
+                rd.setTitle(rendition.getTitle());
+                rd.setBigHeight(rendition.getBigHeight());
+                rd.setBigWidth(rendition.getBigWidth());
+                rd.setRenditionDocumentId(rendition.getRenditionDocumentId());
+                renditions.add(rd);
+            }
+            result.setRenditions(renditions);
+        }
+
+        // ACL
+        Acl acl = object.getAcl();
+        if (acl != null) {
+            List<Ace> aces = new ArrayList<Ace>();
+            if (acl.getAces() != null) {
+                for (Ace ace : acl.getAces()) {
+                    AccessControlEntryImpl newAce = new AccessControlEntryImpl(new AccessControlPrincipalDataImpl(
+                            ace.getPrincipalId()), ace.getPermissions() == null ? null : new ArrayList<String>(
+                            ace.getPermissions()));
+                    newAce.setDirect(ace.isDirect());
+                    aces.add(newAce);
+                }
+            }
+            AccessControlListImpl newAcl = new AccessControlListImpl(aces);
+            newAcl.setExtensions(object.getExtensions(ExtensionLevel.ACL));
+            result.setAcl(newAcl);
+            result.setIsExactAcl(acl.isExact());
+        }
+
+        // policies
+        if (object.getPolicyIds() != null) {
+            List<String> policyIds = new ArrayList<String>();
+            for (ObjectId policyId : object.getPolicyIds()) {
+                policyIds.add(policyId.getId());
+            }
+            PolicyIdListImpl pil = new PolicyIdListImpl();
+            pil.setPolicyIds(policyIds);
+            pil.setExtensions(object.getExtensions(ExtensionLevel.POLICIES));
+            result.setPolicyIds(pil);
+        }
+
+        // relationships
+        if (object.getRelationships() != null) {
+            List<ObjectData> relationships = new ArrayList<ObjectData>();
+            for (Relationship relationship : object.getRelationships()) {
+                relationships.add(convertObject(relationship));
+            }
+            result.setRelationships(relationships);
+        }
+
+        result.setExtensions(object.getExtensions(ExtensionLevel.OBJECT));
+
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PropertyData<?> convertProperty(Property<?> property) {
+        AbstractPropertyData<?> result;
+
+        switch (property.getType()) {
+        case STRING:
+            result = new PropertyStringImpl(property.getId(), (List<String>) property.getValues());
+            break;
+        case ID:
+            result = new PropertyIdImpl(property.getId(), (List<String>) property.getValues());
+            break;
+        case BOOLEAN:
+            result = new PropertyBooleanImpl(property.getId(), (List<Boolean>) property.getValues());
+            break;
+        case INTEGER:
+            result = new PropertyIntegerImpl(property.getId(), (List<BigInteger>) property.getValues());
+            break;
+        case DECIMAL:
+            result = new PropertyDecimalImpl(property.getId(), (List<BigDecimal>) property.getValues());
+            break;
+        case DATETIME:
+            result = new PropertyDateTimeImpl(property.getId(), (List<GregorianCalendar>) property.getValues());
+            break;
+        case HTML:
+            result = new PropertyHtmlImpl(property.getId(), (List<String>) property.getValues());
+            break;
+        case URI:
+            result = new PropertyUriImpl(property.getId(), (List<String>) property.getValues());
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown property type!");
+        }
+
+        result.setDisplayName(property.getDisplayName());
+        result.setLocalName(property.getLocalName());
+        result.setQueryName(property.getQueryName());
+
+        return result;
+    }
+}
@@ -20,18 +20,26 @@ package org.apache.chemistry.opencmis.client.runtime;
 
 import static org.apache.chemistry.opencmis.commons.impl.CollectionsHelper.isNullOrEmpty;
 
+import java.io.Closeable;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
 
 import org.apache.chemistry.opencmis.client.api.ChangeEvent;
 import org.apache.chemistry.opencmis.client.api.ChangeEvents;
@@ -51,12 +59,21 @@ import org.apache.chemistry.opencmis.client.api.Relationship;
 import org.apache.chemistry.opencmis.client.api.SecondaryType;
 import org.apache.chemistry.opencmis.client.api.Session;
 import org.apache.chemistry.opencmis.client.api.Tree;
+import org.apache.chemistry.opencmis.client.bindings.cache.CacheStatisticsProvider;
 import org.apache.chemistry.opencmis.client.bindings.cache.TypeDefinitionCache;
+import org.apache.chemistry.opencmis.client.bindings.impl.CmisBindingImpl;
+import org.apache.chemistry.opencmis.client.bindings.impl.MetadataCacheStore;
+import org.apache.chemistry.opencmis.client.bindings.impl.RequestCoalescer;
 import org.apache.chemistry.opencmis.client.runtime.cache.Cache;
 import org.apache.chemistry.opencmis.client.runtime.cache.CacheImpl;
+import org.apache.chemistry.opencmis.client.runtime.cache.CacheStatisticsMBeans;
+import org.apache.chemistry.opencmis.client.runtime.cache.ExtendedCache;
+import org.apache.chemistry.opencmis.client.runtime.cache.ObjectTypeCache;
 import org.apache.chemistry.opencmis.client.runtime.repository.ObjectFactoryImpl;
 import org.apache.chemistry.opencmis.client.runtime.util.AbstractPageFetcher;
+import org.apache.chemistry.opencmis.client.runtime.util.BackgroundExecutor;
 import org.apache.chemistry.opencmis.client.runtime.util.CollectionIterable;
+import org.apache.chemistry.opencmis.client.runtime.util.PartitionedIterator;
 import org.apache.chemistry.opencmis.client.runtime.util.TreeImpl;
 import org.apache.chemistry.opencmis.client.util.OperationContextUtils;
 import org.apache.chemistry.opencmis.commons.PropertyIds;
@@ -71,6 +88,7 @@ import org.apache.chemistry.opencmis.commons.data.ObjectData;
 import org.apache.chemistry.opencmis.commons.data.ObjectList;
 import org.apache.chemistry.opencmis.commons.data.PropertyData;
 import org.apache.chemistry.opencmis.commons.data.RepositoryInfo;
+import org.apache.chemistry.opencmis.commons.definitions.PropertyDefinition;
 import org.apache.chemistry.opencmis.commons.definitions.TypeDefinition;
 import org.apache.chemistry.opencmis.commons.definitions.TypeDefinitionContainer;
 import org.apache.chemistry.opencmis.commons.definitions.TypeDefinitionList;
@@ -90,9 +108,11 @@ import org.apache.chemistry.opencmis.commons.exceptions.CmisObjectNotFoundExcept
 import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
 import org.apache.chemistry.opencmis.commons.impl.ClassLoaderUtil;
 import org.apache.chemistry.opencmis.commons.impl.Constants;
+import org.apache.chemistry.opencmis.commons.impl.IOUtils;
 import org.apache.chemistry.opencmis.commons.impl.dataobjects.BulkUpdateObjectIdAndChangeTokenImpl;
 import org.apache.chemistry.opencmis.commons.spi.AclService;
 import org.apache.chemistry.opencmis.commons.spi.AuthenticationProvider;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
 import org.apache.chemistry.opencmis.commons.spi.CmisBinding;
 import org.apache.chemistry.opencmis.commons.spi.DiscoveryService;
 import org.apache.chemistry.opencmis.commons.spi.ExtendedAclService;
@@ -102,6 +122,8 @@ import org.apache.chemistry.opencmis.commons.spi.Holder;
 import org.apache.chemistry.opencmis.commons.spi.NavigationService;
 import org.apache.chemistry.opencmis.commons.spi.RelationshipService;
 import org.apache.chemistry.opencmis.commons.spi.RepositoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Persistent model session.
@@ -122,9 +144,22 @@ public class SessionImpl implements Session {
         CREATE_AND_CHECKOUT_UPDATABILITY.add(Updatability.WHENCHECKEDOUT);
     }
 
-    // private static Logger log = LoggerFactory.getLogger(SessionImpl.class);
+    private static final Logger LOG = LoggerFactory.getLogger(SessionImpl.class);
+
+    /** Minimum number of uncached objects that getObjects() loads by query. */
+    private static final int OBJECT_QUERY_THRESHOLD = 3;
+    /** Maximum number of object IDs in one IN (...) query. */
+    private static final int OBJECT_BATCH_SIZE = 100;
+    /** Maximum number of concurrent getObject() calls in getObjects(). */
+    private static final int OBJECT_FETCH_CONCURRENCY = 8;
+    /** Base types that getObjects() tries to query. */
+    private static final BaseTypeId[] OBJECT_QUERY_BASE_TYPES = { BaseTypeId.CMIS_DOCUMENT, BaseTypeId.CMIS_FOLDER,
+            BaseTypeId.CMIS_ITEM };
+
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
-    private transient LinkedHashMap<String, ObjectType> objectTypeCache;
+    private transient volatile ObjectTypeCache objectTypeCache;
+    private final RequestCoalescer<CmisObject> objectRequests = new RequestCoalescer<CmisObject>(
+            "Object Request Coalescing");
 
     /*
      * default session context (serializable)
@@ -277,11 +312,18 @@ public class SessionImpl implements Session {
     public void clear() {
         lock.writeLock().lock();
         try {
+            // release the resources of the old object cache
+            if (cache instanceof Closeable) {
+                IOUtils.closeQuietly((Closeable) cache);
+            }
+
             // create new object cache
             cache = createCache();
 
             // clear object type cache
-            objectTypeCache = null;
+            if (objectTypeCache != null) {
+                objectTypeCache.clear();
+            }
 
             // clear provider cache
             getBinding().clearAllCaches();
@@ -290,6 +332,33 @@ public class SessionImpl implements Session {
         }
     }
 
+    @Override
+    public List<CacheStatistics> getCacheStatistics() {
+        List<CacheStatistics> result = new ArrayList<CacheStatistics>();
+
+        // creating the type cache takes the write lock
+        ObjectTypeCache typeCache = getObjectTypeCache();
+
+        lock.readLock().lock();
+        try {
+            if (cache instanceof CacheStatisticsProvider) {
+                result.addAll(((CacheStatisticsProvider) cache).getCacheStatistics());
+            }
+
+            result.add(typeCache.getStatistics());
+            result.add(objectRequests.getStatistics());
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        CmisBinding b = getBinding();
+        if (b != null) {
+            result.addAll(b.getCacheStatistics());
+        }
+
+        return result;
+    }
+
     @Override
     public ObjectFactory getObjectFactory() {
         assert objectFactory != null;
@@ -514,7 +583,7 @@ public class SessionImpl implements Session {
     }
 
     @Override
-    public CmisObject getObject(String objectId, OperationContext context) {
+    public CmisObject getObject(final String objectId, final OperationContext context) {
         checkObjectId(objectId);
         checkContext(context);
 
@@ -528,18 +597,401 @@ public class SessionImpl implements Session {
             }
         }
 
-        // get the object
-        ObjectData objectData = binding.getObjectService().getObject(getRepositoryId(), objectId,
-                context.getFilterString(), context.isIncludeAllowableActions(), context.getIncludeRelationships(),
-                context.getRenditionFilterString(), context.isIncludePolicies(), context.isIncludeAcls(), null);
+        RequestCoalescer.Request<CmisObject> request = new RequestCoalescer.Request<CmisObject>() {
+            @Override
+            public CmisObject execute() {
+                ObjectData objectData = binding.getObjectService().getObject(getRepositoryId(), objectId,
+                        context.getFilterString(), context.isIncludeAllowableActions(),
+                        context.getIncludeRelationships(), context.getRenditionFilterString(),
+                        context.isIncludePolicies(), context.isIncludeAcls(), null);
 
-        result = getObjectFactory().convertObject(objectData, context);
+                CmisObject object = getObjectFactory().convertObject(objectData, context);
 
-        // put into cache
-        if (context.isCacheEnabled()) {
-            cache.put(result, context.getCacheKey());
+                // put into cache
+                if (context.isCacheEnabled()) {
+                    cache.put(object, context.getCacheKey());
+                }
+
+                return object;
+            }
+        };
+
+        if (!context.isCacheEnabled()) {
+            // the caller gets an object of its own
+            return request.execute();
+        }
+
+        // get the object, concurrent identical requests share one call
+        return objectRequests.execute("id\0" + objectId + "\0" + context.getCacheKey(), request);
+    }
+
+    @Override
+    public Map<String, CmisObject> getObjects(Collection<? extends ObjectId> objectIds) {
+        return getObjects(objectIds, getDefaultContext());
+    }
+
+    @Override
+    public Map<String, CmisObject> getObjects(Collection<? extends ObjectId> objectIds, OperationContext context) {
+        if (objectIds == null) {
+            throw new IllegalArgumentException("Object IDs must be set!");
+        }
+        checkContext(context);
+
+        // keeps the order of the IDs, null marks a missing object
+        Map<String, CmisObject> result = new LinkedHashMap<String, CmisObject>();
+        Set<String> missing = new LinkedHashSet<String>();
+
+        // ask the cache first
+        for (ObjectId objectId : objectIds) {
+            checkObjectId(objectId);
+
+            String id = objectId.getId();
+            if (result.containsKey(id)) {
+                continue;
+            }
+
+            CmisObject object = (context.isCacheEnabled() ? cache.getById(id, context.getCacheKey()) : null);
+            result.put(id, object);
+            if (object == null) {
+                missing.add(id);
+            }
+        }
+
+        // a query needs at least two calls
+        if (missing.size() >= OBJECT_QUERY_THRESHOLD && isObjectQuerySupported(context)) {
+            queryObjectsById(missing, context, result);
+        }
+
+        if (!missing.isEmpty()) {
+            fetchObjectsById(missing, context, result);
+        }
+
+        // remove objects that don't exist
+        result.values().removeAll(Collections.singleton(null));
+
+        return result;
+    }
+
+    /**
+     * Checks if query results can replace getObject() calls.
+     */
+    private boolean isObjectQuerySupported(OperationContext context) {
+        if (context.isIncludeAcls() || context.isIncludePolicies() || context.loadSecondaryTypeProperties()) {
+            // not part of query results
+            return false;
+        }
+
+        RepositoryInfo info = getRepositoryInfo();
+        if (info.getCapabilities() == null || info.getCapabilities().getQueryCapability() == null) {
+            return false;
+        }
+
+        switch (info.getCapabilities().getQueryCapability()) {
+        case METADATAONLY:
+        case BOTHSEPARATE:
+        case BOTHCOMBINED:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Loads objects with {@code cmis:objectId IN (...)} queries. The first
+     * query per base type finds the object types, the second query per object
+     * type loads the objects with all properties. Found IDs are removed from
+     * {@code missing}. Types that define a property of the filter that is not
+     * queryable are skipped. The objects are not cached because query results
+     * lack some data, for example secondary type properties.
+     */
+    private void queryObjectsById(Set<String> missing, OperationContext context, Map<String, CmisObject> result) {
+        boolean allVersions = Boolean.TRUE.equals(getRepositoryInfo().getCapabilities()
+                .isAllVersionsSearchableSupported());
+
+        for (BaseTypeId baseTypeId : OBJECT_QUERY_BASE_TYPES) {
+            if (missing.isEmpty()) {
+                return;
+            }
+
+            ObjectType baseType = getQueryableType(baseTypeId.value());
+            if (baseType == null) {
+                continue;
+            }
+
+            boolean searchAllVersions = allVersions && baseTypeId == BaseTypeId.CMIS_DOCUMENT;
+
+            // find the object types
+            Map<String, List<String>> idsByType = new LinkedHashMap<String, List<String>>();
+            String typeSelect = getSelectList(baseType, PropertyIds.OBJECT_ID + "," + PropertyIds.OBJECT_TYPE_ID);
+            if (typeSelect == null || getSelectList(baseType, context.getFilterString()) == null) {
+                // the subtypes inherit the properties that cannot be queried
+                continue;
+            }
+            for (List<String> batch : partition(missing)) {
+                String statement = createObjectIdQuery(typeSelect, baseType, batch);
+
+                try {
+                    for (ObjectData objectData : queryAll(statement, searchAllVersions, false,
+                            IncludeRelationships.NONE, Constants.RENDITION_NONE)) {
+                        String typeId = getObjectTypeId(objectData);
+                        if (objectData.getId() == null || typeId == null || !missing.contains(objectData.getId())) {
+                            continue;
+                        }
+
+                        List<String> ids = idsByType.get(typeId);
+                        if (ids == null) {
+                            ids = new ArrayList<String>();
+                            idsByType.put(typeId, ids);
+                        }
+                        ids.add(objectData.getId());
+                    }
+                } catch (CmisBaseException e) {
+                    LOG.warn("Object ID query on {} failed, loading the objects one by one: {}",
+                            baseTypeId.value(), e.getMessage());
+                    LOG.debug("Object ID query failed: {}", statement, e);
+                    break;
+                }
+            }
+
+            // load the objects
+            for (Map.Entry<String, List<String>> entry : idsByType.entrySet()) {
+                ObjectType type = getQueryableType(entry.getKey());
+                if (type == null) {
+                    continue;
+                }
+
+                String select = getSelectList(type, context.getFilterString());
+                if (select == null) {
+                    // fetched with getObject() later
+                    continue;
+                }
+
+                for (List<String> batch : partition(entry.getValue())) {
+                    String statement = createObjectIdQuery(select, type, batch);
+
+                    try {
+                        for (ObjectData objectData : queryAll(statement, searchAllVersions,
+                                context.isIncludeAllowableActions(), context.getIncludeRelationships(),
+                                context.getRenditionFilterString())) {
+                            String id = objectData.getId();
+                            if (id == null || !missing.contains(id)) {
+                                continue;
+                            }
+
+                            CmisObject object;
+                            try {
+                                object = getObjectFactory().convertObject(objectData, context);
+                            } catch (RuntimeException e) {
+                                // fetched with getObject() later
+                                LOG.debug("Cannot convert query result of {}: {}", id, e.getMessage(), e);
+                                continue;
+                            }
+
+                            result.put(id, object);
+                            missing.remove(id);
+                        }
+                    } catch (CmisBaseException e) {
+                        LOG.warn("Object ID query on {} failed, loading the objects one by one: {}",
+                                entry.getKey(), e.getMessage());
+                        LOG.debug("Object ID query failed: {}", statement, e);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads objects with concurrent getObject() calls.
+     */
+    private void fetchObjectsById(Set<String> missing, final OperationContext context,
+            Map<String, CmisObject> result) {
+        final Iterator<String> ids = new ArrayList<String>(missing).iterator();
+        final Map<String, CmisObject> fetched = new ConcurrentHashMap<String, CmisObject>();
+
+        Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                while (true) {
+                    String id;
+                    synchronized (ids) {
+                        if (!ids.hasNext()) {
+                            return;
+                        }
+                        id = ids.next();
+                    }
+
+                    try {
+                        fetched.put(id, getObject(id, context));
+                    } catch (CmisObjectNotFoundException e) {
+                        // doesn't exist
+                    }
+                }
+            }
+        };
+
+        int workers = Math.min(OBJECT_FETCH_CONCURRENCY, missing.size());
+        List<FutureTask<Object>> tasks = new ArrayList<FutureTask<Object>>();
+        Executor executor = BackgroundExecutor.getDefault();
+        for (int i = 1; i < workers; i++) {
+            FutureTask<Object> task = new FutureTask<Object>(worker, null);
+            tasks.add(task);
+            executor.execute(task);
+        }
+
+        try {
+            // the calling thread helps
+            worker.run();
+
+            for (FutureTask<Object> task : tasks) {
+                // a task that no pool thread has started finds no work left
+                task.run();
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CmisRuntimeException("Interrupted while loading objects!", e);
+        } catch (ExecutionException e) {
+            throw BackgroundExecutor.rethrow(e);
+        } finally {
+            for (FutureTask<Object> task : tasks) {
+                task.cancel(true);
+            }
+        }
+
+        for (String id : missing) {
+            CmisObject object = fetched.get(id);
+            if (object != null) {
+                result.put(id, object);
+            }
+        }
+        missing.clear();
+    }
+
+    private ObjectType getQueryableType(String typeId) {
+        try {
+            ObjectType type = getTypeDefinition(typeId);
+            return Boolean.TRUE.equals(type.isQueryable()) && type.getQueryName() != null ? type : null;
+        } catch (CmisBaseException e) {
+            // for example, cmis:item in a CMIS 1.0 repository
+            return null;
+        }
+    }
+
+    /**
+     * Converts a property filter into a select list. The filter contains
+     * property IDs, but a query selects query names.
+     *
+     * @return the select list, or {@code null} if the filter contains a
+     *         property that cannot be queried and the objects must be loaded
+     *         with getObject()
+     */
+    private static String getSelectList(ObjectType type, String filter) {
+        Map<String, PropertyDefinition<?>> propertyDefinitions = type.getPropertyDefinitions();
+        if (propertyDefinitions == null) {
+            return null;
+        }
+
+        String selectAll = isQueryable(propertyDefinitions.values()) ? "*" : null;
+        if (filter == null) {
+            return selectAll;
+        }
+
+        StringBuilder sb = new StringBuilder(filter.length() + 16);
+        for (String propertyId : filter.split(",")) {
+            propertyId = propertyId.trim();
+            if (propertyId.length() == 0) {
+                continue;
+            }
+
+            if (propertyId.equals(OperationContextImpl.PROPERTIES_STAR)) {
+                return selectAll;
+            }
+
+            PropertyDefinition<?> propertyDefinition = propertyDefinitions.get(propertyId);
+            if (propertyDefinition == null || !isQueryable(Collections.singleton(propertyDefinition))) {
+                // a secondary type property, an unknown property or a
+                // property that a query might not return
+                return null;
+            }
+
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(propertyDefinition.getQueryName());
+        }
+
+        return sb.length() == 0 ? selectAll : sb.toString();
+    }
+
+    private static boolean isQueryable(Collection<PropertyDefinition<?>> propertyDefinitions) {
+        for (PropertyDefinition<?> propertyDefinition : propertyDefinitions) {
+            if (!Boolean.TRUE.equals(propertyDefinition.isQueryable()) || propertyDefinition.getQueryName() == null) {
+                return false;
+            }
         }
+        return true;
+    }
+
+    private String createObjectIdQuery(String select, ObjectType type, List<String> ids) {
+        QueryStatement stmt = new QueryStatementImpl(this, "SELECT " + select + " FROM ? WHERE "
+                + PropertyIds.OBJECT_ID + " IN (?)");
+        stmt.setType(1, type);
+        stmt.setString(2, ids.toArray(new String[ids.size()]));
+        return stmt.toQueryString();
+    }
+
+    private List<ObjectData> queryAll(String statement, boolean searchAllVersions, boolean includeAllowableActions,
+            IncludeRelationships includeRelationships, String renditionFilter) {
+        DiscoveryService discoveryService = getBinding().getDiscoveryService();
+        List<ObjectData> result = new ArrayList<ObjectData>();
+
+        long skipCount = 0;
+        while (true) {
+            ObjectList objectList = discoveryService.query(getRepositoryId(), statement, searchAllVersions,
+                    includeAllowableActions, includeRelationships, renditionFilter,
+                    BigInteger.valueOf(OBJECT_BATCH_SIZE), BigInteger.valueOf(skipCount), null);
+
+            if (objectList == null || isNullOrEmpty(objectList.getObjects())) {
+                return result;
+            }
+
+            for (ObjectData objectData : objectList.getObjects()) {
+                if (objectData != null) {
+                    result.add(objectData);
+                }
+            }
+            skipCount += objectList.getObjects().size();
 
+            if (!Boolean.TRUE.equals(objectList.hasMoreItems())) {
+                return result;
+            }
+        }
+    }
+
+    private static String getObjectTypeId(ObjectData objectData) {
+        if (objectData.getProperties() == null || objectData.getProperties().getProperties() == null) {
+            return null;
+        }
+
+        PropertyData<?> typeId = objectData.getProperties().getProperties().get(PropertyIds.OBJECT_TYPE_ID);
+        if (typeId == null || !(typeId.getFirstValue() instanceof String)) {
+            return null;
+        }
+
+        return (String) typeId.getFirstValue();
+    }
+
+    private static List<List<String>> partition(Collection<String> ids) {
+        List<List<String>> result = new ArrayList<List<String>>();
+        List<String> batch = null;
+        for (String id : ids) {
+            if (batch == null || batch.size() == OBJECT_BATCH_SIZE) {
+                batch = new ArrayList<String>(OBJECT_BATCH_SIZE);
+                result.add(batch);
+            }
+            batch.add(id);
+        }
         return result;
     }
 
@@ -549,7 +1001,7 @@ public class SessionImpl implements Session {
     }
 
     @Override
-    public CmisObject getObjectByPath(String path, OperationContext context) {
+    public CmisObject getObjectByPath(final String path, final OperationContext context) {
         checkPath(path);
         checkContext(context);
 
@@ -563,19 +1015,32 @@ public class SessionImpl implements Session {
             }
         }
 
-        // get the object
-        ObjectData objectData = binding.getObjectService().getObjectByPath(getRepositoryId(), path,
-                context.getFilterString(), context.isIncludeAllowableActions(), context.getIncludeRelationships(),
-                context.getRenditionFilterString(), context.isIncludePolicies(), context.isIncludeAcls(), null);
+        RequestCoalescer.Request<CmisObject> request = new RequestCoalescer.Request<CmisObject>() {
+            @Override
+            public CmisObject execute() {
+                ObjectData objectData = binding.getObjectService().getObjectByPath(getRepositoryId(), path,
+                        context.getFilterString(), context.isIncludeAllowableActions(),
+                        context.getIncludeRelationships(), context.getRenditionFilterString(),
+                        context.isIncludePolicies(), context.isIncludeAcls(), null);
 
-        result = getObjectFactory().convertObject(objectData, context);
+                CmisObject object = getObjectFactory().convertObject(objectData, context);
 
-        // put into cache
-        if (context.isCacheEnabled()) {
-            cache.putPath(path, result, context.getCacheKey());
+                // put into cache
+                if (context.isCacheEnabled()) {
+                    cache.putPath(path, object, context.getCacheKey());
+                }
+
+                return object;
+            }
+        };
+
+        if (!context.isCacheEnabled()) {
+            // the caller gets an object of its own
+            return request.execute();
         }
 
-        return result;
+        // get the object, concurrent identical requests share one call
+        return objectRequests.execute("path\0" + path + "\0" + context.getCacheKey(), request);
     }
 
     @Override
@@ -777,6 +1242,28 @@ public class SessionImpl implements Session {
         cache.remove(objectId);
     }
 
+    /**
+     * Removes a folder path and, if the cache supports it, all paths below it
+     * from the cache. Must be called when a folder has been moved, renamed or
+     * deleted.
+     * 
+     * @param path
+     *            the old path of the folder
+     * 
+     * @see ExtendedCache#removePathTree(String)
+     */
+    public void removePathTreeFromCache(String path) {
+        if (path == null) {
+            return;
+        }
+
+        if (cache instanceof ExtendedCache) {
+            ((ExtendedCache) cache).removePathTree(path);
+        } else {
+            cache.removePath(path);
+        }
+    }
+
     @Override
     public RepositoryInfo getRepositoryInfo() {
         lock.readLock().lock();
@@ -833,10 +1320,13 @@ public class SessionImpl implements Session {
 
     @Override
     public ObjectType getTypeDefinition(String typeId) {
-        TypeDefinition typeDefinition = getBinding().getRepositoryService().getTypeDefinition(getRepositoryId(), typeId,
-                null);
-
-        return convertAndCacheTypeDefinition(typeDefinition, true);
+        return getObjectTypeCache().get(typeId, new ObjectTypeCache.Loader() {
+            @Override
+            public ObjectType load(String typeId) {
+                return convertTypeDefinition(getBinding().getRepositoryService().getTypeDefinition(getRepositoryId(),
+                        typeId, null));
+            }
+        });
     }
 
     @Override
@@ -847,10 +1337,21 @@ public class SessionImpl implements Session {
                     "Internal error: Repository Service does not implement ExtendedRepositoryService!");
         }
 
-        ExtendedRepositoryService extRepSrv = (ExtendedRepositoryService) service;
-        TypeDefinition typeDefinition = extRepSrv.getTypeDefinition(getRepositoryId(), typeId, null, useCache);
+        final ExtendedRepositoryService extRepSrv = (ExtendedRepositoryService) service;
 
-        return convertAndCacheTypeDefinition(typeDefinition, useCache);
+        if (useCache) {
+            return getObjectTypeCache().get(typeId, new ObjectTypeCache.Loader() {
+                @Override
+                public ObjectType load(String typeId) {
+                    return convertTypeDefinition(extRepSrv.getTypeDefinition(getRepositoryId(), typeId, null, true));
+                }
+            });
+        }
+
+        ObjectType result = convertTypeDefinition(extRepSrv.getTypeDefinition(getRepositoryId(), typeId, null, false));
+        getObjectTypeCache().put(result);
+
+        return result;
     }
 
     @Override
@@ -883,16 +1384,20 @@ public class SessionImpl implements Session {
     }
 
     /**
-     * Converts a type definition into an object type and caches the result.
+     * Returns the object type cache and creates it if necessary.
      *
      * The cache should only be used for type definitions that have been fetched
      * with getTypeDefinition() because the high level cache should roughly
      * correspond to the low level type cache. The type definitions returned by
      * getTypeChildren() and getTypeDescendants() are not cached in the low
-     * level cache and therefore shouldn't be cached here.
+     * level cache and therefore shouldn't be cached here, unless the type
+     * hierarchy has been prefetched on purpose.
      */
-    private ObjectType convertAndCacheTypeDefinition(TypeDefinition typeDefinition, boolean useCache) {
-        ObjectType result = null;
+    private ObjectTypeCache getObjectTypeCache() {
+        ObjectTypeCache result = objectTypeCache;
+        if (result != null) {
+            return result;
+        }
 
         lock.writeLock().lock();
         try {
@@ -907,30 +1412,10 @@ public class SessionImpl implements Session {
                     cacheSize = SessionParameterDefaults.CACHE_SIZE_TYPES;
                 }
 
-                final int maxEntries = cacheSize;
-
-                objectTypeCache = new LinkedHashMap<String, ObjectType>(maxEntries + 1, 0.70f, true) {
-                    private static final long serialVersionUID = 1L;
-
-                    @Override
-                    public boolean removeEldestEntry(Map.Entry<String, ObjectType> eldest) {
-                        return size() > maxEntries;
-                    }
-                };
-            }
-
-            if (!useCache) {
-                result = objectFactory.convertTypeDefinition(typeDefinition);
-                objectTypeCache.put(result.getId(), result);
-            } else {
-                result = objectTypeCache.get(typeDefinition.getId());
-                if (result == null) {
-                    result = objectFactory.convertTypeDefinition(typeDefinition);
-                    objectTypeCache.put(result.getId(), result);
-                }
+                objectTypeCache = new ObjectTypeCache(cacheSize);
             }
 
-            return result;
+            return objectTypeCache;
         } finally {
             lock.writeLock().unlock();
         }
@@ -940,13 +1425,34 @@ public class SessionImpl implements Session {
      * Removes the object type object with the given type ID from the cache.
      */
     private void removeFromObjectTypeCache(String typeId) {
-        lock.writeLock().lock();
+        ObjectTypeCache typeCache = objectTypeCache;
+        if (typeCache != null) {
+            typeCache.remove(typeId);
+        }
+    }
+
+    /**
+     * Fetches the whole type hierarchy and adds all types to the object type
+     * cache.
+     */
+    private void prefetchTypes() {
         try {
-            if (objectTypeCache != null) {
-                objectTypeCache.remove(typeId);
-            }
-        } finally {
-            lock.writeLock().unlock();
+            List<TypeDefinitionContainer> descendants = getBinding().getRepositoryService().getTypeDescendants(
+                    getRepositoryId(), null, BigInteger.valueOf(-1), Boolean.TRUE, null);
+            cacheTypeDescendants(getObjectTypeCache(), descendants);
+        } catch (CmisBaseException e) {
+            LOG.warn("Prefetching the type hierarchy failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void cacheTypeDescendants(ObjectTypeCache typeCache, List<TypeDefinitionContainer> descendantsList) {
+        if (descendantsList == null) {
+            return;
+        }
+
+        for (TypeDefinitionContainer container : descendantsList) {
+            typeCache.put(convertTypeDefinition(container.getTypeDefinition()));
+            cacheTypeDescendants(typeCache, container.getChildren());
         }
     }
 
@@ -987,11 +1493,49 @@ public class SessionImpl implements Session {
             OperationContext context) {
         checkContext(context);
 
+        return new CollectionIterable<QueryResult>(createQueryPageFetcher(statement, searchAllVersions,
+                new OperationContextImpl(context)));
+    }
+
+    @Override
+    public Stream<QueryResult> queryPartitioned(String statement, boolean searchAllVersions,
+            OperationContext context, int concurrency, Executor executor) {
+        if (statement == null) {
+            throw new IllegalArgumentException("Statement must be set!");
+        }
+
+        return queryPartitioned(Collections.singletonList(statement), searchAllVersions, context, concurrency,
+                executor);
+    }
+
+    @Override
+    public Stream<QueryResult> queryPartitioned(List<String> statements, boolean searchAllVersions,
+            OperationContext context, int concurrency, Executor executor) {
+        if (statements == null) {
+            throw new IllegalArgumentException("Statements must be set!");
+        }
+
+        checkContext(context);
+
+        OperationContext ctxt = new OperationContextImpl(context);
+        List<AbstractPageFetcher<QueryResult>> partitions = new ArrayList<AbstractPageFetcher<QueryResult>>(
+                statements.size());
+        for (String statement : statements) {
+            if (statement == null) {
+                throw new IllegalArgumentException("Statements must not contain null!");
+            }
+            partitions.add(createQueryPageFetcher(statement, searchAllVersions, ctxt));
+        }
+
+        return new PartitionedIterator<QueryResult>(partitions, concurrency, executor).stream();
+    }
+
+    private AbstractPageFetcher<QueryResult> createQueryPageFetcher(final String statement,
+            final boolean searchAllVersions, final OperationContext ctxt) {
         final DiscoveryService discoveryService = getBinding().getDiscoveryService();
         final ObjectFactory of = getObjectFactory();
-        final OperationContext ctxt = new OperationContextImpl(context);
 
-        return new CollectionIterable<QueryResult>(new AbstractPageFetcher<QueryResult>(ctxt.getMaxItemsPerPage()) {
+        return new AbstractPageFetcher<QueryResult>(ctxt.getMaxItemsPerPage()) {
 
             @Override
             protected AbstractPageFetcher.Page<QueryResult> fetchPage(long skipCount) {
@@ -1017,7 +1561,7 @@ public class SessionImpl implements Session {
                 return new AbstractPageFetcher.Page<QueryResult>(page, resultList.getNumItems(),
                         resultList.hasMoreItems());
             }
-        });
+        };
     }
 
     @Override
@@ -1110,6 +1654,20 @@ public class SessionImpl implements Session {
         try {
             binding = CmisBindingHelper.createBinding(parameters, authenticationProvider, typeDefCache);
 
+            // drop cached object types if the restored type definitions are
+            // outdated
+            if (binding instanceof CmisBindingImpl) {
+                ((CmisBindingImpl) binding).setMetadataCacheListener(new MetadataCacheStore.Listener() {
+                    @Override
+                    public void metadataInvalidated(String repositoryId) {
+                        ObjectTypeCache typeCache = objectTypeCache;
+                        if (typeCache != null && repositoryId.equals(parameters.get(SessionParameter.REPOSITORY_ID))) {
+                            typeCache.clear();
+                        }
+                    }
+                });
+            }
+
             /* get initial repository ID from session parameter */
             String repositoryId = parameters.get(SessionParameter.REPOSITORY_ID);
             if (repositoryId == null) {
@@ -1121,6 +1679,18 @@ public class SessionImpl implements Session {
         } finally {
             lock.writeLock().unlock();
         }
+
+        if (Boolean.parseBoolean(parameters.get(SessionParameter.CACHE_PREFETCH_TYPES))) {
+            prefetchTypes();
+        }
+
+        if (binding instanceof CmisBindingImpl) {
+            ((CmisBindingImpl) binding).saveMetadataCache();
+        }
+
+        if (Boolean.parseBoolean(parameters.get(SessionParameter.CACHE_STATISTICS_JMX))) {
+            CacheStatisticsMBeans.register(this);
+        }
     }
 
     @Override
@@ -1567,13 +2137,27 @@ public class SessionImpl implements Session {
             boolean continueOnFailure) {
         checkFolderId(folderId);
 
-        FailedToDeleteData failed = getBinding().getObjectService().deleteTree(getRepositoryId(), folderId.getId(),
+        // use the path if the folder object knows it
+        String path = null;
+        if (folderId instanceof CmisObject) {
+            path = ((CmisObject) folderId).getPropertyValue(PropertyIds.PATH);
+        }
+
+        return deleteTree(folderId.getId(), path, allVersions, unfile, continueOnFailure);
+    }
+
+    private List<String> deleteTree(String folderId, String path, boolean allVersions, UnfileObject unfile,
+            boolean continueOnFailure) {
+        FailedToDeleteData failed = getBinding().getObjectService().deleteTree(getRepositoryId(), folderId,
                 allVersions, unfile, continueOnFailure, null);
 
         if (failed == null || isNullOrEmpty(failed.getIds())) {
             removeObjectFromCache(folderId);
         }
 
+        // parts of the tree might have been deleted even if the call failed
+        removePathTreeFromCache(path);
+
         return (failed != null ? failed.getIds() : null);
     }
 
@@ -1588,7 +2172,7 @@ public class SessionImpl implements Session {
             boolean continueOnFailure) {
         checkPath(path);
 
-        return deleteTree(new ObjectIdImpl(getObjectIdByPath(path)), allVersions, unfile, continueOnFailure);
+        return deleteTree(getObjectIdByPath(path), path, allVersions, unfile, continueOnFailure);
     }
 
     // --- content stream ---
@@ -18,14 +18,18 @@
  */
 package org.apache.chemistry.opencmis.client.runtime.async;
 
+import java.util.concurrent.Executor;
+
 import org.apache.chemistry.opencmis.client.api.AsyncSession;
 import org.apache.chemistry.opencmis.client.api.AsyncSessionFactory;
+import org.apache.chemistry.opencmis.client.api.CompletableAsyncSession;
+import org.apache.chemistry.opencmis.client.api.CompletableAsyncSessionFactory;
 import org.apache.chemistry.opencmis.client.api.Session;
 
 /**
  * Factory for {@link AsyncSession} objects.
  */
-public class AsyncSessionFactoryImpl implements AsyncSessionFactory {
+public class AsyncSessionFactoryImpl implements AsyncSessionFactory, CompletableAsyncSessionFactory {
 
     protected AsyncSessionFactoryImpl() {
     }
@@ -51,4 +55,13 @@ public class AsyncSessionFactoryImpl implements AsyncSessionFactory {
 
         return new ThreadPoolExecutorAsyncSession(session, maxParallelRequests);
     }
+
+    @Override
+    public CompletableAsyncSession createCompletableAsyncSession(Session session, Executor executor) {
+        if (session == null) {
+            throw new IllegalArgumentException("Session must be set!");
+        }
+
+        return new CompletableFutureAsyncSession(session, executor);
+    }
 }
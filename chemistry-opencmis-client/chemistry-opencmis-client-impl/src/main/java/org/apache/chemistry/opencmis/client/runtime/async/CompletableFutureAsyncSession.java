@@ -0,0 +1,461 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime.async;
+
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.CompletableAsyncSession;
+import org.apache.chemistry.opencmis.client.api.Document;
+import org.apache.chemistry.opencmis.client.api.ObjectId;
+import org.apache.chemistry.opencmis.client.api.ObjectType;
+import org.apache.chemistry.opencmis.client.api.OperationContext;
+import org.apache.chemistry.opencmis.client.api.Policy;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.HttpAbortHandle;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.ApplyAclCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.ApplyPolicyCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.CreateDocumentCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.CreateDocumentFromSourceCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.CreateFolderCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.CreateItemCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.CreatePolicyCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.CreateRelationshipCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.CreateTypeCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.DeleteCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.DeleteTreeCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.DeleteTypeCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.GetContentStreamCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.GetLatestDocumentVersionCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.GetObjectByPathCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.GetObjectCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.GetTypeDefinitonCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.RemovePolicyCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.SessionCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.SetAclCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.StoreContentStreamCallable;
+import org.apache.chemistry.opencmis.client.runtime.async.AbstractExecutorServiceAsyncSession.UpdateTypeCallable;
+import org.apache.chemistry.opencmis.commons.data.Ace;
+import org.apache.chemistry.opencmis.commons.data.Acl;
+import org.apache.chemistry.opencmis.commons.data.ContentStream;
+import org.apache.chemistry.opencmis.commons.definitions.TypeDefinition;
+import org.apache.chemistry.opencmis.commons.enums.AclPropagation;
+import org.apache.chemistry.opencmis.commons.enums.UnfileObject;
+import org.apache.chemistry.opencmis.commons.enums.VersioningState;
+
+/**
+ * An implementation of the {@link CompletableAsyncSession} interface that runs
+ * the operations on a caller-supplied {@link Executor}.
+ * <p>
+ * Any executor works, for example a {@code ThreadPoolExecutor} to limit the
+ * number of parallel requests or, on Java 21 and later, the executor returned
+ * by {@code Executors.newVirtualThreadPerTaskExecutor()}. The executor is
+ * owned by the caller and is not shut down by this class.
+ * <p>
+ * Without an executor, the operations run on a pool of at most
+ * {@link #DEFAULT_MAX_THREADS} daemon threads that is shared by all instances
+ * of this class, but not with the background fetchers of the session.
+ */
+public class CompletableFutureAsyncSession implements CompletableAsyncSession {
+
+    /** Maximum number of threads of the shared default pool. */
+    public static final int DEFAULT_MAX_THREADS = 16;
+
+    private static ThreadPoolExecutor defaultExecutor;
+
+    protected Session session;
+    private final Executor executor;
+
+    /**
+     * Creates an asynchronous session that uses the shared default pool.
+     */
+    public CompletableFutureAsyncSession(Session session) {
+        this(session, null);
+    }
+
+    /**
+     * Creates an asynchronous session.
+     *
+     * @param session
+     *            the session, not {@code null}
+     * @param executor
+     *            the executor that runs the operations, or {@code null} to use
+     *            the shared default pool
+     */
+    public CompletableFutureAsyncSession(Session session, Executor executor) {
+        if (session == null) {
+            throw new IllegalArgumentException("Session must be set!");
+        }
+
+        this.session = session;
+        this.executor = (executor == null ? getDefaultExecutor() : executor);
+    }
+
+    private static synchronized Executor getDefaultExecutor() {
+        if (defaultExecutor == null) {
+            final AtomicInteger counter = new AtomicInteger();
+            defaultExecutor = new ThreadPoolExecutor(DEFAULT_MAX_THREADS, DEFAULT_MAX_THREADS, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "OpenCMIS Async Session " + counter.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            defaultExecutor.allowCoreThreadTimeOut(true);
+        }
+        return defaultExecutor;
+    }
+
+    @Override
+    public Session getSession() {
+        return session;
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Submits a task for execution.
+     * <p>
+     * The task runs on the executor. If the returned future is cancelled with
+     * {@code cancel(true)} while the task is running, the thread that runs the
+     * task is interrupted and its HTTP requests are aborted through a
+     * {@link HttpAbortHandle}.
+     */
+    public <T> CompletableFuture<T> submit(SessionCallable<T> task) {
+        TaskFuture<T> future = new TaskFuture<T>(task);
+        try {
+            executor.execute(future);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<ObjectType> getTypeDefinition(String typeId) {
+        return submit(new GetTypeDefinitonCallable(session, typeId));
+    }
+
+    @Override
+    public CompletableFuture<ObjectType> createType(TypeDefinition type) {
+        return submit(new CreateTypeCallable(session, type));
+    }
+
+    @Override
+    public CompletableFuture<ObjectType> updateType(TypeDefinition type) {
+        return submit(new UpdateTypeCallable(session, type));
+    }
+
+    @Override
+    public CompletableFuture<?> deleteType(String typeId) {
+        return submit(new DeleteTypeCallable(session, typeId));
+    }
+
+    // --- objects ---
+
+    @Override
+    public CompletableFuture<CmisObject> getObject(ObjectId objectId) {
+        return getObject(objectId, session.getDefaultContext());
+    }
+
+    @Override
+    public CompletableFuture<CmisObject> getObject(ObjectId objectId, OperationContext context) {
+        return submit(new GetObjectCallable(session, objectId, context));
+    }
+
+    @Override
+    public CompletableFuture<CmisObject> getObject(String objectId) {
+        return getObject(objectId, session.getDefaultContext());
+    }
+
+    @Override
+    public CompletableFuture<CmisObject> getObject(String objectId, OperationContext context) {
+        return submit(new GetObjectCallable(session, objectId, context));
+    }
+
+    @Override
+    public CompletableFuture<CmisObject> getObjectByPath(String path) {
+        return getObjectByPath(path, session.getDefaultContext());
+    }
+
+    @Override
+    public CompletableFuture<CmisObject> getObjectByPath(String path, OperationContext context) {
+        return submit(new GetObjectByPathCallable(session, path, context));
+    }
+
+    @Override
+    public CompletableFuture<CmisObject> getObjectByPath(String parentPath, String name) {
+        return getObjectByPath(parentPath, name, session.getDefaultContext());
+    }
+
+    @Override
+    public CompletableFuture<CmisObject> getObjectByPath(String parentPath, String name, OperationContext context) {
+        return submit(new GetObjectByPathCallable(session, parentPath, name, context));
+    }
+
+    @Override
+    public CompletableFuture<Document> getLatestDocumentVersion(ObjectId objectId) {
+        return getLatestDocumentVersion(objectId, session.getDefaultContext());
+    }
+
+    @Override
+    public CompletableFuture<Document> getLatestDocumentVersion(ObjectId objectId, OperationContext context) {
+        return getLatestDocumentVersion(objectId, false, context);
+    }
+
+    @Override
+    public CompletableFuture<Document> getLatestDocumentVersion(ObjectId objectId, boolean major,
+            OperationContext context) {
+        return submit(new GetLatestDocumentVersionCallable(session, objectId, major, context));
+    }
+
+    @Override
+    public CompletableFuture<Document> getLatestDocumentVersion(String objectId) {
+        return getLatestDocumentVersion(objectId, session.getDefaultContext());
+    }
+
+    @Override
+    public CompletableFuture<Document> getLatestDocumentVersion(String objectId, OperationContext context) {
+        return getLatestDocumentVersion(objectId, false, context);
+    }
+
+    @Override
+    public CompletableFuture<Document> getLatestDocumentVersion(String objectId, boolean major,
+            OperationContext context) {
+        return submit(new GetLatestDocumentVersionCallable(session, objectId, major, context));
+    }
+
+    // --- create ---
+
+    @Override
+    public CompletableFuture<ObjectId> createDocument(Map<String, ?> properties, ObjectId folderId,
+            ContentStream contentStream, VersioningState versioningState, List<Policy> policies, List<Ace> addAces,
+            List<Ace> removeAces) {
+        return submit(new CreateDocumentCallable(session, properties, folderId, contentStream, versioningState,
+                policies, addAces, removeAces));
+    }
+
+    @Override
+    public CompletableFuture<ObjectId> createDocument(Map<String, ?> properties, ObjectId folderId,
+            ContentStream contentStream, VersioningState versioningState) {
+        return createDocument(properties, folderId, contentStream, versioningState, null, null, null);
+    }
+
+    @Override
+    public CompletableFuture<ObjectId> createDocumentFromSource(ObjectId source, Map<String, ?> properties,
+            ObjectId folderId, VersioningState versioningState, List<Policy> policies, List<Ace> addAces,
+            List<Ace> removeAces) {
+        return submit(new CreateDocumentFromSourceCallable(session, source, properties, folderId, versioningState,
+                policies, addAces, removeAces));
+    }
+
+    @Override
+    public CompletableFuture<ObjectId> createDocumentFromSource(ObjectId source, Map<String, ?> properties,
+            ObjectId folderId, VersioningState versioningState) {
+        return createDocumentFromSource(source, properties, folderId, versioningState, null, null, null);
+    }
+
+    @Override
+    public CompletableFuture<ObjectId> createFolder(Map<String, ?> properties, ObjectId folderId, List<Policy> policies,
+            List<Ace> addAces, List<Ace> removeAces) {
+        return submit(new CreateFolderCallable(session, properties, folderId, policies, addAces, removeAces));
+    }
+
+    @Override
+    public CompletableFuture<ObjectId> createFolder(Map<String, ?> properties, ObjectId folderId) {
+        return createFolder(properties, folderId, null, null, null);
+    }
+
+    @Override
+    public CompletableFuture<ObjectId> createPolicy(Map<String, ?> properties, ObjectId folderId, List<Policy> policies,
+            List<Ace> addAces, List<Ace> removeAces) {
+        return submit(new CreatePolicyCallable(session, properties, folderId, policies, addAces, removeAces));
+    }
+
+    @Override
+    public CompletableFuture<ObjectId> createPolicy(Map<String, ?> properties, ObjectId folderId) {
+        return createPolicy(properties, folderId, null, null, null);
+    }
+
+    @Override
+    public CompletableFuture<ObjectId> createItem(Map<String, ?> properties, ObjectId folderId, List<Policy> policies,
+            List<Ace> addAces, List<Ace> removeAces) {
+        return submit(new CreateItemCallable(session, properties, folderId, policies, addAces, removeAces));
+    }
+
+    @Override
+    public CompletableFuture<ObjectId> createItem(Map<String, ?> properties, ObjectId folderId) {
+        return createItem(properties, folderId, null, null, null);
+    }
+
+    @Override
+    public CompletableFuture<ObjectId> createRelationship(Map<String, ?> properties, List<Policy> policies,
+            List<Ace> addAces, List<Ace> removeAces) {
+        return submit(new CreateRelationshipCallable(session, properties, policies, addAces, removeAces));
+    }
+
+    @Override
+    public CompletableFuture<ObjectId> createRelationship(Map<String, ?> properties) {
+        return createRelationship(properties, null, null, null);
+    }
+
+    // --- content ---
+
+    @Override
+    public CompletableFuture<ContentStream> getContentStream(ObjectId docId, String streamId, BigInteger offset,
+            BigInteger length) {
+        return submit(new GetContentStreamCallable(session, docId, streamId, offset, length));
+    }
+
+    @Override
+    public CompletableFuture<ContentStream> getContentStream(ObjectId docId) {
+        return getContentStream(docId, null, null, null);
+    }
+
+    @Override
+    public CompletableFuture<ContentStream> storeContentStream(ObjectId docId, String streamId, BigInteger offset,
+            BigInteger length, OutputStream target) {
+        return submit(new StoreContentStreamCallable(session, docId, streamId, offset, length, target));
+    }
+
+    @Override
+    public CompletableFuture<ContentStream> storeContentStream(ObjectId docId, OutputStream target) {
+        return storeContentStream(docId, null, null, null, target);
+    }
+
+    // --- delete ---
+
+    @Override
+    public CompletableFuture<?> delete(ObjectId objectId, boolean allVersions) {
+        return submit(new DeleteCallable(session, objectId, allVersions));
+    }
+
+    @Override
+    public CompletableFuture<?> delete(ObjectId objectId) {
+        return delete(objectId, true);
+    }
+
+    @Override
+    public CompletableFuture<List<String>> deleteTree(ObjectId folderId, boolean allVersions, UnfileObject unfile,
+            boolean continueOnFailure) {
+        return submit(new DeleteTreeCallable(session, folderId, allVersions, unfile, continueOnFailure));
+    }
+
+    @Override
+    public CompletableFuture<Acl> applyAcl(ObjectId objectId, List<Ace> addAces, List<Ace> removeAces,
+            AclPropagation aclPropagation) {
+        return submit(new ApplyAclCallable(session, objectId, addAces, removeAces, aclPropagation));
+    }
+
+    @Override
+    public CompletableFuture<Acl> setAcl(ObjectId objectId, List<Ace> aces) {
+        return submit(new SetAclCallable(session, objectId, aces));
+    }
+
+    // --- policy ---
+
+    @Override
+    public CompletableFuture<?> applyPolicy(ObjectId objectId, ObjectId... policyIds) {
+        return submit(new ApplyPolicyCallable(session, objectId, policyIds));
+    }
+
+    @Override
+    public CompletableFuture<?> removePolicy(ObjectId objectId, ObjectId... policyIds) {
+        return submit(new RemovePolicyCallable(session, objectId, policyIds));
+    }
+
+    /**
+     * A {@link CompletableFuture} that runs a {@link SessionCallable} and
+     * interrupts it on cancellation.
+     */
+    private static class TaskFuture<T> extends CompletableFuture<T> implements Runnable {
+
+        private final SessionCallable<T> task;
+        private Thread runner;
+        private HttpAbortHandle abortHandle;
+
+        TaskFuture(SessionCallable<T> task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (isDone()) {
+                    // cancelled before it has been started
+                    return;
+                }
+                runner = Thread.currentThread();
+                abortHandle = HttpAbortHandle.install();
+            }
+
+            try {
+                complete(task.call());
+            } catch (Throwable t) {
+                completeExceptionally(t);
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    abortHandle.uninstall();
+                    abortHandle = null;
+                }
+                if (isCancelled()) {
+                    // clear an interrupt that arrived after the task has
+                    // finished, the thread might be reused
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled && mayInterruptIfRunning) {
+                HttpAbortHandle handle = null;
+                synchronized (this) {
+                    if (runner != null) {
+                        runner.interrupt();
+                        handle = abortHandle;
+                    }
+                }
+                if (handle != null) {
+                    // outside of the lock, aborting closes sockets
+                    handle.abort();
+                }
+            }
+            return cancelled;
+        }
+    }
+}
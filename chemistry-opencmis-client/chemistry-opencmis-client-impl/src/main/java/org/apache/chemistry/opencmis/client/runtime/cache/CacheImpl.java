@@ -23,22 +23,28 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.lang.ref.SoftReference;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.chemistry.opencmis.client.api.CmisObject;
 import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.client.bindings.cache.CacheStatisticsProvider;
+import org.apache.chemistry.opencmis.client.bindings.cache.impl.CacheStatisticsCollector;
 import org.apache.chemistry.opencmis.commons.PropertyIds;
 import org.apache.chemistry.opencmis.commons.SessionParameter;
 import org.apache.chemistry.opencmis.commons.SessionParameterDefaults;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
 
 /**
  * Synchronized cache implementation. The cache is limited to a specific size of
  * entries and works in a LRU mode.
  */
-public class CacheImpl implements Cache {
+public class CacheImpl implements ExtendedCache, CacheStatisticsProvider {
 
     private static final long serialVersionUID = 1L;
 
@@ -51,9 +57,13 @@ public class CacheImpl implements Cache {
 
     private LinkedHashMap<String, CacheItem<Map<String, CmisObject>>> objectMap;
     private LinkedHashMap<String, CacheItem<String>> pathToIdMap;
+    private TreeSet<String> pathIndex;
 
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
+    private final CacheStatisticsCollector objectStatistics = new CacheStatisticsCollector("Object Cache");
+    private final CacheStatisticsCollector pathStatistics = new CacheStatisticsCollector("Path Cache");
+
     /**
      * Default constructor.
      */
@@ -130,7 +140,12 @@ public class CacheImpl implements Cache {
 
                 @Override
                 protected boolean removeEldestEntry(Map.Entry<String, CacheItem<Map<String, CmisObject>>> eldest) {
-                    return size() > cs;
+                    if (size() > cs) {
+                        objectStatistics.recordEviction();
+                        return true;
+                    }
+
+                    return false;
                 }
             };
 
@@ -139,13 +154,35 @@ public class CacheImpl implements Cache {
 
             final int ptis = pathToIdSize;
 
+            // sorted copy of the paths for subtree invalidation
+            final TreeSet<String> index = new TreeSet<String>();
+            pathIndex = index;
+
             pathToIdMap = new LinkedHashMap<String, CacheItem<String>>(pathtoidHashTableCapacity, HASHTABLE_LOAD_FACTOR) {
 
                 private static final long serialVersionUID = 1L;
 
+                @Override
+                public CacheItem<String> put(String key, CacheItem<String> value) {
+                    index.add(key);
+                    return super.put(key, value);
+                }
+
+                @Override
+                public CacheItem<String> remove(Object key) {
+                    index.remove(key);
+                    return super.remove(key);
+                }
+
                 @Override
                 protected boolean removeEldestEntry(Map.Entry<String, CacheItem<String>> eldest) {
-                    return size() > ptis;
+                    if (size() > ptis) {
+                        index.remove(eldest.getKey());
+                        pathStatistics.recordEviction();
+                        return true;
+                    }
+
+                    return false;
                 }
             };
         } finally {
@@ -169,6 +206,7 @@ public class CacheImpl implements Cache {
             CacheItem<Map<String, CmisObject>> item = objectMap.get(objectId);
             if (item.isExpired()) {
                 objectMap.remove(objectId);
+                objectStatistics.recordExpiration();
                 return false;
             }
 
@@ -187,7 +225,13 @@ public class CacheImpl implements Cache {
             }
 
             CacheItem<String> item = pathToIdMap.get(path);
-            if (item.isExpired() || !containsId(item.getItem(), cacheKey)) {
+            if (item.isExpired()) {
+                pathToIdMap.remove(path);
+                pathStatistics.recordExpiration();
+                return false;
+            }
+
+            if (!containsId(item.getItem(), cacheKey)) {
                 pathToIdMap.remove(path);
                 return false;
             }
@@ -202,12 +246,15 @@ public class CacheImpl implements Cache {
     public CmisObject getById(String objectId, String cacheKey) {
         lock.writeLock().lock();
         try {
-            if (!containsId(objectId, cacheKey)) {
-                return null;
+            CmisObject result = null;
+            if (containsId(objectId, cacheKey)) {
+                Map<String, CmisObject> item = objectMap.get(objectId).getItem();
+                result = item == null ? null : item.get(cacheKey);
             }
 
-            Map<String, CmisObject> item = objectMap.get(objectId).getItem();
-            return item == null ? null : item.get(cacheKey);
+            objectStatistics.recordLookup(result);
+
+            return result;
         } finally {
             lock.writeLock().unlock();
         }
@@ -218,9 +265,12 @@ public class CacheImpl implements Cache {
         lock.writeLock().lock();
         try {
             if (!containsPath(path, cacheKey)) {
+                pathStatistics.recordMiss();
                 return null;
             }
 
+            pathStatistics.recordHit();
+
             CacheItem<String> item = pathToIdMap.get(path);
             return getById(item.getItem(), cacheKey);
         } finally {
@@ -234,13 +284,18 @@ public class CacheImpl implements Cache {
         try {
             CacheItem<String> item = pathToIdMap.get(path);
             if (item == null) {
+                pathStatistics.recordMiss();
                 return null;
             }
             if (item.isExpired()) {
                 pathToIdMap.remove(path);
+                pathStatistics.recordExpiration();
+                pathStatistics.recordMiss();
                 return null;
             }
 
+            pathStatistics.recordHit();
+
             return item.getItem();
         } finally {
             lock.writeLock().unlock();
@@ -272,12 +327,14 @@ public class CacheImpl implements Cache {
             Map<String, CmisObject> m = cacheKeyMap.getItem();
             if (m != null) {
                 m.put(cacheKey, object);
+                objectStatistics.recordPut();
             }
 
             // folders may have a path, use it!
             String path = object.getPropertyValue(PropertyIds.PATH);
             if (path != null) {
                 pathToIdMap.put(path, new CacheItem<String>(object.getId(), pathToIdTtl));
+                pathStatistics.recordPut();
             }
         } finally {
             lock.writeLock().unlock();
@@ -296,6 +353,7 @@ public class CacheImpl implements Cache {
 
             if ((object != null) && (object.getId() != null) && (cacheKey != null)) {
                 pathToIdMap.put(path, new CacheItem<String>(object.getId(), pathToIdTtl));
+                pathStatistics.recordPut();
             }
         } finally {
             lock.writeLock().unlock();
@@ -330,11 +388,47 @@ public class CacheImpl implements Cache {
         }
     }
 
+    @Override
+    public void removePathTree(String path) {
+        if (path == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            List<String> paths = new ArrayList<String>(PathTree.getDescendants(pathIndex, path));
+            paths.add(path);
+
+            for (String p : paths) {
+                CacheItem<String> item = pathToIdMap.remove(p);
+                String objectId = item == null ? null : item.getItem();
+                if (objectId != null) {
+                    objectMap.remove(objectId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
     @Override
     public int getCacheSize() {
         return this.cacheSize;
     }
 
+    @Override
+    public List<CacheStatistics> getCacheStatistics() {
+        lock.readLock().lock();
+        try {
+            List<CacheStatistics> result = new ArrayList<CacheStatistics>(2);
+            result.add(objectStatistics.getStatistics(objectMap == null ? 0 : objectMap.size()));
+            result.add(pathStatistics.getStatistics(pathToIdMap == null ? 0 : pathToIdMap.size()));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
     // --- cache item ---
 
     private static class CacheItem<T> implements Serializable {
@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime.cache;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Hashtable;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registers the cache statistics of a session as JMX MBeans.
+ * <p>
+ * There is one MBean for each cache. The MBeans are registered in the platform
+ * MBean server with the object name
+ * {@code org.apache.chemistry.opencmis:type=CacheStatistics,session=<session id>,name=<cache name>}.
+ * The MBeans only hold a weak reference to the session and always report the
+ * current statistics of the cache, even if the cache has been recreated in the
+ * meantime.
+ * <p>
+ * If the session parameter {@link SessionParameter#CACHE_STATISTICS_JMX} is
+ * set to "true", the session registers its MBeans when it connects.
+ * Applications can call {@link #unregister(Session)} when they don't use the
+ * session anymore. Otherwise the MBeans are unregistered after the session has
+ * been garbage collected, the next time MBeans are registered or unregistered.
+ */
+public final class CacheStatisticsMBeans {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheStatisticsMBeans.class);
+
+    public static final String DOMAIN = "org.apache.chemistry.opencmis";
+    public static final String TYPE = "CacheStatistics";
+
+    /** MBeans whose sessions have been garbage collected. */
+    private static final ReferenceQueue<Session> COLLECTED = new ReferenceQueue<Session>();
+
+    private CacheStatisticsMBeans() {
+    }
+
+    /**
+     * Registers an MBean for each cache of the given session.
+     */
+    public static void register(Session session) {
+        if (session == null) {
+            throw new IllegalArgumentException("Session must be set!");
+        }
+
+        unregisterCollected();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        String sessionId = session.getBinding().getSessionId();
+
+        for (CacheStatistics stats : session.getCacheStatistics()) {
+            try {
+                ObjectName name = createObjectName(sessionId, stats.getName());
+                if (server.isRegistered(name)) {
+                    continue;
+                }
+
+                server.registerMBean(new StandardMBean(new SessionCacheStatistics(session, stats.getName(), name),
+                        CacheStatistics.class), name);
+            } catch (JMException e) {
+                LOG.warn("Cannot register MBean for cache '{}': {}", stats.getName(), e.toString(), e);
+            }
+        }
+    }
+
+    /**
+     * Unregisters all cache MBeans of the given session.
+     */
+    public static void unregister(Session session) {
+        if (session == null) {
+            throw new IllegalArgumentException("Session must be set!");
+        }
+
+        unregisterCollected();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        try {
+            ObjectName pattern = new ObjectName(DOMAIN + ":type=" + TYPE + ",session="
+                    + ObjectName.quote(session.getBinding().getSessionId()) + ",*");
+
+            for (ObjectName name : server.queryNames(pattern, null)) {
+                try {
+                    server.unregisterMBean(name);
+                } catch (JMException e) {
+                    LOG.debug("Cannot unregister MBean {}: {}", name, e.toString(), e);
+                }
+            }
+        } catch (JMException e) {
+            LOG.warn("Cannot unregister cache MBeans: {}", e.toString(), e);
+        }
+    }
+
+    /**
+     * Unregisters the MBeans whose sessions have been garbage collected.
+     */
+    static void unregisterCollected() {
+        Reference<? extends Session> ref;
+        while ((ref = COLLECTED.poll()) != null) {
+            ((SessionReference) ref).unregister();
+        }
+    }
+
+    /**
+     * Creates the object name of a cache MBean.
+     */
+    public static ObjectName createObjectName(String sessionId, String cacheName) throws JMException {
+        Hashtable<String, String> properties = new Hashtable<String, String>();
+        properties.put("type", TYPE);
+        properties.put("session", ObjectName.quote(sessionId));
+        properties.put("name", ObjectName.quote(cacheName));
+
+        return new ObjectName(DOMAIN, properties);
+    }
+
+    /**
+     * Looks up the current statistics of a cache on each call.
+     */
+    static class SessionCacheStatistics implements CacheStatistics {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient SessionReference session;
+        private final String name;
+
+        public SessionCacheStatistics(Session session, String name, ObjectName objectName) {
+            this.session = new SessionReference(session, objectName);
+            this.name = name;
+        }
+
+        private CacheStatistics current() {
+            Session s = session == null ? null : session.get();
+            if (s != null) {
+                for (CacheStatistics stats : s.getCacheStatistics()) {
+                    if (name.equals(stats.getName())) {
+                        return stats;
+                    }
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getHitCount() {
+            CacheStatistics stats = current();
+            return stats == null ? 0 : stats.getHitCount();
+        }
+
+        @Override
+        public long getMissCount() {
+            CacheStatistics stats = current();
+            return stats == null ? 0 : stats.getMissCount();
+        }
+
+        @Override
+        public double getHitRatio() {
+            CacheStatistics stats = current();
+            return stats == null ? 0.0 : stats.getHitRatio();
+        }
+
+        @Override
+        public long getPutCount() {
+            CacheStatistics stats = current();
+            return stats == null ? 0 : stats.getPutCount();
+        }
+
+        @Override
+        public long getEvictionCount() {
+            CacheStatistics stats = current();
+            return stats == null ? 0 : stats.getEvictionCount();
+        }
+
+        @Override
+        public long getExpirationCount() {
+            CacheStatistics stats = current();
+            return stats == null ? 0 : stats.getExpirationCount();
+        }
+
+        @Override
+        public long getEntryCount() {
+            CacheStatistics stats = current();
+            return stats == null ? -1 : stats.getEntryCount();
+        }
+    }
+
+    /**
+     * Weak reference to the session of an MBean. It unregisters the MBean when
+     * it is polled from the queue after the session has been garbage
+     * collected.
+     */
+    private static class SessionReference extends WeakReference<Session> {
+
+        private final ObjectName name;
+
+        SessionReference(Session session, ObjectName name) {
+            super(session, COLLECTED);
+            this.name = name;
+        }
+
+        void unregister() {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (JMException e) {
+                LOG.debug("Cannot unregister MBean {}: {}", name, e.toString(), e);
+            }
+        }
+    }
+}
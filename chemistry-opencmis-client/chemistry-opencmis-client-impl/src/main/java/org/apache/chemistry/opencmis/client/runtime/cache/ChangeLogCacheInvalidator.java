@@ -0,0 +1,410 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime.cache;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.chemistry.opencmis.client.api.ChangeEvent;
+import org.apache.chemistry.opencmis.client.api.ChangeEvents;
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.client.runtime.SessionImpl;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+import org.apache.chemistry.opencmis.commons.data.RepositoryInfo;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisConstraintException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisInvalidArgumentException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisNotSupportedException;
+import org.apache.chemistry.opencmis.commons.spi.CmisBinding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the object cache of a session fresh by polling the change log of the
+ * repository.
+ * <p>
+ * The invalidator remembers the latest change log token and periodically
+ * fetches the content changes since then in batches. Each changed object is
+ * removed from the session cache with
+ * {@link Session#removeObjectFromCache(String)}. If a changed folder is in
+ * the cache of a {@link SessionImpl}, the paths of the folder and its
+ * descendants are removed, too. Because the change log token is inclusive and
+ * some repositories don't advance it at all, the last processed event is
+ * remembered and the events up to it are skipped in the next poll. If the
+ * repository reports no new changes, the poll interval is doubled up to the
+ * maximum interval. It is reset to the minimum interval as soon as changes
+ * show up again.
+ * <p>
+ * If the repository doesn't accept the change log token anymore (for example,
+ * because the change log has been truncated), the object cache of the session
+ * is cleared and polling continues from the latest change log token, which is
+ * fetched from the repository again. The same happens if the token doesn't
+ * advance while more changes than the batch size are pending, because the
+ * changes after the first batch can't be reached from that token.
+ * <p>
+ * The invalidator runs on a daemon thread and has to be stopped with
+ * {@link #stop()} when the session is not used anymore.
+ */
+public class ChangeLogCacheInvalidator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeLogCacheInvalidator.class);
+
+    public static final long DEFAULT_MIN_INTERVAL = 10 * 1000L;
+    public static final long DEFAULT_MAX_INTERVAL = 5 * 60 * 1000L;
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private final Session session;
+    private final long minInterval;
+    private final long maxInterval;
+    private final int batchSize;
+
+    private volatile String changeLogToken;
+    // the last processed event, the change log token is inclusive
+    private String lastEvent;
+    private final Object pollLock = new Object();
+
+    // guarded by this
+    private long currentInterval;
+    private ScheduledExecutorService executor;
+    private int generation;
+
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Creates an invalidator with the default intervals and batch size.
+     *
+     * @param session
+     *            the session
+     */
+    public ChangeLogCacheInvalidator(Session session) {
+        this(session, DEFAULT_MIN_INTERVAL, DEFAULT_MAX_INTERVAL, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates an invalidator.
+     *
+     * @param session
+     *            the session
+     * @param minInterval
+     *            the poll interval in milliseconds while the repository
+     *            reports changes
+     * @param maxInterval
+     *            the maximum poll interval in milliseconds if the repository
+     *            reports no changes
+     * @param batchSize
+     *            the maximum number of change events fetched with one call
+     */
+    public ChangeLogCacheInvalidator(Session session, long minInterval, long maxInterval, int batchSize) {
+        if (session == null) {
+            throw new IllegalArgumentException("Session must be set!");
+        }
+        if (minInterval <= 0 || maxInterval < minInterval) {
+            throw new IllegalArgumentException("Invalid intervals!");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive!");
+        }
+
+        this.session = session;
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Fetches the latest change log token and starts polling in the
+     * background.
+     *
+     * @throws CmisNotSupportedException
+     *             if the repository doesn't provide a change log token
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+
+        if (changeLogToken == null) {
+            changeLogToken = fetchLatestChangeLogToken();
+            if (changeLogToken == null) {
+                throw new CmisNotSupportedException("Repository does not provide a change log token!");
+            }
+        }
+
+        currentInterval = minInterval;
+        generation++;
+
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "OpenCMIS Change Log Cache Invalidator");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        schedule(generation);
+    }
+
+    /**
+     * Stops polling. A poll that is running finishes but doesn't schedule the
+     * next one.
+     */
+    public synchronized void stop() {
+        generation++;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Returns whether the invalidator is polling in the background.
+     */
+    public synchronized boolean isRunning() {
+        return executor != null;
+    }
+
+    /**
+     * Returns the change log token the next poll starts from.
+     */
+    public String getChangeLogToken() {
+        return changeLogToken;
+    }
+
+    /**
+     * Sets the change log token the next poll starts from.
+     */
+    public void setChangeLogToken(String changeLogToken) {
+        synchronized (pollLock) {
+            this.changeLogToken = changeLogToken;
+            this.lastEvent = null;
+        }
+    }
+
+    /**
+     * Returns the number of polls.
+     */
+    public long getPollCount() {
+        return polls.get();
+    }
+
+    /**
+     * Returns the number of objects removed from the cache.
+     */
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    /**
+     * Fetches all content changes since the last poll and removes the changed
+     * objects from the session cache.
+     *
+     * @return {@code true} if new changes have been found since the last
+     *         poll, {@code false} otherwise
+     */
+    public boolean poll() {
+        synchronized (pollLock) {
+            polls.incrementAndGet();
+
+            String token = changeLogToken;
+            if (token == null) {
+                token = fetchLatestChangeLogToken();
+                changeLogToken = token;
+                return false;
+            }
+
+            boolean changed = false;
+
+            try {
+                while (true) {
+                    ChangeEvents events = session.getContentChanges(token, false, batchSize);
+                    List<ChangeEvent> list = events.getChangeEvents();
+                    if (list == null) {
+                        list = Collections.emptyList();
+                    }
+
+                    // the change log token is inclusive -> skip the events
+                    // that have been processed already
+                    int start = 0;
+                    if (lastEvent != null) {
+                        for (int i = 0; i < list.size(); i++) {
+                            if (lastEvent.equals(getEventKey(list.get(i)))) {
+                                start = i + 1;
+                                break;
+                            }
+                        }
+                    }
+
+                    int count = 0;
+                    for (ChangeEvent event : list.subList(start, list.size())) {
+                        count++;
+                        invalidate(event.getObjectId());
+                    }
+
+                    if (count > 0) {
+                        changed = true;
+                        lastEvent = getEventKey(list.get(list.size() - 1));
+                    }
+
+                    String newToken = events.getLatestChangeLogToken();
+                    if (newToken == null || newToken.equals(token)) {
+                        if (events.getHasMoreItems()) {
+                            // the token doesn't advance and the next poll
+                            // would get the same batch again
+                            resync("Change log token " + token + " doesn't advance");
+                            changed = true;
+                        }
+                        break;
+                    }
+
+                    token = newToken;
+                    changeLogToken = newToken;
+
+                    if (!events.getHasMoreItems() || count == 0) {
+                        break;
+                    }
+                }
+            } catch (CmisInvalidArgumentException e) {
+                resync("Change log token " + changeLogToken + " has been rejected: " + e.getMessage());
+                changed = true;
+            } catch (CmisConstraintException e) {
+                resync("Change log token " + changeLogToken + " has been rejected: " + e.getMessage());
+                changed = true;
+            }
+
+            return changed;
+        }
+    }
+
+    /**
+     * Removes an object and, if it is a cached folder, its path subtree from
+     * the cache.
+     */
+    private void invalidate(String objectId) {
+        if (objectId == null) {
+            return;
+        }
+
+        if (session instanceof SessionImpl) {
+            SessionImpl sessionImpl = (SessionImpl) session;
+            CmisObject cached = sessionImpl.getCache().getById(objectId,
+                    sessionImpl.getDefaultContext().getCacheKey());
+            if (cached != null) {
+                // don't use Folder.getPath(), it might call the repository
+                Object path = cached.getPropertyValue(PropertyIds.PATH);
+                if (path instanceof String) {
+                    sessionImpl.removePathTreeFromCache((String) path);
+                }
+            }
+        }
+
+        session.removeObjectFromCache(objectId);
+        invalidations.incrementAndGet();
+    }
+
+    private static String getEventKey(ChangeEvent event) {
+        return event.getObjectId() + '|' + event.getChangeType() + '|'
+                + (event.getChangeTime() == null ? "" : event.getChangeTime().getTimeInMillis());
+    }
+
+    /**
+     * The change log can't be followed from the current token anymore. Clear
+     * the object cache and start over with the latest token.
+     */
+    private void resync(String reason) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{}. Clearing the cache.", reason);
+        }
+
+        changeLogToken = fetchLatestChangeLogToken();
+        lastEvent = null;
+
+        // keep the type and repository info caches
+        if (session instanceof SessionImpl) {
+            ((SessionImpl) session).getCache().clear();
+        } else {
+            session.clear();
+        }
+    }
+
+    /**
+     * Fetches the latest change log token from the repository.
+     * {@link Session#getLatestChangeLogToken()} might return the token of the
+     * cached repository info, which would be rejected again after a change log
+     * truncation. The repository infos are always fetched from the
+     * repository.
+     */
+    private String fetchLatestChangeLogToken() {
+        CmisBinding binding = session.getBinding();
+        if (binding != null) {
+            String repositoryId = session.getRepositoryInfo().getId();
+            List<RepositoryInfo> infos = binding.getRepositoryService().getRepositoryInfos(null);
+            if (infos != null) {
+                for (RepositoryInfo info : infos) {
+                    if (info != null && repositoryId.equals(info.getId())) {
+                        return info.getLatestChangeLogToken();
+                    }
+                }
+            }
+        }
+
+        return session.getLatestChangeLogToken();
+    }
+
+    private synchronized void schedule(final int scheduledGeneration) {
+        if (executor == null || scheduledGeneration != generation) {
+            return;
+        }
+
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (ChangeLogCacheInvalidator.this) {
+                    if (scheduledGeneration != generation) {
+                        // stopped or restarted
+                        return;
+                    }
+                }
+
+                boolean changed = false;
+                try {
+                    changed = poll();
+                } catch (Exception e) {
+                    LOG.warn("Polling the change log failed: {}", e.toString(), e);
+                }
+
+                synchronized (ChangeLogCacheInvalidator.this) {
+                    if (changed) {
+                        currentInterval = minInterval;
+                    } else {
+                        currentInterval = Math.min(currentInterval * 2, maxInterval);
+                    }
+                }
+
+                schedule(scheduledGeneration);
+            }
+        }, currentInterval, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,480 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime.cache;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.client.bindings.cache.CacheStatisticsProvider;
+import org.apache.chemistry.opencmis.client.bindings.cache.impl.BatchEvictor;
+import org.apache.chemistry.opencmis.client.bindings.cache.impl.CacheStatisticsCollector;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.apache.chemistry.opencmis.commons.SessionParameterDefaults;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
+
+/**
+ * Concurrent cache implementation.
+ * <p>
+ * Unlike {@link CacheImpl}, this cache doesn't use a global lock. Lookups
+ * never block each other and only record the last access time of the entry.
+ * The cache is limited to a specific size of entries and works in an
+ * approximate LRU mode: if the size is exceeded, the least recently used
+ * entries are evicted in a batch by the thread that exceeded the limit.
+ * <p>
+ * This cache can be selected with the session parameter
+ * {@link SessionParameter#CACHE_CLASS}.
+ */
+public class ConcurrentCacheImpl implements ExtendedCache, CacheStatisticsProvider {
+
+    private static final long serialVersionUID = 1L;
+
+    private int cacheSize;
+    private int cacheTtl;
+    private int pathToIdSize;
+    private int pathToIdTtl;
+
+    private volatile ConcurrentMap<String, CacheItem<ConcurrentMap<String, CmisObject>>> objectMap;
+    private volatile PathTree<CacheItem<String>> pathToIdMap;
+
+    private final CacheStatisticsCollector objectStatistics = new CacheStatisticsCollector("Object Cache");
+    private final CacheStatisticsCollector pathStatistics = new CacheStatisticsCollector("Path Cache");
+
+    private ItemEvictor<ConcurrentMap<String, CmisObject>> objectEvictor;
+    private ItemEvictor<String> pathEvictor;
+
+    /**
+     * Default constructor.
+     */
+    public ConcurrentCacheImpl() {
+    }
+
+    @Override
+    public void initialize(Session session, Map<String, String> parameters) {
+        assert parameters != null;
+
+        // cache size
+        try {
+            cacheSize = Integer.valueOf(parameters.get(SessionParameter.CACHE_SIZE_OBJECTS));
+            if (cacheSize < 0) {
+                cacheSize = 0;
+            }
+        } catch (Exception e) {
+            cacheSize = SessionParameterDefaults.CACHE_SIZE_OBJECTS;
+        }
+
+        // cache time-to-live
+        try {
+            cacheTtl = Integer.valueOf(parameters.get(SessionParameter.CACHE_TTL_OBJECTS));
+            if (cacheTtl < 0) {
+                cacheTtl = SessionParameterDefaults.CACHE_TTL_OBJECTS;
+            }
+        } catch (Exception e) {
+            cacheTtl = SessionParameterDefaults.CACHE_TTL_OBJECTS;
+        }
+
+        // path-to-id size
+        try {
+            pathToIdSize = Integer.valueOf(parameters.get(SessionParameter.CACHE_SIZE_PATHTOID));
+            if (pathToIdSize < 0) {
+                pathToIdSize = 0;
+            }
+        } catch (Exception e) {
+            pathToIdSize = SessionParameterDefaults.CACHE_SIZE_PATHTOID;
+        }
+
+        // path-to-id time-to-live
+        try {
+            pathToIdTtl = Integer.valueOf(parameters.get(SessionParameter.CACHE_TTL_PATHTOID));
+            if (pathToIdTtl < 0) {
+                pathToIdTtl = SessionParameterDefaults.CACHE_TTL_PATHTOID;
+            }
+        } catch (Exception e) {
+            pathToIdTtl = SessionParameterDefaults.CACHE_TTL_PATHTOID;
+        }
+
+        objectEvictor = new ItemEvictor<ConcurrentMap<String, CmisObject>>(cacheSize, objectStatistics);
+        pathEvictor = new ItemEvictor<String>(pathToIdSize, pathStatistics);
+
+        initializeInternals();
+    }
+
+    /**
+     * Sets up the internal objects.
+     */
+    private void initializeInternals() {
+        objectMap = new ConcurrentHashMap<String, CacheItem<ConcurrentMap<String, CmisObject>>>();
+        pathToIdMap = new PathTree<CacheItem<String>>();
+    }
+
+    @Override
+    public void clear() {
+        initializeInternals();
+    }
+
+    @Override
+    public boolean containsId(String objectId, String cacheKey) {
+        return getObjectItem(objectId) != null;
+    }
+
+    @Override
+    public boolean containsPath(String path, String cacheKey) {
+        String objectId = getObjectIdByPath(path);
+        if (objectId == null) {
+            return false;
+        }
+
+        if (!containsId(objectId, cacheKey)) {
+            pathToIdMap.remove(path);
+            return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public CmisObject getById(String objectId, String cacheKey) {
+        if (cacheKey == null) {
+            return null;
+        }
+
+        CmisObject result = null;
+
+        CacheItem<ConcurrentMap<String, CmisObject>> item = getObjectItem(objectId);
+        if (item != null) {
+            Map<String, CmisObject> m = item.getItem();
+            result = m == null ? null : m.get(cacheKey);
+        }
+
+        objectStatistics.recordLookup(result);
+
+        return result;
+    }
+
+    @Override
+    public CmisObject getByPath(String path, String cacheKey) {
+        String objectId = getObjectIdByPath(path);
+        if (objectId == null) {
+            return null;
+        }
+
+        return getById(objectId, cacheKey);
+    }
+
+    @Override
+    public String getObjectIdByPath(String path) {
+        if (path == null) {
+            return null;
+        }
+
+        ConcurrentMap<String, CacheItem<String>> map = pathToIdMap;
+
+        CacheItem<String> item = map.get(path);
+        if (item == null) {
+            pathStatistics.recordMiss();
+            return null;
+        }
+
+        String objectId = item.getItem();
+        if (objectId == null) {
+            if (map.remove(path, item)) {
+                pathStatistics.recordExpiration();
+            }
+            pathStatistics.recordMiss();
+            return null;
+        }
+
+        item.touch();
+        pathStatistics.recordHit();
+
+        return objectId;
+    }
+
+    @Override
+    public void put(CmisObject object, String cacheKey) {
+        // no object, no cache key - no cache
+        if ((object == null) || (cacheKey == null)) {
+            return;
+        }
+
+        // no id - no cache
+        String objectId = object.getId();
+        if (objectId == null) {
+            return;
+        }
+
+        ConcurrentMap<String, CacheItem<ConcurrentMap<String, CmisObject>>> map = objectMap;
+
+        // get cache key map
+        while (true) {
+            CacheItem<ConcurrentMap<String, CmisObject>> cacheKeyMap = map.get(objectId);
+            ConcurrentMap<String, CmisObject> m = cacheKeyMap == null ? null : cacheKeyMap.getItem();
+
+            if (m == null) {
+                m = new ConcurrentHashMap<String, CmisObject>();
+                m.put(cacheKey, object);
+
+                CacheItem<ConcurrentMap<String, CmisObject>> newCacheKeyMap = new CacheItem<ConcurrentMap<String, CmisObject>>(
+                        m, cacheTtl);
+
+                boolean added;
+                if (cacheKeyMap == null) {
+                    added = map.putIfAbsent(objectId, newCacheKeyMap) == null;
+                } else {
+                    added = map.replace(objectId, cacheKeyMap, newCacheKeyMap);
+                }
+
+                if (!added) {
+                    // another thread has been faster - try again
+                    continue;
+                }
+
+                objectStatistics.recordPut();
+                objectEvictor.evictIfNecessary(map);
+            } else {
+                // put into id cache
+                m.put(cacheKey, object);
+                cacheKeyMap.touch();
+                objectStatistics.recordPut();
+            }
+
+            break;
+        }
+
+        // folders may have a path, use it!
+        String path = object.getPropertyValue(PropertyIds.PATH);
+        if (path != null) {
+            putPathToId(path, objectId);
+        }
+    }
+
+    @Override
+    public void putPath(String path, CmisObject object, String cacheKey) {
+        if (path == null) {
+            return;
+        }
+
+        put(object, cacheKey);
+
+        if ((object != null) && (object.getId() != null) && (cacheKey != null)) {
+            putPathToId(path, object.getId());
+        }
+    }
+
+    @Override
+    public void remove(String objectId) {
+        if (objectId == null) {
+            return;
+        }
+
+        objectMap.remove(objectId);
+    }
+
+    @Override
+    public void removePath(String path) {
+        if (path == null) {
+            return;
+        }
+
+        pathToIdMap.remove(path);
+    }
+
+    @Override
+    public void removePathTree(String path) {
+        if (path == null) {
+            return;
+        }
+
+        for (CacheItem<String> item : pathToIdMap.removeTree(path)) {
+            String objectId = item.getItem();
+            if (objectId != null) {
+                remove(objectId);
+            }
+        }
+    }
+
+    @Override
+    public int getCacheSize() {
+        return this.cacheSize;
+    }
+
+    @Override
+    public List<CacheStatistics> getCacheStatistics() {
+        List<CacheStatistics> result = new ArrayList<CacheStatistics>(2);
+        result.add(objectStatistics.getStatistics(objectMap.size()));
+        result.add(pathStatistics.getStatistics(pathToIdMap.size()));
+        return result;
+    }
+
+    /**
+     * Returns the cache item of an object if it exists and has not expired.
+     * Expired entries are removed.
+     */
+    private CacheItem<ConcurrentMap<String, CmisObject>> getObjectItem(String objectId) {
+        if (objectId == null) {
+            return null;
+        }
+
+        ConcurrentMap<String, CacheItem<ConcurrentMap<String, CmisObject>>> map = objectMap;
+
+        CacheItem<ConcurrentMap<String, CmisObject>> item = map.get(objectId);
+        if (item == null) {
+            return null;
+        }
+
+        if (item.isExpired()) {
+            if (map.remove(objectId, item)) {
+                objectStatistics.recordExpiration();
+            }
+            return null;
+        }
+
+        item.touch();
+
+        return item;
+    }
+
+    private void putPathToId(String path, String objectId) {
+        ConcurrentMap<String, CacheItem<String>> map = pathToIdMap;
+        map.put(path, new CacheItem<String>(objectId, pathToIdTtl));
+        pathStatistics.recordPut();
+        pathEvictor.evictIfNecessary(map);
+    }
+
+    // --- cache item ---
+
+    /**
+     * Removes expired entries and, if the map is still too big, the least
+     * recently used entries.
+     */
+    private static class ItemEvictor<T> extends BatchEvictor<CacheItem<T>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+        private final CacheStatisticsCollector statistics;
+
+        ItemEvictor(int maxSize, CacheStatisticsCollector statistics) {
+            this.maxSize = maxSize;
+            this.statistics = statistics;
+        }
+
+        @Override
+        protected boolean isOverLimit(Map<String, CacheItem<T>> entries, boolean makeRoom) {
+            return entries.size() > (makeRoom ? belowBatch(maxSize) : maxSize);
+        }
+
+        @Override
+        protected long getLastAccess(CacheItem<T> value) {
+            return value.getLastAccess();
+        }
+
+        @Override
+        protected boolean isExpired(CacheItem<T> value) {
+            return value.isExpired();
+        }
+
+        @Override
+        protected void expired(String key, CacheItem<T> value) {
+            statistics.recordExpiration();
+        }
+
+        @Override
+        protected void evicted(String key, CacheItem<T> value) {
+            statistics.recordEviction();
+        }
+    }
+
+    private static class CacheItem<T> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private transient volatile SoftReference<T> item;
+        private long timestamp;
+        private int ttl;
+        private transient volatile long lastAccess;
+
+        public CacheItem(T item, int ttl) {
+            this.item = new SoftReference<T>(item);
+            timestamp = System.currentTimeMillis();
+            this.ttl = ttl;
+            lastAccess = System.nanoTime();
+        }
+
+        public boolean isExpired() {
+            SoftReference<T> ref = item;
+            if ((ref == null) || (ref.get() == null)) {
+                return true;
+            }
+
+            return timestamp + ttl < System.currentTimeMillis();
+        }
+
+        public T getItem() {
+            SoftReference<T> ref = item;
+            if (ref == null) {
+                return null;
+            }
+
+            T result = ref.get();
+            if ((result == null) || (timestamp + ttl < System.currentTimeMillis())) {
+                item = null;
+                return null;
+            }
+
+            return result;
+        }
+
+        public void touch() {
+            lastAccess = System.nanoTime();
+        }
+
+        public long getLastAccess() {
+            return lastAccess;
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.writeObject(getItem());
+            out.writeLong(timestamp);
+            out.writeInt(ttl);
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            @SuppressWarnings("unchecked")
+            T object = (T) in.readObject();
+            timestamp = in.readLong();
+            ttl = in.readInt();
+            lastAccess = System.nanoTime();
+
+            if ((object != null) && (timestamp + ttl >= System.currentTimeMillis())) {
+                this.item = new SoftReference<T>(object);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime.cache;
+
+/**
+ * Extended cache interface.
+ * 
+ * Caches that implement this interface can invalidate a whole folder subtree
+ * at once. The session uses it when a folder is moved, renamed or deleted.
+ * Other caches only lose the path of the folder itself.
+ */
+public interface ExtendedCache extends Cache {
+
+    /**
+     * Removes the given path and all paths below it from the path cache. The
+     * objects these paths point to are removed from the object cache as well
+     * because their path properties may be outdated.
+     * 
+     * @param path
+     *            the path of a folder
+     */
+    void removePathTree(String path);
+}
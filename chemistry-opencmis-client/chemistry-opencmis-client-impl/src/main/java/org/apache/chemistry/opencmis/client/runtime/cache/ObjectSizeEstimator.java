@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime.cache;
+
+import java.util.Calendar;
+import java.util.List;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Property;
+import org.apache.chemistry.opencmis.client.api.Rendition;
+import org.apache.chemistry.opencmis.commons.data.Ace;
+import org.apache.chemistry.opencmis.commons.data.Acl;
+import org.apache.chemistry.opencmis.commons.data.AllowableActions;
+
+/**
+ * Estimates the retained heap size of a {@link CmisObject}.
+ * <p>
+ * The estimate covers the properties, the ACL, the renditions and the
+ * allowable actions of the object. Shared objects such as type and property
+ * definitions are not counted. The numbers are approximations for a 64 bit
+ * JVM with compressed object pointers and don't have to be exact.
+ */
+public final class ObjectSizeEstimator {
+
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int REFERENCE_SIZE = 4;
+    private static final int LIST_OVERHEAD = 40;
+    private static final int SET_ENTRY_SIZE = 32;
+    private static final int STRING_OVERHEAD = 40;
+    private static final int NUMBER_SIZE = 48;
+    private static final int CALENDAR_SIZE = 450;
+    private static final int BOOLEAN_SIZE = 16;
+
+    /** Base size of an object implementation and its maps. */
+    private static final int CMIS_OBJECT_OVERHEAD = 400;
+
+    /** Size of a property object without its values. */
+    private static final int PROPERTY_OVERHEAD = 64;
+
+    /** Size of a rendition object without its strings. */
+    private static final int RENDITION_OVERHEAD = 96;
+
+    private ObjectSizeEstimator() {
+    }
+
+    /**
+     * Estimates the retained size of an object in bytes.
+     *
+     * @param object
+     *            the object, may be {@code null}
+     *
+     * @return the estimated size in bytes
+     */
+    public static long estimate(CmisObject object) {
+        if (object == null) {
+            return 0;
+        }
+
+        long size = CMIS_OBJECT_OVERHEAD;
+
+        size += estimateProperties(object.getProperties());
+        size += estimateAcl(object.getAcl());
+        size += estimateRenditions(object.getRenditions());
+        size += estimateAllowableActions(object.getAllowableActions());
+
+        return size;
+    }
+
+    private static long estimateProperties(List<Property<?>> properties) {
+        if (properties == null) {
+            return 0;
+        }
+
+        long size = LIST_OVERHEAD + (long) properties.size() * REFERENCE_SIZE;
+
+        for (Property<?> property : properties) {
+            if (property == null) {
+                continue;
+            }
+
+            size += PROPERTY_OVERHEAD;
+            size += estimateString(property.getId());
+
+            List<?> values = property.getValues();
+            if (values != null) {
+                size += LIST_OVERHEAD + (long) values.size() * REFERENCE_SIZE;
+                for (Object value : values) {
+                    size += estimateValue(value);
+                }
+            }
+        }
+
+        return size;
+    }
+
+    private static long estimateValue(Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof String) {
+            return estimateString((String) value);
+        } else if (value instanceof Calendar) {
+            return CALENDAR_SIZE;
+        } else if (value instanceof Boolean) {
+            return BOOLEAN_SIZE;
+        } else if (value instanceof Number) {
+            return NUMBER_SIZE;
+        }
+
+        return OBJECT_OVERHEAD;
+    }
+
+    private static long estimateAcl(Acl acl) {
+        if (acl == null) {
+            return 0;
+        }
+
+        long size = OBJECT_OVERHEAD;
+
+        List<Ace> aces = acl.getAces();
+        if (aces != null) {
+            size += LIST_OVERHEAD + (long) aces.size() * REFERENCE_SIZE;
+            for (Ace ace : aces) {
+                if (ace == null) {
+                    continue;
+                }
+
+                // ACE and principal objects
+                size += 2 * OBJECT_OVERHEAD;
+                size += estimateString(ace.getPrincipalId());
+
+                List<String> permissions = ace.getPermissions();
+                if (permissions != null) {
+                    size += LIST_OVERHEAD + (long) permissions.size() * REFERENCE_SIZE;
+                    for (String permission : permissions) {
+                        size += estimateString(permission);
+                    }
+                }
+            }
+        }
+
+        return size;
+    }
+
+    private static long estimateRenditions(List<Rendition> renditions) {
+        if (renditions == null) {
+            return 0;
+        }
+
+        long size = LIST_OVERHEAD + (long) renditions.size() * REFERENCE_SIZE;
+
+        for (Rendition rendition : renditions) {
+            if (rendition == null) {
+                continue;
+            }
+
+            size += RENDITION_OVERHEAD;
+            size += estimateString(rendition.getStreamId());
+            size += estimateString(rendition.getMimeType());
+            size += estimateString(rendition.getKind());
+            size += estimateString(rendition.getTitle());
+            size += estimateString(rendition.getRenditionDocumentId());
+        }
+
+        return size;
+    }
+
+    private static long estimateAllowableActions(AllowableActions allowableActions) {
+        if (allowableActions == null || allowableActions.getAllowableActions() == null) {
+            return 0;
+        }
+
+        return OBJECT_OVERHEAD + LIST_OVERHEAD + (long) allowableActions.getAllowableActions().size()
+                * SET_ENTRY_SIZE;
+    }
+
+    private static long estimateString(String s) {
+        if (s == null) {
+            return 0;
+        }
+
+        return STRING_OVERHEAD + 2L * s.length();
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime.cache;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.apache.chemistry.opencmis.client.api.ObjectType;
+import org.apache.chemistry.opencmis.client.bindings.cache.impl.BatchEvictor;
+import org.apache.chemistry.opencmis.client.bindings.cache.impl.CacheStatisticsCollector;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
+
+/**
+ * Bounded, thread-safe cache for object types.
+ * <p>
+ * Lookups don't block each other. If several threads miss the same type at
+ * the same time, only one of them calls the loader and the others wait for
+ * its result. The cache works in an approximate LRU mode: if the size is
+ * exceeded, the least recently used types are evicted in a batch.
+ */
+public class ObjectTypeCache {
+
+    /**
+     * Loads an object type that is not in the cache.
+     */
+    public interface Loader {
+        ObjectType load(String typeId);
+    }
+
+    private final int maxEntries;
+    private final ConcurrentMap<String, Entry> typeMap = new ConcurrentHashMap<String, Entry>();
+    private final ConcurrentMap<String, FutureTask<ObjectType>> pendingLoads =
+            new ConcurrentHashMap<String, FutureTask<ObjectType>>();
+    private final Evictor evictor = new Evictor();
+    private final CacheStatisticsCollector statistics = new CacheStatisticsCollector("Object Type Cache");
+
+    /**
+     * Constructor.
+     *
+     * @param maxEntries
+     *            the maximum number of object types in the cache
+     */
+    public ObjectTypeCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the object type with the given ID or {@code null} if it is not
+     * in the cache.
+     */
+    public ObjectType get(String typeId) {
+        if (typeId == null) {
+            return null;
+        }
+
+        Entry entry = typeMap.get(typeId);
+        if (entry == null) {
+            return null;
+        }
+
+        entry.lastAccess = System.nanoTime();
+        return entry.type;
+    }
+
+    /**
+     * Returns the object type with the given ID. If the type is not in the
+     * cache, it is loaded with the provided loader and added to the cache.
+     * Concurrent calls for the same type share one loader call.
+     */
+    public ObjectType get(final String typeId, final Loader loader) {
+        ObjectType result = get(typeId);
+        statistics.recordLookup(result);
+        if (result != null) {
+            return result;
+        }
+
+        Load load = new Load(typeId, loader);
+        FutureTask<ObjectType> task = new FutureTask<ObjectType>(load);
+        load.task = task;
+
+        FutureTask<ObjectType> pending = pendingLoads.putIfAbsent(typeId, task);
+        if (pending == null) {
+            pending = task;
+            try {
+                task.run();
+            } finally {
+                pendingLoads.remove(typeId, task);
+            }
+        }
+
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CmisRuntimeException("Interrupted while waiting for type '" + typeId + "'!", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CmisRuntimeException("Loading type '" + typeId + "' failed: " + cause, cause);
+        }
+    }
+
+    /**
+     * Adds an object type to the cache.
+     */
+    public void put(ObjectType type) {
+        putEntry(type);
+    }
+
+    private Entry putEntry(ObjectType type) {
+        if (type == null || type.getId() == null || maxEntries <= 0) {
+            return null;
+        }
+
+        Entry entry = new Entry(type);
+        typeMap.put(type.getId(), entry);
+        statistics.recordPut();
+        evictIfNecessary();
+
+        return entry;
+    }
+
+    /**
+     * Removes an object type from the cache. A load of this type that is in
+     * progress doesn't add its result to the cache.
+     */
+    public void remove(String typeId) {
+        if (typeId == null) {
+            return;
+        }
+
+        pendingLoads.remove(typeId);
+        typeMap.remove(typeId);
+    }
+
+    /**
+     * Removes all object types from the cache. Loads that are in progress
+     * don't add their results to the cache.
+     */
+    public void clear() {
+        pendingLoads.clear();
+        typeMap.clear();
+    }
+
+    /**
+     * Returns the number of object types in the cache.
+     */
+    public int size() {
+        return typeMap.size();
+    }
+
+    /**
+     * Returns the statistics of this cache.
+     */
+    public CacheStatistics getStatistics() {
+        return statistics.getStatistics(typeMap.size());
+    }
+
+    /**
+     * Evicts the least recently used types if the cache is too big.
+     */
+    private void evictIfNecessary() {
+        evictor.evictIfNecessary(typeMap);
+    }
+
+    /**
+     * Loads a type and adds it to the cache, unless the load has been
+     * cancelled by {@link ObjectTypeCache#remove(String)} or
+     * {@link ObjectTypeCache#clear()} in the meantime.
+     */
+    private class Load implements Callable<ObjectType> {
+        private final String typeId;
+        private final Loader loader;
+        FutureTask<ObjectType> task;
+
+        Load(String typeId, Loader loader) {
+            this.typeId = typeId;
+            this.loader = loader;
+        }
+
+        @Override
+        public ObjectType call() {
+            ObjectType type = loader.load(typeId);
+
+            Entry entry = putEntry(type);
+            if (entry != null && pendingLoads.get(typeId) != task) {
+                // the type has been removed while it was loaded
+                typeMap.remove(type.getId(), entry);
+            }
+
+            return type;
+        }
+    }
+
+    private class Evictor extends BatchEvictor<Entry> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean isOverLimit(Map<String, Entry> entries, boolean makeRoom) {
+            return entries.size() > (makeRoom ? belowBatch(maxEntries) : maxEntries);
+        }
+
+        @Override
+        protected long getLastAccess(Entry value) {
+            return value.lastAccess;
+        }
+
+        @Override
+        protected void evicted(String key, Entry value) {
+            statistics.recordEviction();
+        }
+    }
+
+    private static class Entry {
+        final ObjectType type;
+        volatile long lastAccess;
+
+        Entry(ObjectType type) {
+            this.type = type;
+            this.lastAccess = System.nanoTime();
+        }
+    }
+}
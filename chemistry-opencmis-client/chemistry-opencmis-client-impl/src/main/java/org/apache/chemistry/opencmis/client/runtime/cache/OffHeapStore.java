@@ -0,0 +1,362 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime.cache;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Byte store that keeps its data outside of the Java heap.
+ * <p>
+ * The data is either held in a direct {@link ByteBuffer} or in a memory-mapped
+ * file. The buffer is used as a ring: new entries are appended after the most
+ * recent entry and, if the space runs out, the oldest entries are overwritten
+ * (FIFO eviction). Only the index lives on the heap.
+ * <p>
+ * Lookups of keys that don't exist don't take the lock. Reading and writing
+ * the buffer is synchronized. {@link #close()} releases the buffer and
+ * deletes the file.
+ */
+public class OffHeapStore implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OffHeapStore.class);
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final File file;
+
+    private final ConcurrentMap<String, Slot> index = new ConcurrentHashMap<String, Slot>();
+    // guarded by this
+    private final ArrayDeque<Slot> slots = new ArrayDeque<Slot>();
+    private int writePosition;
+    private long usedBytes;
+    private boolean closed;
+
+    private long puts;
+    private long evictions;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a store backed by a direct buffer.
+     *
+     * @param capacity
+     *            the capacity in bytes
+     */
+    public OffHeapStore(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive!");
+        }
+
+        this.capacity = capacity;
+        this.buffer = ByteBuffer.allocateDirect(capacity);
+        this.file = null;
+    }
+
+    /**
+     * Creates a store backed by a memory-mapped file. The file is created if
+     * it doesn't exist and its content is discarded. The file is deleted when
+     * the store is closed or, at the latest, when the JVM exits.
+     *
+     * @param file
+     *            the file
+     * @param capacity
+     *            the capacity in bytes
+     *
+     * @throws IOException
+     *             if the file cannot be mapped
+     */
+    public OffHeapStore(File file, int capacity) throws IOException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive!");
+        }
+
+        this.capacity = capacity;
+        this.file = file;
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(capacity);
+            this.buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } finally {
+            raf.close();
+        }
+
+        file.deleteOnExit();
+    }
+
+    /**
+     * Adds or replaces an entry.
+     *
+     * @return {@code true} if the entry has been stored, {@code false} if it
+     *         is bigger than the store or the store has been closed
+     */
+    public synchronized boolean put(String key, byte[] data) {
+        if (closed) {
+            return false;
+        }
+
+        removeInternal(key);
+
+        int length = data.length;
+        if (length > capacity) {
+            return false;
+        }
+
+        int start = writePosition;
+        if (start + length > capacity) {
+            // wrap around and drop everything between the write position and
+            // the end of the buffer
+            while (!slots.isEmpty() && slots.peekFirst().end() > start) {
+                evictFirst();
+            }
+            start = 0;
+        }
+
+        // drop the oldest entries that overlap with the new entry
+        int end = start + length;
+        while (!slots.isEmpty() && slots.peekFirst().offset < end && slots.peekFirst().end() > start) {
+            evictFirst();
+        }
+
+        ByteBuffer dup = buffer.duplicate();
+        dup.position(start);
+        dup.put(data);
+
+        Slot slot = new Slot(key, start, length);
+        slots.addLast(slot);
+        index.put(key, slot);
+        usedBytes += length;
+        writePosition = end;
+        puts++;
+
+        return true;
+    }
+
+    /**
+     * Returns the data of an entry.
+     *
+     * @return the data or {@code null} if the entry doesn't exist
+     */
+    public byte[] get(String key) {
+        if (!index.containsKey(key)) {
+            misses.increment();
+            return null;
+        }
+
+        synchronized (this) {
+            // the entry might have been overwritten in the meantime
+            Slot slot = index.get(key);
+            if (slot == null || closed) {
+                misses.increment();
+                return null;
+            }
+
+            byte[] data = new byte[slot.length];
+            ByteBuffer dup = buffer.duplicate();
+            dup.position(slot.offset);
+            dup.get(data);
+
+            hits.increment();
+
+            return data;
+        }
+    }
+
+    /**
+     * Returns whether an entry exists.
+     */
+    public boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * Removes an entry.
+     */
+    public synchronized void remove(String key) {
+        removeInternal(key);
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void clear() {
+        index.clear();
+        slots.clear();
+        writePosition = 0;
+        usedBytes = 0;
+    }
+
+    /**
+     * Removes all entries, releases the buffer and deletes the file. The
+     * store is empty afterwards and doesn't accept new entries.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+
+        clear();
+        closed = true;
+
+        release(buffer);
+
+        if (file != null && file.exists() && !file.delete()) {
+            LOG.debug("Cannot delete cache file {}", file);
+        }
+    }
+
+    /**
+     * Returns the capacity in bytes.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of entries.
+     */
+    public int getEntryCount() {
+        return index.size();
+    }
+
+    /**
+     * Returns the number of bytes used by the entries.
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Returns the number of stored entries.
+     */
+    public synchronized long getPutCount() {
+        return puts;
+    }
+
+    /**
+     * Returns the number of successful lookups.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of failed lookups.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries that have been overwritten by newer
+     * entries.
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    private void removeInternal(String key) {
+        Slot slot = index.remove(key);
+        if (slot != null) {
+            // the space is reclaimed when the ring comes around
+            slot.removed = true;
+            usedBytes -= slot.length;
+        }
+    }
+
+    private void evictFirst() {
+        Slot slot = slots.removeFirst();
+        if (!slot.removed) {
+            index.remove(slot.key);
+            usedBytes -= slot.length;
+            evictions++;
+        }
+    }
+
+    /**
+     * Unmaps a mapped file or frees the memory of a direct buffer right away
+     * instead of waiting for the garbage collector. The buffer must not be
+     * used afterwards.
+     */
+    private static void release(ByteBuffer buffer) {
+        if (!buffer.isDirect()) {
+            return;
+        }
+
+        try {
+            // Java 9 and later
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            return;
+        } catch (NoSuchMethodException e) {
+            // Java 8, see below
+        } catch (Exception e) {
+            LOG.debug("Cannot release buffer: {}", e.toString(), e);
+            return;
+        }
+
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                Method clean = cleaner.getClass().getMethod("clean");
+                clean.setAccessible(true);
+                clean.invoke(cleaner);
+            }
+        } catch (Exception e) {
+            LOG.debug("Cannot release buffer: {}", e.toString(), e);
+        }
+    }
+
+    private static class Slot {
+        final String key;
+        final int offset;
+        final int length;
+        boolean removed;
+
+        Slot(String key, int offset, int length) {
+            this.key = key;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        int end() {
+            return offset + length;
+        }
+    }
+}
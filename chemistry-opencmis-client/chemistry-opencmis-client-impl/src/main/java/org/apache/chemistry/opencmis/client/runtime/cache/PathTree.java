@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime.cache;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe map from paths to values that keeps the paths sorted, so that
+ * all paths of a folder subtree can be found without scanning the whole map.
+ * <p>
+ * Unlike {@link ConcurrentSkipListMap#size()}, {@link #size()} is cheap
+ * because it is called on every put. The entry set is read-only.
+ */
+public class PathTree<V> extends AbstractMap<String, V> implements ConcurrentMap<String, V>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ConcurrentSkipListMap<String, V> map = new ConcurrentSkipListMap<String, V>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    @Override
+    public V get(Object path) {
+        return map.get(path);
+    }
+
+    @Override
+    public boolean containsKey(Object path) {
+        return map.containsKey(path);
+    }
+
+    @Override
+    public V put(String path, V value) {
+        V result = map.put(path, value);
+        if (result == null) {
+            size.incrementAndGet();
+        }
+        return result;
+    }
+
+    @Override
+    public V putIfAbsent(String path, V value) {
+        V result = map.putIfAbsent(path, value);
+        if (result == null) {
+            size.incrementAndGet();
+        }
+        return result;
+    }
+
+    @Override
+    public V remove(Object path) {
+        V result = map.remove(path);
+        if (result != null) {
+            size.decrementAndGet();
+        }
+        return result;
+    }
+
+    @Override
+    public boolean remove(Object path, Object value) {
+        if (map.remove(path, value)) {
+            size.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean replace(String path, V oldValue, V newValue) {
+        return map.replace(path, oldValue, newValue);
+    }
+
+    @Override
+    public V replace(String path, V value) {
+        return map.replace(path, value);
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public void clear() {
+        for (String path : map.keySet()) {
+            remove(path);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        return Collections.unmodifiableSet(map.entrySet());
+    }
+
+    /**
+     * Removes the given path and all paths below it.
+     * 
+     * @return the removed values
+     */
+    public List<V> removeTree(String path) {
+        List<V> result = new ArrayList<V>();
+
+        V value = remove(path);
+        if (value != null) {
+            result.add(value);
+        }
+
+        for (Map.Entry<String, V> entry : getDescendants(map, path).entrySet()) {
+            if (remove(entry.getKey(), entry.getValue())) {
+                result.add(entry.getValue());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the part of a sorted map that contains the paths below the given
+     * folder path, but not the folder path itself.
+     */
+    public static <T> NavigableMap<String, T> getDescendants(NavigableMap<String, T> sortedMap, String path) {
+        String prefix = getDescendantPrefix(path);
+        return sortedMap.subMap(prefix, true, getDescendantEnd(prefix), false);
+    }
+
+    /**
+     * Returns the part of a sorted set that contains the paths below the given
+     * folder path, but not the folder path itself.
+     */
+    public static NavigableSet<String> getDescendants(NavigableSet<String> sortedSet, String path) {
+        String prefix = getDescendantPrefix(path);
+        return sortedSet.subSet(prefix, true, getDescendantEnd(prefix), false);
+    }
+
+    private static String getDescendantPrefix(String path) {
+        return path.endsWith("/") ? path : path + "/";
+    }
+
+    private static String getDescendantEnd(String prefix) {
+        // '0' is the character after '/'
+        return prefix.substring(0, prefix.length() - 1) + '0';
+    }
+}
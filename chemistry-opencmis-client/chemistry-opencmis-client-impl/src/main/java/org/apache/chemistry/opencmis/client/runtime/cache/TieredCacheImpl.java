@@ -0,0 +1,356 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.client.bindings.cache.impl.CacheStatisticsImpl;
+import org.apache.chemistry.opencmis.client.runtime.ObjectDataSnapshot;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.apache.chemistry.opencmis.commons.SessionParameterDefaults;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Two-tier cache implementation.
+ * <p>
+ * The first tier is a {@link WeightedCacheImpl}. Objects that are evicted
+ * from the first tier are converted into {@link ObjectDataSnapshot}s,
+ * serialized and moved into an {@link OffHeapStore}. If an object is not
+ * found in the first tier, the second tier is checked and the object is
+ * rebuilt with the {@link org.apache.chemistry.opencmis.client.api.ObjectFactory}
+ * of the session instead of fetching it from the repository.
+ * <p>
+ * The size of the second tier is set with
+ * {@link SessionParameter#CACHE_OFFHEAP_SIZE}. If
+ * {@link SessionParameter#CACHE_OFFHEAP_FILE} is set, the second tier is a
+ * memory-mapped file, otherwise a direct buffer. The second tier is not
+ * serialized with this cache. Objects keep their creation time while they move
+ * between the tiers, so the time-to-live applies to both tiers together.
+ * {@link #close()} releases the second tier.
+ * <p>
+ * An evicted object is removed from the first tier and written to the second
+ * tier while a lock for its object ID is held. {@link #put(CmisObject, String)}
+ * and {@link #remove(String)} update both tiers, and a restore moves an object
+ * from the second tier back into the first tier, under the same lock. A
+ * concurrent put or remove therefore cannot be overtaken by an outdated copy.
+ */
+public class TieredCacheImpl extends WeightedCacheImpl implements Closeable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOG = LoggerFactory.getLogger(TieredCacheImpl.class);
+
+    private static final int LOCK_STRIPES = 64;
+
+    private transient Session session;
+    private transient OffHeapStore store;
+    private transient Object[] locks;
+
+    /**
+     * Default constructor.
+     */
+    public TieredCacheImpl() {
+    }
+
+    @Override
+    public void initialize(Session session, Map<String, String> parameters) {
+        super.initialize(session, parameters);
+
+        this.session = session;
+
+        locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+
+        int size;
+        try {
+            size = Integer.valueOf(parameters.get(SessionParameter.CACHE_OFFHEAP_SIZE));
+            if (size < 0) {
+                size = 0;
+            }
+        } catch (Exception e) {
+            size = SessionParameterDefaults.CACHE_OFFHEAP_SIZE;
+        }
+
+        if (size == 0) {
+            store = null;
+            return;
+        }
+
+        String filename = parameters.get(SessionParameter.CACHE_OFFHEAP_FILE);
+        if (filename == null || filename.trim().length() == 0) {
+            store = new OffHeapStore(size);
+        } else {
+            try {
+                store = new OffHeapStore(new File(filename.trim()), size);
+            } catch (IOException e) {
+                throw new CmisRuntimeException("Cannot map cache file " + filename + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the second tier or {@code null} if there is no second tier.
+     */
+    public OffHeapStore getOffHeapStore() {
+        return store;
+    }
+
+    @Override
+    public boolean containsId(String objectId, String cacheKey) {
+        if (super.containsId(objectId, cacheKey)) {
+            return true;
+        }
+
+        OffHeapStore s = store;
+        if (s == null || objectId == null || cacheKey == null || !s.contains(objectId)) {
+            return false;
+        }
+
+        // the second tier may only hold the object for other cache keys
+        StoredObject stored = read(s, objectId);
+        return stored != null && stored.snapshots.containsKey(cacheKey);
+    }
+
+    @Override
+    public CmisObject getById(String objectId, String cacheKey) {
+        CmisObject result = super.getById(objectId, cacheKey);
+        if (result != null || objectId == null || cacheKey == null) {
+            return result;
+        }
+
+        return restore(objectId, cacheKey);
+    }
+
+    @Override
+    public void put(CmisObject object, String cacheKey) {
+        OffHeapStore s = store;
+        if (s == null || object == null || object.getId() == null || cacheKey == null) {
+            super.put(object, cacheKey);
+            return;
+        }
+
+        // drop the outdated copy, after an eviction or a restore of this
+        // object that is in progress
+        boolean added;
+        synchronized (getEvictionLock(object.getId())) {
+            s.remove(object.getId());
+            added = add(object, cacheKey, System.currentTimeMillis());
+        }
+
+        if (added) {
+            evictIfNecessary();
+        }
+    }
+
+    @Override
+    public void remove(String objectId) {
+        OffHeapStore s = store;
+        if (s == null || objectId == null) {
+            super.remove(objectId);
+            return;
+        }
+
+        synchronized (getEvictionLock(objectId)) {
+            super.remove(objectId);
+            s.remove(objectId);
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+
+        OffHeapStore s = store;
+        if (s != null) {
+            s.clear();
+        }
+    }
+
+    /**
+     * Releases the second tier. The first tier remains usable.
+     */
+    @Override
+    public void close() {
+        OffHeapStore s = store;
+        store = null;
+        if (s != null) {
+            s.close();
+        }
+    }
+
+    @Override
+    public List<CacheStatistics> getCacheStatistics() {
+        List<CacheStatistics> result = super.getCacheStatistics();
+
+        OffHeapStore s = store;
+        if (s != null) {
+            result.add(new CacheStatisticsImpl("Off-Heap Object Cache", s.getHitCount(), s.getMissCount(),
+                    s.getPutCount(), s.getEvictionCount(), 0, s.getEntryCount()));
+        }
+
+        return result;
+    }
+
+    @Override
+    protected Object getEvictionLock(String objectId) {
+        Object[] l = locks;
+        if (l == null) {
+            return null;
+        }
+
+        return l[(objectId.hashCode() & 0x7fffffff) % l.length];
+    }
+
+    @Override
+    protected void evicted(String objectId, Map<String, CmisObject> objects, long timestamp) {
+        OffHeapStore s = store;
+        if (s == null) {
+            return;
+        }
+
+        HashMap<String, ObjectDataSnapshot> snapshots = new HashMap<String, ObjectDataSnapshot>();
+        for (Map.Entry<String, CmisObject> entry : objects.entrySet()) {
+            ObjectDataSnapshot snapshot = ObjectDataSnapshot.create(entry.getValue());
+            if (snapshot != null) {
+                snapshots.put(entry.getKey(), snapshot);
+            }
+        }
+
+        if (snapshots.isEmpty()) {
+            return;
+        }
+
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(4 * 1024);
+            ObjectOutputStream oos = new ObjectOutputStream(bos);
+            oos.writeLong(timestamp);
+            oos.writeObject(snapshots);
+            oos.close();
+
+            s.put(objectId, bos.toByteArray());
+        } catch (IOException e) {
+            LOG.debug("Cannot serialize object {}: {}", objectId, e.toString(), e);
+        }
+    }
+
+    /**
+     * Moves an object from the second tier back into the first tier.
+     */
+    private CmisObject restore(String objectId, String cacheKey) {
+        OffHeapStore s = store;
+        if (s == null || session == null || !s.contains(objectId)) {
+            return null;
+        }
+
+        CmisObject result = null;
+        boolean added = false;
+
+        synchronized (getEvictionLock(objectId)) {
+            // read again, a concurrent put, remove or restore may have
+            // removed the copy
+            StoredObject stored = read(s, objectId);
+            if (stored == null) {
+                // gone, unreadable or expired
+                s.remove(objectId);
+                return null;
+            }
+
+            if (!stored.snapshots.containsKey(cacheKey)) {
+                return null;
+            }
+
+            s.remove(objectId);
+
+            for (Map.Entry<String, ObjectDataSnapshot> entry : stored.snapshots.entrySet()) {
+                CmisObject object = entry.getValue().restore(session);
+                added |= add(object, entry.getKey(), stored.timestamp);
+
+                if (entry.getKey().equals(cacheKey)) {
+                    result = object;
+                }
+            }
+        }
+
+        if (added) {
+            evictIfNecessary();
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads an object from the second tier.
+     *
+     * @return the object or {@code null} if the object is not in the second
+     *         tier, cannot be read or has expired
+     */
+    private StoredObject read(OffHeapStore s, String objectId) {
+        byte[] data = s.get(objectId);
+        if (data == null) {
+            return null;
+        }
+
+        StoredObject result = new StoredObject();
+        try {
+            ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data));
+            try {
+                result.timestamp = ois.readLong();
+                @SuppressWarnings("unchecked")
+                Map<String, ObjectDataSnapshot> m = (Map<String, ObjectDataSnapshot>) ois.readObject();
+                result.snapshots = m;
+            } finally {
+                ois.close();
+            }
+        } catch (Exception e) {
+            LOG.debug("Cannot deserialize object {}: {}", objectId, e.toString(), e);
+            return null;
+        }
+
+        if (result.timestamp + getCacheTtl() < System.currentTimeMillis()) {
+            // expired in the second tier
+            return null;
+        }
+
+        return result;
+    }
+
+    /**
+     * The snapshots of an object and their creation time.
+     */
+    private static class StoredObject {
+        long timestamp;
+        Map<String, ObjectDataSnapshot> snapshots;
+    }
+}
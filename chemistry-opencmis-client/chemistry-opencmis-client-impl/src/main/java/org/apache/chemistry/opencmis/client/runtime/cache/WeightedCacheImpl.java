@@ -0,0 +1,694 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.client.bindings.cache.CacheStatisticsProvider;
+import org.apache.chemistry.opencmis.client.bindings.cache.impl.BatchEvictor;
+import org.apache.chemistry.opencmis.client.bindings.cache.impl.CacheStatisticsCollector;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.apache.chemistry.opencmis.commons.SessionParameterDefaults;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
+
+/**
+ * Memory-bounded cache implementation.
+ * <p>
+ * This cache holds strong references to the cached objects and evicts the
+ * least recently used entries when either the number of entries exceeds
+ * {@link SessionParameter#CACHE_SIZE_OBJECTS} or the estimated size of all
+ * cached objects exceeds {@link SessionParameter#CACHE_MEMORY_OBJECTS}. The
+ * size of an object is estimated with {@link ObjectSizeEstimator} when it is
+ * added to the cache.
+ * <p>
+ * Like {@link ConcurrentCacheImpl}, lookups don't block each other. This cache
+ * can be selected with the session parameter {@link SessionParameter#CACHE_CLASS}.
+ */
+public class WeightedCacheImpl implements ExtendedCache, CacheStatisticsProvider {
+
+    private static final long serialVersionUID = 1L;
+
+    private int cacheSize;
+    private long cacheMemory;
+    private int cacheTtl;
+    private int pathToIdSize;
+    private int pathToIdTtl;
+
+    private volatile State state;
+
+    private final CacheStatisticsCollector objectStatistics = new CacheStatisticsCollector("Object Cache");
+    private final CacheStatisticsCollector pathStatistics = new CacheStatisticsCollector("Path Cache");
+
+    /**
+     * Default constructor.
+     */
+    public WeightedCacheImpl() {
+    }
+
+    @Override
+    public void initialize(Session session, Map<String, String> parameters) {
+        assert parameters != null;
+
+        // cache size
+        try {
+            cacheSize = Integer.valueOf(parameters.get(SessionParameter.CACHE_SIZE_OBJECTS));
+            if (cacheSize < 0) {
+                cacheSize = 0;
+            }
+        } catch (Exception e) {
+            cacheSize = SessionParameterDefaults.CACHE_SIZE_OBJECTS;
+        }
+
+        // cache memory
+        try {
+            cacheMemory = Long.valueOf(parameters.get(SessionParameter.CACHE_MEMORY_OBJECTS));
+            if (cacheMemory < 0) {
+                cacheMemory = 0;
+            }
+        } catch (Exception e) {
+            cacheMemory = SessionParameterDefaults.CACHE_MEMORY_OBJECTS;
+        }
+
+        // cache time-to-live
+        try {
+            cacheTtl = Integer.valueOf(parameters.get(SessionParameter.CACHE_TTL_OBJECTS));
+            if (cacheTtl < 0) {
+                cacheTtl = SessionParameterDefaults.CACHE_TTL_OBJECTS;
+            }
+        } catch (Exception e) {
+            cacheTtl = SessionParameterDefaults.CACHE_TTL_OBJECTS;
+        }
+
+        // path-to-id size
+        try {
+            pathToIdSize = Integer.valueOf(parameters.get(SessionParameter.CACHE_SIZE_PATHTOID));
+            if (pathToIdSize < 0) {
+                pathToIdSize = 0;
+            }
+        } catch (Exception e) {
+            pathToIdSize = SessionParameterDefaults.CACHE_SIZE_PATHTOID;
+        }
+
+        // path-to-id time-to-live
+        try {
+            pathToIdTtl = Integer.valueOf(parameters.get(SessionParameter.CACHE_TTL_PATHTOID));
+            if (pathToIdTtl < 0) {
+                pathToIdTtl = SessionParameterDefaults.CACHE_TTL_PATHTOID;
+            }
+        } catch (Exception e) {
+            pathToIdTtl = SessionParameterDefaults.CACHE_TTL_PATHTOID;
+        }
+
+        state = new State(this);
+    }
+
+    @Override
+    public void clear() {
+        state = new State(this);
+    }
+
+    @Override
+    public boolean containsId(String objectId, String cacheKey) {
+        return getObjectItem(state, objectId) != null;
+    }
+
+    @Override
+    public boolean containsPath(String path, String cacheKey) {
+        State s = state;
+
+        String objectId = getObjectIdByPath(s, path);
+        if (objectId == null) {
+            return false;
+        }
+
+        if (!containsId(objectId, cacheKey)) {
+            s.pathToIdMap.remove(path);
+            return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public CmisObject getById(String objectId, String cacheKey) {
+        if (cacheKey == null) {
+            return null;
+        }
+
+        CmisObject result = null;
+
+        ObjectItem item = getObjectItem(state, objectId);
+        if (item != null) {
+            WeightedObject wo = item.objects.get(cacheKey);
+            result = wo == null ? null : wo.object;
+        }
+
+        objectStatistics.recordLookup(result);
+
+        return result;
+    }
+
+    @Override
+    public CmisObject getByPath(String path, String cacheKey) {
+        String objectId = getObjectIdByPath(state, path);
+        if (objectId == null) {
+            return null;
+        }
+
+        return getById(objectId, cacheKey);
+    }
+
+    @Override
+    public String getObjectIdByPath(String path) {
+        return getObjectIdByPath(state, path);
+    }
+
+    @Override
+    public void put(CmisObject object, String cacheKey) {
+        put(object, cacheKey, System.currentTimeMillis());
+    }
+
+    /**
+     * Adds an object that has been fetched at the given time. The object
+     * expires when the time-to-live has passed since then. If the object is
+     * already cached, it shares the creation time of the cached entry.
+     *
+     * @param object
+     *            the object
+     * @param cacheKey
+     *            the cache key
+     * @param timestamp
+     *            the creation time in milliseconds
+     */
+    protected void put(CmisObject object, String cacheKey, long timestamp) {
+        if (add(object, cacheKey, timestamp)) {
+            evictIfNecessary();
+        }
+    }
+
+    /**
+     * Adds an object like {@link #put(CmisObject, String, long)} but doesn't
+     * evict other objects. A subclass that adds objects while it holds an
+     * eviction lock calls {@link #evictIfNecessary()} after it has released
+     * the lock, because evictions take the eviction locks of other objects.
+     *
+     * @param object
+     *            the object
+     * @param cacheKey
+     *            the cache key
+     * @param timestamp
+     *            the creation time in milliseconds
+     *
+     * @return {@code true} if the object has been added
+     */
+    protected boolean add(CmisObject object, String cacheKey, long timestamp) {
+        // no object, no cache key - no cache
+        if ((object == null) || (cacheKey == null)) {
+            return false;
+        }
+
+        if (timestamp + cacheTtl < System.currentTimeMillis()) {
+            // expired already
+            return false;
+        }
+
+        // no id - no cache
+        String objectId = object.getId();
+        if (objectId == null) {
+            return false;
+        }
+
+        State s = state;
+
+        WeightedObject wo = new WeightedObject(object, estimateSize(object));
+
+        while (true) {
+            ObjectItem item = s.objectMap.get(objectId);
+
+            if (item == null || item.isExpired()) {
+                ObjectItem newItem = new ObjectItem(timestamp, cacheTtl);
+
+                boolean added;
+                if (item == null) {
+                    added = s.objectMap.putIfAbsent(objectId, newItem) == null;
+                } else {
+                    added = s.objectMap.replace(objectId, item, newItem);
+                    if (added) {
+                        release(s, item);
+                    }
+                }
+
+                if (!added) {
+                    // another thread has been faster - try again
+                    continue;
+                }
+
+                item = newItem;
+            }
+
+            if (item.add(s, cacheKey, wo)) {
+                objectStatistics.recordPut();
+                break;
+            }
+        }
+
+        // folders may have a path, use it!
+        String path = object.getPropertyValue(PropertyIds.PATH);
+        if (path != null) {
+            putPathToId(s, path, objectId);
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes expired and least recently used objects if the cache exceeds
+     * one of its limits.
+     */
+    protected void evictIfNecessary() {
+        State s = state;
+        s.objectEvictor.evictIfNecessary(s.objectMap);
+    }
+
+    @Override
+    public void putPath(String path, CmisObject object, String cacheKey) {
+        if (path == null) {
+            return;
+        }
+
+        put(object, cacheKey);
+
+        if ((object != null) && (object.getId() != null) && (cacheKey != null)) {
+            putPathToId(state, path, object.getId());
+        }
+    }
+
+    @Override
+    public void remove(String objectId) {
+        if (objectId == null) {
+            return;
+        }
+
+        State s = state;
+
+        ObjectItem item = s.objectMap.remove(objectId);
+        if (item != null) {
+            release(s, item);
+        }
+    }
+
+    @Override
+    public void removePath(String path) {
+        if (path == null) {
+            return;
+        }
+
+        state.pathToIdMap.remove(path);
+    }
+
+    @Override
+    public void removePathTree(String path) {
+        if (path == null) {
+            return;
+        }
+
+        for (PathItem item : state.pathToIdMap.removeTree(path)) {
+            remove(item.objectId);
+        }
+    }
+
+    /**
+     * Returns the time-to-live of the objects in milliseconds.
+     */
+    public int getCacheTtl() {
+        return cacheTtl;
+    }
+
+    @Override
+    public int getCacheSize() {
+        return this.cacheSize;
+    }
+
+    /**
+     * Returns the configured memory limit of the object cache in bytes.
+     */
+    public long getCacheMemory() {
+        return cacheMemory;
+    }
+
+    /**
+     * Returns the current number of cached object entries.
+     */
+    public int getEntryCount() {
+        return state.objectMap.size();
+    }
+
+    /**
+     * Returns the estimated size of all cached objects in bytes.
+     */
+    public long getMemoryUsage() {
+        return state.memory.get();
+    }
+
+    @Override
+    public List<CacheStatistics> getCacheStatistics() {
+        State s = state;
+
+        List<CacheStatistics> result = new ArrayList<CacheStatistics>(2);
+        result.add(objectStatistics.getStatistics(s.objectMap.size()));
+        result.add(pathStatistics.getStatistics(s.pathToIdMap.size()));
+        return result;
+    }
+
+    /**
+     * Estimates the size of an object in bytes.
+     */
+    protected long estimateSize(CmisObject object) {
+        return ObjectSizeEstimator.estimate(object);
+    }
+
+    /**
+     * Called after the least recently used entry of an object has been
+     * evicted because a limit was exceeded. Expired and explicitly removed
+     * entries are not reported. The default implementation does nothing.
+     *
+     * @param objectId
+     *            the object ID
+     * @param objects
+     *            the evicted objects by cache key
+     * @param timestamp
+     *            the creation time of the entry in milliseconds
+     */
+    protected void evicted(String objectId, Map<String, CmisObject> objects, long timestamp) {
+    }
+
+    /**
+     * Returns the lock that is held while the least recently used entry of an
+     * object is removed and {@link #evicted(String, Map, long)} is called, or
+     * {@code null} if no lock is needed. The default implementation returns
+     * {@code null}.
+     *
+     * @param objectId
+     *            the object ID
+     */
+    protected Object getEvictionLock(String objectId) {
+        return null;
+    }
+
+    private ObjectItem getObjectItem(State s, String objectId) {
+        if (objectId == null) {
+            return null;
+        }
+
+        ObjectItem item = s.objectMap.get(objectId);
+        if (item == null) {
+            return null;
+        }
+
+        if (item.isExpired()) {
+            if (s.objectMap.remove(objectId, item)) {
+                release(s, item);
+                objectStatistics.recordExpiration();
+            }
+            return null;
+        }
+
+        item.touch();
+
+        return item;
+    }
+
+    private String getObjectIdByPath(State s, String path) {
+        if (path == null) {
+            return null;
+        }
+
+        PathItem item = s.pathToIdMap.get(path);
+        if (item == null) {
+            pathStatistics.recordMiss();
+            return null;
+        }
+
+        if (item.isExpired()) {
+            if (s.pathToIdMap.remove(path, item)) {
+                pathStatistics.recordExpiration();
+            }
+            pathStatistics.recordMiss();
+            return null;
+        }
+
+        item.touch();
+        pathStatistics.recordHit();
+
+        return item.objectId;
+    }
+
+    private void putPathToId(State s, String path, String objectId) {
+        s.pathToIdMap.put(path, new PathItem(objectId, pathToIdTtl));
+        pathStatistics.recordPut();
+
+        s.pathEvictor.evictIfNecessary(s.pathToIdMap);
+    }
+
+    private static void release(State s, ObjectItem item) {
+        synchronized (item) {
+            if (!item.removed) {
+                item.removed = true;
+                s.memory.addAndGet(-item.weight);
+            }
+        }
+    }
+
+    /**
+     * Removes expired entries and, if one of the limits is still exceeded,
+     * the least recently used entries.
+     */
+    private class ObjectEvictor extends BatchEvictor<ObjectItem> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final State s;
+
+        ObjectEvictor(State s) {
+            this.s = s;
+        }
+
+        @Override
+        protected boolean isOverLimit(Map<String, ObjectItem> map, boolean makeRoom) {
+            if (makeRoom) {
+                return map.size() > belowBatch(cacheSize) || s.memory.get() > belowBatch(cacheMemory);
+            }
+            return map.size() > cacheSize || s.memory.get() > cacheMemory;
+        }
+
+        @Override
+        protected long getLastAccess(ObjectItem item) {
+            return item.lastAccess;
+        }
+
+        @Override
+        protected boolean isExpired(ObjectItem item) {
+            return item.isExpired();
+        }
+
+        @Override
+        protected void expired(String key, ObjectItem item) {
+            release(s, item);
+            objectStatistics.recordExpiration();
+        }
+
+        @Override
+        protected boolean evict(ConcurrentMap<String, ObjectItem> map, String key, ObjectItem item) {
+            Object lock = getEvictionLock(key);
+            if (lock == null) {
+                return super.evict(map, key, item);
+            }
+
+            synchronized (lock) {
+                return super.evict(map, key, item);
+            }
+        }
+
+        @Override
+        protected void evicted(String key, ObjectItem item) {
+            release(s, item);
+            objectStatistics.recordEviction();
+            WeightedCacheImpl.this.evicted(key, item.getObjects(), item.timestamp);
+        }
+    }
+
+    /**
+     * Removes expired and least recently used paths.
+     */
+    private class PathEvictor extends BatchEvictor<PathItem> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean isOverLimit(Map<String, PathItem> map, boolean makeRoom) {
+            return map.size() > (makeRoom ? belowBatch(pathToIdSize) : pathToIdSize);
+        }
+
+        @Override
+        protected long getLastAccess(PathItem item) {
+            return item.lastAccess;
+        }
+
+        @Override
+        protected boolean isExpired(PathItem item) {
+            return item.isExpired();
+        }
+
+        @Override
+        protected void expired(String key, PathItem item) {
+            pathStatistics.recordExpiration();
+        }
+
+        @Override
+        protected void evicted(String key, PathItem item) {
+            pathStatistics.recordEviction();
+        }
+    }
+
+    // --- internal state ---
+
+    /**
+     * Maps, memory counter and evictors. A new state is created when the
+     * cache is cleared.
+     */
+    private static class State implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        final ConcurrentMap<String, ObjectItem> objectMap = new ConcurrentHashMap<String, ObjectItem>();
+        final PathTree<PathItem> pathToIdMap = new PathTree<PathItem>();
+        final AtomicLong memory = new AtomicLong();
+        final BatchEvictor<ObjectItem> objectEvictor;
+        final BatchEvictor<PathItem> pathEvictor;
+
+        public State(WeightedCacheImpl cache) {
+            objectEvictor = cache.new ObjectEvictor(this);
+            pathEvictor = cache.new PathEvictor();
+        }
+    }
+
+    private static class WeightedObject implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        final CmisObject object;
+        final long weight;
+
+        public WeightedObject(CmisObject object, long weight) {
+            this.object = object;
+            this.weight = weight;
+        }
+    }
+
+    private static class ObjectItem implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        final ConcurrentMap<String, WeightedObject> objects = new ConcurrentHashMap<String, WeightedObject>();
+        final long timestamp;
+        final int ttl;
+        transient volatile long lastAccess;
+
+        // guarded by this
+        long weight;
+        boolean removed;
+
+        public ObjectItem(long timestamp, int ttl) {
+            this.timestamp = timestamp;
+            this.ttl = ttl;
+            this.lastAccess = System.nanoTime();
+        }
+
+        public boolean isExpired() {
+            return timestamp + ttl < System.currentTimeMillis();
+        }
+
+        public void touch() {
+            lastAccess = System.nanoTime();
+        }
+
+        public Map<String, CmisObject> getObjects() {
+            Map<String, CmisObject> result = new HashMap<String, CmisObject>();
+            for (Map.Entry<String, WeightedObject> entry : objects.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().object);
+            }
+            return result;
+        }
+
+        /**
+         * Adds an object and updates the memory counter.
+         *
+         * @return {@code false} if this item has been removed from the cache
+         *         in the meantime
+         */
+        public synchronized boolean add(State s, String cacheKey, WeightedObject wo) {
+            if (removed) {
+                return false;
+            }
+
+            WeightedObject prev = objects.put(cacheKey, wo);
+            long delta = wo.weight - (prev == null ? 0 : prev.weight);
+            weight += delta;
+            s.memory.addAndGet(delta);
+            touch();
+
+            return true;
+        }
+    }
+
+    private static class PathItem implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        final String objectId;
+        final long timestamp;
+        final int ttl;
+        transient volatile long lastAccess;
+
+        public PathItem(String objectId, int ttl) {
+            this.objectId = objectId;
+            this.timestamp = System.currentTimeMillis();
+            this.ttl = ttl;
+            this.lastAccess = System.nanoTime();
+        }
+
+        public boolean isExpired() {
+            return timestamp + ttl < System.currentTimeMillis();
+        }
+
+        public void touch() {
+            lastAccess = System.nanoTime();
+        }
+    }
+}
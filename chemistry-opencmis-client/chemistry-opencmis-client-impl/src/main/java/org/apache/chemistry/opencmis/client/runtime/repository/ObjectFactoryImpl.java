@@ -69,6 +69,7 @@ import org.apache.chemistry.opencmis.commons.PropertyIds;
 import org.apache.chemistry.opencmis.commons.data.Ace;
 import org.apache.chemistry.opencmis.commons.data.Acl;
 import org.apache.chemistry.opencmis.commons.data.ContentStream;
+import org.apache.chemistry.opencmis.commons.data.FileContentStream;
 import org.apache.chemistry.opencmis.commons.data.ObjectData;
 import org.apache.chemistry.opencmis.commons.data.ObjectList;
 import org.apache.chemistry.opencmis.commons.data.Properties;
@@ -232,6 +233,11 @@ public class ObjectFactoryImpl implements ObjectFactory, Serializable {
             return null;
         }
 
+        if (contentStream instanceof FileContentStream && ((FileContentStream) contentStream).getFile() != null) {
+            // the bindings send the file directly
+            return contentStream;
+        }
+
         BigInteger length = (contentStream.getLength() < 0 ? null : BigInteger.valueOf(contentStream.getLength()));
 
         return getBindingsObjectFactory().createContentStream(contentStream.getFileName(), length,
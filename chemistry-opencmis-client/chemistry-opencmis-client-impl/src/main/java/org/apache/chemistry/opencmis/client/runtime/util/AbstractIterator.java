@@ -128,7 +128,7 @@ public abstract class AbstractIterator<T> implements Iterator<T> {
      */
     protected Page<T> getCurrentPage() {
         if (page == null) {
-            page = pageFetcher.fetchPage(skipCount);
+            page = fetchPage(skipCount);
         }
         return page;
     }
@@ -143,8 +143,28 @@ public abstract class AbstractIterator<T> implements Iterator<T> {
         skipOffset = 0;
         totalNumItems = null;
         hasMoreItems = null;
-        page = pageFetcher.fetchPage(skipCount);
+        page = fetchPage(skipCount);
         return page;
     }
 
+    /**
+     * Fetches the page of items that starts at the given skip count.
+     *
+     * @param skipCount
+     *            the skip count of the page
+     * @return the page
+     */
+    protected Page<T> fetchPage(long skipCount) {
+        return pageFetcher.fetchPage(skipCount);
+    }
+
+    /**
+     * Gets the page fetcher
+     *
+     * @return page fetcher
+     */
+    protected AbstractPageFetcher<T> getPageFetcher() {
+        return pageFetcher;
+    }
+
 }
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime.util;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
+
+/**
+ * Shared pool of daemon threads that fetches pages and objects in the
+ * background if the caller doesn't provide an executor.
+ * <p>
+ * The pool has at most {@link #MAX_THREADS} threads. Further tasks wait in a
+ * queue. Code that waits for a task it has submitted to this pool should run
+ * the task itself if it hasn't been started yet (see
+ * {@link java.util.concurrent.FutureTask#run()}), so waiting pool threads
+ * cannot block each other.
+ */
+public final class BackgroundExecutor {
+
+    /** Maximum number of threads of the shared pool. */
+    public static final int MAX_THREADS = 16;
+
+    private static ThreadPoolExecutor defaultExecutor;
+
+    private BackgroundExecutor() {
+    }
+
+    /**
+     * Returns the shared executor.
+     */
+    public static synchronized Executor getDefault() {
+        if (defaultExecutor == null) {
+            final AtomicInteger counter = new AtomicInteger();
+            defaultExecutor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "OpenCMIS Background Fetcher " + counter.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            defaultExecutor.allowCoreThreadTimeOut(true);
+        }
+        return defaultExecutor;
+    }
+
+    /**
+     * Throws the cause of a failed background task if it is unchecked,
+     * otherwise returns a wrapping exception.
+     */
+    public static CmisRuntimeException rethrow(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new CmisRuntimeException("Background task failed: " + cause, cause);
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime.util;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.chemistry.opencmis.client.runtime.util.AbstractPageFetcher.Page;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
+
+/**
+ * Iterator that fetches the pages of one or more partitions concurrently and
+ * returns the items in order.
+ * <p>
+ * Each partition is split into page-sized slots. The slots are fetched by
+ * skip count, so up to {@code concurrency} slots can be fetched at the same
+ * time once the first page of a partition has reported the total number of
+ * items. Without a total number, the slots of a partition are fetched one
+ * after the other. The partitions are processed one after the other.
+ * <p>
+ * At most {@code concurrency} slots are fetched or buffered ahead of the
+ * consumer. {@link #close()} cancels pending fetches.
+ *
+ * @param <T>
+ */
+public class PartitionedIterator<T> implements Iterator<T>, Closeable {
+
+    private final List<AbstractPageFetcher<T>> partitions;
+    private final int concurrency;
+    private final Executor executor;
+    private final Deque<Slot> window = new ArrayDeque<Slot>();
+
+    // slot generation
+    private int partition;
+    private long nextSkipCount;
+    private long totalNumItems = -1;
+    private Slot lastSlot;
+    private volatile boolean closed;
+
+    // consumer
+    private List<T> items;
+    private int index;
+
+    /**
+     * Constructor.
+     *
+     * @param partitions
+     *            the page fetchers of the partitions, the page size of a
+     *            partition is the {@code maxNumItems} value of its fetcher
+     * @param concurrency
+     *            the maximum number of slots that are fetched or buffered
+     * @param executor
+     *            the executor that fetches the slots, or {@code null} to use a
+     *            shared pool of daemon threads
+     */
+    public PartitionedIterator(List<? extends AbstractPageFetcher<T>> partitions, int concurrency,
+            Executor executor) {
+        if (partitions == null) {
+            throw new IllegalArgumentException("Partitions must be set!");
+        }
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be positive!");
+        }
+
+        this.partitions = new ArrayList<AbstractPageFetcher<T>>(partitions);
+        this.concurrency = concurrency;
+        this.executor = (executor == null ? BackgroundExecutor.getDefault() : executor);
+    }
+
+    /**
+     * Returns a sequential stream over the remaining items. Closing the stream
+     * closes this iterator.
+     */
+    public Stream<T> stream() {
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(new Runnable() {
+                    @Override
+                    public void run() {
+                        close();
+                    }
+                });
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+
+        while (items == null || index >= items.size()) {
+            Slot slot = nextSlot();
+            if (slot == null) {
+                close();
+                return false;
+            }
+
+            items = await(slot);
+            index = 0;
+            removeSlot(slot);
+        }
+
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return items.get(index++);
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Stops fetching and cancels all pending fetches.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (Slot slot : window) {
+            slot.cancel(true);
+        }
+        window.clear();
+    }
+
+    /**
+     * Returns the number of slots that are currently fetched or buffered.
+     */
+    public synchronized int getPendingSlots() {
+        return window.size();
+    }
+
+    private synchronized Slot nextSlot() {
+        if (closed) {
+            return null;
+        }
+
+        if (window.isEmpty()) {
+            schedule();
+        }
+
+        // the slot stays in the window until it has been consumed
+        return window.peekFirst();
+    }
+
+    private synchronized void removeSlot(Slot slot) {
+        if (window.peekFirst() == slot) {
+            window.removeFirst();
+        }
+        schedule();
+    }
+
+    /**
+     * Fills the window with slots.
+     */
+    private synchronized void schedule() {
+        while (!closed && window.size() < concurrency && partition < partitions.size()) {
+            if (lastSlot != null && (totalNumItems < 0 || nextSkipCount >= totalNumItems)) {
+                // the last slot decides if there is more
+                if (!lastSlot.isDone()) {
+                    // the last slot schedules the next slot when it's done
+                    return;
+                }
+                if (lastSlot.result == null) {
+                    // failed or cancelled
+                    return;
+                }
+                if (!lastSlot.result.more) {
+                    partition++;
+                    nextSkipCount = 0;
+                    totalNumItems = -1;
+                    lastSlot = null;
+                    continue;
+                }
+            }
+
+            AbstractPageFetcher<T> fetcher = partitions.get(partition);
+            Slot slot = new Slot(partition, fetcher, nextSkipCount);
+            nextSkipCount += Math.max(1, fetcher.maxNumItems);
+            lastSlot = slot;
+            window.addLast(slot);
+
+            try {
+                executor.execute(slot);
+            } catch (RejectedExecutionException e) {
+                slot.run();
+            }
+        }
+    }
+
+    private synchronized void slotDone(Slot slot) {
+        if (slot.result != null && slot.partition == partition && slot.result.totalNumItems >= 0) {
+            totalNumItems = slot.result.totalNumItems;
+        }
+        schedule();
+    }
+
+    private List<T> await(Slot slot) {
+        try {
+            // fetch the slot here if no pool thread has started it yet
+            slot.run();
+            return slot.get().items;
+        } catch (InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            throw new CmisRuntimeException("Interrupted while waiting for the next page!", e);
+        } catch (CancellationException e) {
+            // closed in the meantime
+            return Collections.emptyList();
+        } catch (ExecutionException e) {
+            close();
+            throw BackgroundExecutor.rethrow(e);
+        }
+    }
+
+    /**
+     * The items of a slot.
+     */
+    private static class SlotResult<T> {
+        final List<T> items;
+        final boolean more;
+        final long totalNumItems;
+
+        SlotResult(List<T> items, boolean more, long totalNumItems) {
+            this.items = items;
+            this.more = more;
+            this.totalNumItems = totalNumItems;
+        }
+    }
+
+    /**
+     * Fetches the items of one page-sized slot of a partition. If the
+     * repository returns smaller pages, the slot fetches until it is full.
+     */
+    private class Slot extends FutureTask<SlotResult<T>> {
+
+        private final int partition;
+        private volatile SlotResult<T> result;
+
+        Slot(int partition, final AbstractPageFetcher<T> fetcher, final long skipCount) {
+            super(new Callable<SlotResult<T>>() {
+                @Override
+                public SlotResult<T> call() {
+                    long end = skipCount + Math.max(1, fetcher.maxNumItems);
+                    long skip = skipCount;
+                    long total = -1;
+                    boolean more;
+                    List<T> slotItems = new ArrayList<T>();
+
+                    while (true) {
+                        Page<T> page = fetcher.fetchPage(skip);
+                        if (page == null) {
+                            more = false;
+                            break;
+                        }
+
+                        if (total < 0 && page.getTotalNumItems() != null) {
+                            total = page.getTotalNumItems().longValue();
+                        }
+
+                        List<T> pageItems = page.getItems();
+                        more = Boolean.TRUE.equals(page.getHasMoreItems());
+                        if (pageItems == null || pageItems.isEmpty()) {
+                            more = false;
+                            break;
+                        }
+
+                        int n = (int) Math.min(pageItems.size(), end - skip);
+                        slotItems.addAll(pageItems.subList(0, n));
+                        skip += n;
+
+                        if (skip >= end) {
+                            more = more || n < pageItems.size();
+                            break;
+                        }
+                        if (!more) {
+                            break;
+                        }
+                    }
+
+                    return new SlotResult<T>(slotItems, more, total);
+                }
+            });
+            this.partition = partition;
+        }
+
+        @Override
+        protected void set(SlotResult<T> v) {
+            result = v;
+            super.set(v);
+        }
+
+        @Override
+        protected void done() {
+            if (!isCancelled()) {
+                slotDone(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime.util;
+
+import java.util.concurrent.Executor;
+
+import org.apache.chemistry.opencmis.client.api.ItemIterable;
+
+/**
+ * CMIS Collection Iterable that fetches the next pages in the background.
+ * <p>
+ * Prefetching is opt-in. Wrap the result of a {@code query()},
+ * {@code getChildren()} or similar call with
+ * {@link #prefetch(ItemIterable, int, Executor)}.
+ *
+ * @see PrefetchingIterator
+ */
+public class PrefetchingIterable<T> extends CollectionIterable<T> {
+
+    private final int pages;
+    private final Executor executor;
+
+    /**
+     * Constructor.
+     *
+     * @param pageFetcher
+     *            the page fetcher
+     * @param pages
+     *            the maximum number of pages fetched ahead
+     * @param executor
+     *            the executor that fetches the pages, or {@code null} to use
+     *            a shared pool of daemon threads
+     */
+    public PrefetchingIterable(AbstractPageFetcher<T> pageFetcher, int pages, Executor executor) {
+        this(0, pageFetcher, pages, executor);
+    }
+
+    /**
+     * Constructor.
+     */
+    protected PrefetchingIterable(long position, AbstractPageFetcher<T> pageFetcher, int pages, Executor executor) {
+        super(position, pageFetcher);
+
+        if (pages < 1) {
+            throw new IllegalArgumentException("Number of pages must be positive!");
+        }
+
+        this.pages = pages;
+        this.executor = (executor == null ? BackgroundExecutor.getDefault() : executor);
+    }
+
+    /**
+     * Returns an iterable that fetches up to {@code pages} pages ahead of the
+     * consumer.
+     * <p>
+     * Only iterables that are backed by a page fetcher can prefetch. Other
+     * iterables and single pages are returned unchanged.
+     *
+     * @param iterable
+     *            the iterable
+     * @param pages
+     *            the maximum number of pages fetched ahead
+     * @param executor
+     *            the executor that fetches the pages, or {@code null} to use
+     *            a shared pool of daemon threads
+     * @return the prefetching iterable
+     */
+    public static <T> ItemIterable<T> prefetch(ItemIterable<T> iterable, int pages, Executor executor) {
+        if (!(iterable instanceof CollectionIterable)) {
+            return iterable;
+        }
+
+        CollectionIterable<T> collection = (CollectionIterable<T>) iterable;
+        return new PrefetchingIterable<T>(collection.getSkipCount(), collection.getPageFetcher(), pages, executor);
+    }
+
+    @Override
+    protected AbstractIterator<T> createIterator() {
+        return new PrefetchingIterator<T>(getSkipCount(), getPageFetcher(), pages, executor);
+    }
+
+    @Override
+    public PrefetchingIterator<T> iterator() {
+        return (PrefetchingIterator<T>) super.iterator();
+    }
+
+    @Override
+    public ItemIterable<T> skipTo(long position) {
+        return new PrefetchingIterable<T>(position, getPageFetcher(), pages, executor);
+    }
+}
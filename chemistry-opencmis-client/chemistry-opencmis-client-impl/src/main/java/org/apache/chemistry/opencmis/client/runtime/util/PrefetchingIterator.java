@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime.util;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.chemistry.opencmis.client.runtime.util.AbstractPageFetcher.Page;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
+
+/**
+ * Iterator for iterating over all items in a CMIS Collection that fetches the
+ * next pages in the background while the current page is consumed.
+ * <p>
+ * At most {@code pages} pages are fetched ahead of the consumer. The pages
+ * are fetched one after the other, and the next page is only requested if
+ * the previous page indicated that there are more items. If the consumer
+ * stops early, prefetching stops when the buffer is full. {@link #close()}
+ * cancels pending fetches immediately.
+ *
+ * @param <T>
+ */
+public class PrefetchingIterator<T> extends CollectionIterator<T> implements Closeable {
+
+    private final int pages;
+    private final Executor executor;
+    private final Deque<PrefetchTask> pending = new ArrayDeque<PrefetchTask>();
+
+    private long lastSkipCount = -1;
+    private Page<T> lastPage;
+    private boolean closed;
+
+    /**
+     * Constructor.
+     *
+     * @param skipCount
+     *            the position of the first item
+     * @param pageFetcher
+     *            the page fetcher
+     * @param pages
+     *            the maximum number of pages fetched ahead, must be positive
+     * @param executor
+     *            the executor that fetches the pages
+     */
+    public PrefetchingIterator(long skipCount, AbstractPageFetcher<T> pageFetcher, int pages, Executor executor) {
+        super(skipCount, pageFetcher);
+
+        if (pages < 1) {
+            throw new IllegalArgumentException("Number of pages must be positive!");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must be set!");
+        }
+
+        this.pages = pages;
+        this.executor = executor;
+    }
+
+    @Override
+    protected Page<T> fetchPage(long skipCount) {
+        PrefetchTask task;
+        synchronized (this) {
+            task = pending.peekFirst();
+            if (task != null && task.skipCount == skipCount) {
+                pending.removeFirst();
+            } else {
+                // the consumer went somewhere we didn't expect
+                cancelPending();
+                task = null;
+            }
+        }
+
+        Page<T> page = (task == null ? super.fetchPage(skipCount) : await(task));
+
+        synchronized (this) {
+            lastSkipCount = skipCount;
+            lastPage = page;
+            schedule();
+        }
+
+        return page;
+    }
+
+    @Override
+    public boolean hasNext() {
+        boolean result = super.hasNext();
+        if (!result) {
+            close();
+        }
+        return result;
+    }
+
+    /**
+     * Stops prefetching and cancels all pending fetches. Subsequent pages are
+     * fetched on the calling thread.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        cancelPending();
+    }
+
+    /**
+     * Returns the number of pages that are currently fetched or buffered.
+     */
+    public synchronized int getPendingPages() {
+        return pending.size();
+    }
+
+    private void cancelPending() {
+        for (PrefetchTask task : pending) {
+            task.cancel(true);
+        }
+        pending.clear();
+    }
+
+    /**
+     * Schedules the next page if there is room in the buffer and the last
+     * known page says that there are more items.
+     */
+    private synchronized void schedule() {
+        if (closed || pending.size() >= pages) {
+            return;
+        }
+
+        long next;
+        PrefetchTask tail = pending.peekLast();
+        if (tail == null) {
+            next = getNextSkipCount(lastSkipCount, lastPage);
+        } else if (tail.isDone() && !tail.isCancelled() && tail.page != null) {
+            next = getNextSkipCount(tail.skipCount, tail.page);
+        } else {
+            // the tail schedules the next page when it's done
+            return;
+        }
+
+        if (next < 0) {
+            return;
+        }
+
+        PrefetchTask task = new PrefetchTask(next);
+        pending.addLast(task);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // the consumer fetches the page itself
+            pending.removeLast();
+        }
+    }
+
+    private static <T> long getNextSkipCount(long skipCount, Page<T> page) {
+        if (skipCount < 0 || page == null || !Boolean.TRUE.equals(page.getHasMoreItems())) {
+            return -1;
+        }
+
+        List<T> items = page.getItems();
+        if (items == null || items.isEmpty()) {
+            return -1;
+        }
+
+        long next = skipCount + items.size();
+        Long total = page.getTotalNumItems();
+        if (total != null && total.longValue() >= 0 && next >= total.longValue()) {
+            return -1;
+        }
+
+        return next;
+    }
+
+    private Page<T> await(PrefetchTask task) {
+        try {
+            // fetch the page here if no pool thread has started it yet
+            task.run();
+            return task.get();
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CmisRuntimeException("Interrupted while waiting for the next page!", e);
+        } catch (CancellationException e) {
+            // cancelled in the meantime -> fetch it here
+            return super.fetchPage(task.skipCount);
+        } catch (ExecutionException e) {
+            throw BackgroundExecutor.rethrow(e);
+        }
+    }
+
+    /**
+     * Fetches a page and schedules the next page when done.
+     */
+    private class PrefetchTask extends FutureTask<Page<T>> {
+
+        private final long skipCount;
+        private volatile Page<T> page;
+
+        PrefetchTask(final long skipCount) {
+            super(new Callable<Page<T>>() {
+                @Override
+                public Page<T> call() {
+                    return getPageFetcher().fetchPage(skipCount);
+                }
+            });
+            this.skipCount = skipCount;
+        }
+
+        @Override
+        protected void set(Page<T> v) {
+            page = v;
+            super.set(v);
+        }
+
+        @Override
+        protected void done() {
+            if (!isCancelled()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,577 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Document;
+import org.apache.chemistry.opencmis.client.api.Folder;
+import org.apache.chemistry.opencmis.client.api.ObjectId;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+import org.apache.chemistry.opencmis.commons.data.ContentStream;
+import org.apache.chemistry.opencmis.commons.enums.BaseTypeId;
+import org.apache.chemistry.opencmis.commons.enums.VersioningState;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisBaseException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisContentAlreadyExistsException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisNameConstraintViolationException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisObjectNotFoundException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
+import org.apache.chemistry.opencmis.commons.impl.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Uploads a local directory tree into a CMIS folder.
+ * <p>
+ * The directories are created as folders on the calling thread, one after the
+ * other, so every folder exists before its content is uploaded. The files are
+ * uploaded concurrently. The calling thread waits if the maximum number of
+ * uploads is in progress, so at most that many files are open at the same
+ * time. Documents are created by parent folder ID. Parent paths are never
+ * resolved.
+ * <p>
+ * If a checkpoint file is set, the relative path of each completed file is
+ * appended to it. A restarted upload skips these files and reuses the folders
+ * that already exist.
+ * <p>
+ * Sample code:
+ *
+ * <pre>
+ * BulkUploader uploader = new BulkUploader(session);
+ * uploader.setMaxParallelUploads(8);
+ * uploader.setCheckpointFile(new File("upload.checkpoint"));
+ * BulkUploader.Statistics stats = uploader.upload(new File("/data/export"), targetFolder);
+ * System.out.println(stats.getFilesPerSecond() + " files/s, " + stats.getMegabytesPerSecond() + " MB/s");
+ * </pre>
+ */
+public class BulkUploader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkUploader.class);
+
+    private static final double MEGABYTE = 1024 * 1024;
+
+    private final Session session;
+    private int maxParallelUploads = 4;
+    private Executor executor;
+    private String documentTypeId = BaseTypeId.CMIS_DOCUMENT.value();
+    private String folderTypeId = BaseTypeId.CMIS_FOLDER.value();
+    private VersioningState versioningState;
+    private File checkpointFile;
+    private Listener listener;
+
+    // state of the current upload
+    private final AtomicInteger files = new AtomicInteger();
+    private final AtomicInteger folders = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+    private volatile long startTime;
+    private volatile long endTime;
+
+    /**
+     * Callback for the upload progress. The methods are called from the upload
+     * threads.
+     */
+    public interface Listener {
+
+        /**
+         * Called after a document has been created.
+         */
+        void fileUploaded(File file, ObjectId documentId);
+
+        /**
+         * Called if a file or directory couldn't be uploaded. The upload
+         * continues with the next file. If a directory fails, its content is
+         * skipped. A file also fails if a document with the same name but
+         * with another content length exists.
+         */
+        void uploadFailed(File file, Throwable exception);
+    }
+
+    /**
+     * Counters and throughput of an upload.
+     */
+    public static class Statistics {
+
+        private final int files;
+        private final int folders;
+        private final int skipped;
+        private final int failed;
+        private final long bytes;
+        private final long elapsedMillis;
+
+        public Statistics(int files, int folders, int skipped, int failed, long bytes, long elapsedMillis) {
+            this.files = files;
+            this.folders = folders;
+            this.skipped = skipped;
+            this.failed = failed;
+            this.bytes = bytes;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /** Returns the number of uploaded files. */
+        public int getFiles() {
+            return files;
+        }
+
+        /** Returns the number of created folders. */
+        public int getFolders() {
+            return folders;
+        }
+
+        /**
+         * Returns the number of files that have been uploaded before. These
+         * are files in the checkpoint file and files that exist as documents
+         * with the same content length.
+         */
+        public int getSkipped() {
+            return skipped;
+        }
+
+        /** Returns the number of files and directories that failed. */
+        public int getFailed() {
+            return failed;
+        }
+
+        /** Returns the number of uploaded bytes. */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /** Returns the elapsed time in milliseconds. */
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /** Returns the uploaded files per second. */
+        public double getFilesPerSecond() {
+            return elapsedMillis == 0 ? 0 : files * 1000.0 / elapsedMillis;
+        }
+
+        /** Returns the uploaded megabytes (2^20 bytes) per second. */
+        public double getMegabytesPerSecond() {
+            return elapsedMillis == 0 ? 0 : bytes / MEGABYTE * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d files, %d folders, %d skipped, %d failed, %.1f MB in %d ms"
+                    + " (%.1f files/s, %.2f MB/s)", files, folders, skipped, failed, bytes / MEGABYTE,
+                    elapsedMillis, getFilesPerSecond(), getMegabytesPerSecond());
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param session
+     *            the session, not {@code null}
+     */
+    public BulkUploader(Session session) {
+        if (session == null) {
+            throw new IllegalArgumentException("Session must be set!");
+        }
+
+        this.session = session;
+    }
+
+    /**
+     * Sets the maximum number of concurrent uploads. The default is 4.
+     */
+    public void setMaxParallelUploads(int maxParallelUploads) {
+        if (maxParallelUploads < 1) {
+            throw new IllegalArgumentException("maxParallelUploads must be >0!");
+        }
+
+        this.maxParallelUploads = maxParallelUploads;
+    }
+
+    /**
+     * Sets the executor that runs the uploads. If not set, each upload uses
+     * its own thread pool.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Sets the type of the created documents. The default is
+     * {@code cmis:document}.
+     */
+    public void setDocumentTypeId(String documentTypeId) {
+        this.documentTypeId = (documentTypeId == null ? BaseTypeId.CMIS_DOCUMENT.value() : documentTypeId);
+    }
+
+    /**
+     * Sets the type of the created folders. The default is
+     * {@code cmis:folder}.
+     */
+    public void setFolderTypeId(String folderTypeId) {
+        this.folderTypeId = (folderTypeId == null ? BaseTypeId.CMIS_FOLDER.value() : folderTypeId);
+    }
+
+    /**
+     * Sets the versioning state of the created documents.
+     */
+    public void setVersioningState(VersioningState versioningState) {
+        this.versioningState = versioningState;
+    }
+
+    /**
+     * Sets the checkpoint file, or {@code null} to upload without
+     * checkpoints.
+     */
+    public void setCheckpointFile(File checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+
+    /**
+     * Sets the progress listener.
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the statistics of the current or last upload. This method can
+     * be called from another thread to report the progress.
+     */
+    public Statistics getStatistics() {
+        long start = startTime;
+        long end = (endTime == 0 ? System.currentTimeMillis() : endTime);
+        return new Statistics(files.get(), folders.get(), skipped.get(), failed.get(), bytes.get(),
+                start == 0 ? 0 : end - start);
+    }
+
+    /**
+     * Uploads the content of a directory into a folder.
+     *
+     * @param directory
+     *            the local directory
+     * @param targetFolder
+     *            the CMIS folder
+     * @return the statistics of the upload
+     *
+     * @throws IOException
+     *             if the directory or the checkpoint file cannot be read or
+     *             written
+     */
+    public Statistics upload(File directory, Folder targetFolder) throws IOException {
+        if (directory == null || !directory.isDirectory()) {
+            throw new IllegalArgumentException("Directory must be set and must be a directory!");
+        }
+        if (targetFolder == null) {
+            throw new IllegalArgumentException("Target folder must be set!");
+        }
+
+        files.set(0);
+        folders.set(0);
+        skipped.set(0);
+        failed.set(0);
+        bytes.set(0);
+        endTime = 0;
+        startTime = System.currentTimeMillis();
+
+        Set<String> completed = readCheckpoint();
+        Writer checkpoint = null;
+        if (checkpointFile != null) {
+            checkpoint = new OutputStreamWriter(new FileOutputStream(checkpointFile, true), IOUtils.UTF8);
+        }
+
+        ExecutorService ownExecutor = null;
+        Executor uploadExecutor = executor;
+        if (uploadExecutor == null) {
+            ownExecutor = createExecutor(maxParallelUploads);
+            uploadExecutor = ownExecutor;
+        }
+
+        Semaphore permits = new Semaphore(maxParallelUploads);
+        try {
+            Run run = new Run(uploadExecutor, permits, completed, checkpoint);
+            run.uploadDirectory(directory, "", targetFolder, targetFolder.getPath());
+        } finally {
+            // wait for the running uploads, even if the walk failed, so no
+            // upload writes to a closed checkpoint file
+            permits.acquireUninterruptibly(maxParallelUploads);
+            permits.release(maxParallelUploads);
+
+            if (ownExecutor != null) {
+                ownExecutor.shutdown();
+            }
+            IOUtils.closeQuietly(checkpoint);
+            endTime = System.currentTimeMillis();
+        }
+
+        Statistics result = getStatistics();
+        LOG.debug("Upload of {} finished: {}", directory, result);
+
+        return result;
+    }
+
+    private Set<String> readCheckpoint() throws IOException {
+        Set<String> result = new HashSet<String>();
+        if (checkpointFile == null || !checkpointFile.isFile()) {
+            return result;
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(checkpointFile),
+                IOUtils.UTF8));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() > 0) {
+                    result.add(line);
+                }
+            }
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+
+        return result;
+    }
+
+    private static ExecutorService createExecutor(int threads) {
+        final AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "OpenCMIS Bulk Uploader " + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    private void fail(File file, Throwable e) {
+        failed.incrementAndGet();
+        LOG.debug("Upload of {} failed: {}", file, e.toString(), e);
+        if (listener != null) {
+            listener.uploadFailed(file, e);
+        }
+    }
+
+    /**
+     * One upload run.
+     */
+    private class Run {
+
+        private final Executor executor;
+        private final Semaphore permits;
+        private final Set<String> completed;
+        private final Writer checkpoint;
+
+        Run(Executor executor, Semaphore permits, Set<String> completed, Writer checkpoint) {
+            this.executor = executor;
+            this.permits = permits;
+            this.completed = completed;
+            this.checkpoint = checkpoint;
+        }
+
+        void uploadDirectory(File directory, String relativePath, ObjectId folderId, String folderPath) {
+            File[] children = directory.listFiles();
+            if (children == null) {
+                fail(directory, new IOException("Cannot list directory: " + directory));
+                return;
+            }
+            Arrays.sort(children);
+
+            // files first, so the uploads start early
+            for (File child : children) {
+                if (child.isFile()) {
+                    uploadFile(child, relativePath + child.getName(), folderId, folderPath);
+                }
+            }
+
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    ObjectId childId = createFolder(child, folderId, folderPath);
+                    if (childId != null) {
+                        uploadDirectory(child, relativePath + child.getName() + '/', childId,
+                                getChildPath(folderPath, child.getName()));
+                    }
+                }
+            }
+        }
+
+        ObjectId createFolder(File directory, ObjectId parentId, String parentPath) {
+            Map<String, Object> properties = new HashMap<String, Object>();
+            properties.put(PropertyIds.OBJECT_TYPE_ID, folderTypeId);
+            properties.put(PropertyIds.NAME, directory.getName());
+
+            try {
+                ObjectId folderId = session.createFolder(properties, parentId);
+                folders.incrementAndGet();
+                return folderId;
+            } catch (CmisBaseException e) {
+                // created by an earlier run?
+                CmisObject existing = (isConflict(e) ? getExisting(parentPath, directory.getName()) : null);
+                if (existing instanceof Folder) {
+                    return existing;
+                }
+
+                fail(directory, e);
+                return null;
+            }
+        }
+
+        void uploadFile(final File file, final String relativePath, final ObjectId parentId,
+                final String parentPath) {
+            if (completed.contains(relativePath)) {
+                skipped.incrementAndGet();
+                return;
+            }
+
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CmisRuntimeException("Interrupted while waiting for an upload slot!", e);
+            }
+
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            createDocument(file, relativePath, parentId, parentPath);
+                        } catch (Throwable t) {
+                            // don't lose errors on a pool thread
+                            fail(file, t);
+                        } finally {
+                            permits.release();
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        void createDocument(File file, String relativePath, ObjectId parentId, String parentPath) {
+            Map<String, Object> properties = new HashMap<String, Object>();
+            properties.put(PropertyIds.OBJECT_TYPE_ID, documentTypeId);
+            properties.put(PropertyIds.NAME, file.getName());
+
+            ContentStream contentStream = null;
+            try {
+                // the file is opened when the binding sends it
+                contentStream = ContentStreamUtils.createFileContentStream(file);
+                ObjectId documentId = session.createDocument(properties, parentId, contentStream, versioningState);
+
+                files.incrementAndGet();
+                bytes.addAndGet(file.length());
+                completed(relativePath);
+
+                if (listener != null) {
+                    listener.fileUploaded(file, documentId);
+                }
+            } catch (CmisBaseException e) {
+                if (isConflict(e) && isUploaded(file, getExisting(parentPath, file.getName()))) {
+                    // uploaded by an earlier run that has not been checkpointed
+                    skipped.incrementAndGet();
+                    completed(relativePath);
+                } else {
+                    fail(file, e);
+                }
+            } catch (FileNotFoundException e) {
+                fail(file, e);
+            } catch (RuntimeException e) {
+                fail(file, e);
+            } finally {
+                IOUtils.closeQuietly(contentStream);
+            }
+        }
+
+        private void completed(String relativePath) {
+            if (checkpoint == null) {
+                return;
+            }
+
+            synchronized (checkpoint) {
+                try {
+                    checkpoint.write(relativePath);
+                    checkpoint.write('\n');
+                    checkpoint.flush();
+                } catch (IOException e) {
+                    LOG.warn("Cannot write checkpoint file {}: {}", checkpointFile, e.toString(), e);
+                }
+            }
+        }
+
+        private boolean isConflict(CmisBaseException e) {
+            return e instanceof CmisContentAlreadyExistsException || e instanceof CmisNameConstraintViolationException;
+        }
+
+        /**
+         * Returns whether an existing object is a document with the length of
+         * the file. Other objects with the same name are conflicts.
+         */
+        private boolean isUploaded(File file, CmisObject existing) {
+            if (!(existing instanceof Document)) {
+                return false;
+            }
+
+            return ((Document) existing).getContentStreamLength() == file.length();
+        }
+
+        private CmisObject getExisting(String parentPath, String name) {
+            if (parentPath == null) {
+                return null;
+            }
+
+            try {
+                // uses the session cache
+                return session.getObjectByPath(parentPath, name);
+            } catch (CmisObjectNotFoundException e) {
+                return null;
+            }
+        }
+
+        private String getChildPath(String parentPath, String name) {
+            if (parentPath == null) {
+                return null;
+            }
+
+            return parentPath.endsWith("/") ? parentPath + name : parentPath + '/' + name;
+        }
+    }
+}
@@ -28,13 +28,28 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.math.BigInteger;
-
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.chemistry.opencmis.client.api.Document;
 import org.apache.chemistry.opencmis.commons.data.ContentStream;
+import org.apache.chemistry.opencmis.commons.data.FileContentStream;
 import org.apache.chemistry.opencmis.commons.data.MutableContentStream;
+import org.apache.chemistry.opencmis.commons.data.PartialContentStream;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisConnectionException;
 import org.apache.chemistry.opencmis.commons.impl.IOUtils;
 import org.apache.chemistry.opencmis.commons.impl.MimeTypes;
 import org.apache.chemistry.opencmis.commons.impl.dataobjects.ContentStreamImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.FileContentStreamImpl;
 
 /**
  * Methods to create {@link ContentStream} objects.
@@ -43,6 +58,10 @@ public final class ContentStreamUtils {
 
     private static final String OCTETSTREAM = "application/octet-stream";
 
+    private static final long MIN_RANGE_SIZE = 1024 * 1024;
+    private static final int MAX_RANGE_ATTEMPTS = 3;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private ContentStreamUtils() {
     }
 
@@ -239,6 +258,9 @@ public final class ContentStreamUtils {
     /**
      * Creates a content stream object from file.
      *
+     * The returned object is a {@link FileContentStream}. The bindings send
+     * the file directly with its length and only open it if necessary.
+     *
      * @param filename
      *            name of the content stream
      * @param file
@@ -250,8 +272,7 @@ public final class ContentStreamUtils {
      */
     public static MutableContentStream createFileContentStream(String filename, File file, String mimetype)
             throws FileNotFoundException {
-        return createContentStream(filename, file.length(), mimetype, new AutoCloseInputStream(new BufferedInputStream(
-                new FileInputStream(file))));
+        return new AutoCloseFileContentStream(checkFilename(filename), file, checkMIMEType(mimetype));
     }
 
     // --- write ---
@@ -311,6 +332,139 @@ public final class ContentStreamUtils {
         }
     }
 
+    /**
+     * Downloads the content of a document into a file with parallel range
+     * requests.
+     * 
+     * The content is split into up to {@code parallelism} ranges of at least
+     * 1 MB, which are fetched concurrently and written into the file at their
+     * offsets. If the connection breaks, a range is resumed where it stopped.
+     * If the content length is unknown or the repository doesn't support
+     * range requests, the content is downloaded with a single request.
+     * 
+     * @param document
+     *            the document, not {@code null}
+     * @param file
+     *            the file, not {@code null}
+     * @param parallelism
+     *            the maximum number of concurrent requests
+     */
+    public static void downloadContentStreamToFile(final Document document, File file, int parallelism)
+            throws IOException {
+        if (document == null) {
+            throw new IllegalArgumentException("Document is null!");
+        }
+        if (file == null) {
+            throw new IllegalArgumentException("File is null!");
+        }
+
+        long length = document.getContentStreamLength();
+        int ranges = (int) Math.min(parallelism, (length + MIN_RANGE_SIZE - 1) / MIN_RANGE_SIZE);
+        if (length < 0 || ranges < 2) {
+            writeContentStreamToFile(document.getContentStream(), file);
+            return;
+        }
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        ExecutorService executor = Executors.newFixedThreadPool(ranges);
+        try {
+            raf.setLength(length);
+            final FileChannel channel = raf.getChannel();
+
+            List<Future<Void>> futures = new ArrayList<Future<Void>>(ranges);
+            long rangeSize = (length + ranges - 1) / ranges;
+            for (long offset = 0; offset < length; offset += rangeSize) {
+                final long rangeOffset = offset;
+                final long rangeLength = Math.min(rangeSize, length - offset);
+                final long totalLength = length;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        downloadRange(document, channel, rangeOffset, rangeLength, totalLength);
+                        return null;
+                    }
+                }));
+            }
+
+            try {
+                for (Future<Void> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Download interrupted!", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RangeNotSupportedException) {
+                    executor.shutdownNow();
+                    raf.close();
+                    writeContentStreamToFile(document.getContentStream(), file);
+                    return;
+                }
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IOException("Download failed: " + e.getCause(), e.getCause());
+            }
+
+            channel.force(false);
+        } finally {
+            executor.shutdownNow();
+            IOUtils.closeQuietly(raf);
+        }
+    }
+
+    private static void downloadRange(Document document, FileChannel channel, long offset, long length,
+            long totalLength) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long position = offset;
+        long end = offset + length;
+        int attempts = 0;
+
+        while (position < end) {
+            ContentStream contentStream = null;
+            try {
+                contentStream = document.getContentStream(BigInteger.valueOf(position),
+                        BigInteger.valueOf(end - position));
+                if (contentStream == null || contentStream.getStream() == null) {
+                    throw new IOException("Document has no content!");
+                }
+                if (position > 0 && !(contentStream instanceof PartialContentStream)
+                        && (contentStream.getLength() < 0 || contentStream.getLength() == totalLength)) {
+                    // the repository has sent the whole content
+                    throw new RangeNotSupportedException();
+                }
+
+                InputStream stream = contentStream.getStream();
+                while (position < end) {
+                    int n = stream.read(buffer, 0, (int) Math.min(buffer.length, end - position));
+                    if (n == -1) {
+                        throw new IOException("Unexpected end of stream at offset " + position + "!");
+                    }
+
+                    ByteBuffer bb = ByteBuffer.wrap(buffer, 0, n);
+                    while (bb.hasRemaining()) {
+                        position += channel.write(bb, position);
+                    }
+                }
+            } catch (RangeNotSupportedException e) {
+                throw e;
+            } catch (IOException e) {
+                if (++attempts >= MAX_RANGE_ATTEMPTS) {
+                    throw e;
+                }
+            } catch (CmisConnectionException e) {
+                if (++attempts >= MAX_RANGE_ATTEMPTS) {
+                    throw e;
+                }
+            } finally {
+                IOUtils.closeQuietly(contentStream);
+            }
+        }
+    }
+
     // --- helpers ---
     private static String checkFilename(String filename) {
         if (filename == null || filename.length() == 0) {
@@ -334,6 +488,24 @@ public final class ContentStreamUtils {
     }
 
     // --- classes ---
+    /**
+     * File content stream that closes the file when the end of the stream is
+     * reached.
+     */
+    private static class AutoCloseFileContentStream extends FileContentStreamImpl {
+
+        private static final long serialVersionUID = 1L;
+
+        public AutoCloseFileContentStream(String filename, File file, String mimetype) throws FileNotFoundException {
+            super(filename, file, mimetype);
+        }
+
+        @Override
+        protected InputStream openStream(File file) throws FileNotFoundException {
+            return new AutoCloseInputStream(new BufferedInputStream(new FileInputStream(file)));
+        }
+    }
+
     /**
      * InputStream that gets closed when the end of the stream is reached or the
      * underlying stream throws an exception.
@@ -501,4 +673,11 @@ public final class ContentStreamUtils {
             super.finalize();
         }
     }
+
+    /**
+     * Thrown if the repository ignores range requests.
+     */
+    private static class RangeNotSupportedException extends IOException {
+        private static final long serialVersionUID = 1L;
+    }
 }
@@ -257,6 +257,32 @@ public final class FileUtils {
         ContentStreamUtils.writeContentStreamToFile(doc.getContentStream(), new File(destinationPath));
     }
 
+    /**
+     * Downloads the contentStream for the given doc to the specified path with
+     * parallel range requests.
+     * 
+     * @param doc
+     *            the document
+     * @param destinationPath
+     *            the destination path
+     * @param parallelism
+     *            the maximum number of concurrent requests
+     * 
+     * @throws IOException
+     *             if the download fails because of an IO problem
+     * @throws CmisBaseException
+     *             if something go wrong, for example the document doesn't exist
+     * 
+     * @see ContentStreamUtils#downloadContentStreamToFile(Document, File, int)
+     */
+    public static void download(Document doc, String destinationPath, int parallelism) throws IOException {
+        if (doc == null) {
+            return;
+        }
+
+        ContentStreamUtils.downloadContentStreamToFile(doc, new File(destinationPath), parallelism);
+    }
+
     /**
      * Downloads a document by its id or path.
      * 
@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.chemistry.opencmis.client.api.Document;
+import org.apache.chemistry.opencmis.client.api.Folder;
+import org.apache.chemistry.opencmis.client.api.ObjectId;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.client.util.BulkUploader;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+import org.apache.chemistry.opencmis.commons.data.ContentStream;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisContentAlreadyExistsException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisObjectNotFoundException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisStorageException;
+import org.apache.chemistry.opencmis.commons.impl.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BulkUploaderTest {
+
+    private static final int MAX_PARALLEL_UPLOADS = 3;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    // path -> content length of the created folders (-1) and documents
+    private final Map<String, Long> repository = new ConcurrentHashMap<String, Long>();
+    private final Set<String> failing = ConcurrentHashMap.newKeySet();
+    private final Set<String> erroring = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger createCalls = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    private File source;
+    private Session session;
+    private Folder target;
+
+    @Before
+    public void setUp() throws IOException {
+        source = tmp.newFolder("source");
+        writeFile("a.txt", 10);
+        writeFile("b.bin", 1024);
+        writeFile("sub/c.txt", 20);
+        writeFile("sub/deeper/d.txt", 30);
+        writeFile("sub/deeper/e.txt", 40);
+        writeFile("other/f.txt", 50);
+        for (int i = 0; i < 20; i++) {
+            writeFile("many/file" + i + ".txt", i);
+        }
+
+        session = createSession();
+        target = createFolder("/target");
+        repository.put("/target", -1L);
+    }
+
+    @Test
+    public void testUpload() throws IOException {
+        BulkUploader uploader = new BulkUploader(session);
+        uploader.setMaxParallelUploads(MAX_PARALLEL_UPLOADS);
+        BulkUploader.Statistics stats = uploader.upload(source, target);
+
+        assertEquals(26, stats.getFiles());
+        assertEquals(4, stats.getFolders());
+        assertEquals(0, stats.getSkipped());
+        assertEquals(0, stats.getFailed());
+        assertEquals(10 + 1024 + 20 + 30 + 40 + 50 + 190, stats.getBytes());
+
+        assertEquals(Long.valueOf(-1), repository.get("/target/sub/deeper"));
+        assertEquals(Long.valueOf(30), repository.get("/target/sub/deeper/d.txt"));
+        assertEquals(Long.valueOf(1024), repository.get("/target/b.bin"));
+        assertEquals(1 + 26 + 4, repository.size());
+
+        assertTrue(maxRunning.get() <= MAX_PARALLEL_UPLOADS);
+    }
+
+    @Test
+    public void testRestart() throws IOException {
+        File checkpoint = new File(tmp.getRoot(), "upload.checkpoint");
+        failing.add("/target/sub/deeper/e.txt");
+        failing.add("/target/other");
+
+        BulkUploader uploader = new BulkUploader(session);
+        uploader.setMaxParallelUploads(MAX_PARALLEL_UPLOADS);
+        uploader.setCheckpointFile(checkpoint);
+        BulkUploader.Statistics stats = uploader.upload(source, target);
+
+        // the content of a failed folder is not uploaded
+        assertEquals(24, stats.getFiles());
+        assertEquals(3, stats.getFolders());
+        assertEquals(2, stats.getFailed());
+        assertFalse(repository.containsKey("/target/other"));
+
+        // the second run only uploads what is missing
+        failing.clear();
+        createCalls.set(0);
+        stats = uploader.upload(source, target);
+
+        assertEquals(2, stats.getFiles());
+        assertEquals(1, stats.getFolders());
+        assertEquals(24, stats.getSkipped());
+        assertEquals(0, stats.getFailed());
+        assertEquals(Long.valueOf(40), repository.get("/target/sub/deeper/e.txt"));
+        assertEquals(Long.valueOf(50), repository.get("/target/other/f.txt"));
+        // 4 folders (3 exist) + 2 documents
+        assertEquals(6, createCalls.get());
+    }
+
+    @Test
+    public void testExistingDocuments() throws IOException {
+        BulkUploader uploader = new BulkUploader(session);
+        uploader.upload(source, target);
+
+        // no checkpoint -> the existing documents are detected by the server
+        BulkUploader.Statistics stats = uploader.upload(source, target);
+        assertEquals(0, stats.getFiles());
+        assertEquals(0, stats.getFolders());
+        assertEquals(26, stats.getSkipped());
+        assertEquals(0, stats.getFailed());
+    }
+
+    @Test
+    public void testConflictingDocument() throws IOException {
+        BulkUploader uploader = new BulkUploader(session);
+        uploader.upload(source, target);
+
+        // same name, other content -> not uploaded before
+        writeFile("b.bin", 2048);
+
+        BulkUploader.Statistics stats = uploader.upload(source, target);
+        assertEquals(0, stats.getFiles());
+        assertEquals(25, stats.getSkipped());
+        assertEquals(1, stats.getFailed());
+        assertEquals(Long.valueOf(1024), repository.get("/target/b.bin"));
+    }
+
+    @Test
+    public void testUploadError() throws IOException {
+        erroring.add("/target/sub/c.txt");
+
+        final List<File> failedFiles = Collections.synchronizedList(new ArrayList<File>());
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        BulkUploader uploader = new BulkUploader(session);
+        uploader.setListener(new BulkUploader.Listener() {
+            @Override
+            public void fileUploaded(File file, ObjectId documentId) {
+            }
+
+            @Override
+            public void uploadFailed(File file, Throwable exception) {
+                failedFiles.add(file);
+                errors.add(exception);
+            }
+        });
+        BulkUploader.Statistics stats = uploader.upload(source, target);
+
+        assertEquals(25, stats.getFiles());
+        assertEquals(1, stats.getFailed());
+        assertEquals(Arrays.asList(new File(source, "sub/c.txt")), failedFiles);
+        assertTrue(errors.get(0) instanceof LinkageError);
+    }
+
+    private void writeFile(String path, int size) throws IOException {
+        File file = new File(source, path);
+        file.getParentFile().mkdirs();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[size]);
+        } finally {
+            out.close();
+        }
+    }
+
+    private Folder createFolder(final String path) {
+        return (Folder) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Folder.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("getId") || method.getName().equals("getPath")) {
+                            return path;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private Document createDocument(final String path, final long length) {
+        return (Document) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Document.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("getId")) {
+                            return path;
+                        } else if (method.getName().equals("getContentStreamLength")) {
+                            return length;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private Session createSession() {
+        return (Session) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Session.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Exception {
+                        if (method.getName().equals("createFolder")) {
+                            return create((Map<?, ?>) args[0], (ObjectId) args[1], null);
+                        } else if (method.getName().equals("createDocument")) {
+                            return upload((Map<?, ?>) args[0], (ObjectId) args[1], (ContentStream) args[2]);
+                        } else if (method.getName().equals("getObjectByPath") && args.length == 2) {
+                            String path = args[0] + "/" + args[1];
+                            Long length = repository.get(path);
+                            if (length == null) {
+                                throw new CmisObjectNotFoundException(path);
+                            }
+                            return length == -1 ? createFolder(path) : createDocument(path, length);
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private ObjectId upload(Map<?, ?> properties, ObjectId parentId, ContentStream contentStream)
+            throws Exception {
+        int current = running.incrementAndGet();
+        synchronized (maxRunning) {
+            maxRunning.set(Math.max(maxRunning.get(), current));
+        }
+
+        try {
+            Thread.sleep(5);
+            InputStream stream = contentStream.getStream();
+            long length = 0;
+            try {
+                while (stream.read() != -1) {
+                    length++;
+                }
+            } finally {
+                IOUtils.closeQuietly(stream);
+            }
+
+            return create(properties, parentId, length);
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    private ObjectId create(Map<?, ?> properties, ObjectId parentId, Long length) {
+        createCalls.incrementAndGet();
+
+        // the parent is passed by ID, which is the path in this test
+        String path = parentId.getId() + "/" + properties.get(PropertyIds.NAME);
+        if (failing.contains(path)) {
+            throw new CmisStorageException("Storage failure: " + path);
+        }
+        if (erroring.contains(path)) {
+            throw new LinkageError("Error: " + path);
+        }
+        if (repository.putIfAbsent(path, length == null ? -1L : length) != null) {
+            throw new CmisContentAlreadyExistsException(path);
+        }
+
+        return new ObjectIdImpl(path);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.bindings.cache.CacheStatisticsProvider;
+import org.apache.chemistry.opencmis.client.runtime.cache.Cache;
+import org.apache.chemistry.opencmis.client.runtime.cache.CacheImpl;
+import org.apache.chemistry.opencmis.client.runtime.cache.ConcurrentCacheImpl;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+
+/**
+ * Compares the throughput of {@link CacheImpl} and
+ * {@link ConcurrentCacheImpl} with 1, 8 and 64 threads.
+ * <p>
+ * Every thread looks up objects like a session does: it reads an object and
+ * puts it into the cache if it is missing. The object IDs are skewed towards
+ * a hot set. In the first run all objects fit into the cache, so nearly every
+ * operation is a read. In the second run there are twice as many objects as
+ * the cache can hold, so the caches also have to evict. The benchmark reports
+ * the operations per second, the hit ratio and the number of cached objects
+ * at the end of the run.
+ * <p>
+ * Usage: {@code CacheBenchmark [operations per thread] [cache size]}
+ */
+public class CacheBenchmark {
+
+    private static final int[] THREADS = { 1, 8, 64 };
+    private static final String CACHE_KEY = "key";
+
+    public static void main(String[] args) throws Exception {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int cacheSize = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        for (int objectCount : new int[] { cacheSize / 2, cacheSize * 2 }) {
+            CmisObject[] objects = new CmisObject[objectCount];
+            for (int i = 0; i < objects.length; i++) {
+                objects[i] = new CmisObjectMock("id" + i);
+            }
+
+            System.out.println("Operations per thread: " + operations + ", cache size: " + cacheSize
+                    + ", objects: " + objects.length);
+
+            for (int threads : THREADS) {
+                for (boolean concurrent : new boolean[] { false, true }) {
+                    // warm up
+                    run(createCache(concurrent, cacheSize), objects, threads, Math.max(1, operations / 10));
+
+                    Cache cache = createCache(concurrent, cacheSize);
+                    long begin = System.nanoTime();
+                    long hits = run(cache, objects, threads, operations);
+                    long time = System.nanoTime() - begin;
+
+                    long total = (long) threads * operations;
+                    long entries = ((CacheStatisticsProvider) cache).getCacheStatistics().get(0).getEntryCount();
+                    System.out.println(String.format(
+                            "  %-20s threads: %3d  %12.0f ops/s  hit ratio: %5.1f %%  entries: %d", cache
+                                    .getClass().getSimpleName(), threads, total / (time / 1000000000.0), 100.0
+                                    * hits / total, entries));
+                }
+            }
+        }
+    }
+
+    private static long run(final Cache cache, final CmisObject[] objects, int threads, final int operations)
+            throws InterruptedException {
+        final AtomicLong hits = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long threadHits = 0;
+                    try {
+                        start.await();
+                        for (int i = 0; i < operations; i++) {
+                            // skewed towards the first objects
+                            double r = random.nextDouble();
+                            CmisObject object = objects[(int) (r * r * objects.length)];
+
+                            if (cache.getById(object.getId(), CACHE_KEY) != null) {
+                                threadHits++;
+                            } else {
+                                cache.put(object, CACHE_KEY);
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        hits.addAndGet(threadHits);
+                        done.countDown();
+                    }
+                }
+            });
+            thread.start();
+        }
+
+        start.countDown();
+        done.await();
+
+        return hits.get();
+    }
+
+    private static Cache createCache(boolean concurrent, int cacheSize) {
+        Cache cache = concurrent ? new ConcurrentCacheImpl() : new CacheImpl();
+
+        Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put(SessionParameter.CACHE_SIZE_OBJECTS, "" + cacheSize);
+        parameters.put(SessionParameter.CACHE_TTL_OBJECTS, "" + (3600 * 1000));
+
+        cache.initialize(null, parameters);
+
+        return cache;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.client.runtime.cache.CacheImpl;
+import org.apache.chemistry.opencmis.client.runtime.cache.CacheStatisticsMBeans;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.apache.chemistry.opencmis.commons.spi.CmisBinding;
+import org.junit.Test;
+
+public class CacheStatisticsMBeansTest {
+
+    @Test
+    public void testRegister() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        Session session = createSession("registered");
+        ObjectName name = CacheStatisticsMBeans.createObjectName("registered", "Object Cache");
+
+        CacheStatisticsMBeans.register(session);
+        try {
+            assertTrue(server.isRegistered(name));
+            assertEquals(0L, server.getAttribute(name, "EntryCount"));
+        } finally {
+            CacheStatisticsMBeans.unregister(session);
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void testCollectedSession() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = CacheStatisticsMBeans.createObjectName("collected", "Object Cache");
+
+        Session session = createSession("collected");
+        CacheStatisticsMBeans.register(session);
+        assertTrue(server.isRegistered(name));
+        session = null;
+
+        // the MBean doesn't keep the session alive
+        for (int i = 0; i < 50 && server.isRegistered(name); i++) {
+            System.gc();
+            Thread.sleep(20);
+
+            // registering other sessions removes the stale MBeans
+            Session other = createSession("other");
+            CacheStatisticsMBeans.register(other);
+            CacheStatisticsMBeans.unregister(other);
+        }
+
+        assertFalse(server.isRegistered(name));
+    }
+
+    /**
+     * Creates a session that only provides a binding and the statistics of an
+     * object cache.
+     */
+    private static Session createSession(final String sessionId) {
+        final CacheImpl cache = new CacheImpl();
+        Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put(SessionParameter.CACHE_SIZE_OBJECTS, "10");
+        cache.initialize(null, parameters);
+
+        final CmisBinding binding = (CmisBinding) Proxy.newProxyInstance(CmisBinding.class.getClassLoader(),
+                new Class<?>[] { CmisBinding.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("getSessionId")) {
+                            return sessionId;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[] { Session.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("getBinding")) {
+                            return binding;
+                        }
+                        if (method.getName().equals("getCacheStatistics")) {
+                            return cache.getCacheStatistics();
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import org.apache.chemistry.opencmis.client.api.ChangeEvent;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.client.runtime.cache.ChangeLogCacheInvalidator;
+import org.apache.chemistry.opencmis.commons.data.RepositoryInfo;
+import org.apache.chemistry.opencmis.commons.enums.ChangeType;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisInvalidArgumentException;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.RepositoryInfoImpl;
+import org.apache.chemistry.opencmis.commons.spi.CmisBinding;
+import org.apache.chemistry.opencmis.commons.spi.RepositoryService;
+import org.junit.Test;
+
+public class ChangeLogCacheInvalidatorTest {
+
+    @Test
+    public void testPoll() {
+        ChangeLogMock changeLog = new ChangeLogMock();
+        ChangeLogCacheInvalidator invalidator = new ChangeLogCacheInvalidator(changeLog.createSession(), 1000,
+                10000, 2);
+
+        invalidator.setChangeLogToken("0");
+
+        // no changes
+        assertFalse(invalidator.poll());
+        assertEquals(0, changeLog.removed.size());
+
+        // five changes, fetched in batches of two
+        for (int i = 0; i < 5; i++) {
+            changeLog.ids.add("id" + i);
+        }
+
+        assertTrue(invalidator.poll());
+        assertEquals(5, changeLog.removed.size());
+        assertEquals("5", invalidator.getChangeLogToken());
+        assertEquals(5, invalidator.getInvalidationCount());
+
+        // no new changes, the event at the token is not invalidated again
+        changeLog.removed.clear();
+        assertFalse(invalidator.poll());
+        assertEquals(0, changeLog.removed.size());
+    }
+
+    @Test
+    public void testStuckToken() {
+        ChangeLogMock changeLog = new ChangeLogMock();
+        changeLog.stuck = true;
+        changeLog.ids.add("id0");
+        changeLog.ids.add("id1");
+
+        ChangeLogCacheInvalidator invalidator = new ChangeLogCacheInvalidator(changeLog.createSession(), 1000,
+                10000, 100);
+        invalidator.setChangeLogToken("0");
+
+        assertTrue(invalidator.poll());
+        assertEquals(2, changeLog.removed.size());
+
+        // the same events are not invalidated again
+        assertFalse(invalidator.poll());
+        assertEquals(2, changeLog.removed.size());
+
+        // only new events are
+        changeLog.ids.add("id2");
+        assertTrue(invalidator.poll());
+        assertEquals(3, changeLog.removed.size());
+        assertEquals("id2", changeLog.removed.get(2));
+    }
+
+    @Test
+    public void testStuckTokenWithFullBatch() {
+        ChangeLogMock changeLog = new ChangeLogMock();
+        changeLog.stuck = true;
+        for (int i = 0; i < 5; i++) {
+            changeLog.ids.add("id" + i);
+        }
+
+        ChangeLogCacheInvalidator invalidator = new ChangeLogCacheInvalidator(changeLog.createSession(), 1000,
+                10000, 2);
+        invalidator.setChangeLogToken("0");
+
+        // the events after the first batch can't be reached from the token
+        assertTrue(invalidator.poll());
+        assertEquals(1, changeLog.clearCount);
+        assertEquals("5", invalidator.getChangeLogToken());
+
+        // polling continues from the latest token
+        changeLog.removed.clear();
+        changeLog.ids.add("id5");
+        assertTrue(invalidator.poll());
+        assertTrue(changeLog.removed.contains("id5"));
+        assertFalse(invalidator.poll());
+        assertEquals(1, changeLog.clearCount);
+    }
+
+    @Test
+    public void testInvalidToken() {
+        ChangeLogMock changeLog = new ChangeLogMock();
+        changeLog.ids.add("id0");
+        changeLog.ids.add("id1");
+
+        ChangeLogCacheInvalidator invalidator = new ChangeLogCacheInvalidator(changeLog.createSession(), 1000,
+                10000, 100);
+
+        invalidator.setChangeLogToken("unknown");
+
+        assertTrue(invalidator.poll());
+        assertEquals(1, changeLog.clearCount);
+        assertEquals("2", invalidator.getChangeLogToken());
+    }
+
+    @Test
+    public void testRepeatedTruncation() {
+        ChangeLogMock changeLog = new ChangeLogMock();
+        for (int i = 0; i < 5; i++) {
+            changeLog.ids.add("id" + i);
+        }
+
+        ChangeLogCacheInvalidator invalidator = new ChangeLogCacheInvalidator(changeLog.createSession(), 1000,
+                10000, 100);
+        invalidator.setChangeLogToken("0");
+        assertTrue(invalidator.poll());
+        assertEquals("5", invalidator.getChangeLogToken());
+
+        for (int round = 1; round <= 2; round++) {
+            // the change log is truncated behind the current token
+            for (int i = 0; i < 5; i++) {
+                changeLog.ids.add("id" + round + "-" + i);
+            }
+            changeLog.truncate(changeLog.ids.size() - 1);
+
+            assertTrue(invalidator.poll());
+            assertEquals(round, changeLog.clearCount);
+            assertEquals(String.valueOf(changeLog.ids.size()), invalidator.getChangeLogToken());
+
+            // the new token is accepted, the cache is not cleared again
+            invalidator.poll();
+            assertFalse(invalidator.poll());
+            assertFalse(invalidator.poll());
+            assertEquals(round, changeLog.clearCount);
+        }
+    }
+
+    @Test
+    public void testStartStop() {
+        ChangeLogMock changeLog = new ChangeLogMock();
+        ChangeLogCacheInvalidator invalidator = new ChangeLogCacheInvalidator(changeLog.createSession());
+
+        invalidator.start();
+        assertTrue(invalidator.isRunning());
+        assertEquals("0", invalidator.getChangeLogToken());
+
+        invalidator.stop();
+        assertFalse(invalidator.isRunning());
+    }
+
+    /**
+     * Simple change log. The change log token of an event is its position,
+     * starting with 1. Like a real repository, the change log token is
+     * inclusive: the changes since a token start with the event at the token.
+     * The token "0" points before the first event as long as the change log
+     * hasn't been truncated.
+     */
+    private static class ChangeLogMock {
+
+        final List<String> ids = new ArrayList<String>();
+        final List<String> removed = new ArrayList<String>();
+        int clearCount = 0;
+        // the position of the oldest event that hasn't been truncated
+        int firstEvent = 1;
+        // the repository always returns the requested token
+        boolean stuck = false;
+        // the token of the repository info the session has cached
+        String cachedToken;
+        final GregorianCalendar changeTime = new GregorianCalendar();
+
+        Session createSession() {
+            return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[] { Session.class },
+                    new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) {
+                            String name = method.getName();
+                            if (name.equals("getLatestChangeLogToken")) {
+                                if (cachedToken == null) {
+                                    cachedToken = String.valueOf(ids.size());
+                                }
+                                return cachedToken;
+                            } else if (name.equals("getRepositoryInfo")) {
+                                return createRepositoryInfo();
+                            } else if (name.equals("getBinding")) {
+                                return createBinding();
+                            } else if (name.equals("getContentChanges")) {
+                                return getContentChanges((String) args[0], ((Long) args[2]).intValue());
+                            } else if (name.equals("removeObjectFromCache")) {
+                                removed.add((String) args[0]);
+                                return null;
+                            } else if (name.equals("clear")) {
+                                clearCount++;
+                                return null;
+                            }
+
+                            throw new UnsupportedOperationException(name);
+                        }
+                    });
+        }
+
+        RepositoryInfoImpl createRepositoryInfo() {
+            RepositoryInfoImpl info = new RepositoryInfoImpl();
+            info.setId("test");
+            info.setLatestChangeLogToken(String.valueOf(ids.size()));
+            return info;
+        }
+
+        /**
+         * Creates a binding whose repository infos are never cached.
+         */
+        CmisBinding createBinding() {
+            final RepositoryService repositoryService = (RepositoryService) Proxy.newProxyInstance(
+                    RepositoryService.class.getClassLoader(), new Class<?>[] { RepositoryService.class },
+                    new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) {
+                            if (method.getName().equals("getRepositoryInfos")) {
+                                return Collections.<RepositoryInfo> singletonList(createRepositoryInfo());
+                            }
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+
+            return (CmisBinding) Proxy.newProxyInstance(CmisBinding.class.getClassLoader(),
+                    new Class<?>[] { CmisBinding.class }, new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) {
+                            if (method.getName().equals("getRepositoryService")) {
+                                return repositoryService;
+                            }
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+
+        void truncate(int position) {
+            firstEvent = position;
+        }
+
+        ChangeEventsImpl getContentChanges(String token, int maxItems) {
+            int position;
+            try {
+                position = Integer.parseInt(token);
+            } catch (NumberFormatException e) {
+                throw new CmisInvalidArgumentException("Unknown change log token!");
+            }
+
+            if (position < firstEvent && !(position == 0 && firstEvent == 1)) {
+                throw new CmisInvalidArgumentException("Change log token has been truncated!");
+            }
+
+            List<ChangeEvent> events = new ArrayList<ChangeEvent>();
+            int start = Math.max(position, 1);
+            int end = Math.min(ids.size(), start + maxItems - 1);
+            for (int i = start; i <= end; i++) {
+                events.add(new ChangeEventImpl(ChangeType.UPDATED, changeTime, ids.get(i - 1), null, null, null));
+            }
+
+            String latestToken = stuck || events.isEmpty() ? token : String.valueOf(end);
+            return new ChangeEventsImpl(latestToken, events, end < ids.size(), ids.size());
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.CompletableAsyncSession;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.client.bindings.spi.http.HttpAbortHandle;
+import org.apache.chemistry.opencmis.client.runtime.async.AsyncSessionFactoryImpl;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisConnectionException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisObjectNotFoundException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompletableAsyncSessionTest {
+
+    private ExecutorService executorService;
+    private final AtomicInteger executed = new AtomicInteger();
+    private final CountDownLatch blockStarted = new CountDownLatch(1);
+    private final CountDownLatch blockInterrupted = new CountDownLatch(1);
+    private final CountDownLatch requestAborted = new CountDownLatch(1);
+    private CompletableAsyncSession asyncSession;
+
+    @Before
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(4);
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                executed.incrementAndGet();
+                executorService.execute(command);
+            }
+        };
+
+        asyncSession = AsyncSessionFactoryImpl.newInstance().createCompletableAsyncSession(createSession(),
+                executor);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testCompose() throws Exception {
+        CompletableFuture<CmisObject> future = asyncSession.getObject("a").thenCompose(
+                new Function<CmisObject, CompletableFuture<CmisObject>>() {
+                    @Override
+                    public CompletableFuture<CmisObject> apply(CmisObject object) {
+                        return asyncSession.getObject(object.getId() + "b");
+                    }
+                });
+
+        assertEquals("ab", future.get(10, TimeUnit.SECONDS).getId());
+        assertEquals(2, executed.get());
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        try {
+            asyncSession.getObject("missing").get(10, TimeUnit.SECONDS);
+            fail("ExecutionException expected!");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CmisObjectNotFoundException);
+        }
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        CompletableFuture<CmisObject> future = asyncSession.getObject("block");
+        assertTrue(blockStarted.await(10, TimeUnit.SECONDS));
+
+        assertTrue(future.cancel(true));
+        assertTrue(future.isCancelled());
+
+        // the running request has been interrupted
+        assertTrue(blockInterrupted.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCancelAbortsRequest() throws Exception {
+        CompletableFuture<CmisObject> future = asyncSession.getObject("request");
+        assertTrue(blockStarted.await(10, TimeUnit.SECONDS));
+
+        assertTrue(future.cancel(true));
+
+        // the request doesn't react to the interrupt, but has been aborted
+        assertTrue(requestAborted.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRejected() throws Exception {
+        executorService.shutdown();
+        try {
+            asyncSession.getObject("a").get(10, TimeUnit.SECONDS);
+            fail("ExecutionException expected!");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    @Test
+    public void testSession() {
+        assertSame(asyncSession.getSession(), asyncSession.getSession());
+        assertTrue(asyncSession.getExecutor() != null);
+    }
+
+    private Session createSession() {
+        return (Session) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Session.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (!method.getName().equals("getObject")) {
+                            return null;
+                        }
+
+                        String id = args[0].toString();
+                        if (id.equals("missing")) {
+                            throw new CmisObjectNotFoundException("not found");
+                        }
+                        if (id.equals("block")) {
+                            blockStarted.countDown();
+                            try {
+                                Thread.sleep(60000);
+                            } catch (InterruptedException e) {
+                                blockInterrupted.countDown();
+                                throw e;
+                            }
+                        }
+
+                        if (id.equals("request")) {
+                            // a blocking HTTP request that ignores interrupts
+                            HttpAbortHandle.register(new HttpAbortHandle.Abortable() {
+                                @Override
+                                public void abort() {
+                                    requestAborted.countDown();
+                                }
+                            });
+                            blockStarted.countDown();
+                            while (requestAborted.getCount() > 0) {
+                                try {
+                                    requestAborted.await();
+                                } catch (InterruptedException e) {
+                                    // ignore
+                                }
+                            }
+                            throw new CmisConnectionException("aborted");
+                        }
+
+                        return new CmisObjectMock(id);
+                    }
+                });
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.runtime.cache.Cache;
+import org.apache.chemistry.opencmis.client.runtime.cache.ConcurrentCacheImpl;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
+import org.junit.Test;
+
+public class ConcurrentCacheTest {
+
+    @Test
+    public void cacheSingleObjectTest() {
+        Cache cache = createCache(100, 3600 * 1000);
+
+        String id = "1";
+        String cacheKey = "key";
+
+        CmisObject obj1 = new CmisObjectMock(id);
+        cache.put(obj1, cacheKey);
+
+        assertTrue(cache.containsId(id, cacheKey));
+        assertEquals(obj1, cache.getById(id, cacheKey));
+        assertNull(cache.getById(id, "otherKey"));
+
+        cache.remove(id);
+        assertFalse(cache.containsId(id, cacheKey));
+
+        cache.put(obj1, cacheKey);
+        cache.clear();
+
+        assertFalse(cache.containsId(id, cacheKey));
+        assertNull(cache.getById(id, cacheKey));
+    }
+
+    @Test
+    public void cachePathObjectTest() {
+        Cache cache = createCache(100, 3600 * 1000);
+
+        String id = "1";
+        String path = "/1";
+        String cacheKey = "key";
+
+        CmisObject obj1 = new CmisObjectMock(id);
+        cache.putPath(path, obj1, cacheKey);
+
+        assertTrue(cache.containsPath(path, cacheKey));
+        assertEquals(obj1, cache.getById(id, cacheKey));
+        assertEquals(obj1, cache.getByPath(path, cacheKey));
+        assertEquals(obj1.getId(), cache.getObjectIdByPath(path));
+
+        cache.removePath(path);
+        assertNull(cache.getObjectIdByPath(path));
+        assertFalse(cache.containsPath(path, cacheKey));
+        assertTrue(cache.containsId(id, cacheKey));
+    }
+
+    @Test
+    public void lruTest() {
+        int cacheSize = 3;
+        Cache cache = createCache(cacheSize, 3600 * 1000);
+
+        String cacheKey = "key";
+
+        for (int i = 0; i < cacheSize; i++) {
+            cache.put(new CmisObjectMock("id" + i), cacheKey);
+        }
+
+        // touch id0, id1 is now the least recently used entry
+        assertNotNull(cache.getById("id0", cacheKey));
+
+        cache.put(new CmisObjectMock("id3"), cacheKey);
+
+        // at least one entry below the limit: id1 and id2 are thrown out
+        assertNull(cache.getById("id1", cacheKey));
+        assertNull(cache.getById("id2", cacheKey));
+        assertNotNull(cache.getById("id0", cacheKey));
+        assertNotNull(cache.getById("id3", cacheKey));
+    }
+
+    @Test
+    public void ttlTest() throws InterruptedException {
+        Cache cache = createCache(10, 500);
+
+        String cacheKey = "key";
+        String id = "id";
+
+        cache.put(new CmisObjectMock(id), cacheKey);
+        assertNotNull(cache.getById(id, cacheKey));
+
+        Thread.sleep(750);
+
+        assertNull(cache.getById(id, cacheKey));
+        assertFalse(cache.containsId(id, cacheKey));
+    }
+
+    @Test
+    public void statisticsTest() throws InterruptedException {
+        ConcurrentCacheImpl cache = (ConcurrentCacheImpl) createCache(10, 3600 * 1000);
+
+        for (int i = 0; i < 20; i++) {
+            cache.put(new CmisObjectMock("id" + i), "key");
+        }
+
+        cache.putPath("/path", new CmisObjectMock("id19"), "key");
+
+        assertNotNull(cache.getById("id19", "key"));
+        assertNull(cache.getById("id0", "key"));
+        assertNotNull(cache.getByPath("/path", "key"));
+        assertNull(cache.getObjectIdByPath("/other"));
+
+        List<CacheStatistics> stats = cache.getCacheStatistics();
+        assertEquals(2, stats.size());
+
+        CacheStatistics objectStats = stats.get(0);
+        assertEquals(21, objectStats.getPutCount());
+        assertEquals(2, objectStats.getHitCount());
+        assertEquals(1, objectStats.getMissCount());
+        assertTrue(objectStats.getEvictionCount() >= 10);
+        assertEquals(objectStats.getPutCount() - 1 - objectStats.getEvictionCount(), objectStats.getEntryCount());
+
+        CacheStatistics pathStats = stats.get(1);
+        assertEquals(1, pathStats.getPutCount());
+        assertEquals(1, pathStats.getHitCount());
+        assertEquals(1, pathStats.getMissCount());
+        assertEquals(1, pathStats.getEntryCount());
+    }
+
+    @Test
+    public void serializationTest() throws Exception {
+        int cacheSize = 10;
+        Cache cache = createCache(cacheSize, 3600 * 1000);
+
+        String cacheKey = "key";
+
+        for (int i = 0; i < cacheSize; i++) {
+            cache.put(new CmisObjectMock("id" + i), cacheKey);
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(buffer);
+        out.writeObject(cache);
+        out.close();
+
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+        Cache cache2 = (Cache) in.readObject();
+        in.close();
+
+        for (int k = 0; k < cacheSize; k++) {
+            CmisObject o1 = cache.getById("id" + k, cacheKey);
+            CmisObject o2 = cache2.getById("id" + k, cacheKey);
+            assertEquals(o1.getId(), o2.getId());
+        }
+    }
+
+    @Test
+    public void concurrentAccessTest() throws Exception {
+        final int cacheSize = 100;
+        final Cache cache = createCache(cacheSize, 3600 * 1000);
+        final String cacheKey = "key";
+        final AtomicInteger failures = new AtomicInteger();
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            final int offset = t * 1000;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < 1000; i++) {
+                            String id = "id" + (offset + i);
+                            CmisObject obj = new CmisObjectMock(id);
+                            cache.put(obj, cacheKey);
+
+                            CmisObject cached = cache.getById(id, cacheKey);
+                            if (cached != null && !id.equals(cached.getId())) {
+                                failures.incrementAndGet();
+                            }
+                        }
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, failures.get());
+
+        int count = 0;
+        for (int i = 0; i < 8000; i++) {
+            if (cache.containsId("id" + i, cacheKey)) {
+                count++;
+            }
+        }
+
+        assertTrue(count > 0);
+        assertTrue(count <= cacheSize + 8);
+    }
+
+    private static Cache createCache(int cacheSize, int ttl) {
+        Cache cache = new ConcurrentCacheImpl();
+
+        Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put(SessionParameter.CACHE_SIZE_OBJECTS, "" + cacheSize);
+        parameters.put(SessionParameter.CACHE_TTL_OBJECTS, "" + ttl);
+
+        cache.initialize(null, parameters);
+
+        return cache;
+    }
+}
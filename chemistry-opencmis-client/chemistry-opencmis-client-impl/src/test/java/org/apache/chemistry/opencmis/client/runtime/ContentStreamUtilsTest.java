@@ -26,17 +26,29 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.math.BigInteger;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.chemistry.opencmis.client.api.Document;
 import org.apache.chemistry.opencmis.client.util.ContentStreamUtils;
 import org.apache.chemistry.opencmis.client.util.ContentStreamUtils.AutoCloseInputStream;
 import org.apache.chemistry.opencmis.commons.data.MutableContentStream;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.ContentStreamImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PartialContentStreamImpl;
 import org.apache.chemistry.opencmis.commons.impl.IOUtils;
 import org.junit.Test;
 
@@ -172,4 +184,119 @@ public class ContentStreamUtilsTest {
 
         in.closeQuietly();
     }
+
+    @Test
+    public void testParallelDownload() throws IOException {
+        byte[] content = createContent(3 * 1024 * 1024 + 17);
+        AtomicInteger requests = new AtomicInteger();
+
+        checkDownload(content, createDocument(content, true, false, requests), 4);
+        // 4 ranges of at least 1 MB
+        assertEquals(4, requests.get());
+    }
+
+    @Test
+    public void testParallelDownloadResume() throws IOException {
+        byte[] content = createContent(2 * 1024 * 1024 + 5);
+        AtomicInteger requests = new AtomicInteger();
+
+        // every first request of a range breaks in the middle
+        checkDownload(content, createDocument(content, true, true, requests), 8);
+        // 3 ranges, each resumed once
+        assertEquals(6, requests.get());
+    }
+
+    @Test
+    public void testParallelDownloadWithoutRanges() throws IOException {
+        byte[] content = createContent(2 * 1024 * 1024);
+
+        checkDownload(content, createDocument(content, false, false, new AtomicInteger()), 2);
+    }
+
+    private static void checkDownload(byte[] content, Document doc, int parallelism) throws IOException {
+        File tmpFile = File.createTempFile("download", ".bin");
+        try {
+            ContentStreamUtils.downloadContentStreamToFile(doc, tmpFile, parallelism);
+            assertArrayEquals(content, Files.readAllBytes(tmpFile.toPath()));
+        } finally {
+            tmpFile.delete();
+        }
+    }
+
+    private static byte[] createContent(int length) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        return content;
+    }
+
+    /**
+     * Creates a document that serves the given content.
+     */
+    private static Document createDocument(final byte[] content, final boolean supportsRanges,
+            final boolean breakFirstRequest, final AtomicInteger requests) {
+        final Set<Integer> brokenRanges = Collections.synchronizedSet(new HashSet<Integer>());
+        return (Document) Proxy.newProxyInstance(ContentStreamUtilsTest.class.getClassLoader(),
+                new Class<?>[] { Document.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("getContentStreamLength")) {
+                            return Long.valueOf(content.length);
+                        }
+
+                        if (method.getName().equals("getContentStream")) {
+                            requests.incrementAndGet();
+
+                            if (args == null || !supportsRanges) {
+                                return new ContentStreamImpl("content", BigInteger.valueOf(content.length),
+                                        "application/octet-stream", new ByteArrayInputStream(content));
+                            }
+
+                            int offset = ((BigInteger) args[0]).intValue();
+                            int length = Math.min(((BigInteger) args[1]).intValue(), content.length - offset);
+                            InputStream stream = new ByteArrayInputStream(content, offset, length);
+                            // resumed requests end at the same offset
+                            if (breakFirstRequest && brokenRanges.add(offset + length)) {
+                                stream = new BrokenInputStream(stream, length / 2);
+                            }
+                            return new PartialContentStreamImpl("content", BigInteger.valueOf(length),
+                                    "application/octet-stream", stream);
+                        }
+
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * Stream that fails after the given number of bytes.
+     */
+    private static class BrokenInputStream extends InputStream {
+        private final InputStream stream;
+        private int remaining;
+
+        BrokenInputStream(InputStream stream, int remaining) {
+            this.stream = stream;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining-- <= 0) {
+                throw new IOException("Connection reset");
+            }
+            return stream.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                throw new IOException("Connection reset");
+            }
+            int n = stream.read(b, off, Math.min(len, remaining));
+            remaining -= n;
+            return n;
+        }
+    }
 }
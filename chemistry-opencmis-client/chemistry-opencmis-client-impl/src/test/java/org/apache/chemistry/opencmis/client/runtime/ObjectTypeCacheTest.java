@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.chemistry.opencmis.client.api.ObjectType;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.client.runtime.cache.ObjectTypeCache;
+import org.apache.chemistry.opencmis.client.runtime.objecttype.FolderTypeImpl;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisObjectNotFoundException;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.FolderTypeDefinitionImpl;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
+import org.junit.Test;
+
+public class ObjectTypeCacheTest {
+
+    private static final Session SESSION = (Session) Proxy.newProxyInstance(
+            ObjectTypeCacheTest.class.getClassLoader(), new Class<?>[] { Session.class }, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    return null;
+                }
+            });
+
+    @Test
+    public void loadAndCacheTest() {
+        ObjectTypeCache cache = new ObjectTypeCache(10);
+        CountingLoader loader = new CountingLoader();
+
+        ObjectType type1 = cache.get("type1", loader);
+        assertNotNull(type1);
+        assertEquals("type1", type1.getId());
+        assertSame(type1, cache.get("type1", loader));
+        assertEquals(1, loader.calls.get());
+
+        cache.remove("type1");
+        assertNull(cache.get("type1"));
+        assertEquals("type1", cache.get("type1", loader).getId());
+        assertEquals(2, loader.calls.get());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+
+        CacheStatistics stats = cache.getStatistics();
+        assertEquals("Object Type Cache", stats.getName());
+        assertEquals(1, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+        assertEquals(2, stats.getPutCount());
+    }
+
+    @Test
+    public void evictionTest() {
+        int cacheSize = 32;
+        ObjectTypeCache cache = new ObjectTypeCache(cacheSize);
+
+        for (int i = 0; i < cacheSize * 4; i++) {
+            cache.put(createType("type" + i));
+            assertTrue(cache.size() <= cacheSize);
+        }
+
+        // the most recent type must survive
+        assertNotNull(cache.get("type" + (cacheSize * 4 - 1)));
+        assertTrue(cache.getStatistics().getEvictionCount() >= cacheSize * 3);
+    }
+
+    @Test
+    public void loaderExceptionTest() {
+        ObjectTypeCache cache = new ObjectTypeCache(10);
+
+        try {
+            cache.get("unknown", new ObjectTypeCache.Loader() {
+                @Override
+                public ObjectType load(String typeId) {
+                    throw new CmisObjectNotFoundException(typeId);
+                }
+            });
+            fail("CmisObjectNotFoundException expected!");
+        } catch (CmisObjectNotFoundException e) {
+            assertEquals("unknown", e.getMessage());
+        }
+
+        // failures are not cached
+        assertEquals("unknown", cache.get("unknown", new CountingLoader()).getId());
+    }
+
+    @Test
+    public void singleFlightTest() throws Exception {
+        final ObjectTypeCache cache = new ObjectTypeCache(10);
+        final CountDownLatch loaderStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoader = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+
+        final ObjectTypeCache.Loader loader = new ObjectTypeCache.Loader() {
+            @Override
+            public ObjectType load(String typeId) {
+                calls.incrementAndGet();
+                loaderStarted.countDown();
+                try {
+                    releaseLoader.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return createType(typeId);
+            }
+        };
+
+        int threadCount = 8;
+        final ObjectType[] results = new ObjectType[threadCount];
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    results[index] = cache.get("shared", loader);
+                }
+            };
+            threads[i].start();
+        }
+
+        assertTrue(loaderStarted.await(10, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        releaseLoader.countDown();
+
+        for (Thread thread : threads) {
+            thread.join(10000);
+        }
+
+        assertEquals(1, calls.get());
+        for (ObjectType result : results) {
+            assertSame(results[0], result);
+        }
+    }
+
+    @Test
+    public void removeDuringLoadTest() throws Exception {
+        final ObjectTypeCache cache = new ObjectTypeCache(10);
+        final CountDownLatch loaderStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoader = new CountDownLatch(1);
+
+        final ObjectTypeCache.Loader loader = new ObjectTypeCache.Loader() {
+            @Override
+            public ObjectType load(String typeId) {
+                loaderStarted.countDown();
+                try {
+                    releaseLoader.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return createType(typeId);
+            }
+        };
+
+        final ObjectType[] result = new ObjectType[1];
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                result[0] = cache.get("stale", loader);
+            }
+        };
+        thread.start();
+
+        // the type is updated on the server while it is loaded
+        assertTrue(loaderStarted.await(10, TimeUnit.SECONDS));
+        cache.remove("stale");
+        releaseLoader.countDown();
+        thread.join(10000);
+
+        // the caller gets the loaded type, but it isn't cached
+        assertEquals("stale", result[0].getId());
+        assertNull(cache.get("stale"));
+        assertEquals(0, cache.size());
+    }
+
+    private static ObjectType createType(String id) {
+        FolderTypeDefinitionImpl typeDefinition = new FolderTypeDefinitionImpl();
+        typeDefinition.setId(id);
+        return new FolderTypeImpl(SESSION, typeDefinition);
+    }
+
+    private static class CountingLoader implements ObjectTypeCache.Loader {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public ObjectType load(String typeId) {
+            calls.incrementAndGet();
+            return createType(typeId);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.runtime.cache.OffHeapStore;
+import org.apache.chemistry.opencmis.client.runtime.cache.TieredCacheImpl;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.junit.Test;
+
+public class OffHeapStoreTest {
+
+    @Test
+    public void testPutGetRemove() {
+        OffHeapStore store = new OffHeapStore(1000);
+
+        store.put("a", data(100, 1));
+        store.put("b", data(200, 2));
+
+        assertArrayEquals(data(100, 1), store.get("a"));
+        assertArrayEquals(data(200, 2), store.get("b"));
+        assertNull(store.get("c"));
+        assertEquals(2, store.getEntryCount());
+        assertEquals(300, store.getUsedBytes());
+        assertEquals(2, store.getHitCount());
+        assertEquals(1, store.getMissCount());
+
+        // replace
+        store.put("a", data(50, 3));
+        assertArrayEquals(data(50, 3), store.get("a"));
+        assertEquals(250, store.getUsedBytes());
+
+        store.remove("b");
+        assertFalse(store.contains("b"));
+        assertEquals(50, store.getUsedBytes());
+
+        store.clear();
+        assertEquals(0, store.getEntryCount());
+        assertEquals(0, store.getUsedBytes());
+    }
+
+    @Test
+    public void testRingEviction() {
+        OffHeapStore store = new OffHeapStore(1000);
+
+        for (int i = 0; i < 4; i++) {
+            store.put("k" + i, data(300, i));
+        }
+
+        // k0 has been overwritten by k3
+        assertFalse(store.contains("k0"));
+        assertTrue(store.contains("k1"));
+        assertTrue(store.contains("k2"));
+        assertTrue(store.contains("k3"));
+        assertEquals(1, store.getEvictionCount());
+
+        for (int i = 4; i < 20; i++) {
+            store.put("k" + i, data(150 + i, i));
+            assertArrayEquals(data(150 + i, i), store.get("k" + i));
+        }
+
+        assertTrue(store.getUsedBytes() <= 1000);
+        assertArrayEquals(data(169, 19), store.get("k19"));
+        assertArrayEquals(data(168, 18), store.get("k18"));
+
+        // too big
+        assertFalse(store.put("big", data(1001, 0)));
+    }
+
+    @Test
+    public void testMappedFile() throws Exception {
+        File file = File.createTempFile("opencmis", ".cache");
+        file.deleteOnExit();
+
+        OffHeapStore store = new OffHeapStore(file, 4096);
+        store.put("a", data(1000, 7));
+        assertArrayEquals(data(1000, 7), store.get("a"));
+
+        // close unmaps and deletes the file
+        store.close();
+        assertFalse(file.exists());
+        assertNull(store.get("a"));
+        assertFalse(store.put("b", data(10, 1)));
+        store.close();
+    }
+
+    @Test
+    public void testRemoveDuringEviction() throws Exception {
+        final CountDownLatch evicting = new CountDownLatch(1);
+
+        final TieredCacheImpl cache = new TieredCacheImpl() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void evicted(String objectId, Map<String, CmisObject> objects, long timestamp) {
+                if (objectId.equals("1")) {
+                    // give remove() a chance to overtake the eviction
+                    evicting.countDown();
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                // the mock objects cannot be serialized, store a marker
+                getOffHeapStore().put(objectId, data(10, 1));
+            }
+        };
+
+        Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put(SessionParameter.CACHE_SIZE_OBJECTS, "1");
+        parameters.put(SessionParameter.CACHE_OFFHEAP_SIZE, "4096");
+        cache.initialize(null, parameters);
+
+        cache.put(new CmisObjectMock("1"), "key");
+
+        Thread remover = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    evicting.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                cache.remove("1");
+            }
+        };
+        remover.start();
+
+        // evicts "1" while the other thread removes it
+        cache.put(new CmisObjectMock("2"), "key");
+        remover.join(5000);
+
+        assertFalse(remover.isAlive());
+        assertFalse(cache.getOffHeapStore().contains("1"));
+        assertNull(cache.getById("1", "key"));
+
+        cache.close();
+    }
+
+    @Test
+    public void testContainsIdChecksCacheKey() throws Exception {
+        TieredCacheImpl cache = new TieredCacheImpl();
+
+        Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put(SessionParameter.CACHE_OFFHEAP_SIZE, "4096");
+        cache.initialize(null, parameters);
+
+        // an object that has been moved to the second tier for one cache key
+        HashMap<String, ObjectDataSnapshot> snapshots = new HashMap<String, ObjectDataSnapshot>();
+        snapshots.put("key", null);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bos);
+        oos.writeLong(System.currentTimeMillis());
+        oos.writeObject(snapshots);
+        oos.close();
+        cache.getOffHeapStore().put("1", bos.toByteArray());
+
+        assertTrue(cache.containsId("1", "key"));
+        assertFalse(cache.containsId("1", "otherKey"));
+        assertFalse(cache.containsId("2", "key"));
+
+        cache.close();
+    }
+
+    private static byte[] data(int length, int value) {
+        byte[] result = new byte[length];
+        Arrays.fill(result, (byte) value);
+        return result;
+    }
+}
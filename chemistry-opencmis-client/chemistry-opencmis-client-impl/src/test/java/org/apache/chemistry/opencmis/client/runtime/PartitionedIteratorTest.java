@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.chemistry.opencmis.client.runtime.util.AbstractPageFetcher;
+import org.apache.chemistry.opencmis.client.runtime.util.PartitionedIterator;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PartitionedIteratorTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testOrder() {
+        for (int size : new int[] { 0, 1, 10, 95 }) {
+            for (int pageSize : new int[] { 1, 7, 10, 100 }) {
+                for (int concurrency : new int[] { 1, 4 }) {
+                    TestFetcher fetcher = new TestFetcher("a", size, pageSize, Integer.MAX_VALUE, true);
+                    List<String> result = collect(Collections.singletonList(fetcher), concurrency);
+                    assertEquals(expected("a", size), result);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentFetches() {
+        TestFetcher fetcher = new TestFetcher("a", 200, 10, Integer.MAX_VALUE, true);
+        fetcher.delay = 20;
+        assertEquals(expected("a", 200), collect(Collections.singletonList(fetcher), 4));
+        assertTrue(fetcher.maxConcurrent.get() > 1);
+        assertTrue(fetcher.maxConcurrent.get() <= 4);
+    }
+
+    @Test
+    public void testUnknownTotal() {
+        TestFetcher fetcher = new TestFetcher("a", 95, 10, Integer.MAX_VALUE, false);
+        fetcher.delay = 5;
+        assertEquals(expected("a", 95), collect(Collections.singletonList(fetcher), 4));
+        assertEquals(1, fetcher.maxConcurrent.get());
+    }
+
+    @Test
+    public void testSmallServerPages() {
+        // the repository returns at most 3 items per request
+        TestFetcher fetcher = new TestFetcher("a", 50, 10, 3, true);
+        assertEquals(expected("a", 50), collect(Collections.singletonList(fetcher), 4));
+    }
+
+    @Test
+    public void testPartitions() {
+        List<TestFetcher> partitions = Arrays.asList(new TestFetcher("a", 25, 10, Integer.MAX_VALUE, true),
+                new TestFetcher("b", 0, 10, Integer.MAX_VALUE, true), new TestFetcher("c", 7, 5, 2, false),
+                new TestFetcher("d", 30, 10, Integer.MAX_VALUE, true));
+
+        List<String> expected = new ArrayList<String>();
+        expected.addAll(expected("a", 25));
+        expected.addAll(expected("c", 7));
+        expected.addAll(expected("d", 30));
+
+        assertEquals(expected, collect(partitions, 3));
+    }
+
+    @Test
+    public void testClose() {
+        TestFetcher fetcher = new TestFetcher("a", 1000, 10, Integer.MAX_VALUE, true);
+        PartitionedIterator<String> iterator = new PartitionedIterator<String>(
+                Collections.singletonList(fetcher), 3, executor);
+
+        Stream<String> stream = iterator.stream();
+        assertEquals(expected("a", 5), stream.limit(5).collect(Collectors.toList()));
+        stream.close();
+
+        assertEquals(0, iterator.getPendingSlots());
+        assertFalse(iterator.hasNext());
+        assertTrue(fetcher.fetches.get() <= 5);
+    }
+
+    @Test
+    public void testFailure() {
+        TestFetcher fetcher = new TestFetcher("a", 100, 10, Integer.MAX_VALUE, true) {
+            @Override
+            protected Page<String> fetchPage(long skipCount) {
+                if (skipCount == 30) {
+                    throw new CmisRuntimeException("broken");
+                }
+                return super.fetchPage(skipCount);
+            }
+        };
+
+        PartitionedIterator<String> iterator = new PartitionedIterator<String>(
+                Collections.singletonList(fetcher), 4, executor);
+        for (int i = 0; i < 30; i++) {
+            assertEquals("a" + i, iterator.next());
+        }
+
+        try {
+            iterator.next();
+            fail("CmisRuntimeException expected!");
+        } catch (CmisRuntimeException e) {
+            assertEquals("broken", e.getMessage());
+        }
+    }
+
+    private List<String> collect(List<? extends AbstractPageFetcher<String>> partitions, int concurrency) {
+        Stream<String> stream = new PartitionedIterator<String>(partitions, concurrency, executor).stream();
+        try {
+            return stream.collect(Collectors.toList());
+        } finally {
+            stream.close();
+        }
+    }
+
+    private static List<String> expected(String prefix, int size) {
+        List<String> result = new ArrayList<String>();
+        for (int i = 0; i < size; i++) {
+            result.add(prefix + i);
+        }
+        return result;
+    }
+
+    private static class TestFetcher extends AbstractPageFetcher<String> {
+
+        private final String prefix;
+        private final int size;
+        private final int serverPageSize;
+        private final boolean knownTotal;
+        private final AtomicInteger concurrent = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+        final AtomicInteger fetches = new AtomicInteger();
+        long delay;
+
+        TestFetcher(String prefix, int size, long pageSize, int serverPageSize, boolean knownTotal) {
+            super(pageSize);
+            this.prefix = prefix;
+            this.size = size;
+            this.serverPageSize = serverPageSize;
+            this.knownTotal = knownTotal;
+        }
+
+        @Override
+        protected Page<String> fetchPage(long skipCount) {
+            fetches.incrementAndGet();
+            int current = concurrent.incrementAndGet();
+            try {
+                int max;
+                while ((max = maxConcurrent.get()) < current && !maxConcurrent.compareAndSet(max, current)) {
+                    // retry
+                }
+
+                if (delay > 0) {
+                    try {
+                        Thread.sleep(delay);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                List<String> items = new ArrayList<String>();
+                long end = Math.min(size, skipCount + Math.min(maxNumItems, serverPageSize));
+                for (long i = skipCount; i < end; i++) {
+                    items.add(prefix + i);
+                }
+
+                return new Page<String>(items, knownTotal ? BigInteger.valueOf(size) : null, Boolean.valueOf(end < size));
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        }
+    }
+}
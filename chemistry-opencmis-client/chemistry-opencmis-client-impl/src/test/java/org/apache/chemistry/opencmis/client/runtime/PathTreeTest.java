@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.chemistry.opencmis.client.runtime.cache.CacheImpl;
+import org.apache.chemistry.opencmis.client.runtime.cache.ConcurrentCacheImpl;
+import org.apache.chemistry.opencmis.client.runtime.cache.ExtendedCache;
+import org.apache.chemistry.opencmis.client.runtime.cache.PathTree;
+import org.apache.chemistry.opencmis.client.runtime.cache.WeightedCacheImpl;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.junit.Test;
+
+public class PathTreeTest {
+
+    @Test
+    public void removeTreeTest() {
+        PathTree<String> tree = new PathTree<String>();
+        tree.put("/a", "a");
+        tree.put("/a/b", "b");
+        tree.put("/a/b/c", "c");
+        tree.put("/a-b", "a-b");
+        tree.put("/ab", "ab");
+        tree.put("/a0", "a0");
+        assertEquals(6, tree.size());
+
+        List<String> removed = tree.removeTree("/a");
+        assertEquals(new HashSet<String>(Arrays.asList("a", "b", "c")), new HashSet<String>(removed));
+        assertEquals(3, tree.size());
+
+        // siblings that share the prefix must survive
+        assertNotNull(tree.get("/a-b"));
+        assertNotNull(tree.get("/ab"));
+        assertNotNull(tree.get("/a0"));
+
+        // root removes everything
+        tree.removeTree("/");
+        assertEquals(0, tree.size());
+        assertTrue(tree.isEmpty());
+    }
+
+    @Test
+    public void sizeTest() {
+        PathTree<String> tree = new PathTree<String>();
+        tree.put("/a", "1");
+        tree.put("/a", "2");
+        assertEquals(1, tree.size());
+
+        assertFalse(tree.remove("/a", "1"));
+        assertTrue(tree.remove("/a", "2"));
+        assertNull(tree.remove("/a"));
+        assertEquals(0, tree.size());
+
+        tree.putIfAbsent("/b", "1");
+        tree.putIfAbsent("/b", "2");
+        assertEquals(1, tree.size());
+        tree.clear();
+        assertEquals(0, tree.size());
+    }
+
+    @Test
+    public void cacheImplTest() {
+        checkCache(new CacheImpl());
+    }
+
+    @Test
+    public void concurrentCacheImplTest() {
+        checkCache(new ConcurrentCacheImpl());
+    }
+
+    @Test
+    public void weightedCacheImplTest() {
+        checkCache(new WeightedCacheImpl());
+    }
+
+    private static void checkCache(ExtendedCache cache) {
+        Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put(SessionParameter.CACHE_SIZE_OBJECTS, "100");
+        parameters.put(SessionParameter.CACHE_SIZE_PATHTOID, "100");
+        cache.initialize(null, parameters);
+
+        String cacheKey = "key";
+        cache.putPath("/folder", new CmisObjectMock("1"), cacheKey);
+        cache.putPath("/folder/sub", new CmisObjectMock("2"), cacheKey);
+        cache.putPath("/folder/sub/doc", new CmisObjectMock("3"), cacheKey);
+        cache.putPath("/folder2", new CmisObjectMock("4"), cacheKey);
+
+        cache.removePathTree("/folder");
+
+        assertNull(cache.getObjectIdByPath("/folder"));
+        assertNull(cache.getObjectIdByPath("/folder/sub"));
+        assertNull(cache.getObjectIdByPath("/folder/sub/doc"));
+        assertNull(cache.getById("2", cacheKey));
+        assertNull(cache.getById("3", cacheKey));
+
+        assertEquals("4", cache.getObjectIdByPath("/folder2"));
+        assertNotNull(cache.getById("4", cacheKey));
+    }
+}
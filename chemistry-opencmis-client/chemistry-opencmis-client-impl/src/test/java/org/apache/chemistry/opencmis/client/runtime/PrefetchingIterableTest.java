@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.chemistry.opencmis.client.api.ItemIterable;
+import org.apache.chemistry.opencmis.client.runtime.util.AbstractPageFetcher;
+import org.apache.chemistry.opencmis.client.runtime.util.CollectionIterable;
+import org.apache.chemistry.opencmis.client.runtime.util.PrefetchingIterable;
+import org.apache.chemistry.opencmis.client.runtime.util.PrefetchingIterator;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrefetchingIterableTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testIterateAll() {
+        for (int size : new int[] { 0, 1, 10, 95 }) {
+            for (int pageSize : new int[] { 1, 7, 10, 100 }) {
+                for (int pages : new int[] { 1, 3 }) {
+                    TestFetcher fetcher = new TestFetcher(size, pageSize);
+                    List<String> result = new ArrayList<String>();
+                    for (String item : new PrefetchingIterable<String>(fetcher, pages, executor)) {
+                        result.add(item);
+                    }
+                    assertEquals(size, result.size());
+                    for (int i = 0; i < size; i++) {
+                        assertEquals("item" + i, result.get(i));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSkipTo() {
+        ItemIterable<String> iterable = new PrefetchingIterable<String>(new TestFetcher(50, 10), 2, executor)
+                .skipTo(25);
+        assertTrue(iterable instanceof PrefetchingIterable);
+
+        int count = 0;
+        for (String item : iterable) {
+            assertEquals("item" + (25 + count), item);
+            count++;
+        }
+        assertEquals(25, count);
+    }
+
+    @Test
+    public void testPrefetchInBackground() throws Exception {
+        final CountDownLatch secondPage = new CountDownLatch(1);
+        TestFetcher fetcher = new TestFetcher(30, 10) {
+            @Override
+            protected Page<String> fetchPage(long skipCount) {
+                Page<String> page = super.fetchPage(skipCount);
+                if (skipCount == 10) {
+                    secondPage.countDown();
+                }
+                return page;
+            }
+        };
+
+        PrefetchingIterator<String> iterator = new PrefetchingIterable<String>(fetcher, 1, executor).iterator();
+        assertEquals("item0", iterator.next());
+
+        // the second page arrives while the first page hasn't been consumed
+        assertTrue(secondPage.await(10, TimeUnit.SECONDS));
+        assertEquals(Thread.currentThread().getName(), fetcher.threads.get(0));
+        assertFalse(Thread.currentThread().getName().equals(fetcher.threads.get(1)));
+        iterator.close();
+    }
+
+    @Test
+    public void testBoundedAndClose() throws Exception {
+        TestFetcher fetcher = new TestFetcher(1000, 10);
+        PrefetchingIterator<String> iterator = new PrefetchingIterable<String>(fetcher, 3, executor).iterator();
+        assertEquals("item0", iterator.next());
+
+        // the current page plus three prefetched pages
+        waitForFetches(fetcher, 4);
+        Thread.sleep(100);
+        assertEquals(4, fetcher.fetches.get());
+
+        // consuming a page makes room for one more page
+        for (int i = 1; i <= 10; i++) {
+            assertEquals("item" + i, iterator.next());
+        }
+        waitForFetches(fetcher, 5);
+        Thread.sleep(100);
+        assertEquals(5, fetcher.fetches.get());
+
+        iterator.close();
+        assertEquals(0, iterator.getPendingPages());
+
+        // iteration continues without prefetching
+        for (int i = 11; i < 40; i++) {
+            assertEquals("item" + i, iterator.next());
+        }
+        assertEquals(Thread.currentThread().getName(), fetcher.threads.get(fetcher.threads.size() - 1));
+    }
+
+    @Test
+    public void testFailure() {
+        TestFetcher fetcher = new TestFetcher(30, 10) {
+            @Override
+            protected Page<String> fetchPage(long skipCount) {
+                if (skipCount == 20) {
+                    throw new CmisRuntimeException("broken");
+                }
+                return super.fetchPage(skipCount);
+            }
+        };
+
+        PrefetchingIterator<String> iterator = new PrefetchingIterable<String>(fetcher, 2, executor).iterator();
+        for (int i = 0; i < 20; i++) {
+            assertEquals("item" + i, iterator.next());
+        }
+
+        try {
+            iterator.next();
+            fail("CmisRuntimeException expected!");
+        } catch (CmisRuntimeException e) {
+            assertEquals("broken", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testPrefetch() {
+        ItemIterable<String> iterable = new CollectionIterable<String>(new TestFetcher(10, 5));
+        assertTrue(PrefetchingIterable.prefetch(iterable, 2, executor) instanceof PrefetchingIterable);
+
+        // a single page doesn't need prefetching
+        ItemIterable<String> page = iterable.getPage();
+        assertSame(page, PrefetchingIterable.prefetch(page, 2, executor));
+    }
+
+    private static void waitForFetches(TestFetcher fetcher, int count) throws InterruptedException {
+        long end = System.currentTimeMillis() + 10000;
+        while (fetcher.fetches.get() < count && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, fetcher.fetches.get());
+    }
+
+    private static class TestFetcher extends AbstractPageFetcher<String> {
+
+        private final int size;
+        final AtomicInteger fetches = new AtomicInteger();
+        final List<String> threads = new CopyOnWriteArrayList<String>();
+
+        TestFetcher(int size, long pageSize) {
+            super(pageSize);
+            this.size = size;
+        }
+
+        @Override
+        protected Page<String> fetchPage(long skipCount) {
+            fetches.incrementAndGet();
+            threads.add(Thread.currentThread().getName());
+
+            List<String> items = new ArrayList<String>();
+            for (long i = skipCount; i < Math.min(size, skipCount + maxNumItems); i++) {
+                items.add("item" + i);
+            }
+
+            return new Page<String>(items, size, skipCount + items.size() < size);
+        }
+    }
+}
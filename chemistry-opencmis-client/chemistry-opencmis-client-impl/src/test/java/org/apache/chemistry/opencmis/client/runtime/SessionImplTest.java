@@ -0,0 +1,447 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.OperationContext;
+import org.apache.chemistry.opencmis.client.bindings.CmisBindingFactory;
+import org.apache.chemistry.opencmis.client.bindings.spi.BindingSession;
+import org.apache.chemistry.opencmis.client.bindings.spi.CmisSpi;
+import org.apache.chemistry.opencmis.client.runtime.cache.CacheStatisticsMBeans;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.apache.chemistry.opencmis.commons.data.ObjectData;
+import org.apache.chemistry.opencmis.commons.enums.BaseTypeId;
+import org.apache.chemistry.opencmis.commons.enums.BindingType;
+import org.apache.chemistry.opencmis.commons.enums.CapabilityQuery;
+import org.apache.chemistry.opencmis.commons.enums.Cardinality;
+import org.apache.chemistry.opencmis.commons.enums.CmisVersion;
+import org.apache.chemistry.opencmis.commons.enums.PropertyType;
+import org.apache.chemistry.opencmis.commons.enums.Updatability;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisNotSupportedException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisObjectNotFoundException;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.AbstractPropertyDefinition;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.FolderTypeDefinitionImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.ObjectDataImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.ObjectListImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertiesImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyIdImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyIdDefinitionImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyStringDefinitionImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyStringImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.RepositoryCapabilitiesImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.RepositoryInfoImpl;
+import org.apache.chemistry.opencmis.commons.spi.AclService;
+import org.apache.chemistry.opencmis.commons.spi.CacheStatistics;
+import org.apache.chemistry.opencmis.commons.spi.DiscoveryService;
+import org.apache.chemistry.opencmis.commons.spi.MultiFilingService;
+import org.apache.chemistry.opencmis.commons.spi.NavigationService;
+import org.apache.chemistry.opencmis.commons.spi.ObjectService;
+import org.apache.chemistry.opencmis.commons.spi.PolicyService;
+import org.apache.chemistry.opencmis.commons.spi.RelationshipService;
+import org.apache.chemistry.opencmis.commons.spi.RepositoryService;
+import org.apache.chemistry.opencmis.commons.spi.VersioningService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link SessionImpl} against a binding with an in-memory SPI.
+ */
+public class SessionImplTest {
+
+    private static final String REPOSITORY_ID = "test";
+
+    @Before
+    public void setUp() {
+        TestSpi.handler = new TestRepository();
+    }
+
+    @After
+    public void tearDown() {
+        TestSpi.handler = null;
+    }
+
+    @Test(timeout = 10000)
+    public void testConnectWithCacheStatisticsMBeans() throws Exception {
+        Map<String, String> parameters = createParameters();
+        parameters.put(SessionParameter.CACHE_STATISTICS_JMX, "true");
+        SessionImpl session = new SessionImpl(parameters, null, null, null, null);
+
+        // the type cache is created while the statistics are collected
+        session.connect();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertTrue(server.isRegistered(CacheStatisticsMBeans.createObjectName(session.getBinding()
+                    .getSessionId(), "Object Type Cache")));
+        } finally {
+            CacheStatisticsMBeans.unregister(session);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testCacheStatisticsBeforeConnect() {
+        SessionImpl session = new SessionImpl(createParameters(), null, null, null, null);
+        assertFalse(session.getCacheStatistics().isEmpty());
+    }
+
+    @Test(timeout = 20000)
+    public void testNoCoalescingWithoutCache() throws Exception {
+        // the caller without caching starts the request
+        checkCoalescing(false, true);
+    }
+
+    @Test(timeout = 20000)
+    public void testNoCoalescingWithCacheFollower() throws Exception {
+        // the caller with caching starts the request
+        checkCoalescing(true, false);
+    }
+
+    private void checkCoalescing(boolean firstCacheEnabled, boolean secondCacheEnabled) throws Exception {
+        final CountDownLatch requestStarted = new CountDownLatch(1);
+        final CountDownLatch releaseRequest = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+
+        TestSpi.handler = new TestRepository() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("getObject")) {
+                    calls.incrementAndGet();
+                    requestStarted.countDown();
+                    releaseRequest.await(10, TimeUnit.SECONDS);
+                    return createFolderData((String) args[1]);
+                }
+                return super.invoke(proxy, method, args);
+            }
+        };
+
+        final SessionImpl session = new SessionImpl(createParameters(), null, null, null, null);
+        session.connect();
+
+        final CmisObject[] results = new CmisObject[2];
+        Thread first = createGetObjectThread(session, createContext(firstCacheEnabled), results, 0);
+        first.start();
+        assertTrue(requestStarted.await(10, TimeUnit.SECONDS));
+
+        Thread second = createGetObjectThread(session, createContext(secondCacheEnabled), results, 1);
+        second.start();
+
+        // wait until the second request waits for a coalescer or the SPI
+        while (getCoalescedCount(session) + calls.get() < 2) {
+            Thread.sleep(10);
+        }
+
+        releaseRequest.countDown();
+        first.join();
+        second.join();
+
+        assertNotNull(results[0]);
+        assertNotNull(results[1]);
+        assertNotSame(results[0], results[1]);
+        assertEquals(0, getCoalescedCount(session, "Object Request Coalescing"));
+
+        // the caller with caching has filled the cache
+        int callCount = calls.get();
+        assertNotNull(session.getObject("1", createContext(true)));
+        assertEquals(callCount, calls.get());
+    }
+
+    @Test(timeout = 10000)
+    public void testGetObjectsByQuery() {
+        // all properties of the filter are queryable
+        checkGetObjects(PropertyIds.NAME + "," + PropertyIds.CREATED_BY, true);
+    }
+
+    @Test(timeout = 10000)
+    public void testGetObjectsWithoutQueryableFilter() {
+        // cmis:description is not queryable
+        checkGetObjects(PropertyIds.NAME + "," + PropertyIds.DESCRIPTION, false);
+        checkGetObjects("*", false);
+        checkGetObjects(null, false);
+    }
+
+    private void checkGetObjects(String filter, boolean byQuery) {
+        final AtomicInteger queries = new AtomicInteger();
+        final AtomicInteger calls = new AtomicInteger();
+
+        TestSpi.handler = new TestRepository() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("query")) {
+                    queries.incrementAndGet();
+                    ObjectListImpl list = new ObjectListImpl();
+                    list.setObjects(Arrays.<ObjectData> asList(createFolderData("1"), createFolderData("2"),
+                            createFolderData("3")));
+                    list.setHasMoreItems(false);
+                    return list;
+                }
+                if (method.getName().equals("getObject")) {
+                    calls.incrementAndGet();
+                    return createFolderData((String) args[1]);
+                }
+                return super.invoke(proxy, method, args);
+            }
+        };
+
+        SessionImpl session = new SessionImpl(createParameters(), null, null, null, null);
+        session.connect();
+
+        OperationContext context = createContext(true);
+        context.setFilterString(filter);
+        Map<String, CmisObject> objects = session.getObjects(
+                Arrays.asList(new ObjectIdImpl("1"), new ObjectIdImpl("2"), new ObjectIdImpl("3")), context);
+
+        assertEquals(3, objects.size());
+        if (byQuery) {
+            assertTrue(queries.get() > 0);
+            assertEquals(0, calls.get());
+        } else {
+            assertEquals(0, queries.get());
+            assertEquals(3, calls.get());
+        }
+    }
+
+    private static Thread createGetObjectThread(final SessionImpl session, final OperationContext context,
+            final CmisObject[] results, final int index) {
+        return new Thread() {
+            @Override
+            public void run() {
+                results[index] = session.getObject("1", context);
+            }
+        };
+    }
+
+    private static OperationContext createContext(boolean cacheEnabled) {
+        OperationContextImpl context = new OperationContextImpl();
+        context.setCacheEnabled(cacheEnabled);
+        return context;
+    }
+
+    private static long getCoalescedCount(SessionImpl session) {
+        return getCoalescedCount(session, "Object Request Coalescing")
+                + getCoalescedCount(session, "Object Request Coalescing (Binding)");
+    }
+
+    private static long getCoalescedCount(SessionImpl session, String name) {
+        for (CacheStatistics stats : session.getCacheStatistics()) {
+            if (name.equals(stats.getName())) {
+                return stats.getHitCount();
+            }
+        }
+        return 0;
+    }
+
+    private static Map<String, String> createParameters() {
+        Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put(SessionParameter.BINDING_TYPE, BindingType.CUSTOM.value());
+        parameters.put(SessionParameter.BINDING_SPI_CLASS, TestSpi.class.getName());
+        parameters.put(SessionParameter.TYPE_DEFINITION_CACHE_CLASS,
+                CmisBindingFactory.DEFAULT_TYPE_DEFINITION_CACHE_CLASS);
+        parameters.put(SessionParameter.REPOSITORY_ID, REPOSITORY_ID);
+        return parameters;
+    }
+
+    private static ObjectDataImpl createFolderData(String id) {
+        PropertiesImpl properties = new PropertiesImpl();
+        properties.addProperty(new PropertyIdImpl(PropertyIds.OBJECT_ID, id));
+        properties.addProperty(new PropertyIdImpl(PropertyIds.OBJECT_TYPE_ID, BaseTypeId.CMIS_FOLDER.value()));
+        properties.addProperty(new PropertyIdImpl(PropertyIds.BASE_TYPE_ID, BaseTypeId.CMIS_FOLDER.value()));
+        properties.addProperty(new PropertyStringImpl(PropertyIds.NAME, "folder " + id));
+
+        ObjectDataImpl objectData = new ObjectDataImpl();
+        objectData.setProperties(properties);
+        return objectData;
+    }
+
+    /**
+     * A repository that only knows the folder type. Subclasses handle
+     * the other operations a test needs.
+     */
+    static class TestRepository implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("getRepositoryInfo")) {
+                return createRepositoryInfo();
+            } else if (name.equals("getTypeDefinition")) {
+                if (BaseTypeId.CMIS_FOLDER.value().equals(args[1])) {
+                    return createFolderType();
+                }
+                throw new CmisObjectNotFoundException("Type " + args[1] + " not found!");
+            }
+
+            throw new CmisNotSupportedException(name);
+        }
+
+        private static RepositoryInfoImpl createRepositoryInfo() {
+            RepositoryCapabilitiesImpl capabilities = new RepositoryCapabilitiesImpl();
+            capabilities.setCapabilityQuery(CapabilityQuery.METADATAONLY);
+
+            RepositoryInfoImpl info = new RepositoryInfoImpl();
+            info.setId(REPOSITORY_ID);
+            info.setName(REPOSITORY_ID);
+            info.setCmisVersion(CmisVersion.CMIS_1_1);
+            info.setCmisVersionSupported(CmisVersion.CMIS_1_1.value());
+            info.setCapabilities(capabilities);
+            return info;
+        }
+
+        private static FolderTypeDefinitionImpl createFolderType() {
+            FolderTypeDefinitionImpl type = new FolderTypeDefinitionImpl();
+            type.setId(BaseTypeId.CMIS_FOLDER.value());
+            type.setQueryName(BaseTypeId.CMIS_FOLDER.value());
+            type.setBaseTypeId(BaseTypeId.CMIS_FOLDER);
+            type.setIsQueryable(true);
+            type.setIsCreatable(true);
+            type.setIsFileable(true);
+            type.addPropertyDefinition(createPropertyDefinition(new PropertyIdDefinitionImpl(),
+                    PropertyIds.OBJECT_ID, PropertyType.ID, true));
+            type.addPropertyDefinition(createPropertyDefinition(new PropertyIdDefinitionImpl(),
+                    PropertyIds.OBJECT_TYPE_ID, PropertyType.ID, true));
+            type.addPropertyDefinition(createPropertyDefinition(new PropertyIdDefinitionImpl(),
+                    PropertyIds.BASE_TYPE_ID, PropertyType.ID, true));
+            type.addPropertyDefinition(createPropertyDefinition(new PropertyIdDefinitionImpl(),
+                    PropertyIds.PARENT_ID, PropertyType.ID, true));
+            type.addPropertyDefinition(createPropertyDefinition(new PropertyStringDefinitionImpl(),
+                    PropertyIds.NAME, PropertyType.STRING, true));
+            type.addPropertyDefinition(createPropertyDefinition(new PropertyStringDefinitionImpl(),
+                    PropertyIds.PATH, PropertyType.STRING, true));
+            type.addPropertyDefinition(createPropertyDefinition(new PropertyStringDefinitionImpl(),
+                    PropertyIds.CREATED_BY, PropertyType.STRING, true));
+            type.addPropertyDefinition(createPropertyDefinition(new PropertyStringDefinitionImpl(),
+                    PropertyIds.LAST_MODIFIED_BY, PropertyType.STRING, true));
+            type.addPropertyDefinition(createPropertyDefinition(new PropertyStringDefinitionImpl(),
+                    PropertyIds.CHANGE_TOKEN, PropertyType.STRING, true));
+            type.addPropertyDefinition(createPropertyDefinition(new PropertyStringDefinitionImpl(),
+                    PropertyIds.DESCRIPTION, PropertyType.STRING, false));
+            return type;
+        }
+
+        private static AbstractPropertyDefinition<?> createPropertyDefinition(
+                AbstractPropertyDefinition<?> definition, String id, PropertyType propertyType, boolean queryable) {
+            definition.setId(id);
+            definition.setLocalName(id);
+            definition.setQueryName(id);
+            definition.setPropertyType(propertyType);
+            definition.setCardinality(Cardinality.SINGLE);
+            definition.setUpdatability(Updatability.READONLY);
+            definition.setIsQueryable(queryable);
+            definition.setIsInherited(false);
+            return definition;
+        }
+    }
+
+    /**
+     * SPI whose services are handled by {@link #handler}.
+     */
+    public static class TestSpi implements CmisSpi {
+
+        static volatile InvocationHandler handler;
+
+        public TestSpi(BindingSession session) {
+        }
+
+        private static <T> T createService(Class<T> serviceInterface) {
+            return serviceInterface.cast(Proxy.newProxyInstance(TestSpi.class.getClassLoader(),
+                    new Class<?>[] { serviceInterface }, new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                            return handler.invoke(proxy, method, args);
+                        }
+                    }));
+        }
+
+        @Override
+        public RepositoryService getRepositoryService() {
+            return createService(RepositoryService.class);
+        }
+
+        @Override
+        public NavigationService getNavigationService() {
+            return createService(NavigationService.class);
+        }
+
+        @Override
+        public ObjectService getObjectService() {
+            return createService(ObjectService.class);
+        }
+
+        @Override
+        public VersioningService getVersioningService() {
+            return createService(VersioningService.class);
+        }
+
+        @Override
+        public RelationshipService getRelationshipService() {
+            return createService(RelationshipService.class);
+        }
+
+        @Override
+        public DiscoveryService getDiscoveryService() {
+            return createService(DiscoveryService.class);
+        }
+
+        @Override
+        public MultiFilingService getMultiFilingService() {
+            return createService(MultiFilingService.class);
+        }
+
+        @Override
+        public AclService getAclService() {
+            return createService(AclService.class);
+        }
+
+        @Override
+        public PolicyService getPolicyService() {
+            return createService(PolicyService.class);
+        }
+
+        @Override
+        public void clearAllCaches() {
+        }
+
+        @Override
+        public void clearRepositoryCache(String repositoryId) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
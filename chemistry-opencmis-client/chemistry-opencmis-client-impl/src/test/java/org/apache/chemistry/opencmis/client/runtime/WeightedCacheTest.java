@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.client.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.runtime.cache.ObjectSizeEstimator;
+import org.apache.chemistry.opencmis.client.runtime.cache.WeightedCacheImpl;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.junit.Test;
+
+public class WeightedCacheTest {
+
+    private static final String CACHE_KEY = "key";
+
+    @Test
+    public void memoryAccountingTest() {
+        WeightedCacheImpl cache = createCache(100, 10000);
+
+        cache.put(new WeightedObjectMock("1", 100), CACHE_KEY);
+        cache.put(new WeightedObjectMock("2", 200), CACHE_KEY);
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(300, cache.getMemoryUsage());
+
+        // second cache key of the same object
+        cache.put(new WeightedObjectMock("1", 50), "otherKey");
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(350, cache.getMemoryUsage());
+
+        // replace an object
+        cache.put(new WeightedObjectMock("2", 20), CACHE_KEY);
+        assertEquals(170, cache.getMemoryUsage());
+
+        cache.remove("1");
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(20, cache.getMemoryUsage());
+        assertFalse(cache.containsId("1", CACHE_KEY));
+
+        cache.clear();
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getMemoryUsage());
+    }
+
+    @Test
+    public void memoryLimitTest() {
+        WeightedCacheImpl cache = createCache(100, 1000);
+
+        cache.put(new WeightedObjectMock("1", 400), CACHE_KEY);
+        cache.put(new WeightedObjectMock("2", 400), CACHE_KEY);
+
+        // touch 1, 2 is now the least recently used entry
+        assertNotNull(cache.getById("1", CACHE_KEY));
+
+        cache.put(new WeightedObjectMock("3", 400), CACHE_KEY);
+
+        assertTrue(cache.getMemoryUsage() <= 1000);
+        assertNotNull(cache.getById("1", CACHE_KEY));
+        assertNull(cache.getById("2", CACHE_KEY)); // thrown out
+        assertNotNull(cache.getById("3", CACHE_KEY));
+    }
+
+    @Test
+    public void sizeLimitTest() {
+        WeightedCacheImpl cache = createCache(3, 1000000);
+
+        for (int i = 0; i < 4; i++) {
+            cache.put(new WeightedObjectMock("id" + i, 10), CACHE_KEY);
+        }
+
+        // at least one entry below the limit: id0 and id1 are thrown out
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(20, cache.getMemoryUsage());
+        assertNull(cache.getById("id0", CACHE_KEY));
+        assertNull(cache.getById("id1", CACHE_KEY));
+        assertNotNull(cache.getById("id3", CACHE_KEY));
+    }
+
+    @Test
+    public void pathTest() {
+        WeightedCacheImpl cache = createCache(100, 10000);
+
+        CmisObject obj = new WeightedObjectMock("1", 100);
+        cache.putPath("/1", obj, CACHE_KEY);
+
+        assertTrue(cache.containsPath("/1", CACHE_KEY));
+        assertEquals(obj, cache.getByPath("/1", CACHE_KEY));
+        assertEquals("1", cache.getObjectIdByPath("/1"));
+
+        cache.remove("1");
+        assertFalse(cache.containsPath("/1", CACHE_KEY));
+    }
+
+    @Test
+    public void estimatorTest() {
+        assertEquals(0, ObjectSizeEstimator.estimate(null));
+        assertTrue(ObjectSizeEstimator.estimate(new CmisObjectMock("1")) > 0);
+    }
+
+    private static WeightedCacheImpl createCache(int cacheSize, long cacheMemory) {
+        WeightedCacheImpl cache = new WeightedCacheImpl() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected long estimateSize(CmisObject object) {
+                return ((WeightedObjectMock) object).weight;
+            }
+        };
+
+        Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put(SessionParameter.CACHE_SIZE_OBJECTS, "" + cacheSize);
+        parameters.put(SessionParameter.CACHE_MEMORY_OBJECTS, "" + cacheMemory);
+
+        cache.initialize(null, parameters);
+
+        return cache;
+    }
+
+    private static class WeightedObjectMock extends CmisObjectMock {
+
+        private static final long serialVersionUID = 1L;
+
+        final long weight;
+
+        public WeightedObjectMock(String id, long weight) {
+            super(id);
+            this.weight = weight;
+        }
+    }
+}
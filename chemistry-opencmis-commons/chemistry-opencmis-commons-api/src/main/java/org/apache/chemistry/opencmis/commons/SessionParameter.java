@@ -166,6 +166,22 @@ package org.apache.chemistry.opencmis.commons;
  * <td>false</td>
  * </tr>
  * <tr>
+ * <td>{@link #COMPRESSION_ENCODINGS}</td>
+ * <td>Content codings the client accepts if compression is on, the most preferred first</td>
+ * <td>AtomPub, Browser</td>
+ * <td>comma separated list, for example "zstd,gzip"</td>
+ * <td>no</td>
+ * <td>gzip,deflate</td>
+ * </tr>
+ * <tr>
+ * <td>{@link #CLIENT_COMPRESSION_ENCODING}</td>
+ * <td>Content coding of compressed requests. The server must support it.</td>
+ * <td>AtomPub, Browser</td>
+ * <td>"gzip", "deflate", "zstd"</td>
+ * <td>no</td>
+ * <td>gzip</td>
+ * </tr>
+ * <tr>
  * <td>{@link #COOKIES}</td>
  * <td>Switch to turn cookie support on or off</td>
  * <td>AtomPub, Web Services, Browser</td>
@@ -230,6 +246,86 @@ package org.apache.chemistry.opencmis.commons;
  * <td>JVM default</td>
  * </tr>
  * <tr>
+ * <td>{@link #HTTP_POOL_MAX_TOTAL}</td>
+ * <td>Maximum number of pooled connections (Apache HTTP client only, OkHttp cannot limit the connections of synchronous requests)</td>
+ * <td>AtomPub, Browser</td>
+ * <td>number</td>
+ * <td>no</td>
+ * <td>4 * http.maxConnections</td>
+ * </tr>
+ * <tr>
+ * <td>{@link #HTTP_POOL_MAX_PER_ROUTE}</td>
+ * <td>Maximum number of pooled connections per host (Apache HTTP client only, OkHttp cannot limit the connections of synchronous requests)</td>
+ * <td>AtomPub, Browser</td>
+ * <td>number</td>
+ * <td>no</td>
+ * <td>http.maxConnections</td>
+ * </tr>
+ * <tr>
+ * <td>{@link #HTTP_POOL_IDLE_TIMEOUT}</td>
+ * <td>Time after which idle pooled connections are closed (Apache HTTP client and OkHttp). For the Apache HTTP client, a background thread closes idle connections periodically.</td>
+ * <td>AtomPub, Browser</td>
+ * <td>time in milliseconds</td>
+ * <td>no</td>
+ * <td>never (Apache), 5 minutes (OkHttp)</td>
+ * </tr>
+ * <tr>
+ * <td>{@link #HTTP_POOL_KEEP_ALIVE}</td>
+ * <td>Maximum time a connection is kept alive between requests if the server doesn't send a shorter Keep-Alive timeout (Apache HTTP client). OkHttp uses it as idle timeout if no idle timeout is set.</td>
+ * <td>AtomPub, Browser</td>
+ * <td>time in milliseconds</td>
+ * <td>no</td>
+ * <td>server Keep-Alive header or forever</td>
+ * </tr>
+ * <tr>
+ * <td>{@link #HTTP_POOL_VALIDATE_AFTER_INACTIVITY}</td>
+ * <td>Time of inactivity after which a pooled connection is not reused anymore (Apache HTTP client). Such connections are closed by a background thread that runs every half of this time. If not set, every connection is checked for staleness before it is reused.</td>
+ * <td>AtomPub, Browser</td>
+ * <td>time in milliseconds</td>
+ * <td>no</td>
+ * <td>-</td>
+ * </tr>
+ * <tr>
+ * <td>{@link #HTTP_CACHE_SIZE}</td>
+ * <td>Enables the client HTTP cache. GET responses with an ETag or Last-Modified header are kept and revalidated with conditional requests (default and Apache HTTP client).</td>
+ * <td>AtomPub, Browser</td>
+ * <td>size in bytes</td>
+ * <td>no</td>
+ * <td>cache disabled</td>
+ * </tr>
+ * <tr>
+ * <td>{@link #HTTP_CACHE_DIRECTORY}</td>
+ * <td>Directory of the client HTTP cache. If not set, the responses are kept in memory.</td>
+ * <td>AtomPub, Browser</td>
+ * <td>path</td>
+ * <td>no</td>
+ * <td>memory</td>
+ * </tr>
+ * <tr>
+ * <td>{@link #HTTP_INVOKER_LISTENER_CLASS}</td>
+ * <td>Comma separated list of HTTP invocation listener classes that are notified about every request</td>
+ * <td>AtomPub, Browser</td>
+ * <td>class names</td>
+ * <td>no</td>
+ * <td>-</td>
+ * </tr>
+ * <tr>
+ * <td>{@link #HTTP_METRICS}</td>
+ * <td>Switch to turn the collection of request counts, bytes and latency percentiles per CMIS operation on or off</td>
+ * <td>AtomPub, Browser</td>
+ * <td>"true", "false"</td>
+ * <td>no</td>
+ * <td>false</td>
+ * </tr>
+ * <tr>
+ * <td>{@link #HTTP_METRICS_JMX}</td>
+ * <td>Registers the HTTP metrics as a JMX MBean. Requires {@link #HTTP_METRICS}.</td>
+ * <td>AtomPub, Browser</td>
+ * <td>"true", "false"</td>
+ * <td>no</td>
+ * <td>false</td>
+ * </tr>
+ * <tr>
  * <td colspan="6"><b>Cache settings</b></td>
  * </tr>
  * <tr>
@@ -258,6 +354,33 @@ package org.apache.chemistry.opencmis.commons;
  * <td>1000</td>
  * </tr>
  * <tr>
+ * <td>{@link #CACHE_MEMORY_OBJECTS}</td>
+ * <td>Object cache memory limit (only used by
+ * org.apache.chemistry.opencmis.client.runtime.cache.WeightedCacheImpl)</td>
+ * <td>all</td>
+ * <td>estimated size in bytes</td>
+ * <td>no</td>
+ * <td>67108864 (64 MiB)</td>
+ * </tr>
+ * <tr>
+ * <td>{@link #CACHE_OFFHEAP_SIZE}</td>
+ * <td>Off-heap object cache tier size (only used by
+ * org.apache.chemistry.opencmis.client.runtime.cache.TieredCacheImpl)</td>
+ * <td>all</td>
+ * <td>size in bytes, 0 turns the tier off</td>
+ * <td>no</td>
+ * <td>134217728 (128 MiB)</td>
+ * </tr>
+ * <tr>
+ * <td>{@link #CACHE_OFFHEAP_FILE}</td>
+ * <td>Memory-mapped file of the off-heap object cache tier (only used by
+ * org.apache.chemistry.opencmis.client.runtime.cache.TieredCacheImpl)</td>
+ * <td>all</td>
+ * <td>file path</td>
+ * <td>no</td>
+ * <td>- (direct buffer)</td>
+ * </tr>
+ * <tr>
  * <td>{@link #CACHE_TTL_OBJECTS}</td>
  * <td>Object cache time-to-live</td>
  * <td>all</td>
@@ -290,6 +413,14 @@ package org.apache.chemistry.opencmis.commons;
  * <td>false</td>
  * </tr>
  * <tr>
+ * <td>{@link #CACHE_STATISTICS_JMX}</td>
+ * <td>Register the cache statistics of the session as JMX MBeans</td>
+ * <td>all</td>
+ * <td>"true", "false"</td>
+ * <td>no</td>
+ * <td>false</td>
+ * </tr>
+ * <tr>
  * <td>{@link #CACHE_SIZE_REPOSITORIES}</td>
  * <td>Repository info cache size</td>
  * <td>all</td>
@@ -306,6 +437,24 @@ package org.apache.chemistry.opencmis.commons;
  * <td>100</td>
  * </tr>
  * <tr>
+ * <td>{@link #CACHE_METADATA_FILE}</td>
+ * <td>File that keeps the repository infos, type definitions and AtomPub links
+ * between binding sessions. The file must not be writable by others.</td>
+ * <td>all</td>
+ * <td>file path</td>
+ * <td>no</td>
+ * <td>-</td>
+ * </tr>
+ * <tr>
+ * <td>{@link #CACHE_PREFETCH_TYPES}</td>
+ * <td>Fetch the whole type hierarchy when the session is created and cache
+ * all object types</td>
+ * <td>all</td>
+ * <td>"true", "false"</td>
+ * <td>no</td>
+ * <td>false</td>
+ * </tr>
+ * <tr>
  * <td>{@link #CACHE_SIZE_LINKS}</td>
  * <td>AtomPub link cache size</td>
  * <td>AtomPub</td>
@@ -716,6 +865,8 @@ public final class SessionParameter {
 
     public static final String COMPRESSION = "org.apache.chemistry.opencmis.binding.compression";
     public static final String CLIENT_COMPRESSION = "org.apache.chemistry.opencmis.binding.clientcompression";
+    public static final String COMPRESSION_ENCODINGS = "org.apache.chemistry.opencmis.binding.compression.encodings";
+    public static final String CLIENT_COMPRESSION_ENCODING = "org.apache.chemistry.opencmis.binding.clientcompression.encoding";
 
     public static final String COOKIES = "org.apache.chemistry.opencmis.binding.cookies";
 
@@ -724,6 +875,19 @@ public final class SessionParameter {
     public static final String CONNECT_TIMEOUT = "org.apache.chemistry.opencmis.binding.connecttimeout";
     public static final String READ_TIMEOUT = "org.apache.chemistry.opencmis.binding.readtimeout";
 
+    public static final String HTTP_POOL_MAX_TOTAL = "org.apache.chemistry.opencmis.binding.http.pool.maxtotal";
+    public static final String HTTP_POOL_MAX_PER_ROUTE = "org.apache.chemistry.opencmis.binding.http.pool.maxperroute";
+    public static final String HTTP_POOL_IDLE_TIMEOUT = "org.apache.chemistry.opencmis.binding.http.pool.idletimeout";
+    public static final String HTTP_POOL_KEEP_ALIVE = "org.apache.chemistry.opencmis.binding.http.pool.keepalive";
+    public static final String HTTP_POOL_VALIDATE_AFTER_INACTIVITY = "org.apache.chemistry.opencmis.binding.http.pool.validateafterinactivity";
+
+    public static final String HTTP_CACHE_SIZE = "org.apache.chemistry.opencmis.binding.http.cache.size";
+    public static final String HTTP_CACHE_DIRECTORY = "org.apache.chemistry.opencmis.binding.http.cache.directory";
+
+    public static final String HTTP_INVOKER_LISTENER_CLASS = "org.apache.chemistry.opencmis.binding.httpinvoker.listener.classname";
+    public static final String HTTP_METRICS = "org.apache.chemistry.opencmis.binding.http.metrics";
+    public static final String HTTP_METRICS_JMX = "org.apache.chemistry.opencmis.binding.http.metrics.jmx";
+
     public static final String PROXY_USER = "org.apache.chemistry.opencmis.binding.proxyuser";
     public static final String PROXY_PASSWORD = "org.apache.chemistry.opencmis.binding.proxypassword";
 
@@ -734,14 +898,20 @@ public final class SessionParameter {
     // --- cache ---
 
     public static final String CACHE_SIZE_OBJECTS = "org.apache.chemistry.opencmis.cache.objects.size";
+    public static final String CACHE_MEMORY_OBJECTS = "org.apache.chemistry.opencmis.cache.objects.memory";
+    public static final String CACHE_OFFHEAP_SIZE = "org.apache.chemistry.opencmis.cache.offheap.size";
+    public static final String CACHE_OFFHEAP_FILE = "org.apache.chemistry.opencmis.cache.offheap.file";
     public static final String CACHE_TTL_OBJECTS = "org.apache.chemistry.opencmis.cache.objects.ttl";
     public static final String CACHE_SIZE_PATHTOID = "org.apache.chemistry.opencmis.cache.pathtoid.size";
     public static final String CACHE_TTL_PATHTOID = "org.apache.chemistry.opencmis.cache.pathtoid.ttl";
     public static final String CACHE_PATH_OMIT = "org.apache.chemistry.opencmis.cache.path.omit";
+    public static final String CACHE_STATISTICS_JMX = "org.apache.chemistry.opencmis.cache.statistics.jmx";
 
     public static final String CACHE_SIZE_REPOSITORIES = "org.apache.chemistry.opencmis.binding.cache.repositories.size";
     public static final String CACHE_SIZE_TYPES = "org.apache.chemistry.opencmis.binding.cache.types.size";
     public static final String CACHE_SIZE_LINKS = "org.apache.chemistry.opencmis.binding.cache.links.size";
+    public static final String CACHE_PREFETCH_TYPES = "org.apache.chemistry.opencmis.cache.types.prefetch";
+    public static final String CACHE_METADATA_FILE = "org.apache.chemistry.opencmis.binding.cache.metadata.file";
 
     // --- session control ---
 
@@ -21,6 +21,8 @@ package org.apache.chemistry.opencmis.commons;
 public final class SessionParameterDefaults {
 
     public static final int CACHE_SIZE_OBJECTS = 1000;
+    public static final long CACHE_MEMORY_OBJECTS = 64L * 1024 * 1024;
+    public static final int CACHE_OFFHEAP_SIZE = 128 * 1024 * 1024;
     public static final int CACHE_TTL_OBJECTS = 2 * 60 * 60 * 1000;
     public static final int CACHE_SIZE_PATHTOID = 1000;
     public static final int CACHE_TTL_PATHTOID = 30 * 60 * 1000;
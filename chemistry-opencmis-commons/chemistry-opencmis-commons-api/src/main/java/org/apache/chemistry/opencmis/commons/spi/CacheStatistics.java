@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.commons.spi;
+
+import java.io.Serializable;
+
+/**
+ * Statistics of a client cache.
+ * <p>
+ * The counters start when the cache is created. Caches that are recreated when
+ * they are cleared start again from zero.
+ */
+public interface CacheStatistics extends Serializable {
+
+    /**
+     * Returns the name of the cache.
+     */
+    String getName();
+
+    /**
+     * Returns the number of lookups that found an entry.
+     */
+    long getHitCount();
+
+    /**
+     * Returns the number of lookups that didn't find an entry.
+     */
+    long getMissCount();
+
+    /**
+     * Returns the ratio of hits to all lookups.
+     * 
+     * @return the hit ratio between 0.0 and 1.0, or 0.0 if there hasn't been a
+     *         lookup yet
+     */
+    double getHitRatio();
+
+    /**
+     * Returns the number of entries that have been added or replaced.
+     */
+    long getPutCount();
+
+    /**
+     * Returns the number of entries that have been removed because the cache
+     * was full.
+     */
+    long getEvictionCount();
+
+    /**
+     * Returns the number of entries that have been removed because their
+     * time-to-live was exceeded.
+     */
+    long getExpirationCount();
+
+    /**
+     * Returns the current number of entries.
+     * 
+     * @return the number of entries or -1 if the cache cannot provide this
+     *         number
+     */
+    long getEntryCount();
+}
@@ -19,6 +19,8 @@
 package org.apache.chemistry.opencmis.commons.spi;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.chemistry.opencmis.commons.enums.BindingType;
 
@@ -116,6 +118,16 @@ public interface CmisBinding extends Serializable {
      */
     void clearRepositoryCache(String repositoryId);
 
+    /**
+     * Returns the statistics of all caches of the current CMIS binding
+     * session.
+     * <p>
+     * The default implementation returns an empty list.
+     */
+    default List<CacheStatistics> getCacheStatistics() {
+        return Collections.emptyList();
+    }
+
     /**
      * Releases all resources assigned to this binding instance.
      */
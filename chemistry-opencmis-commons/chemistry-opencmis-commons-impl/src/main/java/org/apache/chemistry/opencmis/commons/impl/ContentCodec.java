@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.commons.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Encodes and decodes HTTP bodies with a content coding, for example gzip.
+ * <p>
+ * Additional codecs can be registered with the {@link java.util.ServiceLoader}
+ * mechanism. See {@link ContentCodecs}.
+ */
+public interface ContentCodec {
+
+    /**
+     * Returns the name of the content coding as it is used in the
+     * {@code Accept-Encoding} and {@code Content-Encoding} headers.
+     */
+    String getName();
+
+    /**
+     * Wraps a stream of encoded data.
+     */
+    InputStream decode(InputStream stream) throws IOException;
+
+    /**
+     * Wraps a stream that receives the encoded data. Closing the returned
+     * stream finishes the encoding and closes the given stream.
+     */
+    OutputStream encode(OutputStream stream) throws IOException;
+}
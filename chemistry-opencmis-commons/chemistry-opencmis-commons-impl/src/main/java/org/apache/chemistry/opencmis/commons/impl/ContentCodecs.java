@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.commons.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registry of the available {@link ContentCodec} implementations and helpers
+ * for the content coding negotiation.
+ * <p>
+ * gzip and deflate are always available. zstd is available if the zstd-jni
+ * library is on the class path. Other codecs can be added with a
+ * {@code META-INF/services/org.apache.chemistry.opencmis.commons.impl.ContentCodec}
+ * file.
+ */
+public final class ContentCodecs {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ContentCodecs.class);
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+    public static final String ZSTD = ZstdContentCodec.NAME;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Map<String, ContentCodec> CODECS;
+
+    static {
+        Map<String, ContentCodec> codecs = new LinkedHashMap<String, ContentCodec>();
+        add(codecs, new GzipCodec());
+        add(codecs, new DeflateCodec());
+
+        try {
+            ContentCodec zstd = new ZstdContentCodec();
+            // make sure the native library can be loaded
+            zstd.encode(new ByteArrayOutputStream()).close();
+            add(codecs, zstd);
+        } catch (Exception e) {
+            LOG.debug("zstd is not available: {}", e.toString());
+        } catch (LinkageError e) {
+            LOG.debug("zstd is not available: {}", e.toString());
+        }
+
+        try {
+            Iterator<ContentCodec> iterator = ServiceLoader.load(ContentCodec.class, ContentCodecs.class.getClassLoader())
+                    .iterator();
+            while (iterator.hasNext()) {
+                add(codecs, iterator.next());
+            }
+        } catch (ServiceConfigurationError e) {
+            LOG.warn("Content codec cannot be loaded: {}", e.toString(), e);
+        }
+
+        CODECS = Collections.unmodifiableMap(codecs);
+    }
+
+    private ContentCodecs() {
+    }
+
+    private static void add(Map<String, ContentCodec> codecs, ContentCodec codec) {
+        codecs.put(codec.getName().toLowerCase(Locale.ENGLISH), codec);
+    }
+
+    /**
+     * Returns the names of all available codecs.
+     */
+    public static Set<String> getCodecNames() {
+        return CODECS.keySet();
+    }
+
+    /**
+     * Returns the codec for a content coding.
+     * 
+     * @return the codec or {@code null} if the content coding is not supported
+     */
+    public static ContentCodec getCodec(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        String key = name.trim().toLowerCase(Locale.ENGLISH);
+        if (key.equals("x-gzip")) {
+            key = GZIP;
+        }
+
+        return CODECS.get(key);
+    }
+
+    /**
+     * Returns the available codecs of a comma separated list of content
+     * codings, in the order of the list. Unknown content codings are skipped.
+     */
+    public static List<ContentCodec> getCodecs(String names) {
+        List<ContentCodec> result = new ArrayList<ContentCodec>();
+        if (names == null) {
+            return result;
+        }
+
+        for (String name : names.split(",")) {
+            ContentCodec codec = getCodec(name);
+            if (codec != null && !result.contains(codec)) {
+                result.add(codec);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds an {@code Accept-Encoding} header value from a comma separated
+     * list of content codings. Codecs that are not available are left out.
+     * 
+     * @return the header value or {@code null} if none of the codecs is
+     *         available
+     */
+    public static String getAcceptEncoding(String names) {
+        StringBuilder sb = new StringBuilder();
+        for (ContentCodec codec : getCodecs(names)) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(codec.getName());
+        }
+
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    /**
+     * Selects the codec for a response.
+     * 
+     * @param acceptEncoding
+     *            the {@code Accept-Encoding} header of the request
+     * @param preferred
+     *            the codecs the server supports, the most preferred first
+     * 
+     * @return the first codec of the preferred list that the client accepts
+     *         or {@code null} if the response should not be encoded
+     */
+    public static ContentCodec negotiate(String acceptEncoding, List<ContentCodec> preferred) {
+        if (acceptEncoding == null || preferred == null || preferred.isEmpty()) {
+            return null;
+        }
+
+        Map<String, Boolean> accepted = new LinkedHashMap<String, Boolean>();
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String name = params[0].trim().toLowerCase(Locale.ENGLISH);
+            if (name.length() == 0) {
+                continue;
+            }
+
+            boolean acceptable = true;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim().toLowerCase(Locale.ENGLISH);
+                if (param.startsWith("q=")) {
+                    try {
+                        acceptable = Double.parseDouble(param.substring(2).trim()) > 0;
+                    } catch (NumberFormatException e) {
+                        acceptable = false;
+                    }
+                }
+            }
+
+            accepted.put(name.equals("x-gzip") ? GZIP : name, acceptable);
+        }
+
+        Boolean wildcard = accepted.get("*");
+        for (ContentCodec codec : preferred) {
+            Boolean acceptable = accepted.get(codec.getName().toLowerCase(Locale.ENGLISH));
+            if (acceptable == null) {
+                acceptable = wildcard;
+            }
+            if (Boolean.TRUE.equals(acceptable)) {
+                return codec;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * gzip codec.
+     */
+    private static class GzipCodec implements ContentCodec {
+        @Override
+        public String getName() {
+            return GZIP;
+        }
+
+        @Override
+        public InputStream decode(InputStream stream) throws IOException {
+            return new GZIPInputStream(stream, BUFFER_SIZE);
+        }
+
+        @Override
+        public OutputStream encode(OutputStream stream) throws IOException {
+            return new GZIPOutputStream(stream, 4096);
+        }
+    }
+
+    /**
+     * deflate codec. Like earlier OpenCMIS versions, it uses raw deflate data
+     * without a zlib header.
+     */
+    private static class DeflateCodec implements ContentCodec {
+        @Override
+        public String getName() {
+            return DEFLATE;
+        }
+
+        @Override
+        public InputStream decode(InputStream stream) throws IOException {
+            return new InflaterInputStream(stream, new Inflater(true), BUFFER_SIZE);
+        }
+
+        @Override
+        public OutputStream encode(OutputStream stream) throws IOException {
+            final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            return new DeflaterOutputStream(stream, deflater, 4096) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        deflater.end();
+                    }
+                }
+            };
+        }
+    }
+}
@@ -21,6 +21,10 @@ package org.apache.chemistry.opencmis.commons.impl;
 import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -29,6 +33,8 @@ import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -311,6 +317,62 @@ public final class IOUtils {
         }
     }
 
+    /**
+     * Copies the first bytes of a file to an output stream.
+     * 
+     * If the output stream is a file stream, the data is transferred by the
+     * operating system. Otherwise the file channel reads directly into a large
+     * buffer that is handed to the output stream without an intermediate
+     * buffered stream. The output stream will not be closed after the copy.
+     * 
+     * @param file
+     *            the file, must not be {@code null}
+     * @param length
+     *            the number of bytes to copy
+     * @param out
+     *            the output stream, must not be {@code null}
+     * 
+     * @throws EOFException
+     *             if the file is shorter than {@code length}
+     */
+    public static void copyFile(File file, long length, OutputStream out) throws IOException {
+        assert file != null;
+        assert out != null;
+
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            long pos = 0;
+
+            if (out instanceof FileOutputStream) {
+                FileChannel target = ((FileOutputStream) out).getChannel();
+                while (pos < length) {
+                    long n = channel.transferTo(pos, length - pos, target);
+                    if (n <= 0 && pos >= channel.size()) {
+                        throw new EOFException("File " + file + " is shorter than " + length + " bytes!");
+                    }
+                    pos += n;
+                }
+            } else {
+                ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(Math.max(length, 1), 256 * 1024));
+                while (pos < length) {
+                    buffer.clear();
+                    if (length - pos < buffer.capacity()) {
+                        buffer.limit((int) (length - pos));
+                    }
+                    int n = channel.read(buffer, pos);
+                    if (n < 0) {
+                        throw new EOFException("File " + file + " is shorter than " + length + " bytes!");
+                    }
+                    out.write(buffer.array(), 0, n);
+                    pos += n;
+                }
+            }
+        } finally {
+            in.close();
+        }
+    }
+
     /**
      * Reads lines from an UTF-8 encoded stream and closes the stream.
      * 
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.commons.impl.dataobjects;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.math.BigInteger;
+
+import org.apache.chemistry.opencmis.commons.data.FileContentStream;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisRuntimeException;
+
+/**
+ * Content stream data implementation that is backed by a file.
+ * <p>
+ * The file is only opened if {@link #getStream()} is called.
+ */
+public class FileContentStreamImpl extends ContentStreamImpl implements FileContentStream {
+
+    private static final long serialVersionUID = 1L;
+
+    private File file;
+    private boolean opened;
+
+    /**
+     * Constructor.
+     * 
+     * @throws FileNotFoundException
+     *             if the file does not exist or is not a file
+     */
+    public FileContentStreamImpl(String filename, File file, String mimetype) throws FileNotFoundException {
+        super(filename, null, mimetype, null);
+
+        if (file == null || !file.isFile()) {
+            throw new FileNotFoundException("File " + file + " does not exist or is not a file!");
+        }
+
+        this.file = file;
+        setLength(BigInteger.valueOf(file.length()));
+    }
+
+    @Override
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public InputStream getStream() {
+        InputStream stream = super.getStream();
+        if (stream == null && file != null && !opened) {
+            try {
+                stream = openStream(file);
+            } catch (FileNotFoundException e) {
+                throw new CmisRuntimeException("Could not open file " + file + ": " + e.getMessage(), e);
+            }
+            opened = true;
+            super.setStream(stream);
+        }
+
+        return stream;
+    }
+
+    /**
+     * Opens the file. Subclasses may wrap the stream.
+     */
+    protected InputStream openStream(File file) throws FileNotFoundException {
+        return new BufferedInputStream(new FileInputStream(file));
+    }
+
+    @Override
+    public void setStream(InputStream stream) {
+        // the content is not the file anymore
+        file = null;
+        super.setStream(stream);
+    }
+
+    @Override
+    public String toString() {
+        return "FileContentStream [file=" + file + "]" + super.toString();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.commons.impl.misc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import org.apache.chemistry.opencmis.commons.impl.ContentCodec;
+import org.apache.chemistry.opencmis.commons.impl.ContentCodecs;
+import org.apache.chemistry.opencmis.commons.impl.IOUtils;
+
+/**
+ * Compares the available content codecs on synthetic Browser Binding
+ * payloads.
+ * <p>
+ * The payloads imitate a getChildren response and a query result with
+ * succinct properties. The benchmark reports the compression ratio and the
+ * encode and decode throughput of each codec.
+ * <p>
+ * Usage: {@code ContentCodecBenchmark [objects] [iterations]}
+ */
+public class ContentCodecBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int objects = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        byte[][] payloads = { createChildren(objects), createQueryResult(objects) };
+        String[] payloadNames = { "children", "query" };
+
+        for (int p = 0; p < payloads.length; p++) {
+            System.out.println(String.format("%s: %d objects, %d bytes", payloadNames[p], objects,
+                    payloads[p].length));
+
+            for (String name : ContentCodecs.getCodecNames()) {
+                ContentCodec codec = ContentCodecs.getCodec(name);
+
+                // warm up
+                for (int i = 0; i < Math.max(1, iterations / 5); i++) {
+                    decode(codec, encode(codec, payloads[p]));
+                }
+
+                byte[] encoded = null;
+                long begin = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    encoded = encode(codec, payloads[p]);
+                }
+                long encodeTime = System.nanoTime() - begin;
+
+                begin = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    decode(codec, encoded);
+                }
+                long decodeTime = System.nanoTime() - begin;
+
+                System.out.println(String.format("  %-8s ratio: %6.2f  encode: %8.1f MB/s  decode: %8.1f MB/s", name,
+                        (double) payloads[p].length / encoded.length,
+                        throughput(payloads[p].length, iterations, encodeTime),
+                        throughput(payloads[p].length, iterations, decodeTime)));
+            }
+        }
+    }
+
+    private static byte[] encode(ContentCodec codec, byte[] data) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(data.length / 4);
+        OutputStream out = codec.encode(bos);
+        out.write(data);
+        out.close();
+        return bos.toByteArray();
+    }
+
+    private static void decode(ContentCodec codec, byte[] data) throws IOException {
+        InputStream in = codec.decode(new ByteArrayInputStream(data));
+        IOUtils.consumeAndClose(in);
+    }
+
+    private static double throughput(long bytes, int iterations, long nanos) {
+        return (bytes * (double) iterations / (1024 * 1024)) / (nanos / 1000000000.0);
+    }
+
+    private static byte[] createChildren(int objects) {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"objects\":[");
+        for (int i = 0; i < objects; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"object\":{\"properties\":{");
+            appendProperty(sb, "cmis:objectId", "id", "\"" + Long.toHexString(random.nextLong()) + "\"", false);
+            appendProperty(sb, "cmis:name", "string", "\"Document " + i + ".pdf\"", true);
+            appendProperty(sb, "cmis:objectTypeId", "id", "\"cmis:document\"", true);
+            appendProperty(sb, "cmis:baseTypeId", "id", "\"cmis:document\"", true);
+            appendProperty(sb, "cmis:createdBy", "string", "\"user" + random.nextInt(20) + "\"", true);
+            appendProperty(sb, "cmis:creationDate", "datetime",
+                    String.valueOf(1500000000000L + random.nextInt(1000000000)), true);
+            appendProperty(sb, "cmis:contentStreamLength", "integer", String.valueOf(random.nextInt(10000000)), true);
+            appendProperty(sb, "cmis:contentStreamMimeType", "string", "\"application/pdf\"", true);
+            appendProperty(sb, "cmis:isLatestVersion", "boolean", "true", true);
+            sb.append("},\"allowableActions\":{\"canDeleteObject\":true,\"canUpdateProperties\":true,"
+                    + "\"canGetContentStream\":true,\"canCheckOut\":" + random.nextBoolean() + "}}}");
+        }
+        sb.append("],\"hasMoreItems\":false,\"numItems\":").append(objects).append('}');
+
+        return IOUtils.toUTF8Bytes(sb.toString());
+    }
+
+    private static void appendProperty(StringBuilder sb, String id, String type, String value, boolean comma) {
+        if (comma) {
+            sb.append(',');
+        }
+        sb.append('"').append(id).append("\":{\"id\":\"").append(id).append("\",\"localName\":\"").append(id)
+                .append("\",\"displayName\":\"").append(id).append("\",\"queryName\":\"").append(id)
+                .append("\",\"type\":\"").append(type).append("\",\"cardinality\":\"single\",\"value\":")
+                .append(value).append('}');
+    }
+
+    private static byte[] createQueryResult(int objects) {
+        Random random = new Random(4711);
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"results\":[");
+        for (int i = 0; i < objects; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"succinctProperties\":{\"cmis:objectId\":\"").append(Long.toHexString(random.nextLong()))
+                    .append("\",\"cmis:name\":\"Report ").append(random.nextInt(100000))
+                    .append("\",\"cmis:lastModificationDate\":").append(1500000000000L + random.nextInt(1000000000))
+                    .append(",\"cmis:lastModifiedBy\":\"user").append(random.nextInt(20)).append("\"}}");
+        }
+        sb.append("],\"hasMoreItems\":true,\"numItems\":").append(objects * 10).append('}');
+
+        return IOUtils.toUTF8Bytes(sb.toString());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.commons.impl.misc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.apache.chemistry.opencmis.commons.impl.ContentCodec;
+import org.apache.chemistry.opencmis.commons.impl.ContentCodecs;
+import org.apache.chemistry.opencmis.commons.impl.IOUtils;
+import org.junit.Test;
+
+public class ContentCodecsTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            sb.append("{\"cmis:objectId\":\"").append(i).append("\",\"cmis:name\":\"document ").append(i % 17)
+                    .append("\"}\n");
+        }
+        byte[] data = IOUtils.toUTF8Bytes(sb.toString());
+
+        for (String name : ContentCodecs.getCodecNames()) {
+            ContentCodec codec = ContentCodecs.getCodec(name);
+
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            OutputStream out = codec.encode(encoded);
+            out.write(data);
+            out.close();
+            assertTrue(name, encoded.size() < data.length / 4);
+
+            InputStream in = codec.decode(new ByteArrayInputStream(encoded.toByteArray()));
+            ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+            IOUtils.copy(in, decoded);
+            in.close();
+            assertArrayEquals(name, data, decoded.toByteArray());
+        }
+    }
+
+    @Test
+    public void testCodecs() {
+        assertEquals(ContentCodecs.GZIP, ContentCodecs.getCodec("gzip").getName());
+        assertSame(ContentCodecs.getCodec("gzip"), ContentCodecs.getCodec(" X-GZIP "));
+        assertEquals(ContentCodecs.DEFLATE, ContentCodecs.getCodec("deflate").getName());
+        assertNull(ContentCodecs.getCodec("unknown"));
+        assertNull(ContentCodecs.getCodec(null));
+
+        List<ContentCodec> codecs = ContentCodecs.getCodecs("deflate, unknown, gzip, deflate");
+        assertEquals(2, codecs.size());
+        assertEquals(ContentCodecs.DEFLATE, codecs.get(0).getName());
+        assertEquals(ContentCodecs.GZIP, codecs.get(1).getName());
+
+        assertEquals("gzip,deflate", ContentCodecs.getAcceptEncoding("gzip,unknown,deflate"));
+        assertNull(ContentCodecs.getAcceptEncoding("unknown"));
+        assertNull(ContentCodecs.getAcceptEncoding(null));
+    }
+
+    @Test
+    public void testNegotiate() {
+        List<ContentCodec> preferred = ContentCodecs.getCodecs("deflate,gzip");
+
+        assertEquals(ContentCodecs.DEFLATE, ContentCodecs.negotiate("gzip, deflate", preferred).getName());
+        assertEquals(ContentCodecs.GZIP, ContentCodecs.negotiate("gzip", preferred).getName());
+        assertEquals(ContentCodecs.GZIP, ContentCodecs.negotiate("x-gzip", preferred).getName());
+        assertEquals(ContentCodecs.GZIP, ContentCodecs.negotiate("deflate;q=0, gzip;q=0.5", preferred).getName());
+        assertEquals(ContentCodecs.DEFLATE, ContentCodecs.negotiate("*", preferred).getName());
+        assertEquals(ContentCodecs.GZIP, ContentCodecs.negotiate("*, deflate;q=0", preferred).getName());
+
+        assertNull(ContentCodecs.negotiate("br", preferred));
+        assertNull(ContentCodecs.negotiate("identity", preferred));
+        assertNull(ContentCodecs.negotiate("*;q=0", preferred));
+        assertNull(ContentCodecs.negotiate(null, preferred));
+        assertNull(ContentCodecs.negotiate("gzip", null));
+    }
+}
@@ -183,6 +183,12 @@ public class CmisAtomPubServlet extends AbstractCmisHttpServlet {
                 checkCsrfToken(request, response, false, false);
             }
 
+            // content encoding
+            if (!METHOD_HEAD.equals(request.getMethod())) {
+                response = wrapCompressedResponse(request, response);
+            }
+            request = wrapCompressedRequest(request);
+
             // split path
             String[] pathFragments = HttpUtils.splitPath(request);
 
@@ -246,12 +252,16 @@ public class CmisAtomPubServlet extends AbstractCmisHttpServlet {
             throw err;
         } finally {
             // we are done.
-            if (flush) {
-                try {
+            try {
+                if (flush) {
+                    finishCompressedResponse(response);
                     response.flushBuffer();
-                } catch (IOException ioe) {
-                    LOG.error("Could not flush resposne: {}", ioe.toString(), ioe);
                 }
+            } catch (IOException ioe) {
+                LOG.error("Could not flush resposne: {}", ioe.toString(), ioe);
+            } finally {
+                // free the encoder, also if the response could not be finished
+                releaseCompressedResponse(response);
             }
         }
     }
@@ -229,6 +229,12 @@ public class CmisBrowserBindingServlet extends AbstractCmisHttpServlet {
                 checkCsrfToken(request, response, false, false);
             }
 
+            // content encoding
+            if (!METHOD_HEAD.equals(request.getMethod())) {
+                response = wrapCompressedResponse(request, response);
+            }
+            request = wrapCompressedRequest(request);
+
             // set default headers
             response.addHeader("Cache-Control", "private, max-age=0");
             response.addHeader("Server", ServerVersion.OPENCMIS_SERVER);
@@ -313,12 +319,16 @@ public class CmisBrowserBindingServlet extends AbstractCmisHttpServlet {
             }
 
             // we are done.
-            if (flush) {
-                try {
+            try {
+                if (flush) {
+                    finishCompressedResponse(response);
                     response.flushBuffer();
-                } catch (IOException ioe) {
-                    LOG.error("Could not flush resposne: {}", ioe.toString(), ioe);
                 }
+            } catch (IOException ioe) {
+                LOG.error("Could not flush resposne: {}", ioe.toString(), ioe);
+            } finally {
+                // free the encoder, also if the response could not be finished
+                releaseCompressedResponse(response);
             }
         }
     }
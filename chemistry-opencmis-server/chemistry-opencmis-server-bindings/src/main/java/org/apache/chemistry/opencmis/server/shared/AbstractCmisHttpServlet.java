@@ -18,6 +18,9 @@
  */
 package org.apache.chemistry.opencmis.server.shared;
 
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import javax.servlet.ServletConfig;
@@ -28,27 +31,36 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.chemistry.opencmis.commons.enums.CmisVersion;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisInvalidArgumentException;
 import org.apache.chemistry.opencmis.commons.exceptions.CmisPermissionDeniedException;
 import org.apache.chemistry.opencmis.commons.impl.ClassLoaderUtil;
 import org.apache.chemistry.opencmis.commons.impl.Constants;
+import org.apache.chemistry.opencmis.commons.impl.ContentCodec;
+import org.apache.chemistry.opencmis.commons.impl.ContentCodecs;
 import org.apache.chemistry.opencmis.commons.server.CallContext;
 import org.apache.chemistry.opencmis.commons.server.CmisServiceFactory;
 import org.apache.chemistry.opencmis.server.impl.CallContextImpl;
 import org.apache.chemistry.opencmis.server.impl.CmisRepositoryContextListener;
 import org.apache.chemistry.opencmis.server.impl.browser.BrowserCallContextImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public abstract class AbstractCmisHttpServlet extends HttpServlet {
 
     public static final String PARAM_CALL_CONTEXT_HANDLER = "callContextHandler";
     public static final String PARAM_CMIS_VERSION = "cmisVersion";
+    public static final String PARAM_COMPRESSION = "compression";
 
     private static final long serialVersionUID = 1L;
 
+    private static final Logger LOG = LoggerFactory.getLogger(AbstractCmisHttpServlet.class);
+
     private CmisServiceFactory factory;
     private String binding;
     private CmisVersion cmisVersion;
     private CallContextHandler callContextHandler;
     private CsrfManager csrfManager;
+    private List<ContentCodec> compressionCodecs = Collections.emptyList();
 
     @Override
     public void init(ServletConfig config) throws ServletException {
@@ -66,6 +78,17 @@ public abstract class AbstractCmisHttpServlet extends HttpServlet {
 
         // set up CSRF manager
         csrfManager = new CsrfManager(config);
+
+        // set up compression
+        String compression = config.getInitParameter(PARAM_COMPRESSION);
+        if (compression != null) {
+            compressionCodecs = ContentCodecs.getCodecs(compression);
+            for (String name : compression.split(",")) {
+                if (name.trim().length() > 0 && ContentCodecs.getCodec(name) == null) {
+                    LOG.warn("Content coding '{}' is not available and will not be used.", name.trim());
+                }
+            }
+        }
     }
 
     /**
@@ -127,6 +150,72 @@ public abstract class AbstractCmisHttpServlet extends HttpServlet {
         csrfManager.check(req, resp, isRepositoryInfoRequest, isContentRequest);
     }
 
+    /**
+     * Returns the content codecs configured for this servlet, the most
+     * preferred first. The list is empty if compression is not enabled.
+     */
+    protected List<ContentCodec> getCompressionCodecs() {
+        return compressionCodecs;
+    }
+
+    /**
+     * Decodes the request body if the request has a content encoding and
+     * compression is enabled.
+     */
+    protected HttpServletRequest wrapCompressedRequest(HttpServletRequest request) {
+        if (compressionCodecs.isEmpty()) {
+            return request;
+        }
+
+        String encoding = request.getHeader("Content-Encoding");
+        if (encoding == null || encoding.trim().length() == 0 || "identity".equalsIgnoreCase(encoding.trim())) {
+            return request;
+        }
+
+        ContentCodec codec = ContentCodecs.getCodec(encoding);
+        if (codec == null) {
+            throw new CmisInvalidArgumentException("Unsupported content encoding: " + encoding);
+        }
+
+        return new DecompressingHttpServletRequestWrapper(request, codec);
+    }
+
+    /**
+     * Encodes the response body if compression is enabled and the client
+     * accepts one of the configured content codings.
+     */
+    protected HttpServletResponse wrapCompressedResponse(HttpServletRequest request, HttpServletResponse response) {
+        ContentCodec codec = ContentCodecs.negotiate(request.getHeader("Accept-Encoding"), compressionCodecs);
+        if (codec == null) {
+            return response;
+        }
+
+        return new CompressingHttpServletResponseWrapper(response, codec);
+    }
+
+    /**
+     * Finishes the encoding of a response that has been wrapped by
+     * {@link #wrapCompressedResponse(HttpServletRequest, HttpServletResponse)}
+     * .
+     */
+    protected void finishCompressedResponse(HttpServletResponse response) throws IOException {
+        if (response instanceof CompressingHttpServletResponseWrapper) {
+            ((CompressingHttpServletResponseWrapper) response).finish();
+        }
+    }
+
+    /**
+     * Releases the encoder of a response that has been wrapped by
+     * {@link #wrapCompressedResponse(HttpServletRequest, HttpServletResponse)}
+     * . Must be called at the end of every request, also if the response could
+     * not be finished.
+     */
+    protected void releaseCompressedResponse(HttpServletResponse response) {
+        if (response instanceof CompressingHttpServletResponseWrapper) {
+            ((CompressingHttpServletResponseWrapper) response).release();
+        }
+    }
+
     /**
      * Creates a {@link CallContext} object from a servlet request.
      */
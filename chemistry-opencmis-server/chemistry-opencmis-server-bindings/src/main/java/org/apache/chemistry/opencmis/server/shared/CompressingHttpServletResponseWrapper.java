@@ -0,0 +1,368 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.server.shared;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.apache.chemistry.opencmis.commons.impl.ContentCodec;
+
+/**
+ * Response wrapper that encodes the response body with a content codec.
+ * <p>
+ * The decision is made when the first byte is written. Responses without a
+ * body, partial content, responses that already have a content encoding and
+ * content types that are usually compressed (images, audio, video, archives)
+ * are not encoded. {@link #finish()} must be called at the end of the request
+ * and {@link #release()} must be called in any case, because encoders can
+ * hold native memory.
+ */
+public class CompressingHttpServletResponseWrapper extends HttpServletResponseWrapper {
+
+    private static final String[] INCOMPRESSIBLE_TYPES = { "image/", "audio/", "video/", "application/zip",
+            "application/gzip", "application/x-gzip", "application/zstd", "application/x-7z-compressed",
+            "application/x-rar-compressed", "application/x-bzip2", "application/x-xz" };
+
+    private final ContentCodec codec;
+    private CompressingOutputStream stream;
+    private PrintWriter writer;
+    private Boolean compress;
+    private boolean encodingHeaderSet;
+    private long contentLength = -1;
+
+    public CompressingHttpServletResponseWrapper(HttpServletResponse response, ContentCodec codec) {
+        super(response);
+        this.codec = codec;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called!");
+        }
+
+        return getStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (stream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called!");
+            }
+            writer = new PrintWriter(new OutputStreamWriter(getStream(), getCharacterEncoding()));
+        }
+
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (compress == null) {
+            // decide later
+            contentLength = len;
+        } else if (!compress) {
+            super.setContentLengthLong(len);
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name) && value != null) {
+            try {
+                setContentLengthLong(Long.parseLong(value.trim()));
+                return;
+            } catch (NumberFormatException e) {
+                // pass it through
+            }
+        }
+        super.setHeader(name, value);
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            setHeader(name, value);
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        } else if (stream != null) {
+            stream.flush();
+        }
+
+        super.flushBuffer();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        encodingHeaderSet = false;
+        discard();
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        discard();
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        skipEncoding();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        skipEncoding();
+        super.sendError(sc, msg);
+    }
+
+    /**
+     * Finishes the encoding. Must be called once at the end of the request.
+     */
+    public void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+
+        if (stream != null) {
+            stream.finish();
+        } else if (compress == null && contentLength >= 0) {
+            super.setContentLengthLong(contentLength);
+        }
+    }
+
+    /**
+     * Releases the encoder. Data that has not been encoded yet is discarded.
+     * Must be called at the end of the request, also if {@link #finish()} has
+     * failed or has not been called.
+     */
+    public void release() {
+        if (stream != null) {
+            stream.release();
+        }
+    }
+
+    private CompressingOutputStream getStream() throws IOException {
+        if (stream == null) {
+            stream = new CompressingOutputStream(super.getOutputStream());
+        }
+
+        return stream;
+    }
+
+    private void discard() {
+        // the encoder state is lost with the buffer
+        if (stream != null) {
+            stream.release();
+        }
+        writer = null;
+        stream = null;
+        compress = null;
+    }
+
+    private void skipEncoding() {
+        // the servlet container writes the error page
+        discard();
+        compress = Boolean.FALSE;
+        if (encodingHeaderSet) {
+            super.setHeader("Content-Encoding", null);
+            encodingHeaderSet = false;
+        }
+    }
+
+    private boolean decide() {
+        if (compress != null) {
+            return compress;
+        }
+
+        int status = getStatus();
+        compress = status != SC_NO_CONTENT && status != SC_PARTIAL_CONTENT && status != SC_NOT_MODIFIED
+                && (encodingHeaderSet || getHeader("Content-Encoding") == null) && isCompressible(getContentType());
+
+        if (compress) {
+            if (!encodingHeaderSet) {
+                super.setHeader("Content-Encoding", codec.getName());
+                super.addHeader("Vary", "Accept-Encoding");
+                encodingHeaderSet = true;
+            }
+
+            // the encoded body is a different representation
+            String etag = getHeader("ETag");
+            if (etag != null && !etag.startsWith("W/")) {
+                super.setHeader("ETag", "W/" + etag);
+            }
+        } else if (contentLength >= 0) {
+            super.setContentLengthLong(contentLength);
+        }
+
+        return compress;
+    }
+
+    private static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return true;
+        }
+
+        String ct = contentType.trim().toLowerCase(Locale.ENGLISH);
+        if (ct.startsWith("image/svg")) {
+            return true;
+        }
+
+        for (String type : INCOMPRESSIBLE_TYPES) {
+            if (ct.startsWith(type)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Stream that encodes the data if the response should be compressed.
+     */
+    private class CompressingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream out;
+        private OutputStream target;
+        private boolean finished;
+        private boolean released;
+
+        CompressingOutputStream(ServletOutputStream out) {
+            this.out = out;
+        }
+
+        private OutputStream getTarget() throws IOException {
+            if (target == null) {
+                if (decide()) {
+                    // the servlet container closes the servlet stream
+                    target = codec.encode(new FilterOutputStream(out) {
+                        @Override
+                        public void write(int b) throws IOException {
+                            if (!released) {
+                                out.write(b);
+                            }
+                        }
+
+                        @Override
+                        public void write(byte[] b, int off, int len) throws IOException {
+                            if (!released) {
+                                out.write(b, off, len);
+                            }
+                        }
+
+                        @Override
+                        public void flush() throws IOException {
+                            if (!released) {
+                                out.flush();
+                            }
+                        }
+
+                        @Override
+                        public void close() throws IOException {
+                            flush();
+                        }
+                    });
+                } else {
+                    target = out;
+                }
+            }
+
+            return target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            getTarget().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            getTarget().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (target != null) {
+                target.flush();
+            }
+        }
+
+        void finish() throws IOException {
+            if (target != null && target != out) {
+                target.close();
+                finished = true;
+            } else if (target == null) {
+                decide();
+            }
+        }
+
+        /**
+         * Closes the encoder without sending the rest of the encoded data.
+         */
+        void release() {
+            if (finished) {
+                return;
+            }
+
+            if (target != null && target != out) {
+                released = true;
+                try {
+                    target.close();
+                } catch (IOException e) {
+                    // nothing is sent, the encoder is closed anyway
+                } finally {
+                    released = false;
+                }
+            }
+            target = null;
+        }
+
+        @Override
+        public boolean isReady() {
+            return out.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            out.setWriteListener(listener);
+        }
+    }
+}
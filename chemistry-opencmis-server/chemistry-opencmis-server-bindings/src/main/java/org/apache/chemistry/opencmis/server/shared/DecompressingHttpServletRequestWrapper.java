@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.chemistry.opencmis.server.shared;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+
+import org.apache.chemistry.opencmis.commons.impl.ContentCodec;
+import org.apache.chemistry.opencmis.commons.impl.IOUtils;
+
+/**
+ * Request wrapper that decodes a request body with a content encoding.
+ */
+public class DecompressingHttpServletRequestWrapper extends HttpServletRequestWrapper {
+
+    private final ContentCodec codec;
+    private ServletInputStream stream;
+    private BufferedReader reader;
+
+    public DecompressingHttpServletRequestWrapper(HttpServletRequest request, ContentCodec codec) {
+        super(request);
+        this.codec = codec;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (reader != null) {
+            throw new IllegalStateException("getReader() has already been called!");
+        }
+
+        return getStream();
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if (reader == null) {
+            if (stream != null) {
+                throw new IllegalStateException("getInputStream() has already been called!");
+            }
+            String charset = getCharacterEncoding();
+            reader = new BufferedReader(new InputStreamReader(getStream(), charset == null ? IOUtils.ISO_8859_1
+                    : charset));
+        }
+
+        return reader;
+    }
+
+    @Override
+    public int getContentLength() {
+        // the length of the decoded body is unknown
+        return -1;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return -1;
+    }
+
+    private ServletInputStream getStream() throws IOException {
+        if (stream == null) {
+            final ServletInputStream in = super.getInputStream();
+            final InputStream decoded = codec.decode(in);
+            stream = new ServletInputStream() {
+                private boolean finished;
+
+                @Override
+                public int read() throws IOException {
+                    return check(decoded.read());
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    return check(decoded.read(b, off, len));
+                }
+
+                @Override
+                public void close() throws IOException {
+                    decoded.close();
+                }
+
+                private int check(int n) {
+                    if (n == -1) {
+                        finished = true;
+                    }
+                    return n;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return in.isReady();
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    in.setReadListener(listener);
+                }
+            };
+        }
+
+        return stream;
+    }
+}